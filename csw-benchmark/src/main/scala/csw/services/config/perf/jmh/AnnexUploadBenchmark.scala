@@ -0,0 +1,73 @@
+package csw.services.config.perf.jmh
+
+import java.nio.file.{Files, Paths}
+import java.util.concurrent.TimeUnit
+
+import akka.stream.scaladsl.Source
+import akka.util.ByteString
+import csw.services.config.api.models.ConfigData
+import csw.services.config.server.ServerWiring
+import csw.services.config.server.files.Sha1
+import org.openjdk.jmh.annotations._
+
+import scala.concurrent.Await
+import scala.concurrent.duration.DurationInt
+import scala.util.Random
+
+/**
+ * Tests throughput of storing annex files of `sizeInMiB` MiB, which writes the file to disk while calculating its
+ * SHA-1 in a single pass, and of calculating the SHA-1 alone.
+ */
+// ============================== HOW TO RUN THIS TEST: ====================================
+//
+// all sizes:
+// sbt csw-benchmark/jmh:run -f 1 -wi 3 -i 5 .*AnnexUploadBenchmark.*
+//
+// a single size (for example, 1 GiB):
+// sbt csw-benchmark/jmh:run -f 1 -wi 3 -i 5 -p sizeInMiB=1024 .*AnnexUploadBenchmark.*
+//
+@State(Scope.Benchmark)
+@BenchmarkMode(Array(Mode.Throughput))
+@OutputTimeUnit(TimeUnit.SECONDS)
+class AnnexUploadBenchmark {
+  import AnnexUploadBenchmark._
+
+  @Param(Array("1", "16", "256", "1024"))
+  var sizeInMiB: Int = _
+
+  var wiring: ServerWiring   = _
+  var configData: ConfigData = _
+  var storedSha: String      = _
+
+  @Setup(Level.Trial)
+  def setup(): Unit = {
+    wiring = new ServerWiring
+    val chunk = ByteString(Array.fill[Byte](ChunkSize)(Random.nextInt().toByte))
+    configData = ConfigData.from(Source.repeat(chunk).take(sizeInMiB * ChunksPerMiB), sizeInMiB.toLong * ChunksPerMiB * ChunkSize)
+  }
+
+  // removes the annex file stored by the invocation, so that every upload is stored rather than found existing
+  @TearDown(Level.Invocation)
+  def teardownInvocation(): Unit =
+    if (storedSha != null) {
+      Files.deleteIfExists(Paths.get(wiring.settings.`annex-files-dir`, storedSha.take(2), storedSha.drop(2)))
+      storedSha = null
+    }
+
+  @TearDown(Level.Trial)
+  def teardown(): Unit = Await.result(wiring.actorRuntime.shutdown(), 10.seconds)
+
+  @Benchmark
+  def upload(): String = {
+    storedSha = Await.result(wiring.annexFileService.post(configData), 5.minutes)
+    storedSha
+  }
+
+  @Benchmark
+  def sha1(): String = Await.result(Sha1.fromConfigData(configData)(wiring.actorRuntime.mat), 5.minutes)
+}
+
+object AnnexUploadBenchmark {
+  val ChunkSize: Int    = 64 * 1024
+  val ChunksPerMiB: Int = 1024 * 1024 / ChunkSize
+}
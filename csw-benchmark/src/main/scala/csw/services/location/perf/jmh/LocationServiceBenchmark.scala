@@ -0,0 +1,103 @@
+package csw.services.location.perf.jmh
+
+import java.util.concurrent.TimeUnit
+
+import akka.stream.scaladsl.Sink
+import csw.messages.location.Connection.TcpConnection
+import csw.messages.location.{ComponentId, ComponentType, TrackingEvent}
+import csw.services.location.commons.CswCluster
+import csw.services.location.models.TcpRegistration
+import csw.services.location.scaladsl.{LocationService, LocationServiceFactory}
+import org.openjdk.jmh.annotations._
+
+import scala.concurrent.duration.DurationInt
+import scala.concurrent.Await
+
+/**
+ * Tests latency of LocationService operations on a single node cluster holding `RegisteredLocations` locations.
+ * SampleTime mode reports the p50, p99 and p999 latencies of every operation.
+ */
+// ============================== HOW TO RUN THIS TEST: ====================================
+//
+// single thread:
+// sbt csw-benchmark/jmh:run -f 1 -wi 10 -i 20 .*LocationServiceBenchmark.*
+//
+// multiple threads (for example, 4 threads):
+// sbt csw-benchmark/jmh:run -f 1 -wi 10 -i 20 -t 4 -si true .*LocationServiceBenchmark.*
+//
+@State(Scope.Benchmark)
+@BenchmarkMode(Array(Mode.SampleTime))
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+class LocationServiceBenchmark {
+  import LocationServiceBenchmark._
+
+  var cswCluster: CswCluster           = _
+  var locationService: LocationService = _
+  var registered: TcpConnection        = _
+  var registrationIds: Iterator[Int]   = _
+
+  @Setup(Level.Trial)
+  def setup(): Unit = {
+    cswCluster = CswCluster.make()
+    locationService = LocationServiceFactory.withCluster(cswCluster)
+    val registrations = (1 to RegisteredLocations).map(i ⇒ registration(s"$RegisteredLocationName$i"))
+    Await.result(locationService.registerAll(registrations), 30.seconds)
+    registered = registrations.head.connection
+  }
+
+  @Setup(Level.Iteration)
+  def setupIteration(): Unit = registrationIds = Iterator.from(1)
+
+  // removes the locations registered by the iteration, so that every iteration starts with `RegisteredLocations`
+  @TearDown(Level.Iteration)
+  def teardownIteration(): Unit = {
+    val connections = locationsRegisteredBy(locationService).map(_.connection)
+    Await.result(locationService.unregisterAll(connections), 30.seconds)
+  }
+
+  @TearDown(Level.Trial)
+  def teardown(): Unit = {
+    Await.result(locationService.shutdown(), 10.seconds)
+  }
+
+  @Benchmark
+  def register(): Unit = {
+    val id = synchronized(registrationIds.next())
+    Await.result(locationService.register(registration(s"$NewLocationName$id")), 5.seconds)
+  }
+
+  @Benchmark
+  def find(): Unit = {
+    Await.result(locationService.find(registered), 5.seconds)
+  }
+
+  @Benchmark
+  def list(): Unit = {
+    Await.result(locationService.list, 5.seconds)
+  }
+
+  @Benchmark
+  def resolve(): Unit = {
+    Await.result(locationService.resolve(registered, 5.seconds), 5.seconds)
+  }
+
+  // latency from starting to track a connection till its first event is received
+  @Benchmark
+  def track(): TrackingEvent = {
+    Await.result(locationService.track(registered).runWith(Sink.head)(cswCluster.mat), 5.seconds)
+  }
+}
+
+object LocationServiceBenchmark {
+  private val RegisteredLocations = 1000
+
+  // component names may not contain '-', and neither prefix is a prefix of the other
+  private val RegisteredLocationName = "registered"
+  private val NewLocationName        = "new"
+
+  private def registration(name: String): TcpRegistration =
+    TcpRegistration(TcpConnection(ComponentId(name, ComponentType.Service)), 1234, null)
+
+  private def locationsRegisteredBy(locationService: LocationService) =
+    Await.result(locationService.list, 5.seconds).filter(_.connection.componentId.name.startsWith(NewLocationName))
+}
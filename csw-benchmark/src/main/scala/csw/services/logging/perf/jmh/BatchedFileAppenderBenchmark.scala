@@ -0,0 +1,65 @@
+package csw.services.logging.perf.jmh
+
+import java.net.InetAddress
+import java.util.concurrent.TimeUnit
+
+import akka.actor.ActorSystem
+import com.typesafe.config.ConfigFactory
+import csw.services.logging.appenders.FileAppender
+import csw.services.logging.internal.LoggingSystem
+import csw.services.logging.perf.mock.LogActorMock
+import org.openjdk.jmh.annotations._
+
+import scala.concurrent.Await
+import scala.concurrent.duration.DurationLong
+
+/**
+ * Tests CSW File Appender performance in batched mode. Compare the results with FileAppenderBenchmark which writes and
+ * flushes each line.
+ */
+// ============================== HOW TO RUN THIS TEST: ====================================
+//
+// single thread:
+// sbt csw-benchmark/jmh:run -f 1 -wi 10 -i 20 .*BatchedFileAppenderBenchmark.*
+//
+// multiple threads (for example, 4 threads):
+// sbt csw-benchmark/jmh:run -f 1 -wi 10 -i 20 -t 4 -si true .*BatchedFileAppenderBenchmark.*
+//
+
+// DEOPSCSW-279: Test logging performance
+@State(Scope.Benchmark)
+class BatchedFileAppenderBenchmark {
+  var actorSystem: ActorSystem   = _
+  var fileAppender: FileAppender = _
+
+  // fsync after each batch, to see the cost of durability
+  @Param(Array("false", "true"))
+  var fsync: String = _
+
+  @Setup(Level.Trial)
+  def setup(): Unit = {
+    val config = ConfigFactory
+      .parseString(s"""
+           |csw-logging.appender-config.file.batch.enabled = true
+           |csw-logging.appender-config.file.batch.fsync = $fsync
+         """.stripMargin)
+      .withFallback(ConfigFactory.load())
+    actorSystem = ActorSystem("logging", config)
+    new LoggingSystem("BatchedFileAppender", "SNAPSHOT-1.0", InetAddress.getLocalHost.getHostName, actorSystem)
+    fileAppender = new FileAppender(actorSystem, LogActorMock.standardHeaders)
+  }
+
+  @TearDown(Level.Trial)
+  def teardown(): Unit = {
+    Await.result(fileAppender.stop(), 5.seconds)
+    Await.result(actorSystem.terminate(), 5.seconds)
+  }
+
+  // The result of this benchmark will be the number of messages accumulated in batches and written to the file
+  @Benchmark
+  @BenchmarkMode(Array(Mode.Throughput))
+  @OutputTimeUnit(TimeUnit.SECONDS)
+  def batchedFileAppenderThroughput(): Unit = {
+    LogActorMock.receiveLog(fileAppender)
+  }
+}
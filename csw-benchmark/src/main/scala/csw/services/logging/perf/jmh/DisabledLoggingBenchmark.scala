@@ -0,0 +1,60 @@
+package csw.services.logging.perf.jmh
+
+import java.util.concurrent.TimeUnit
+
+import csw.services.logging.commons.Constants
+import csw.services.logging.internal.LoggingLevels.INFO
+import csw.services.logging.internal.{ComponentLoggingStateManager, LoggingState}
+import csw.services.logging.scaladsl.{Logger, LoggerImpl}
+import org.openjdk.jmh.annotations._
+
+/**
+ * Tests the cost of log statements below the log level of the component, which are dropped without creating a message.
+ */
+// ============================== HOW TO RUN THIS TEST: ====================================
+//
+// single thread:
+// sbt csw-benchmark/jmh:run -f 1 -wi 10 -i 20 .*DisabledLoggingBenchmark.*
+//
+// multiple threads (for example, 4 threads):
+// sbt csw-benchmark/jmh:run -f 1 -wi 10 -i 20 -t 4 -si true .*DisabledLoggingBenchmark.*
+//
+@State(Scope.Benchmark)
+class DisabledLoggingBenchmark {
+  val componentName        = "tromboneHcd"
+  var componentLog: Logger = _
+  var defaultLog: Logger   = _
+  var person: Person       = _
+
+  @Setup(Level.Trial)
+  def setup(): Unit = {
+    ComponentLoggingStateManager.add(componentName, INFO)
+    componentLog = new LoggerImpl(Some(componentName), None)
+    defaultLog = new LoggerImpl(Some("componentWithDefaultLevel"), None)
+    person = Person.createDummy
+  }
+
+  @Benchmark
+  @BenchmarkMode(Array(Mode.Throughput))
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  def disabledDebugOfComponent(): Unit = {
+    componentLog.debug(s"My name is $person, logging with ByNameAPI@DEBUG Level")
+  }
+
+  @Benchmark
+  @BenchmarkMode(Array(Mode.Throughput))
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  def disabledTraceOfComponentWithDefaultLevel(): Unit = {
+    defaultLog.trace(s"My name is $person, logging with ByNameAPI@TRACE Level")
+  }
+
+  // level check done by loggers before level handles, looking up the map of component log levels for each statement
+  @Benchmark
+  @BenchmarkMode(Array(Mode.Throughput))
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  def componentLogLevelMapLookup(): Boolean = {
+    LoggingState.componentsLoggingState
+      .getOrElse(componentName, LoggingState.componentsLoggingState(Constants.DEFAULT_KEY))
+      .doDebug
+  }
+}
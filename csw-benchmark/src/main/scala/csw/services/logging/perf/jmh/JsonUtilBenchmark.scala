@@ -1,11 +1,15 @@
 package csw.services.logging.perf.jmh
 
+import java.nio.ByteBuffer
+import java.nio.charset.StandardCharsets
 import java.util.concurrent.TimeUnit
 
 import com.fasterxml.jackson.databind.ObjectMapper
 import com.google.gson.Gson
 import com.persist.JsonOps
 import csw.services.logging.commons.LoggingKeys
+import csw.services.logging.internal.LogJsonEncoder
+import csw.services.logging.perf.mock.LogActorMock
 import org.openjdk.jmh.annotations._
 
 import scala.collection.JavaConverters.asJavaIterableConverter
@@ -43,11 +47,13 @@ class JsonUtilBenchmark {
 
   var gson: Gson                        = _
   var jacksonObjectMapper: ObjectMapper = _
+  var logJsonEncoder: LogJsonEncoder    = _
 
   @Setup(Level.Trial)
   def setup() = {
     gson = new Gson()
     jacksonObjectMapper = new ObjectMapper()
+    logJsonEncoder = new LogJsonEncoder(Some(LogActorMock.standardHeaders), sorted = true)
   }
 
   // Benchmark for extracting value of key using persist-json's jgetString method
@@ -92,4 +98,22 @@ class JsonUtilBenchmark {
     jacksonObjectMapper.writeValueAsString(expectedLogMsgJson1.asJava)
   }
 
+  // Benchmark for json bytes formation using persist-json library, this is what FileAppender did before
+  // streaming encoder was introduced: build json object, render it to String and encode the String
+  @Benchmark
+  @BenchmarkMode(Array(Mode.Throughput))
+  @OutputTimeUnit(TimeUnit.SECONDS)
+  def benchPersistCompactBytes(): Array[Byte] = {
+    JsonOps
+      .Compact(LogActorMock.standardHeaders ++ LogActorMock.logToJson(), safe = true, sort = true)
+      .getBytes(StandardCharsets.UTF_8)
+  }
+
+  // Benchmark for json bytes formation by streaming the same log message into a reusable direct buffer
+  @Benchmark
+  @BenchmarkMode(Array(Mode.Throughput))
+  @OutputTimeUnit(TimeUnit.SECONDS)
+  def benchLogJsonEncoder(): ByteBuffer = {
+    logJsonEncoder.encode(LogActorMock.log)
+  }
 }
@@ -1,6 +1,6 @@
 package csw.services.logging.perf.jmh
 
-import java.time.ZonedDateTime
+import java.time.{Instant, ZonedDateTime}
 import java.util.concurrent.TimeUnit
 
 import com.persist.JsonOps
@@ -46,6 +46,24 @@ class TMTDateTimeFormatterBenchmark {
     TMTDateTimeFormatter.format(timestamp)
   }
 
+  // formatting without the cached second prefix, as done before for each log message
+  @Benchmark
+  @BenchmarkMode(Array(Mode.Throughput))
+  @OutputTimeUnit(TimeUnit.SECONDS)
+  def benchISOFormat(): String = {
+    TMTDateTimeFormatter.ISOLogFormatter.format(Instant.ofEpochMilli(timestamp))
+  }
+
+  // every call falls in a new second, hence the cached second prefix is never reused
+  var changingTimestamp: Long = timestamp
+  @Benchmark
+  @BenchmarkMode(Array(Mode.Throughput))
+  @OutputTimeUnit(TimeUnit.SECONDS)
+  def benchTMTFormatNewSecond(): String = {
+    changingTimestamp += 1000
+    TMTDateTimeFormatter.format(changingTimestamp)
+  }
+
   val timestampStr = expectedLogMsgJson1(LoggingKeys.TIMESTAMP)
   @Benchmark
   @BenchmarkMode(Array(Mode.Throughput))
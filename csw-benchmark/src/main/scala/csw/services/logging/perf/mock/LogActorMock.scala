@@ -27,7 +27,9 @@ object LogActorMock {
     new Exception("No Exception")
   )
 
-  def receiveLog(appender: LogAppender) = {
+  def receiveLog(appender: LogAppender) = appender.append(logToJson(), Category.Common.name)
+
+  def logToJson(): JsonObject = {
     var jsonObject = JsonObject(
       LoggingKeys.TIMESTAMP -> TMTDateTimeFormatter.format(log.time),
       LoggingKeys.MESSAGE   → log.msg,
@@ -61,6 +63,6 @@ object LogActorMock {
 
     if (!log.kind.isEmpty)
       jsonObject = jsonObject ++ JsonObject(LoggingKeys.KIND -> log.kind)
-    appender.append(jsonObject, Category.Common.name)
+    jsonObject
   }
 }
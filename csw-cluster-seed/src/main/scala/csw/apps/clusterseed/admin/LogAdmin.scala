@@ -1,5 +1,7 @@
 package csw.apps.clusterseed.admin
 
+import akka.Done
+import akka.actor.CoordinatedShutdown
 import akka.typed.scaladsl.AskPattern._
 import akka.util.Timeout
 import csw.apps.clusterseed.admin.exceptions.{InvalidComponentNameException, UnresolvedAkkaOrHttpLocationException}
@@ -7,7 +9,7 @@ import csw.apps.clusterseed.admin.internal.ActorRuntime
 import csw.apps.clusterseed.commons.ClusterSeedLogger
 import csw.messages.location.Connection.{AkkaConnection, HttpConnection}
 import csw.messages.location.{Connection, Location}
-import csw.services.location.scaladsl.LocationService
+import csw.services.location.scaladsl.{CachingLocationResolver, LocationService}
 import csw.services.logging.internal.LoggingLevels.Level
 import csw.services.logging.internal.{GetComponentLogMetadata, LogControlMessages, SetComponentLogLevel}
 import csw.services.logging.models.LogMetadata
@@ -22,6 +24,14 @@ class LogAdmin(locationService: LocationService, actorRuntime: ActorRuntime) {
 
   import actorRuntime._
 
+  // locations of components administered repeatedly are cached instead of being looked up for every request
+  private val locationResolver = new CachingLocationResolver(locationService)
+
+  coordinatedShutdown.addTask(
+    CoordinatedShutdown.PhaseServiceStop,
+    "releasing-component-locations"
+  )(() ⇒ Future { locationResolver.shutdown(); Done })
+
   def getLogMetadata(componentFullName: String): Future[LogMetadata] = async {
     implicit val timeout: Timeout = Timeout(5.seconds)
     await(getLocation(componentFullName)) match {
@@ -63,8 +73,8 @@ class LogAdmin(locationService: LocationService, actorRuntime: ActorRuntime) {
   private def getLocation(componentFullName: String): Future[Option[Location]] =
     async {
       Connection.from(componentFullName) match {
-        case connection: AkkaConnection ⇒ await(locationService.find(connection))
-        case connection: HttpConnection ⇒ await(locationService.find(connection))
+        case connection: AkkaConnection ⇒ await(locationResolver.find(connection))
+        case connection: HttpConnection ⇒ await(locationResolver.find(connection))
         case _                          ⇒ throw InvalidComponentNameException(componentFullName)
       }
     }
@@ -16,7 +16,7 @@ import scala.concurrent.Future
  * This class represents the contents of the files being managed.
  * It is wraps an Akka streams of ByteString
  */
-class ConfigData private (val source: Source[ByteString, Any], val length: Long) {
+class ConfigData private[config] (val source: Source[ByteString, Any], val length: Long) {
 
   /**
    * Returns a future string by reading the source.
@@ -0,0 +1,223 @@
+package csw.services.config.client.internal
+
+import java.nio.file.{Files, NoSuchFileException, Path, StandardCopyOption}
+import java.security.MessageDigest
+import java.{util ⇒ ju}
+
+import akka.NotUsed
+import akka.http.scaladsl.model.Uri
+import akka.http.scaladsl.model.headers.EntityTag
+import akka.stream.scaladsl.{FileIO, Keep, Sink, Source}
+import akka.util.ByteString
+import csw.services.config.api.models.ConfigData
+import csw.services.config.client.commons.ConfigClientLogger
+import csw.services.logging.scaladsl.Logger
+
+import scala.collection.JavaConverters.asScalaIteratorConverter
+import scala.concurrent.Future
+import scala.util.control.NonFatal
+
+/**
+ * Local copies of the annex files downloaded from the config server. A copy is kept in the given directory under the
+ * SHA-1 of its content, which the server serves as entity tag, hence a single copy serves every uri of the same
+ * content. An index of the uris requested recently tells the copy to offer the server for a uri, so that the next
+ * request of the uri is answered from the copy when the server reports that its entity tag still matches.
+ *
+ * The least recently used copies are deleted to keep the copies within `maxSize` bytes. Only strong entity tags which
+ * are a SHA-1 are kept, and only once the SHA-1 of the downloaded content matches, so that a copy is never read from a
+ * path given by the server. Copies left by previous runs are checked against their SHA-1 before their first use.
+ *
+ * @param dir directory of the local copies
+ * @param maxSize maximum number of bytes of the local copies
+ * @param actorRuntime actor runtime
+ */
+class AnnexCache(dir: Path, maxSize: Long, actorRuntime: ActorRuntime) {
+  import AnnexCache._
+  import actorRuntime._
+
+  val log: Logger = ConfigClientLogger.getLogger
+
+  // both access ordered, so that iteration starts from the least recently used entry
+  private val shas = new ju.LinkedHashMap[String, String](16, 0.75f, true) {
+    override def removeEldestEntry(eldest: ju.Map.Entry[String, String]): Boolean = size() > MaxUris
+  }
+  private val copies     = new ju.LinkedHashMap[String, Long](16, 0.75f, true)
+  private var copiesSize = 0L
+  // copies left by previous runs, whose content is not checked yet
+  private val unverified = new ju.HashSet[String]
+
+  loadCopies()
+
+  /**
+   * Returns the entity tag of the local copy of the file served at the uri, if any
+   */
+  def eTag(uri: Uri): Option[EntityTag] = synchronized {
+    Option(shas.get(key(uri))).filter(copies.containsKey).map(EntityTag(_))
+  }
+
+  /**
+   * Returns the local copy with the given entity tag, unless it was deleted meanwhile or its content does not match its
+   * SHA-1. The copy is read once the returned data is consumed, from the given source instead if it was deleted
+   * meanwhile to make room for other copies.
+   */
+  def get(eTag: EntityTag, ifDeleted: ⇒ Source[ByteString, NotUsed]): Future[Option[ConfigData]] = {
+    val sha = eTag.tag
+    lookup(sha) match {
+      case Some((path, length, verified)) ⇒
+        val matchesF = if (verified) Future.successful(true) else verify(sha, path)
+        matchesF.map { matches ⇒
+          if (matches)
+            Some(ConfigData.from(Source.single(path).flatMapConcat(read(_, ifDeleted)), length))
+          else None
+        }
+      case None ⇒ Future.successful(None)
+    }
+  }
+
+  // the copy is opened once read, hence it may have been deleted to make room for other copies meanwhile
+  private def read(path: Path, ifDeleted: ⇒ Source[ByteString, NotUsed]): Source[ByteString, Any] =
+    if (Files.exists(path)) FileIO.fromPath(path).recoverWithRetries(1, { case _: NoSuchFileException ⇒ ifDeleted })
+    else ifDeleted
+
+  // path, length and whether the content of the copy was checked, makes the copy the most recently used
+  private def lookup(sha: String): Option[(Path, Long, Boolean)] = synchronized {
+    if (copies.containsKey(sha)) {
+      val path = pathOf(sha)
+      if (Files.exists(path)) Some((path, copies.get(sha), !unverified.contains(sha)))
+      else {
+        log.warn(s"Local copy of annex file $sha was deleted")
+        remove(sha)
+        None
+      }
+    } else None
+  }
+
+  // a copy whose content does not match its name is deleted, so that the file is downloaded again
+  private def verify(sha: String, path: Path): Future[Boolean] =
+    FileIO
+      .fromPath(path)
+      .runWith(Sink.fold(MessageDigest.getInstance("SHA-1"))(digest))
+      .map(digester ⇒ hex(digester.digest()) == sha)
+      .recover { case NonFatal(_) ⇒ false }
+      .map { matches ⇒
+        synchronized {
+          if (matches) unverified.remove(sha)
+          else if (copies.containsKey(sha)) {
+            log.warn(s"Local copy of annex file $sha does not match its SHA-1")
+            remove(sha)
+            delete(sha)
+          }
+        }
+        matches
+      }
+
+  /**
+   * Returns config data streaming the given source of the file served at the uri, which also writes the source to a
+   * new local copy once completely streamed, unless the file is bigger than all the copies or its entity tag is not a
+   * SHA-1
+   */
+  def store(uri: Uri, eTag: EntityTag, length: Long, source: Source[ByteString, Any]): ConfigData =
+    if (eTag.weak || !Sha1Pattern.matcher(eTag.tag).matches() || length > maxSize) ConfigData.from(source, length)
+    else {
+      val tempPath = Files.createTempFile(Files.createDirectories(dir), s"${eTag.tag}-", ".tmp")
+      val storingSource = source
+        .alsoToMat(FileIO.toPath(tempPath))(Keep.right)
+        .alsoToMat(Sink.fold(MessageDigest.getInstance("SHA-1"))(digest))(Keep.both)
+        .mapMaterializedValue {
+          case (resultF, digesterF) ⇒
+            resultF.zip(digesterF).foreach {
+              case (ioResult, digester) ⇒
+                if (ioResult.wasSuccessful && ioResult.count == length && hex(digester.digest()) == eTag.tag)
+                  keep(uri, eTag.tag, tempPath, length)
+                else Files.deleteIfExists(tempPath)
+            }
+            resultF
+        }
+      ConfigData.from(storingSource, length)
+    }
+
+  // a copy is never replaced, since its content is the one of its name, hence it is never read while being written
+  private def keep(uri: Uri, sha: String, tempPath: Path, length: Long): Unit = synchronized {
+    try {
+      if (copies.containsKey(sha)) Files.deleteIfExists(tempPath)
+      else {
+        Files.move(tempPath, pathOf(sha), StandardCopyOption.REPLACE_EXISTING)
+        add(sha, length)
+      }
+      shas.put(key(uri), sha)
+    } catch {
+      case NonFatal(ex) ⇒
+        log.error(s"Failed to keep a local copy of $uri", ex = ex)
+        Files.deleteIfExists(tempPath)
+    }
+  }
+
+  private def add(sha: String, length: Long): Unit = {
+    copies.put(sha, length)
+    copiesSize += length
+    // entries are read through the iterator, since reads of an access ordered map reorder it
+    val leastRecentlyUsed = copies.entrySet().iterator()
+    while (copiesSize > maxSize) {
+      val evicted = leastRecentlyUsed.next()
+      copiesSize -= evicted.getValue
+      leastRecentlyUsed.remove()
+      unverified.remove(evicted.getKey)
+      delete(evicted.getKey)
+    }
+  }
+
+  private def remove(sha: String): Unit = {
+    copiesSize -= copies.remove(sha)
+    unverified.remove(sha)
+  }
+
+  private def delete(sha: String): Unit =
+    try Files.deleteIfExists(pathOf(sha))
+    catch { case NonFatal(ex) ⇒ log.warn(s"Failed to delete local copy of annex file $sha", ex = ex) }
+
+  // copies left by previous runs are kept, the least recently modified being evicted first
+  private def loadCopies(): Unit =
+    if (Files.isDirectory(dir)) {
+      val files = Files.list(dir)
+      try files
+        .iterator()
+        .asScala
+        .map(_.toFile)
+        .filter(file ⇒ file.isFile && Sha1Pattern.matcher(file.getName).matches())
+        .toList
+        .sortBy(_.lastModified())
+        .foreach { file ⇒
+          synchronized {
+            unverified.add(file.getName)
+            add(file.getName, file.length())
+          }
+        } finally files.close()
+    }
+
+  private def pathOf(sha: String): Path = dir.resolve(sha)
+
+  // the uris of the same file served by other config servers share the local copy
+  private def key(uri: Uri): String = uri.toRelative.toString
+}
+
+object AnnexCache {
+  private val MaxUris     = 1000
+  private val Sha1Pattern = "[0-9a-f]{40}".r.pattern
+  private val HexDigits   = "0123456789abcdef".toCharArray
+
+  private def digest(digester: MessageDigest, bytes: ByteString): MessageDigest = {
+    bytes.asByteBuffers.foreach(digester.update)
+    digester
+  }
+
+  private def hex(bytes: Array[Byte]): String = {
+    val chars = new Array[Char](bytes.length * 2)
+    var i     = 0
+    while (i < bytes.length) {
+      chars(2 * i) = HexDigits((bytes(i) >> 4) & 0x0F)
+      chars(2 * i + 1) = HexDigits(bytes(i) & 0x0F)
+      i += 1
+    }
+    new String(chars)
+  }
+}
@@ -1,12 +1,17 @@
 package csw.services.config.client.internal
 
+import java.nio.file.Paths
 import java.nio.{file ⇒ jnio}
 import java.time.Instant
 
+import akka.NotUsed
 import akka.http.scaladsl.Http
 import akka.http.scaladsl.model.Uri.{Path, Query}
 import akka.http.scaladsl.model._
+import akka.http.scaladsl.model.headers._
 import akka.http.scaladsl.unmarshalling.Unmarshal
+import akka.stream.scaladsl.Source
+import akka.util.ByteString
 import csw.commons.http.ErrorResponse
 import csw.services.config.api.commons.BinaryUtils
 import csw.services.config.api.exceptions.{FileAlreadyExists, FileNotFound, InvalidInput}
@@ -19,6 +24,7 @@ import csw.services.logging.scaladsl.Logger
 
 import scala.async.Async._
 import scala.concurrent.Future
+import scala.util.control.NonFatal
 
 /**
  * Scala Client for using configuration service
@@ -33,6 +39,15 @@ class ConfigClient(configServiceResolver: ConfigServiceResolver, actorRuntime: A
   import JsonSupport._
   import actorRuntime._
 
+  private val `csw-config-client`      = actorSystem.settings.config.getConfig("csw-config-client")
+  private val `annex-download-retries` = `csw-config-client`.getInt("annex-download-retries")
+
+  private val annexCache = new AnnexCache(
+    Paths.get(`csw-config-client`.getString("annex-cache-dir")),
+    `csw-config-client`.getBytes("annex-cache-size"),
+    actorRuntime
+  )
+
   private def configUri(path: jnio.Path): Future[Uri] = baseUri(Path / "config" ++ Path / Path(path.toString))
   private def activeConfig(path: jnio.Path)           = baseUri(Path / "active-config" ++ Path / Path(path.toString))
   private def activeConfigVersion(path: jnio.Path)    = baseUri(Path / "active-version" ++ Path / Path(path.toString))
@@ -199,8 +214,11 @@ class ConfigClient(configServiceResolver: ConfigServiceResolver, actorRuntime: A
     )
   }
 
-  private def get(uri: Uri): Future[Option[ConfigData]] = async {
-    val request = HttpRequest(uri = uri)
+  // annex files are served with an entity tag, which skips the download of files matching the local copy, unless the
+  // local copy is deleted or found corrupted before being read
+  private def get(uri: Uri, useLocalCopy: Boolean = true): Future[Option[ConfigData]] = async {
+    val localETag = if (useLocalCopy) annexCache.eTag(uri) else None
+    val request   = HttpRequest(uri = uri, headers = localETag.map(`If-None-Match`(_)).toList)
     log.info("Sending HTTP request", Map("request" → request.toString()))
     val response = await(Http().singleRequest(request))
 
@@ -208,8 +226,21 @@ class ConfigClient(configServiceResolver: ConfigServiceResolver, actorRuntime: A
 
     await(
       handleResponse(response) {
+        case StatusCodes.NotModified if localETag.isDefined ⇒
+          log.debug(s"Reading unchanged annex file of $uri from local copy")
+          response.discardEntityBytes()
+          annexCache.get(localETag.get, downloaded(uri)).flatMap {
+            case Some(configData) ⇒ Future.successful(Some(configData))
+            case None             ⇒ get(uri, useLocalCopy = false)
+          }
         case StatusCodes.OK if lengthOption.isDefined ⇒
-          Future.successful(Some(ConfigData.from(response.entity.dataBytes, lengthOption.get)))
+          val configData = response.header[ETag] match {
+            case Some(ETag(eTag)) ⇒
+              val source = resumable(uri, eTag, lengthOption.get, response.entity.dataBytes)
+              annexCache.store(uri, eTag, lengthOption.get, source)
+            case None ⇒ ConfigData.from(response.entity.dataBytes, lengthOption.get)
+          }
+          Future.successful(Some(configData))
         case StatusCodes.OK ⇒
           //Not consuming the file content will block the connection.
           response.entity.discardBytes()
@@ -221,6 +252,51 @@ class ConfigClient(configServiceResolver: ConfigServiceResolver, actorRuntime: A
     )
   }
 
+  // content of the file downloaded again, for a local copy deleted before being read
+  private def downloaded(uri: Uri): Source[ByteString, NotUsed] =
+    Source.fromFuture(get(uri, useLocalCopy = false)).flatMapConcat {
+      case Some(configData) ⇒ configData.source
+      case None             ⇒ Source.failed(FileNotFound(s"File does not exist at uri=$uri"))
+    }
+
+  // an interrupted download of an annex file is resumed from the bytes received so far, as long as the file is unchanged
+  private def resumable(
+      uri: Uri,
+      eTag: EntityTag,
+      length: Long,
+      dataBytes: Source[ByteString, Any]
+  ): Source[ByteString, Any] = {
+    var received = 0L
+    def counted(source: Source[ByteString, Any]): Source[ByteString, NotUsed] =
+      source.mapMaterializedValue(_ ⇒ NotUsed).map { bytes ⇒
+        received += bytes.length
+        bytes
+      }
+
+    counted(dataBytes).recoverWithRetries(
+      `annex-download-retries`, {
+        case NonFatal(ex) if received < length ⇒
+          log.warn(s"Resuming download of $uri from byte $received", ex = ex)
+          counted(Source.fromFutureSource(getFrom(uri, eTag, received)))
+      }
+    )
+  }
+
+  private def getFrom(uri: Uri, eTag: EntityTag, offset: Long): Future[Source[ByteString, Any]] = async {
+    val request = HttpRequest(uri = uri, headers = List(Range(ByteRange.fromOffset(offset)), `If-Range`(eTag)))
+    log.info("Sending HTTP request", Map("request" → request.toString()))
+    val response = await(Http().singleRequest(request))
+
+    response.status match {
+      case StatusCodes.PartialContent ⇒ response.entity.dataBytes
+      case status ⇒
+        response.discardEntityBytes()
+        val runtimeException = new RuntimeException(s"Download of $uri can not be resumed, server responded with $status")
+        log.error(runtimeException.getMessage, ex = runtimeException)
+        throw runtimeException
+    }
+  }
+
   private def handleResponse[T](response: HttpResponse)(pf: PartialFunction[StatusCode, Future[T]]): Future[T] = {
     def contentF = Unmarshal(response).to[ErrorResponse]
 
@@ -1,8 +1,10 @@
 package csw.services.config.client.internal
 
+import akka.Done
+import akka.actor.CoordinatedShutdown
 import akka.http.scaladsl.model.Uri
 import csw.services.config.client.commons.{ConfigClientLogger, ConfigServiceConnection}
-import csw.services.location.scaladsl.LocationService
+import csw.services.location.scaladsl.{CachingLocationResolver, LocationService}
 import csw.services.logging.scaladsl.Logger
 
 import scala.async.Async._
@@ -10,19 +12,33 @@ import scala.concurrent.Future
 import scala.concurrent.duration.DurationDouble
 
 /**
- * Resolves the location of server hosting the configuration service
+ * Resolves the location of server hosting the configuration service. The location is cached and kept up to date by
+ * tracking it, so that requests to the configuration service do not query the location service every time. The tracking
+ * stops when the actor system of the actor runtime shuts down.
  */
 class ConfigServiceResolver(locationService: LocationService, actorRuntime: ActorRuntime) {
   val log: Logger = ConfigClientLogger.getLogger
 
   import actorRuntime.ec
 
+  private val locationResolver = new CachingLocationResolver(locationService)
+
+  CoordinatedShutdown(actorRuntime.actorSystem).addTask(
+    CoordinatedShutdown.PhaseServiceStop,
+    "releasing-config-service-location"
+  )(() ⇒ Future { shutdown(); Done })
+
   def uri: Future[Uri] = async {
-    val location = await(locationService.resolve(ConfigServiceConnection.value, 5.seconds)).getOrElse(
+    val location = await(locationResolver.resolve(ConfigServiceConnection.value, 5.seconds)).getOrElse(
       throw new RuntimeException(
         s"config service connection=${ConfigServiceConnection.value.name} can not be resolved"
       )
     )
     Uri(location.uri.toString)
   }
+
+  /**
+   * Stops tracking the location of the configuration service
+   */
+  def shutdown(): Unit = locationResolver.shutdown()
 }
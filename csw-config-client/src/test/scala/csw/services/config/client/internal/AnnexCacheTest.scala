@@ -0,0 +1,121 @@
+package csw.services.config.client.internal
+
+import java.nio.file.{Files, Paths}
+import java.security.MessageDigest
+
+import akka.http.scaladsl.model.Uri
+import akka.http.scaladsl.model.headers.EntityTag
+import akka.stream.scaladsl.Source
+import akka.util.ByteString
+import csw.services.config.server.commons.TestFutureExtension.RichFuture
+import org.scalatest.concurrent.Eventually
+import org.scalatest.{BeforeAndAfterAll, BeforeAndAfterEach, FunSuite, Matchers}
+
+import scala.collection.JavaConverters.asScalaIteratorConverter
+
+class AnnexCacheTest extends FunSuite with Matchers with Eventually with BeforeAndAfterEach with BeforeAndAfterAll {
+  private val actorRuntime = new ActorRuntime()
+  import actorRuntime._
+
+  private val cacheDir = Paths.get("/tmp/csw-config-client-annex-test")
+
+  private def sha(content: String): String =
+    MessageDigest.getInstance("SHA-1").digest(content.getBytes).map("%02x" format _).mkString
+
+  private def download(cache: AnnexCache, uri: Uri, content: String, eTag: String = ""): String = {
+    val tag = if (eTag.isEmpty) sha(content) else eTag
+    cache.store(uri, EntityTag(tag), content.length.toLong, Source.single(ByteString(content))).toStringF.await
+  }
+
+  private def localCopy(cache: AnnexCache, content: String): Option[String] =
+    cache.get(EntityTag(sha(content)), Source.empty).await.map(_.toStringF.await)
+
+  private def localCopies: List[String] =
+    if (Files.isDirectory(cacheDir)) {
+      val files = Files.list(cacheDir)
+      try files.iterator().asScala.map(_.getFileName.toString).toList
+      finally files.close()
+    } else Nil
+
+  override protected def beforeEach(): Unit = localCopies.foreach(name ⇒ Files.delete(cacheDir.resolve(name)))
+
+  override protected def afterAll(): Unit = actorSystem.terminate().await
+
+  test("should keep a single local copy of the same content served at several uris") {
+    val cache = new AnnexCache(cacheDir, 1024, actorRuntime)
+
+    download(cache, Uri("/config/a.bin"), "content") shouldBe "content"
+    download(cache, Uri("/config/a.bin?id=1"), "content") shouldBe "content"
+
+    eventually {
+      cache.eTag(Uri("/config/a.bin")) shouldBe Some(EntityTag(sha("content")))
+      cache.eTag(Uri("/config/a.bin?id=1")) shouldBe Some(EntityTag(sha("content")))
+    }
+    localCopies shouldBe List(sha("content"))
+    localCopy(cache, "content") shouldBe Some("content")
+  }
+
+  test("should not keep files whose entity tag is not the SHA-1 of their content") {
+    val cache = new AnnexCache(cacheDir, 1024, actorRuntime)
+
+    download(cache, Uri("/config/a.bin"), "content", eTag = "../a.bin") shouldBe "content"
+    download(cache, Uri("/config/b.bin"), "content", eTag = sha("other")) shouldBe "content"
+
+    eventually(localCopies shouldBe Nil)
+    cache.eTag(Uri("/config/a.bin")) shouldBe None
+    cache.eTag(Uri("/config/b.bin")) shouldBe None
+    cache.get(EntityTag("../a.bin"), Source.empty).await shouldBe None
+  }
+
+  test("should delete the least recently used local copies beyond the maximum size") {
+    val cache = new AnnexCache(cacheDir, 8, actorRuntime)
+
+    download(cache, Uri("/config/a.bin"), "aaaa")
+    download(cache, Uri("/config/b.bin"), "bbbb")
+    eventually(localCopies.toSet shouldBe Set(sha("aaaa"), sha("bbbb")))
+
+    localCopy(cache, "aaaa") shouldBe Some("aaaa")
+    download(cache, Uri("/config/c.bin"), "cccc")
+
+    eventually(localCopies.toSet shouldBe Set(sha("aaaa"), sha("cccc")))
+    cache.eTag(Uri("/config/b.bin")) shouldBe None
+    download(cache, Uri("/config/d.bin"), "too big for the cache")
+    localCopies.toSet shouldBe Set(sha("aaaa"), sha("cccc"))
+  }
+
+  test("should forget local copies deleted before being read and reload the remaining ones") {
+    val cache = new AnnexCache(cacheDir, 1024, actorRuntime)
+    download(cache, Uri("/config/a.bin"), "aaaa")
+    download(cache, Uri("/config/b.bin"), "bbbb")
+    eventually(localCopies.toSet shouldBe Set(sha("aaaa"), sha("bbbb")))
+
+    Files.delete(cacheDir.resolve(sha("aaaa")))
+
+    localCopy(cache, "aaaa") shouldBe None
+    cache.eTag(Uri("/config/a.bin")) shouldBe None
+    localCopy(new AnnexCache(cacheDir, 1024, actorRuntime), "bbbb") shouldBe Some("bbbb")
+  }
+
+  test("should read a local copy deleted after being returned from the given source") {
+    val cache = new AnnexCache(cacheDir, 1024, actorRuntime)
+    download(cache, Uri("/config/a.bin"), "aaaa")
+    eventually(localCopies shouldBe List(sha("aaaa")))
+
+    val configData = cache.get(EntityTag(sha("aaaa")), Source.single(ByteString("downloaded"))).await.get
+    Files.delete(cacheDir.resolve(sha("aaaa")))
+
+    configData.toStringF.await shouldBe "downloaded"
+  }
+
+  test("should delete local copies left by previous runs whose content does not match their SHA-1") {
+    Files.createDirectories(cacheDir)
+    Files.write(cacheDir.resolve(sha("aaaa")), "aaaa".getBytes)
+    Files.write(cacheDir.resolve(sha("bbbb")), "corrupted".getBytes)
+
+    val cache = new AnnexCache(cacheDir, 1024, actorRuntime)
+
+    localCopy(cache, "aaaa") shouldBe Some("aaaa")
+    localCopy(cache, "bbbb") shouldBe None
+    localCopies shouldBe List(sha("aaaa"))
+  }
+}
@@ -39,4 +39,18 @@ class ConfigServiceResolverTest extends FunSuite with Matchers with MockitoSugar
 
     actualUri.toString() shouldEqual uri.toString
   }
+
+  test("should resolve config service only once for many requests") {
+    val mockedLocationService  = mock[LocationService]
+    val uri                    = new URI(s"http://config-host:4000")
+    val resolvedConfigLocation = Future(Some(LocationFactory.http(ConfigServiceConnection.value, uri)))
+    when(mockedLocationService.resolve(ConfigServiceConnection.value, 5.seconds)).thenReturn(resolvedConfigLocation)
+
+    val configServiceResolver = new ConfigServiceResolver(mockedLocationService, actorRuntime)
+    Await.result(configServiceResolver.uri, 2.seconds)
+    val actualUri = Await.result(configServiceResolver.uri, 2.seconds)
+
+    actualUri.toString() shouldEqual uri.toString
+    verify(mockedLocationService, times(1)).resolve(ConfigServiceConnection.value, 5.seconds)
+  }
 }
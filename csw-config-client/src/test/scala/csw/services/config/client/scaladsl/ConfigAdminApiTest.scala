@@ -1,6 +1,6 @@
 package csw.services.config.client.scaladsl
 
-import java.nio.file.Paths
+import java.nio.file.{Files, Paths}
 
 import csw.services.config.api.exceptions.InvalidInput
 import csw.services.config.api.models.{ConfigData, FileType}
@@ -11,15 +11,17 @@ import csw.services.config.server.files.Sha1
 import csw.services.config.server.{ConfigServiceTest, ServerWiring}
 import csw.services.location.commons.ClusterAwareSettings
 import csw.services.location.scaladsl.LocationServiceFactory
+import org.scalatest.concurrent.Eventually
 
 // DEOPSCSW-138: Split Config API into Admin API and Client API
 // DEOPSCSW-80: HTTP based access for configuration file
-class ConfigAdminApiTest extends ConfigServiceTest {
+class ConfigAdminApiTest extends ConfigServiceTest with Eventually {
 
   private val clientLocationService = LocationServiceFactory.withSettings(ClusterAwareSettings.onPort(3552))
 
-  private val serverWiring = ServerWiring.make(ClusterAwareSettings.joinLocal(3552))
-  private val httpService  = serverWiring.httpService
+  override protected def makeServerWiring(): ServerWiring = ServerWiring.make(ClusterAwareSettings.joinLocal(3552))
+
+  private val httpService = serverWiring.httpService
 
   private val actorRuntime = new ActorRuntime()
   import actorRuntime._
@@ -86,4 +88,19 @@ class ConfigAdminApiTest extends ConfigServiceTest {
       configService.list(pattern = Some("?i)")).await
     }
   }
+
+  test("should keep a local copy of annex files to skip downloads of unchanged files") {
+    val filePath   = Paths.get("/test/sample.conf")
+    val configData = ConfigData.fromString(configValue1)
+    val sha        = Sha1.fromConfigData(configData).await
+    val cacheDir   = Paths.get(actorSystem.settings.config.getString("csw-config-client.annex-cache-dir"))
+
+    configService.create(filePath, configData, annex = true, "annex file").await
+    configService.getLatest(filePath).await.get.toStringF.await shouldBe configValue1
+
+    eventually {
+      Files.walk(cacheDir).anyMatch(_.getFileName.toString == sha) shouldBe true
+    }
+    configService.getLatest(filePath).await.get.toStringF.await shouldBe configValue1
+  }
 }
@@ -5,7 +5,7 @@ import com.typesafe.config.{Config, ConfigFactory}
 import csw.services.config.api.scaladsl.ConfigService
 import csw.services.config.server.files._
 import csw.services.config.server.http.{ConfigHandlers, ConfigServiceRoute, HttpService}
-import csw.services.config.server.svn.{SvnConfigService, SvnRepo}
+import csw.services.config.server.svn.{SvnCache, SvnConfigService, SvnRepo, SvnSessionPool}
 import csw.services.location.commons.ClusterSettings
 import csw.services.location.scaladsl.{LocationService, LocationServiceFactory}
 
@@ -20,17 +20,20 @@ class ServerWiring {
   lazy val actorSystem: ActorSystem = clusterSettings.system
   lazy val actorRuntime             = new ActorRuntime(actorSystem, settings)
   lazy val annexFileRepo            = new AnnexFileRepo(actorRuntime.blockingIoDispatcher)
-  lazy val svnRepo                  = new SvnRepo(settings, actorRuntime.blockingIoDispatcher)
+  lazy val svnCache                 = new SvnCache(settings.`content-cache-size`)
+  lazy val svnSessionPool           = new SvnSessionPool(settings)
+  lazy val svnRepo                  = new SvnRepo(settings, svnCache, svnSessionPool, actorRuntime.blockingIoDispatcher)
 
-  lazy val annexFileService             = new AnnexFileService(settings, annexFileRepo, actorRuntime)
-  lazy val configService: ConfigService = new SvnConfigService(settings, annexFileService, actorRuntime, svnRepo)
+  lazy val annexFileService = new AnnexFileService(settings, annexFileRepo, actorRuntime)
+  lazy val configService: ConfigService =
+    new SvnConfigService(settings, annexFileService, actorRuntime, svnRepo, svnCache)
 
   lazy val locationService: LocationService = LocationServiceFactory.withSystem(actorSystem)
 
   lazy val configHandlers     = new ConfigHandlers
   lazy val configServiceRoute = new ConfigServiceRoute(configService, actorRuntime, configHandlers)
 
-  lazy val httpService: HttpService = new HttpService(locationService, configServiceRoute, settings, actorRuntime)
+  lazy val httpService: HttpService = new HttpService(locationService, configServiceRoute, settings, actorRuntime, svnSessionPool)
 }
 
 object ServerWiring {
@@ -23,6 +23,10 @@ class Settings(config: Config) {
   def `service-port`: Int              = `csw-config-server`.getInt("service-port")
   val `blocking-io-dispatcher`: String = `csw-config-server`.getString("blocking-io-dispatcher")
   val `annex-min-file-size`: Long      = `csw-config-server`.getBytes("annex-min-file-size")
+  val `annex-chunk-size`: Int          = `csw-config-server`.getBytes("annex-chunk-size").toInt
+  val `content-cache-size`: Long       = `csw-config-server`.getBytes("content-cache-size")
+  val `svn-session-pool-size`: Int     = `csw-config-server`.getInt("svn-session-pool-size")
+  val `metrics-jmx`: Boolean           = `csw-config-server`.getBoolean("metrics.jmx")
   val `max-content-length`: String     = `akka.http.server.parsing`.getString("max-content-length")
 
   val repositoryFile: File               = Paths.get(`repository-dir`).toFile
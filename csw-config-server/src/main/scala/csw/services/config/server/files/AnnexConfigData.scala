@@ -0,0 +1,36 @@
+package csw.services.config.server.files
+
+import java.nio.file.Path
+
+import akka.stream.scaladsl.{FileIO, Source}
+import akka.util.ByteString
+import csw.services.config.api.models.ConfigData
+
+/**
+ * Config data of a file of the annex directory, which is served with the SHA-1 of its content as entity tag and by
+ * byte range. It holds the path of the file on the server, hence it is never sent to clients as such.
+ *
+ * @param path path of the file in the annex directory
+ * @param sha1 SHA-1 of the content of the file
+ * @param chunkSize number of bytes read from the file at a time
+ */
+class AnnexConfigData(path: Path, val sha1: String, chunkSize: Int)
+    extends ConfigData(FileIO.fromPath(path, chunkSize), path.toFile.length()) {
+
+  /**
+   * Returns the given number of bytes of the file, read from the given offset of the file
+   */
+  def slice(offset: Long, count: Long): Source[ByteString, Any] =
+    FileIO
+      .fromPath(path, chunkSize, offset)
+      .statefulMapConcat { () ⇒
+        var remaining = count
+        def take(bytes: ByteString): List[ByteString] = {
+          val chunk = bytes.take(math.min(remaining, bytes.length.toLong).toInt)
+          remaining -= chunk.length
+          List(chunk)
+        }
+        take
+      }
+      .takeWhile(_.nonEmpty)
+}
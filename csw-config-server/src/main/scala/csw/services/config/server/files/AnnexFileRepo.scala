@@ -1,5 +1,6 @@
 package csw.services.config.server.files
 
+import java.nio.channels.FileChannel
 import java.nio.file._
 
 import akka.dispatch.MessageDispatcher
@@ -21,4 +22,11 @@ class AnnexFileRepo(blockingIoDispatcher: MessageDispatcher) {
     Future(Files.move(source, target, StandardCopyOption.ATOMIC_MOVE))
   def createTempFile(prefix: String, suffix: String): Future[Path] = Future(Files.createTempFile(prefix, suffix))
 
+  // forces the content of the file to the storage device, so that it survives a crash once the file is moved
+  def sync(path: Path): Future[Unit] = Future {
+    val channel = FileChannel.open(path, StandardOpenOption.WRITE)
+    try channel.force(true)
+    finally channel.close()
+  }
+
 }
@@ -37,26 +37,16 @@ class AnnexFileService(settings: Settings, fileRepo: AnnexFileRepo, actorRuntime
       log.debug(s"Creating directory at ${outPath.getParent.toString}")
       await(fileRepo.createDirectories(outPath.getParent))
       await(fileRepo.move(tempFilePath, outPath))
-      log.debug("Validating if annex file is created with intended contents")
-      if (await(validate(sha, outPath))) {
-        sha
-      } else {
-        log.debug(
-          s"Deleting annex file from path ${outPath.toString} and temporary file from path ${tempFilePath.toString}"
-        )
-        await(fileRepo.delete(outPath))
-        await(fileRepo.delete(tempFilePath))
-        throw new RuntimeException(s" Error in creating file for $sha")
-      }
+      sha
     }
   }
 
-  def get(sha: String): Future[Option[ConfigData]] = async {
+  def get(sha: String): Future[Option[AnnexConfigData]] = async {
     val repoFilePath = makePath(settings.`annex-files-dir`, sha)
 
     log.debug(s"Checking if annex file exists at ${repoFilePath.toString}")
     if (await(fileRepo.exists(repoFilePath))) {
-      Some(ConfigData.fromPath(repoFilePath))
+      Some(new AnnexConfigData(repoFilePath, sha, settings.`annex-chunk-size`))
     } else {
       None
     }
@@ -71,23 +61,27 @@ class AnnexFileService(settings: Settings, fileRepo: AnnexFileRepo, actorRuntime
   }
 
   /**
-   * Verifies that the given file's content matches the SHA-1 id
+   * Writes the config data to a temporary file and calculates its SHA-1 in a single pass over the data. The file is
+   * synced to disk once completely written, hence it can be moved to the annex directory without being read again.
    *
-   * @param id   the SHA-1 of the file
-   * @param path the file to check
-   * @return true if the file is valid
+   * @param configData the data to save
+   * @return the temporary file and the SHA-1 of its content
    */
-  def validate(id: String, path: Path): Future[Boolean] = async {
-    id == await(Sha1.fromPath(path))
-  }
-
   def saveAndSha(configData: ConfigData): Future[(Path, String)] = async {
     val path = await(fileRepo.createTempFile("config-service-overize-", ".tmp"))
+    // the SHA-1 is calculated in its own stage, concurrently with the writes to the file
     val (resultF, shaF) = configData.source
       .alsoToMat(FileIO.toPath(path))(Keep.right)
-      .toMat(Sha1.sink)(Keep.both)
+      .toMat(Sha1.sink.async)(Keep.both)
       .run()
-    await(resultF).status.get
+    val ioResult = await(resultF)
+    if (!ioResult.wasSuccessful || ioResult.count != configData.length) {
+      log.debug(s"Deleting temporary file from path ${path.toString}")
+      await(fileRepo.delete(path))
+      ioResult.status.get
+      throw new RuntimeException(s" Error in creating file, ${ioResult.count} of ${configData.length} bytes written")
+    }
+    await(fileRepo.sync(path))
     (path, await(shaF))
   }
 
@@ -29,13 +29,25 @@ object Sha1 {
     val sha1Digester = MessageDigest.getInstance("SHA-1")
     Flow[ByteString]
       .fold(sha1Digester) { (digester, bs) =>
-        digester.update(bs.toArray)
+        // digests the buffers backing the byte string, without copying them to a new array
+        bs.asByteBuffers.foreach(digester.update)
         digester
       }
-      .mapConcat(_.digest().toList)
-      .map(_ & 0xFF)
-      .map("%02x" format _)
-      .toMat(Sink.fold("")(_ + _))(Keep.right)
+      .map(digester ⇒ hex(digester.digest()))
+      .toMat(Sink.head)(Keep.right)
+  }
+
+  private val HexDigits = "0123456789abcdef".toCharArray
+
+  private[files] def hex(bytes: Array[Byte]): String = {
+    val chars = new Array[Char](bytes.length * 2)
+    var i     = 0
+    while (i < bytes.length) {
+      chars(2 * i) = HexDigits((bytes(i) >> 4) & 0x0F)
+      chars(2 * i + 1) = HexDigits(bytes(i) & 0x0F)
+      i += 1
+    }
+    new String(chars)
   }
 
 }
@@ -24,12 +24,12 @@ class ConfigServiceRoute(
     handleExceptions(configHandlers.jsonExceptionHandler) {
       handleRejections(configHandlers.jsonRejectionHandler) {
         prefix("config") { filePath ⇒
-          (get & rejectEmptyResponse) {
+          get {
             (dateParam & idParam) {
               case (Some(date), _) ⇒
-                complete(configService.getByTime(filePath, date))
-              case (_, Some(id)) ⇒ complete(configService.getById(filePath, id))
-              case (_, _)        ⇒ complete(configService.getLatest(filePath))
+                completeConfigData(configService.getByTime(filePath, date))
+              case (_, Some(id)) ⇒ completeConfigData(configService.getById(filePath, id))
+              case (_, _)        ⇒ completeConfigData(configService.getLatest(filePath))
             }
           } ~
           head {
@@ -60,11 +60,11 @@ class ConfigServiceRoute(
             }
           }
         } ~
-        (prefix("active-config") & get & rejectEmptyResponse) { filePath ⇒
+        (prefix("active-config") & get) { filePath ⇒
           dateParam {
             case Some(date) ⇒
-              complete(configService.getActiveByTime(filePath, date))
-            case _ ⇒ complete(configService.getActive(filePath))
+              completeConfigData(configService.getActiveByTime(filePath, date))
+            case _ ⇒ completeConfigData(configService.getActive(filePath))
           }
         } ~
         prefix("active-version") { filePath ⇒
@@ -5,6 +5,7 @@ import akka.actor.CoordinatedShutdown
 import akka.http.scaladsl.Http
 import akka.http.scaladsl.Http.ServerBinding
 import csw.services.config.server.commons.{ConfigServerLogger, ConfigServiceConnection}
+import csw.services.config.server.svn.{SvnSessionPool, SvnSessionPoolJmx}
 import csw.services.config.server.{ActorRuntime, Settings}
 import csw.services.location.commons.ClusterAwareSettings
 import csw.services.location.models._
@@ -21,12 +22,14 @@ import scala.util.control.NonFatal
  * @param configServiceRoute       ConfigServiceRoute instance representing the routes supported by this server
  * @param settings                 Runtime configuration of server
  * @param actorRuntime             ActorRuntime instance wrapper for actor system
+ * @param svnSessionPool           SvnSessionPool instance whose metrics are exposed over JMX while the server runs
  */
 class HttpService(
     locationService: LocationService,
     configServiceRoute: ConfigServiceRoute,
     settings: Settings,
-    actorRuntime: ActorRuntime
+    actorRuntime: ActorRuntime,
+    svnSessionPool: SvnSessionPool
 ) {
 
   import actorRuntime._
@@ -42,6 +45,14 @@ class HttpService(
       s"unregistering-${registrationResult.location}"
     )(() => registrationResult.unregister())
 
+    if (settings.`metrics-jmx`) {
+      SvnSessionPoolJmx.register(svnSessionPool)
+      coordinatedShutdown.addTask(CoordinatedShutdown.PhaseServiceStop, "unregistering-svn-session-pool-mbean") { () ⇒
+        SvnSessionPoolJmx.unregister()
+        Future.successful(Done)
+      }
+    }
+
     log.info(s"Server online at http://${binding.localAddress.getHostName}:${binding.localAddress.getPort}/")
     (binding, registrationResult)
   } recoverWith {
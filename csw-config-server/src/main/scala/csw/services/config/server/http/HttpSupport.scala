@@ -5,8 +5,8 @@ import java.time.Instant
 import java.util.regex.{Pattern, PatternSyntaxException}
 
 import akka.http.scaladsl.marshalling.{Marshaller, ToEntityMarshaller}
-import akka.http.scaladsl.model.headers.HttpEncoding
-import akka.http.scaladsl.model.{ContentTypes, HttpEntity, HttpRequest}
+import akka.http.scaladsl.model.headers._
+import akka.http.scaladsl.model._
 import akka.http.scaladsl.server._
 import akka.http.scaladsl.server.directives.{DebuggingDirectives, LoggingMagnet}
 import akka.http.scaladsl.unmarshalling.{FromEntityUnmarshaller, Unmarshaller}
@@ -14,8 +14,11 @@ import akka.util.ByteString
 import csw.services.config.api.internal.JsonSupport
 import csw.services.config.api.models.{ConfigData, ConfigId, FileType}
 import csw.services.config.server.commons.{ConfigServerLogger, PathValidator}
+import csw.services.config.server.files.AnnexConfigData
 import csw.services.logging.scaladsl.Logger
 
+import scala.concurrent.Future
+
 /**
  * Helper class for ConfigServiceRoute
  */
@@ -72,6 +75,47 @@ trait HttpSupport extends Directives with JsonSupport {
       reject(UnsupportedRequestEncodingRejection(HttpEncoding("All encodings with contentLength value")))
   }
 
+  /**
+   * Completes with the config data if found, else rejects the request. Annex files are served with their SHA-1 as
+   * entity tag, which answers requests with a matching `If-None-Match` with 304 Not Modified, and a single byte `Range`
+   * is served with 206 Partial Content by reading the annex file from the start of the range.
+   */
+  def completeConfigData(configDataF: Future[Option[ConfigData]]): Route = onSuccess(configDataF) {
+    case Some(annexConfigData: AnnexConfigData) ⇒ completeAnnex(annexConfigData)
+    case Some(configData)                       ⇒ complete(configData)
+    case None                                   ⇒ reject
+  }
+
+  // conditional also drops the Range header of requests whose If-Range does not match the entity tag
+  private def completeAnnex(annexConfigData: AnnexConfigData): Route =
+    conditional(EntityTag(annexConfigData.sha1)) {
+      respondWithHeader(`Accept-Ranges`(RangeUnits.Bytes)) {
+        optionalHeaderValuePF { case Range(RangeUnits.Bytes, Seq(range)) ⇒ range } {
+          case Some(range) ⇒ completeRange(annexConfigData, range)
+          case None        ⇒ complete(annexConfigData)
+        }
+      }
+    }
+
+  private def completeRange(annexConfigData: AnnexConfigData, range: ByteRange): Route = {
+    val length = annexConfigData.length
+    val (first, last) = range match {
+      case ByteRange.Slice(from, to)      ⇒ (from, math.min(to, length - 1))
+      case ByteRange.FromOffset(offset)   ⇒ (offset, length - 1)
+      case ByteRange.Suffix(suffixLength) ⇒ (math.max(length - suffixLength, 0), length - 1)
+    }
+    if (first > last)
+      complete(HttpResponse(StatusCodes.RequestedRangeNotSatisfiable, List(`Content-Range`(ContentRange.Unsatisfiable(length)))))
+    else
+      complete(
+        HttpResponse(
+          StatusCodes.PartialContent,
+          List(`Content-Range`(ContentRange(first, last, length))),
+          HttpEntity(ContentTypes.`application/octet-stream`, last - first + 1, annexConfigData.slice(first, last - first + 1))
+        )
+      )
+  }
+
   //This marshaller is used to create a response stream for get/getActive requests
   implicit val configDataMarshaller: ToEntityMarshaller[ConfigData] = Marshaller.opaque { configData =>
     HttpEntity(ContentTypes.`application/octet-stream`, configData.length, configData.source)
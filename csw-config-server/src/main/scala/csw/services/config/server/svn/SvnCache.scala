@@ -0,0 +1,132 @@
+package csw.services.config.server.svn
+
+import java.nio.file.Path
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.atomic.AtomicReference
+import java.{util ⇒ ju}
+
+import csw.services.config.api.models.ConfigId
+
+import scala.concurrent.{ExecutionContext, Future, Promise}
+
+/**
+ * In-memory cache of the reads of config files from the svn repository.
+ *
+ * The contents and stats of files at an existing revision never change, hence they are kept by (path, revision)
+ * until the least recently used ones are evicted to stay within `content-cache-size`. The head revision and the
+ * active versions of files change with every commit, hence they are invalidated by every commit made through
+ * [[SvnRepo]]. Concurrent lookups of the same pointer share a single svn read.
+ *
+ * @note the cache is owned by the [[csw.services.config.server.ServerWiring]] of the repository, hence commits made
+ *       through another wiring of the same repository are not seen by it. It is cleared when the repository is created,
+ *       since revisions of a new repository start again from 0
+ * @param maxContentSize the maximum number of bytes of file contents held by the cache
+ */
+class SvnCache(maxContentSize: Long) {
+  import SvnCache._
+
+  // access ordered, so that iteration starts from the least recently used entry
+  private val contents    = new ju.LinkedHashMap[(Path, Long), Array[Byte]](16, 0.75f, true)
+  private var contentSize = 0L
+  private val stats = new ju.LinkedHashMap[(Path, Long), SvnStat](16, 0.75f, true) {
+    override def removeEldestEntry(eldest: ju.Map.Entry[(Path, Long), SvnStat]): Boolean = size() > MaxStats
+  }
+
+  // incremented on clear, so that lookups started against a previous repository do not fill the cache
+  private var generation = 0L
+
+  private val head           = new AtomicReference[Future[Long]]()
+  private val activeVersions = new ConcurrentHashMap[Path, Future[Option[ConfigId]]]()
+
+  /**
+   * Gets the content of the file at the given existing revision, loading it if not cached
+   */
+  def content(path: Path, revision: Long)(load: ⇒ Future[Array[Byte]])(
+      implicit ec: ExecutionContext
+  ): Future[Array[Byte]] =
+    immutable(contents, (path, revision))(load)(store)
+
+  /**
+   * Gets the stat of the path at the given existing revision, loading it if not cached
+   */
+  def stat(path: Path, revision: Long)(load: ⇒ Future[SvnStat])(implicit ec: ExecutionContext): Future[SvnStat] =
+    immutable(stats, (path, revision))(load)((key, stat) ⇒ stats.put(key, stat))
+
+  /**
+   * Gets the youngest revision of the repository, loading it if not cached since the last commit
+   */
+  def headRevision(load: ⇒ Future[Long])(implicit ec: ExecutionContext): Future[Long] = head.get() match {
+    case null ⇒
+      val loading = Promise[Long]()
+      if (head.compareAndSet(null, loading.future)) {
+        loading.completeWith(load)
+        loading.future.failed.foreach(_ ⇒ head.compareAndSet(loading.future, null))
+        loading.future
+      } else headRevision(load)
+    case cached ⇒ cached
+  }
+
+  /**
+   * Gets the id of the active version of the file, loading it if not cached since the last commit
+   */
+  def activeVersion(path: Path)(load: ⇒ Future[Option[ConfigId]])(
+      implicit ec: ExecutionContext
+  ): Future[Option[ConfigId]] =
+    pointer(activeVersions, path)(load)
+
+  /**
+   * Invalidates the head revision and active versions of files after a commit
+   */
+  def invalidate(): Unit = {
+    head.set(null)
+    activeVersions.clear()
+  }
+
+  /**
+   * Invalidates everything held by the cache after the repository is created
+   */
+  def clear(): Unit = {
+    synchronized {
+      generation += 1
+      contents.clear()
+      contentSize = 0
+      stats.clear()
+    }
+    invalidate()
+  }
+
+  private def immutable[V](entries: ju.Map[(Path, Long), V], key: (Path, Long))(load: ⇒ Future[V])(
+      store: ((Path, Long), V) ⇒ Unit
+  )(implicit ec: ExecutionContext): Future[V] = synchronized((Option(entries.get(key)), generation)) match {
+    case (Some(value), _) ⇒ Future.successful(value)
+    case (None, loadedGeneration) ⇒
+      load.map { value ⇒
+        synchronized(if (generation == loadedGeneration) store(key, value))
+        value
+      }
+  }
+
+  // files bigger than the whole cache are not cached, to not evict everything else for a single file
+  private def store(key: (Path, Long), bytes: Array[Byte]): Unit =
+    if (bytes.length <= maxContentSize && !contents.containsKey(key)) {
+      contents.put(key, bytes)
+      contentSize += bytes.length
+      val leastRecentlyUsed = contents.values().iterator()
+      while (contentSize > maxContentSize) {
+        contentSize -= leastRecentlyUsed.next().length
+        leastRecentlyUsed.remove()
+      }
+    }
+
+  private def pointer[V](pointers: ConcurrentHashMap[Path, Future[V]], path: Path)(load: ⇒ Future[V])(
+      implicit ec: ExecutionContext
+  ): Future[V] = {
+    val loading = pointers.computeIfAbsent(path, _ ⇒ load)
+    loading.failed.foreach(_ ⇒ pointers.remove(path, loading))
+    loading
+  }
+}
+
+object SvnCache {
+  private val MaxStats = 10000
+}
@@ -11,13 +11,18 @@ import csw.services.config.server.commons.ConfigServerLogger
 import csw.services.config.server.files.AnnexFileService
 import csw.services.config.server.{ActorRuntime, Settings}
 import csw.services.logging.scaladsl.Logger
-import org.tmatesoft.svn.core.wc.SVNRevision
 
 import scala.async.Async._
 import scala.concurrent.Future
+import scala.util.Try
 
-class SvnConfigService(settings: Settings, fileService: AnnexFileService, actorRuntime: ActorRuntime, svnRepo: SvnRepo)
-    extends ConfigService {
+class SvnConfigService(
+    settings: Settings,
+    fileService: AnnexFileService,
+    actorRuntime: ActorRuntime,
+    svnRepo: SvnRepo,
+    svnCache: SvnCache
+) extends ConfigService {
 
   import actorRuntime._
 
@@ -73,16 +78,34 @@ class SvnConfigService(settings: Settings, fileService: AnnexFileService, actorR
     }
   }
 
-  // Returns the contents of the given version of the file, if found
-  private def getNormalSize(path: Path, revision: SVNRevision): Future[Option[ConfigData]] = async {
-    val outputStream = new ByteArrayOutputStream()
-    await(svnRepo.getFile(path, revision.getNumber, outputStream))
-    Some(ConfigData.fromBytes(outputStream.toByteArray))
+  // Returns the contents of the file as of its stat, if found
+  private def getContent(path: Path, svnStat: SvnStat): Future[Option[ConfigData]] = svnStat.status match {
+    case PathStatus.NormalSize ⇒
+      log.info(s"Getting normal file at path ${path.toString}")
+      getNormalSize(path, svnStat.lastChangedRevision, svnStat.size)
+    case PathStatus.Annex ⇒
+      log.info(s"Getting annex file at path ${path.toString}")
+      getAnnex(path, svnStat.lastChangedRevision, svnStat.size)
+    case PathStatus.Missing ⇒ Future.successful(None)
   }
 
-  // Get annex files that are stored in the annex server
-  private def getAnnex(path: Path, revision: SVNRevision): Future[Option[ConfigData]] = async {
-    await(getNormalSize(shaFilePath(path), revision)) match {
+  // Returns the contents of the given version of the file of the given size, if found
+  private def getNormalSize(path: Path, revision: Long, size: Long): Future[Option[ConfigData]] = async {
+    val bytes = await(svnCache.content(path, revision)(readFile(path, revision, size)))
+    Some(ConfigData.fromBytes(bytes))
+  }
+
+  // the size known from the stat of the file lets its content be read into a buffer allocated once, unless svn did not
+  // report the size
+  private def readFile(path: Path, revision: Long, size: Long): Future[Array[Byte]] = async {
+    val outputStream = new ByteArrayOutputStream(math.max(size, 0L).toInt)
+    await(svnRepo.getFile(path, revision, outputStream))
+    outputStream.toByteArray
+  }
+
+  // Get annex files that are stored in the annex server, given the size of their sha1 file
+  private def getAnnex(path: Path, revision: Long, shaFileSize: Long): Future[Option[ConfigData]] = async {
+    await(getNormalSize(shaFilePath(path), revision, shaFileSize)) match {
       case None =>
         None
       case Some(configData) =>
@@ -93,17 +116,8 @@ class SvnConfigService(settings: Settings, fileService: AnnexFileService, actorR
 
   private def get(path: Path, configId: Option[ConfigId] = None) =
     async {
-      val svnRevision = await(svnRepo.svnRevision(configId.map(_.id.toLong)))
-
-      await(pathStatus(path, configId)) match {
-        case PathStatus.NormalSize ⇒
-          log.info(s"Getting normal file at path ${path.toString}")
-          await(getNormalSize(path, svnRevision))
-        case PathStatus.Annex ⇒
-          log.info(s"Getting annex file at path ${path.toString}")
-          await(getAnnex(path, svnRevision))
-        case PathStatus.Missing ⇒ None
-      }
+      val revision = await(svnRevision(configId))
+      await(getContent(path, await(stat(path, revision))))
     }
   // If the file exists in the repo, get data of its latest revision
   override def getLatest(path: Path): Future[Option[ConfigData]] = {
@@ -209,19 +223,17 @@ class SvnConfigService(settings: Settings, fileService: AnnexFileService, actorR
     await(setActiveVersion(path, currentVersion.get, comment))
   }
 
-  override def getActive(path: Path): Future[Option[ConfigData]] = {
-
-    def getActiveById(configId: ConfigId): Future[Option[ConfigData]] = async {
-      val d  = await(getLatest(activeFilePath(path)))
-      val id = if (d.isDefined) await(d.get.toStringF) else configId.id
-      await(getById(path, ConfigId(id)))
-    }
-
-    async {
-      await(getCurrentVersion(path)) match {
-        case None           ⇒ None
-        case Some(configId) ⇒ await(getActiveById(configId))
+  // The stat of the latest version is reused when it is the active version, which is the case unless an older version
+  // was set active
+  override def getActive(path: Path): Future[Option[ConfigData]] = async {
+    val current = await(stat(path, await(headRevision)))
+    if (current.status == PathStatus.Missing) None
+    else {
+      val activeStat = await(getActiveVersion(path)) match {
+        case Some(id) if id != ConfigId(current.lastChangedRevision) ⇒ await(stat(path, await(svnRevision(Some(id)))))
+        case _                                                       ⇒ current
       }
+      await(getContent(path, activeStat))
     }
   }
 
@@ -231,12 +243,14 @@ class SvnConfigService(settings: Settings, fileService: AnnexFileService, actorR
     await(getById(path, ConfigId(activeId)))
   }
 
-  override def getActiveVersion(path: Path): Future[Option[ConfigId]] = async {
-    val configData = await(getLatest(activeFilePath(path)))
-    if (configData.isDefined)
-      Some(ConfigId(await(configData.get.toStringF)))
-    else
-      None
+  override def getActiveVersion(path: Path): Future[Option[ConfigId]] = svnCache.activeVersion(path) {
+    async {
+      val configData = await(getLatest(activeFilePath(path)))
+      if (configData.isDefined)
+        Some(ConfigId(await(configData.get.toStringF)))
+      else
+        None
+    }
   }
 
   override def getMetadata: Future[ConfigMetadata] = Future {
@@ -253,16 +267,14 @@ class SvnConfigService(settings: Settings, fileService: AnnexFileService, actorR
     }
 
   private def pathStatus(path: Path, id: Option[ConfigId] = None): Future[PathStatus] = async {
-    val revision = id.map(_.id.toLong)
-    if (await(svnRepo.pathExists(path, revision))) {
-      log.debug(s"Found the type of file at path ${path.toString} as a normal")
-      PathStatus.NormalSize
-    } else if (await(svnRepo.pathExists(shaFilePath(path), revision))) {
-      log.debug(s"Found the type of file at path ${path.toString} as an annex")
-      PathStatus.Annex
-    } else {
-      PathStatus.Missing
-    }
+    await(stat(path, await(svnRevision(id)))).status
+  }
+
+  // Stats at revisions up to the head never change, those after the head change with the next commits
+  private def stat(path: Path, revision: Long): Future[SvnStat] = async {
+    val head = await(headRevision)
+    if (revision >= 0 && revision <= head) await(svnCache.stat(path, revision)(svnRepo.stat(path, revision)))
+    else await(svnRepo.stat(path, revision))
   }
 
   /**
@@ -289,17 +301,18 @@ class SvnConfigService(settings: Settings, fileService: AnnexFileService, actorR
 
   // Returns the current version of the file, if known
   private def getCurrentVersion(path: Path): Future[Option[ConfigId]] = async {
-    await(pathStatus(path)) match {
-      case PathStatus.NormalSize ⇒
-        log.info(s"Getting current version for normal file at path ${path.toString}")
-        await(hist(path, Instant.MIN, Instant.now, 1)).headOption.map(_.id)
-      case PathStatus.Annex ⇒
-        log.info(s"Getting current version for annex file at path ${path.toString}")
-        await(hist(shaFilePath(path), Instant.MIN, Instant.now, 1)).headOption.map(_.id)
-      case PathStatus.Missing ⇒ None
-    }
+    val current = await(stat(path, await(headRevision)))
+    if (current.status == PathStatus.Missing) None else Some(ConfigId(current.lastChangedRevision))
   }
 
+  // Gets the revision of the given id, defaulting to the head revision
+  private def svnRevision(id: Option[ConfigId]): Future[Long] = id match {
+    case Some(configId) ⇒ Future.fromTry(Try(configId.id.toLong))
+    case None           ⇒ headRevision
+  }
+
+  private def headRevision: Future[Long] = svnCache.headRevision(svnRepo.latestRevision())
+
   private def hist(path: Path, from: Instant, to: Instant, maxResults: Int): Future[List[ConfigFileRevision]] = async {
     await(svnRepo.hist(path, from, to, maxResults))
       .map(e => ConfigFileRevision(ConfigId(e.getRevision), e.getMessage, e.getDate.toInstant))
@@ -1,9 +1,10 @@
 package csw.services.config.server.svn
 
 import java.io.{InputStream, OutputStream}
-import java.nio.file.Path
+import java.nio.file.{Path, Paths}
 import java.time.Instant
 import java.util.regex.Pattern
+import java.{util ⇒ ju}
 
 import akka.dispatch.MessageDispatcher
 import csw.services.config.api.models.FileType
@@ -12,26 +13,27 @@ import csw.services.config.server.commons.ConfigServerLogger
 import csw.services.config.server.commons.SVNDirEntryExt.RichSvnDirEntry
 import csw.services.logging.scaladsl.Logger
 import org.tmatesoft.svn.core._
-import org.tmatesoft.svn.core.auth.BasicAuthenticationManager
 import org.tmatesoft.svn.core.internal.io.fs.FSRepositoryFactory
 import org.tmatesoft.svn.core.io.diff.SVNDeltaGenerator
 import org.tmatesoft.svn.core.io.{SVNRepository, SVNRepositoryFactory}
-import org.tmatesoft.svn.core.wc.{SVNClientManager, SVNRevision}
-import org.tmatesoft.svn.core.wc2.{ISvnObjectReceiver, SvnOperationFactory, SvnTarget}
 
+import scala.collection.JavaConverters.collectionAsScalaIterableConverter
 import scala.concurrent.Future
 
 /**
  * Performs file operations on SVN using SvnKit
  * @param settings                  server runtime configuration
+ * @param cache                     cache of the reads from the repository, invalidated by the commits made here
+ * @param sessionPool               sessions to the repository, used by every operation on the repository
  * @param blockingIoDispatcher      dispatcher to be used for blocking operations
  */
-class SvnRepo(settings: Settings, blockingIoDispatcher: MessageDispatcher) {
+class SvnRepo(settings: Settings, cache: SvnCache, sessionPool: SvnSessionPool, blockingIoDispatcher: MessageDispatcher) {
   val log: Logger = ConfigServerLogger.getLogger
 
   private implicit val _blockingIoDispatcher: MessageDispatcher = blockingIoDispatcher
 
-  // Intitialize repository
+  // Intitialize repository. The repository is created on disk rather than through a session, since sessions can only be
+  // opened on an existing repository; the sessions opened on a previous repository are then discarded
   def initSvnRepo(): Unit =
     try {
       // Create the new main repo
@@ -43,45 +45,45 @@ class SvnRepo(settings: Settings, blockingIoDispatcher: MessageDispatcher) {
       // If the repo already exists, print stracktrace and continue to boot
       case ex: SVNException if ex.getErrorMessage.getErrorCode == SVNErrorCode.IO_ERROR ⇒
         log.error(s"Repository already exists at ${settings.svnUrl}", ex = ex)
+    } finally {
+      sessionPool.clear()
+      cache.clear()
     }
 
   // Fetch the file from svn repo and write the contents on outputStream
   def getFile(path: Path, revision: Long, outputStream: OutputStream): Future[Unit] = Future {
-    val svn = svnHandle()
-    try {
+    sessionPool.withSession("getFile", isFixed(revision)) { svn ⇒
       svn.getFile(path.toString, revision, null, outputStream)
-    } finally {
-      svn.closeSession()
     }
   }
 
   def getFileSize(path: Path, revision: Long): Future[Long] = Future {
-    val svn = svnHandle()
-    try {
+    sessionPool.withSession("getFileSize", isFixed(revision)) { svn ⇒
       svn.info(path.toString, revision).getSize
-    } finally {
-      svn.closeSession()
     }
   }
 
   // Adds the given file (and dir if needed) to svn.
   // See http://svn.svnkit.com/repos/svnkit/tags/1.3.5/doc/examples/src/org/tmatesoft/svn/examples/repository/Commit.java.
   def addFile(path: Path, comment: String, data: InputStream): Future[SVNCommitInfo] = Future {
-    val svn = svnHandle()
-    try {
+    try sessionPool.withSession("addFile") { svn ⇒
+      // Missing directories leading to the file are looked up before the edit, which locks the session
+      val missingDirs = Iterator
+        .iterate(path.getParent)(_.getParent)
+        .takeWhile(_ != null)
+        .filterNot(dirExists(svn, _))
+        .toList
+        .reverse
+
       val editor = svn.getCommitEditor(comment, null)
       editor.openRoot(SVNRepository.INVALID_REVISION)
-      val dirPath = path.getParent
 
       var openDirDepth = 1
-      // Recursively add any missing directories leading to the file
-      def addDir(dir: Path): Unit =
-        if (dir != null) {
-          addDir(dir.getParent)
-          if (!dirExists(dir)) {
-            editor.addDir(dir.toString, null, SVNRepository.INVALID_REVISION)
-            openDirDepth += 1
-          }
+      // Add any missing directories leading to the file
+      def addDirs(): Unit =
+        missingDirs.foreach { dir ⇒
+          editor.addDir(dir.toString, null, SVNRepository.INVALID_REVISION)
+          openDirDepth += 1
         }
 
       def closeDir(checksum: String, depth: Int): SVNCommitInfo = {
@@ -91,7 +93,7 @@ class SvnRepo(settings: Settings, blockingIoDispatcher: MessageDispatcher) {
         editor.closeEdit
       }
 
-      addDir(dirPath)
+      addDirs()
       val filePath = path.toString
       editor.addFile(filePath, null, SVNRepository.INVALID_REVISION)
       editor.applyTextDelta(filePath, null)
@@ -100,15 +102,14 @@ class SvnRepo(settings: Settings, blockingIoDispatcher: MessageDispatcher) {
       val checksum = deltaGenerator.sendDelta(filePath, data, editor, true)
       closeDir(checksum, openDirDepth)
     } finally {
-      svn.closeSession()
+      cache.invalidate()
     }
   }
 
   // Modifies the contents of the given file in the repository.
   // See http://svn.svnkit.com/repos/svnkit/tags/1.3.5/doc/examples/src/org/tmatesoft/svn/examples/repository/Commit.java.
   def modifyFile(path: Path, comment: String, data: InputStream) = Future {
-    val svn = svnHandle()
-    try {
+    try sessionPool.withSession("modifyFile") { svn ⇒
       val editor = svn.getCommitEditor(comment, null)
       editor.openRoot(SVNRepository.INVALID_REVISION)
       val filePath = path.toString
@@ -120,29 +121,29 @@ class SvnRepo(settings: Settings, blockingIoDispatcher: MessageDispatcher) {
       editor.closeDir()
       editor.closeEdit
     } finally {
-      svn.closeSession()
+      cache.invalidate()
     }
   }
 
+  // Deletes the given file from the repository
   def delete(path: Path, comment: String): Future[SVNCommitInfo] = Future {
-    val svnOperationFactory = new SvnOperationFactory()
-    try {
-      val remoteDelete = svnOperationFactory.createRemoteDelete()
-      remoteDelete.setSingleTarget(SvnTarget.fromURL(settings.svnUrl.appendPath(path.toString, false)))
-      remoteDelete.setCommitMessage(comment)
-      remoteDelete.run()
+    try sessionPool.withSession("delete") { svn ⇒
+      val editor = svn.getCommitEditor(comment, null)
+      editor.openRoot(SVNRepository.INVALID_REVISION)
+      editor.deleteEntry(path.toString, SVNRepository.INVALID_REVISION)
+      editor.closeDir()
+      editor.closeEdit
     } finally {
-      svnOperationFactory.dispose()
+      cache.invalidate()
     }
   }
 
   def list(fileType: Option[FileType] = None, pattern: Option[String] = None): Future[List[SVNDirEntry]] = Future {
-    val svnOperationFactory = new SvnOperationFactory()
     // svn always stores file in the repo without '/' prefix.
     // Hence if input pattern is provided like '/root/', then prefix '/' need to be striped to get the list of files from root folder.
     val compiledPattern            = pattern.map(pat ⇒ Pattern.compile(pat.stripPrefix("/")))
     var entries: List[SVNDirEntry] = List.empty
-    val receiver: ISvnObjectReceiver[SVNDirEntry] = { (_, entry: SVNDirEntry) ⇒
+    def receive(entry: SVNDirEntry): Unit =
       if (entry.isFile && entry.isNotActiveFile(settings.`active-config-suffix`) && entry
             .matchesFileType(fileType, settings.`sha1-suffix`)) {
         entry.stripAnnexSuffix(settings.`sha1-suffix`)
@@ -150,83 +151,82 @@ class SvnRepo(settings: Settings, blockingIoDispatcher: MessageDispatcher) {
           entries = entry :: entries
         }
       }
+
+    sessionPool.withSession("list") { svn ⇒
+      val revision = svn.getLatestRevision
+      // Recursively lists the entries of the directory with their commit messages, relative to the repository root
+      def listDir(dir: String): Unit = {
+        val dirEntries = new ju.ArrayList[SVNDirEntry]()
+        svn.getDir(dir, revision, true, dirEntries)
+        dirEntries.asScala.foreach { entry ⇒
+          val relativePath = if (dir.isEmpty) entry.getName else s"$dir/${entry.getName}"
+          entry.setRelativePath(relativePath)
+          if (entry.getKind == SVNNodeKind.DIR) listDir(relativePath) else receive(entry)
+        }
+      }
+      listDir("")
     }
-    try {
-      val svnList = svnOperationFactory.createList()
-      svnList.setSingleTarget(SvnTarget.fromURL(settings.svnUrl, SVNRevision.HEAD))
-      svnList.setRevision(SVNRevision.HEAD)
-      svnList.setDepth(SVNDepth.INFINITY)
-      svnList.setReceiver(receiver)
-      svnList.run()
-      entries.sortWith(_.getRelativePath < _.getRelativePath)
-    } finally {
-      svnOperationFactory.dispose()
-    }
+    entries.sortWith(_.getRelativePath < _.getRelativePath)
   }
 
   def hist(path: Path, from: Instant, to: Instant, maxResults: Int): Future[List[SVNLogEntry]] = Future {
-    val clientManager = SVNClientManager.newInstance()
-    var logEntries    = List[SVNLogEntry]()
-    try {
-      val logClient = clientManager.getLogClient
-      val handler: ISVNLogEntryHandler = logEntry =>
-        logEntries = {
-          if (logEntry.getDate.toInstant.isAfter(from) && logEntry.getDate.toInstant.isBefore(to))
-            logEntry :: logEntries
-          else
-            logEntries
-      }
-      logClient.doLog(settings.svnUrl, Array(path.toString), SVNRevision.HEAD, null, null, true, true, maxResults, handler)
-      logEntries.sortWith(_.getRevision > _.getRevision)
-    } finally {
-      clientManager.dispose()
+    var logEntries = List[SVNLogEntry]()
+    val handler: ISVNLogEntryHandler = logEntry =>
+      logEntries = {
+        if (logEntry.getDate.toInstant.isAfter(from) && logEntry.getDate.toInstant.isBefore(to))
+          logEntry :: logEntries
+        else
+          logEntries
     }
+    sessionPool.withSession("hist") { svn ⇒
+      svn.log(Array(path.toString), svn.getLatestRevision, 0, true, true, maxResults, handler)
+    }
+    logEntries.sortWith(_.getRevision > _.getRevision)
   }
 
-  // Gets the svn revision from the given id, defaulting to HEAD
-  def svnRevision(id: Option[Long] = None): Future[SVNRevision] = Future {
-    id match {
-      case Some(value) => SVNRevision.create(value)
-      case None        => SVNRevision.HEAD
-    }
+  // Gets the number of the youngest revision of the repository
+  def latestRevision(): Future[Long] = Future {
+    sessionPool.withSession("latestRevision")(_.getLatestRevision)
   }
 
-  def pathExists(path: Path, id: Option[Long]): Future[Boolean] = Future {
-    checkPath(path, SVNNodeKind.FILE, id.getOrElse(SVNRepository.INVALID_REVISION))
+  // Resolves whether the path is a normal file, an annex file or missing, with its size and last changed revision,
+  // in a single access to the repository
+  def stat(path: Path, revision: Long): Future[SvnStat] = Future {
+    sessionPool.withSession("stat", isFixed(revision)) { svn ⇒
+      def file(filePath: Path): Option[SVNDirEntry] =
+        Option(svn.info(filePath.toString, revision)).filter(_.getKind == SVNNodeKind.FILE)
+
+      def statOf(status: PathStatus, entry: SVNDirEntry): SvnStat = SvnStat(status, entry.getSize, entry.getRevision)
+
+      try {
+        file(path)
+          .map(statOf(PathStatus.NormalSize, _))
+          .orElse(file(Paths.get(s"${path.toString}${settings.`sha1-suffix`}")).map(statOf(PathStatus.Annex, _)))
+          .getOrElse(SvnStat.Missing)
+      } catch {
+        case ex: SVNException if ex.getErrorMessage.getErrorCode == SVNErrorCode.FS_NO_SUCH_REVISION ⇒ SvnStat.Missing
+      }
+    }
   }
 
   // True if the directory path exists in the repository
-  private def dirExists(path: Path): Boolean =
-    checkPath(path, SVNNodeKind.DIR, SVNRepository.INVALID_REVISION)
+  private def dirExists(svn: SVNRepository, path: Path): Boolean =
+    checkPath(svn, path, SVNNodeKind.DIR, SVNRepository.INVALID_REVISION)
 
-  private def checkPath(path: Path, kind: SVNNodeKind, revision: Long): Boolean = {
-    val svn = svnHandle()
+  private def checkPath(svn: SVNRepository, path: Path, kind: SVNNodeKind, revision: Long): Boolean =
     try {
       svn.checkPath(path.toString, revision) == kind
     } catch {
       case ex: SVNException if ex.getErrorMessage.getErrorCode == SVNErrorCode.FS_NO_SUCH_REVISION ⇒ false
-    } finally {
-      svn.closeSession()
     }
-  }
 
-  // Gets an object for accessing the svn repository (not reusing a single instance since not thread safe)
-  private def svnHandle(): SVNRepository = {
-    val svn         = SVNRepositoryFactory.create(settings.svnUrl)
-    val authManager = BasicAuthenticationManager.newInstance(settings.`svn-user-name`, Array[Char]())
-    svn.setAuthenticationManager(authManager)
-    svn
-  }
+  // Reads of a given revision always read the same contents, unlike reads of the head revision
+  private def isFixed(revision: Long): Boolean = revision >= 0
 
   // Test if there're no problems with accessing a repository
   def testConnection(): Unit = {
-    val svn = svnHandle()
-    try {
-      log.debug("Testing svn connection")
-      svn.testConnection()
-    } finally {
-      svn.closeSession()
-    }
+    log.debug("Testing svn connection")
+    sessionPool.withSession("testConnection")(_.testConnection())
   }
 
 }
@@ -0,0 +1,164 @@
+package csw.services.config.server.svn
+
+import java.util.concurrent.atomic.AtomicLong
+import java.util.concurrent.{ConcurrentHashMap, ConcurrentLinkedDeque, Semaphore}
+
+import csw.services.config.server.Settings
+import csw.services.config.server.commons.ConfigServerLogger
+import csw.services.logging.scaladsl.Logger
+import org.tmatesoft.svn.core.auth.BasicAuthenticationManager
+import org.tmatesoft.svn.core.io.{SVNRepository, SVNRepositoryFactory}
+import org.tmatesoft.svn.core.SVNException
+
+import scala.collection.JavaConverters.mapAsScalaConcurrentMapConverter
+import scala.util.control.NonFatal
+
+/**
+ * Bounded pool of reusable sessions to the svn repository. An SVNRepository is not thread safe, hence a session is
+ * used by a single operation at a time and operations wait for a session once `svn-session-pool-size` sessions are
+ * in use.
+ *
+ * Idle sessions are validated before being reused, except by reads of a fixed revision: the contents of an existing
+ * revision never change and a broken session fails the read, which then discards the session. Sessions failing an
+ * operation are closed rather than returned to the pool.
+ *
+ * @note the pool is owned by the [[csw.services.config.server.ServerWiring]] of the repository and is cleared when the
+ *       repository is created, since sessions cache the revisions of the repository they were opened on
+ * @param settings server runtime configuration
+ */
+class SvnSessionPool(settings: Settings) {
+  import SvnSessionPool._
+
+  val log: Logger = ConfigServerLogger.getLogger
+
+  private val size       = settings.`svn-session-pool-size`
+  private val available  = new Semaphore(size, true)
+  private val idle       = new ConcurrentLinkedDeque[Session]()
+  private val generation = new AtomicLong()
+
+  private val acquisitions = new Latency("acquisition")
+  private val operations   = new ConcurrentHashMap[String, Latency]()
+
+  /**
+   * Runs the operation with a session of the pool, waiting for a session if all sessions are in use
+   *
+   * @param operation name of the operation, under which its latency is measured
+   * @param fixedRevision true if the operation only reads a fixed revision, which skips the validation of the session
+   * @param f the operation
+   * @return the result of the operation
+   */
+  def withSession[T](operation: String, fixedRevision: Boolean = false)(f: SVNRepository ⇒ T): T = {
+    val waitStart = System.nanoTime()
+    available.acquire()
+    val start = System.nanoTime()
+    acquisitions.record(start - waitStart)
+    try {
+      val session = acquire(validate = !fixedRevision)
+      val result =
+        try f(session.svn)
+        catch {
+          case NonFatal(ex) ⇒
+            close(session)
+            throw ex
+        }
+      release(session)
+      result
+    } finally {
+      available.release()
+      latency(operation).record(System.nanoTime() - start)
+    }
+  }
+
+  /**
+   * Closes the idle sessions and makes the sessions in use closed when released
+   */
+  def clear(): Unit = {
+    generation.incrementAndGet()
+    Iterator.continually(idle.pollFirst()).takeWhile(_ != null).foreach(close)
+  }
+
+  def metrics: SvnSessionMetrics =
+    SvnSessionMetrics(
+      size,
+      size - available.availablePermits(),
+      idle.size(),
+      acquisitions.snapshot,
+      operations.asScala.values.map(_.snapshot).toList.sortBy(_.name)
+    )
+
+  // the most recently released session is reused first, to let sessions beyond the load go idle
+  private def acquire(validate: Boolean): Session = idle.pollFirst() match {
+    case null                                            ⇒ open()
+    case session if session.generation != generation.get ⇒ close(session); acquire(validate)
+    case session if validate && !isValid(session)        ⇒ close(session); acquire(validate)
+    case session                                         ⇒ session
+  }
+
+  private def release(session: Session): Unit =
+    if (session.generation == generation.get) idle.offerFirst(session) else close(session)
+
+  private def isValid(session: Session): Boolean =
+    try {
+      session.svn.testConnection()
+      true
+    } catch {
+      case ex: SVNException ⇒
+        log.warn(s"Discarding broken svn session to ${settings.svnUrl}", ex = ex)
+        false
+    }
+
+  private def open(): Session = {
+    val svn         = SVNRepositoryFactory.create(settings.svnUrl)
+    val authManager = BasicAuthenticationManager.newInstance(settings.`svn-user-name`, Array[Char]())
+    svn.setAuthenticationManager(authManager)
+    Session(svn, generation.get)
+  }
+
+  private def close(session: Session): Unit = session.svn.closeSession()
+
+  private def latency(operation: String): Latency = {
+    val latency = operations.get(operation)
+    if (latency != null) latency else operations.computeIfAbsent(operation, _ ⇒ new Latency(operation))
+  }
+}
+
+object SvnSessionPool {
+  private case class Session(svn: SVNRepository, generation: Long)
+
+  // latencies are measured in nanoseconds and reported in microseconds
+  private class Latency(name: String) {
+    private val count      = new AtomicLong()
+    private val totalNanos = new AtomicLong()
+    private val maxNanos   = new AtomicLong()
+
+    def record(nanos: Long): Unit = {
+      count.incrementAndGet()
+      totalNanos.addAndGet(nanos)
+      maxNanos.accumulateAndGet(nanos, (max, latest) ⇒ math.max(max, latest))
+    }
+
+    def snapshot: SvnLatency = {
+      val n = count.get()
+      SvnLatency(name, n, if (n == 0) 0 else totalNanos.get() / n / 1000, maxNanos.get() / 1000)
+    }
+  }
+}
+
+/**
+ * Latency of svn operations or of the acquisition of sessions, accumulated since the pool was created
+ * @param name name of the operation
+ * @param count number of operations measured
+ * @param meanMicros mean latency in microseconds
+ * @param maxMicros maximum latency in microseconds
+ */
+case class SvnLatency(name: String, count: Long, meanMicros: Long, maxMicros: Long)
+
+/**
+ * Holds the state and counters of the session pool of the svn repository
+ * @param size maximum number of sessions
+ * @param inUse number of sessions in use by operations
+ * @param idle number of open sessions waiting to be reused
+ * @param acquisition time spent by operations waiting for a session
+ * @param operations latency of each svn operation, excluding the wait for a session
+ */
+case class SvnSessionMetrics(size: Int, inUse: Int, idle: Int, acquisition: SvnLatency, operations: List[SvnLatency])
@@ -0,0 +1,60 @@
+package csw.services.config.server.svn
+
+import java.lang.management.ManagementFactory
+import java.util
+import javax.management.ObjectName
+
+import scala.collection.JavaConverters.mapAsJavaMapConverter
+
+/**
+ * JMX view of the session pool of the svn repository, registered as `csw.services.config:type=SvnSessionPool` by a
+ * running config server when `csw-config-server.metrics.jmx` is on. Maps are keyed by svn operation.
+ */
+trait SvnSessionPoolMXBean {
+  def getSize: Int
+  def getInUse: Int
+  def getIdle: Int
+  def getAcquisitionCount: Long
+  def getAcquisitionMeanLatencyMicros: Long
+  def getAcquisitionMaxLatencyMicros: Long
+  def getOperationCount: util.Map[String, java.lang.Long]
+  def getOperationMeanLatencyMicros: util.Map[String, java.lang.Long]
+  def getOperationMaxLatencyMicros: util.Map[String, java.lang.Long]
+}
+
+/**
+ * Each attribute is read from a fresh snapshot of the metrics of the pool
+ */
+private[server] class SvnSessionPoolJmx(pool: SvnSessionPool) extends SvnSessionPoolMXBean {
+
+  override def getSize: Int  = pool.metrics.size
+  override def getInUse: Int = pool.metrics.inUse
+  override def getIdle: Int  = pool.metrics.idle
+
+  override def getAcquisitionCount: Long             = pool.metrics.acquisition.count
+  override def getAcquisitionMeanLatencyMicros: Long = pool.metrics.acquisition.meanMicros
+  override def getAcquisitionMaxLatencyMicros: Long  = pool.metrics.acquisition.maxMicros
+
+  override def getOperationCount: util.Map[String, java.lang.Long]             = operations(_.count)
+  override def getOperationMeanLatencyMicros: util.Map[String, java.lang.Long] = operations(_.meanMicros)
+  override def getOperationMaxLatencyMicros: util.Map[String, java.lang.Long]  = operations(_.maxMicros)
+
+  private def operations(f: SvnLatency ⇒ Long): util.Map[String, java.lang.Long] =
+    pool.metrics.operations.map(latency ⇒ latency.name → java.lang.Long.valueOf(f(latency))).toMap.asJava
+}
+
+private[server] object SvnSessionPoolJmx {
+  val Name = new ObjectName("csw.services.config:type=SvnSessionPool")
+
+  // a single config server runs in a JVM, the MBean registered by a previous server is replaced
+  def register(pool: SvnSessionPool): Unit = synchronized {
+    val server = ManagementFactory.getPlatformMBeanServer
+    if (server.isRegistered(Name)) server.unregisterMBean(Name)
+    server.registerMBean(new SvnSessionPoolJmx(pool), Name)
+  }
+
+  def unregister(): Unit = synchronized {
+    val server = ManagementFactory.getPlatformMBeanServer
+    if (server.isRegistered(Name)) server.unregisterMBean(Name)
+  }
+}
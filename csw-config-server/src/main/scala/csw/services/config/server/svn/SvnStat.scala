@@ -0,0 +1,16 @@
+package csw.services.config.server.svn
+
+import org.tmatesoft.svn.core.io.SVNRepository
+
+/**
+ * Kind, size and last changed revision of a config file at a revision of the repository
+ *
+ * @param status whether the file is stored in svn, in the annex or is missing
+ * @param size size of the file stored in svn, which is the size of its sha1 file for an annex file
+ * @param lastChangedRevision the revision in which the file was last changed
+ */
+case class SvnStat(status: PathStatus, size: Long, lastChangedRevision: Long)
+
+object SvnStat {
+  val Missing = SvnStat(PathStatus.Missing, 0, SVNRepository.INVALID_REVISION)
+}
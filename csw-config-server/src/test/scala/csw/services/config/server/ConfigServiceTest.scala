@@ -17,7 +17,10 @@ import org.scalatest.{BeforeAndAfterAll, BeforeAndAfterEach, FunSuite, Matchers}
 
 abstract class ConfigServiceTest extends FunSuite with Matchers with BeforeAndAfterEach with BeforeAndAfterAll {
 
-  private val serverWiring = new ServerWiring
+  // the repository is created and read through the same wiring, which owns the cache of its reads
+  protected def makeServerWiring(): ServerWiring = new ServerWiring
+
+  protected val serverWiring: ServerWiring = makeServerWiring()
 
   private val testFileUtils = new TestFileUtils(serverWiring.settings)
 
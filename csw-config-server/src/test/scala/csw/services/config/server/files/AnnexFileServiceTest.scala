@@ -2,6 +2,8 @@ package csw.services.config.server.files
 
 import java.nio.file.Paths
 
+import akka.stream.scaladsl.Source
+import akka.util.ByteString
 import csw.services.config.api.models.ConfigData
 import csw.services.config.server.ServerWiring
 import csw.services.config.server.commons.TestFileUtils
@@ -43,4 +45,17 @@ class AnnexFileServiceTest extends FunSuite with Matchers with BeforeAndAfterAll
     Sha1.fromConfigData(annexFileService.get(actualSha).await.get).await shouldBe actualSha
   }
 
+  test("sha of data streamed in many chunks") {
+    val chunks = Source(List("a", "b", "c").map(ByteString(_)))
+    Sha1.fromConfigData(ConfigData.from(chunks, 3)).await shouldBe "a9993e364706816aba3e25717850c26c9cd0d89d"
+  }
+
+  test("storing annex file fails when fewer bytes than its length are received") {
+    val truncated = ConfigData.from(Source.single(ByteString("truncated")), 10)
+    val sha       = Sha1.fromConfigData(truncated).await
+
+    intercept[RuntimeException](annexFileService.post(truncated).await)
+    annexFileService.get(sha).await shouldBe None
+  }
+
 }
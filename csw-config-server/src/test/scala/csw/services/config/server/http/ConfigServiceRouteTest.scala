@@ -1,14 +1,17 @@
 package csw.services.config.server.http
 
+import java.nio.file.Paths
 import java.time.Instant
 
 import akka.http.scaladsl.model._
+import akka.http.scaladsl.model.headers._
 import akka.http.scaladsl.server.Route
 import akka.http.scaladsl.testkit.ScalatestRouteTest
 import csw.commons.http.ErrorResponse
 import csw.services.config.api.models.{ConfigData, ConfigFileInfo, ConfigFileRevision, ConfigId, _}
 import csw.services.config.server.ServerWiring
 import csw.services.config.server.commons.TestFileUtils
+import csw.services.config.server.commons.TestFutureExtension.RichFuture
 import org.jboss.netty.logging.{InternalLoggerFactory, Slf4JLoggerFactory}
 import org.scalatest.{BeforeAndAfterAll, BeforeAndAfterEach, FunSuite, Matchers}
 
@@ -587,4 +590,61 @@ class ConfigServiceRouteTest
       responseAs[ConfigMetadata].maxConfigFileSize should not be empty
     }
   }
+
+  test("get - annex files are served with their sha as entity tag") {
+    configService.create(Paths.get("test.conf"), configFile1, annex = true, "commit1").await
+
+    val eTag = Get("/config/test.conf") ~> route ~> check {
+      status shouldBe StatusCodes.OK
+      header[`Accept-Ranges`] shouldBe Some(`Accept-Ranges`(RangeUnits.Bytes))
+      responseAs[String] shouldEqual configValue1
+      header[ETag].get.etag
+    }
+
+    Get("/config/test.conf").withHeaders(`If-None-Match`(eTag)) ~> route ~> check {
+      status shouldBe StatusCodes.NotModified
+    }
+
+    Get("/active-config/test.conf").withHeaders(`If-None-Match`(eTag)) ~> route ~> check {
+      status shouldBe StatusCodes.NotModified
+    }
+
+    Get("/config/test.conf").withHeaders(`If-None-Match`(EntityTag("other"))) ~> route ~> check {
+      status shouldBe StatusCodes.OK
+      responseAs[String] shouldEqual configValue1
+    }
+
+    configService.create(Paths.get("test1.conf"), configFile2, annex = false, "commit1").await
+
+    Get("/config/test1.conf") ~> route ~> check {
+      status shouldBe StatusCodes.OK
+      header[ETag] shouldBe None
+    }
+  }
+
+  test("get - annex files are served by byte range") {
+    configService.create(Paths.get("test.conf"), configFile1, annex = true, "commit1").await
+
+    Get("/config/test.conf").withHeaders(Range(ByteRange(0, 3))) ~> route ~> check {
+      status shouldBe StatusCodes.PartialContent
+      header[`Content-Range`] shouldBe Some(`Content-Range`(ContentRange(0, 3, configValue1.length)))
+      responseAs[String] shouldEqual "axis"
+    }
+
+    Get("/config/test.conf").withHeaders(Range(ByteRange.suffix(12))) ~> route ~> check {
+      status shouldBe StatusCodes.PartialContent
+      responseAs[String] shouldEqual "tromboneAxis"
+    }
+
+    Get("/config/test.conf").withHeaders(Range(ByteRange.fromOffset(configValue1.length.toLong))) ~> route ~> check {
+      status shouldBe StatusCodes.RequestedRangeNotSatisfiable
+      header[`Content-Range`] shouldBe Some(`Content-Range`(ContentRange.Unsatisfiable(configValue1.length.toLong)))
+    }
+
+    // the whole file is served if it changed since the part held by the client was downloaded
+    Get("/config/test.conf").withHeaders(Range(ByteRange(0, 3)), `If-Range`(EntityTag("other"))) ~> route ~> check {
+      status shouldBe StatusCodes.OK
+      responseAs[String] shouldEqual configValue1
+    }
+  }
 }
@@ -0,0 +1,98 @@
+package csw.services.config.server.svn
+
+import java.nio.file.Paths
+import java.util.concurrent.atomic.AtomicInteger
+
+import csw.services.config.api.models.ConfigId
+import csw.services.config.server.commons.TestFutureExtension.RichFuture
+import org.scalatest.{FunSuite, Matchers}
+
+import scala.concurrent.ExecutionContext.Implicits.global
+import scala.concurrent.Future
+
+class SvnCacheTest extends FunSuite with Matchers {
+
+  private val path = Paths.get("/tmt/tcp/redis/text/redis.conf")
+
+  private def newCache(): SvnCache = new SvnCache(maxContentSize = 10)
+
+  private class Loader[T](value: ⇒ T) {
+    val loads             = new AtomicInteger()
+    def load(): Future[T] = Future { loads.incrementAndGet(); value }
+  }
+
+  test("should load the content of a file at a revision only once") {
+    val cache  = newCache()
+    val loader = new Loader("abc".getBytes)
+
+    cache.content(path, 1)(loader.load()).await shouldBe "abc".getBytes
+    cache.content(path, 1)(loader.load()).await shouldBe "abc".getBytes
+    loader.loads.get shouldBe 1
+
+    cache.content(path, 2)(loader.load()).await
+    loader.loads.get shouldBe 2
+  }
+
+  test("should evict the least recently used contents beyond the content cache size") {
+    val cache  = newCache()
+    val loader = new Loader("abcd".getBytes)
+
+    cache.content(path, 1)(loader.load()).await
+    cache.content(path, 2)(loader.load()).await
+    cache.content(path, 1)(loader.load()).await
+    cache.content(path, 3)(loader.load()).await
+    loader.loads.get shouldBe 3
+
+    cache.content(path, 1)(loader.load()).await
+    loader.loads.get shouldBe 3
+    cache.content(path, 2)(loader.load()).await
+    loader.loads.get shouldBe 4
+  }
+
+  test("should not cache contents bigger than the content cache size") {
+    val cache  = newCache()
+    val loader = new Loader(new Array[Byte](11))
+
+    cache.content(path, 1)(loader.load()).await
+    cache.content(path, 1)(loader.load()).await
+    loader.loads.get shouldBe 2
+  }
+
+  test("should keep the head revision and versions of files until the next commit") {
+    val cache        = newCache()
+    val headLoader   = new Loader(5L)
+    val activeLoader = new Loader(Option(ConfigId(3)))
+
+    cache.headRevision(headLoader.load()).await shouldBe 5
+    cache.headRevision(headLoader.load()).await shouldBe 5
+    cache.activeVersion(path)(activeLoader.load()).await shouldBe Some(ConfigId(3))
+    cache.activeVersion(path)(activeLoader.load()).await shouldBe Some(ConfigId(3))
+    headLoader.loads.get shouldBe 1
+    activeLoader.loads.get shouldBe 1
+
+    cache.invalidate()
+
+    cache.headRevision(headLoader.load()).await
+    cache.activeVersion(path)(activeLoader.load()).await
+    headLoader.loads.get shouldBe 2
+    activeLoader.loads.get shouldBe 2
+  }
+
+  test("should not keep failed lookups") {
+    val cache   = newCache()
+    val failure = new RuntimeException("svn is not reachable")
+
+    intercept[RuntimeException](cache.activeVersion(path)(Future.failed(failure)).await) shouldBe failure
+    cache.activeVersion(path)(Future.successful(Some(ConfigId(1)))).await shouldBe Some(ConfigId(1))
+  }
+
+  test("should drop the contents of files when the repository is created") {
+    val cache  = newCache()
+    val loader = new Loader("abc".getBytes)
+
+    cache.content(path, 1)(loader.load()).await
+    cache.clear()
+    cache.content(path, 1)(loader.load()).await
+    loader.loads.get shouldBe 2
+  }
+}
@@ -5,19 +5,13 @@ import java.nio.file.Paths
 import csw.services.config.api.models.ConfigData
 import csw.services.config.api.scaladsl.ConfigService
 import csw.services.config.server.commons.TestFutureExtension.RichFuture
-import csw.services.config.server.{ConfigServiceTest, ServerWiring}
+import csw.services.config.server.ConfigServiceTest
 
 class SvnConfigServiceTest extends ConfigServiceTest {
-  val serverWiring                          = new ServerWiring()
   override val configService: ConfigService = serverWiring.configService
 
   import serverWiring.actorRuntime._
 
-  override protected def afterAll(): Unit = {
-    serverWiring.actorSystem.terminate().await
-    super.afterAll()
-  }
-
   // DEOPSCSW-141: Change the 'create' API
   test("create call should create a normal file and active file in repo and reset should not delete active file") {
 
@@ -40,4 +34,34 @@ class SvnConfigServiceTest extends ConfigServiceTest {
     configService.exists(activeFilePath).await shouldBe true
   }
 
+  test("getActive should read active file from svn only once until the next commit") {
+    val filePath = Paths.get("/tmt/tcp/redis/text/redis.conf")
+    val configId = configService.create(filePath, ConfigData.fromString(configValue1), annex = false, "commit").await
+    configService.update(filePath, ConfigData.fromString(configValue2), "update").await
+    configService.setActiveVersion(filePath, configId, "set active").await
+
+    def svnOperations = serverWiring.svnSessionPool.metrics.operations.map(_.count).sum
+
+    configService.getActive(filePath).await.get.toStringF.await shouldBe configValue1
+    val operations = svnOperations
+
+    configService.getActive(filePath).await.get.toStringF.await shouldBe configValue1
+    svnOperations shouldBe operations
+
+    configService.resetActiveVersion(filePath, "reset active").await
+    configService.getActive(filePath).await.get.toStringF.await shouldBe configValue2
+  }
+
+  test("delete should commit through the session pool") {
+    val filePath = Paths.get("/tmt/tcp/redis/text/redis.conf")
+    configService.create(filePath, ConfigData.fromString(configValue1), annex = false, "commit").await
+
+    def deletes = serverWiring.svnSessionPool.metrics.operations.find(_.name == "delete").map(_.count).getOrElse(0L)
+    val before  = deletes
+
+    configService.delete(filePath, "delete").await
+
+    configService.exists(filePath).await shouldBe false
+    deletes shouldBe before + 1
+  }
 }
@@ -0,0 +1,108 @@
+package csw.services.config.server.svn
+
+import java.lang.management.ManagementFactory
+import java.util.concurrent.CountDownLatch
+import javax.management.JMX
+
+import com.typesafe.config.ConfigFactory
+import csw.services.config.server.Settings
+import csw.services.config.server.commons.TestFutureExtension.RichFuture
+import org.scalatest.{FunSuite, Matchers}
+import org.tmatesoft.svn.core.io.SVNRepository
+
+import scala.concurrent.ExecutionContext.Implicits.global
+import scala.concurrent.Future
+
+class SvnSessionPoolTest extends FunSuite with Matchers {
+
+  private val settings = new Settings(
+    ConfigFactory
+      .parseString("""
+          |csw-config-server.repository-dir = /tmp/csw-config-svn-pool-test
+          |csw-config-server.svn-session-pool-size = 1
+        """.stripMargin)
+      .withFallback(ConfigFactory.load())
+  )
+
+  private def newPool(): SvnSessionPool = new SvnSessionPool(settings)
+
+  test("should reuse sessions across operations reading a fixed revision") {
+    val pool = newPool()
+
+    val first  = pool.withSession("getFile", fixedRevision = true)(identity)
+    val second = pool.withSession("getFile", fixedRevision = true)(identity)
+
+    second shouldBe theSameInstanceAs(first)
+    pool.metrics.idle shouldBe 1
+  }
+
+  test("should close sessions failing an operation") {
+    val pool = newPool()
+
+    val failed = pool.withSession("getFile", fixedRevision = true)(identity)
+    intercept[RuntimeException](pool.withSession("getFile", fixedRevision = true)(_ ⇒ throw new RuntimeException))
+
+    pool.withSession("getFile", fixedRevision = true)(identity) should not be theSameInstanceAs(failed)
+  }
+
+  test("should make operations wait for a session when all sessions are in use") {
+    val pool     = newPool()
+    val started  = new CountDownLatch(1)
+    val finished = new CountDownLatch(1)
+
+    val first = Future(pool.withSession("hist") { svn ⇒
+      started.countDown()
+      finished.await()
+      svn
+    })
+    started.await()
+    val second = Future(pool.withSession("hist")(identity))
+
+    Thread.sleep(100)
+    second.isCompleted shouldBe false
+    pool.metrics.inUse shouldBe 1
+
+    finished.countDown()
+    first.await
+    second.await
+  }
+
+  test("should not reuse sessions opened before the repository is created") {
+    val pool = newPool()
+
+    val session = pool.withSession("getFile", fixedRevision = true)(identity)
+    pool.clear()
+
+    pool.metrics.idle shouldBe 0
+    pool.withSession("getFile", fixedRevision = true)(identity) should not be theSameInstanceAs(session)
+  }
+
+  test("should measure the latency of operations per operation") {
+    val pool = newPool()
+
+    pool.withSession("getFileSize", fixedRevision = true)(_ ⇒ Thread.sleep(10))
+
+    val latency: SvnLatency = pool.metrics.operations.find(_.name == "getFileSize").get
+    latency.count should be >= 1L
+    latency.maxMicros should be >= 10000L
+    pool.metrics.acquisition.count should be >= 1L
+  }
+
+  test("should expose metrics through JMX") {
+    val pool = newPool()
+    pool.withSession("getFileSize", fixedRevision = true)(identity)
+
+    SvnSessionPoolJmx.register(pool)
+    try {
+      val server = ManagementFactory.getPlatformMBeanServer
+      server.getAttribute(SvnSessionPoolJmx.Name, "Idle") shouldBe 1
+      server.getAttribute(SvnSessionPoolJmx.Name, "AcquisitionCount").asInstanceOf[Long] should be >= 1L
+      val proxy = JMX.newMXBeanProxy(server, SvnSessionPoolJmx.Name, classOf[SvnSessionPoolMXBean])
+      proxy.getOperationCount.get("getFileSize").longValue() should be >= 1L
+    } finally SvnSessionPoolJmx.unregister()
+
+    ManagementFactory.getPlatformMBeanServer.isRegistered(SvnSessionPoolJmx.Name) shouldBe false
+  }
+
+  private def identity(svn: SVNRepository): SVNRepository = svn
+}
@@ -73,8 +73,12 @@ private[containercmd] class ContainerCmd(
       defaultConfig: Option[Config]
   ): Future[ActorRef[_]] = {
     async {
+      // the cluster is joined while the configuration is read and the component is created, the component
+      // registers with location service once the join completes
+      val joined   = wiring.cswCluster
       val config   = await(wiring.configUtils.getConfig(isLocal, inputFilePath, defaultConfig))
       val actorRef = await(createComponent(standalone, wiring, config))
+      await(joined)
       log.info(s"Component is successfully created with actor actorRef $actorRef")
       actorRef
     }
@@ -6,15 +6,18 @@ import csw.apps.commons.ConfigUtils
 import csw.framework.internal.pubsub.PubSubBehaviorFactory
 import csw.services.config.api.scaladsl.ConfigClientService
 import csw.services.config.client.scaladsl.ConfigClientFactory
-import csw.services.location.commons.ClusterSettings
+import csw.services.location.commons.{ClusterSettings, CswCluster}
 import csw.services.location.scaladsl.{LocationService, LocationServiceFactory, RegistrationFactory}
 import csw.services.logging.internal.LogControlMessages
 import csw.services.logging.scaladsl.LogAdminActorFactory
 
+import scala.concurrent.Future
+
 class FrameworkWiring {
   lazy val clusterSettings: ClusterSettings               = ClusterSettings()
   lazy val actorSystem: ActorSystem                       = clusterSettings.system
-  lazy val locationService: LocationService               = LocationServiceFactory.withSystem(actorSystem)
+  lazy val cswCluster: Future[CswCluster]                 = CswCluster.start(actorSystem)
+  lazy val locationService: LocationService               = LocationServiceFactory.withStartingCluster(cswCluster, actorSystem)
   lazy val actorRuntime: ActorRuntime                     = new ActorRuntime(actorSystem)
   lazy val logAdminActorRef: ActorRef[LogControlMessages] = LogAdminActorFactory.make(actorSystem)
   lazy val registrationFactory                            = new RegistrationFactory(logAdminActorRef)
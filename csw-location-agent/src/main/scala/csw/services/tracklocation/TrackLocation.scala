@@ -23,16 +23,17 @@ import scala.util.control.NonFatal
 class TrackLocation(names: List[String], command: Command, actorSystem: ActorSystem) {
   val log: Logger = LocationAgentLogger.getLogger
 
-  private val cswCluster      = CswCluster.withSystem(actorSystem)
-  private val locationService = LocationServiceFactory.withCluster(cswCluster)
-  import cswCluster._
+  // the cluster is joined while waiting for the program to start
+  private val cswCluster      = CswCluster.start(actorSystem)
+  private val locationService = LocationServiceFactory.withStartingCluster(cswCluster, actorSystem)
+  import actorSystem.dispatcher
 
   def run(): Process =
     try {
       Thread.sleep(command.delay)
-      //Register all connections
-      val results = Await.result(Future.traverse(names)(registerName), 10.seconds)
-      unregisterOnTermination(results)
+      //Register all connections once the cluster is joined
+      val results = Await.result(locationService.registerAll(names.map(registration)), 40.seconds)
+      unregisterOnTermination(results.toList)
     } catch {
       case NonFatal(ex) ⇒
         shutdown()
@@ -40,12 +41,12 @@ class TrackLocation(names: List[String], command: Command, actorSystem: ActorSys
     }
 
   /**
-   * INTERNAL API : Registers a single service as a TCP service.
+   * INTERNAL API : Creates the registration of a single service as a TCP service.
    */
-  private def registerName(name: String): Future[RegistrationResult] = {
+  private def registration(name: String): TcpRegistration = {
     val componentId = ComponentId(name, ComponentType.Service)
     val connection  = TcpConnection(componentId)
-    locationService.register(TcpRegistration(connection, command.port, LogAdminActorFactory.make(actorSystem)))
+    TcpRegistration(connection, command.port, LogAdminActorFactory.make(actorSystem))
   }
 
   /**
@@ -54,7 +55,7 @@ class TrackLocation(names: List[String], command: Command, actorSystem: ActorSys
    */
   private def unregisterOnTermination(results: Seq[RegistrationResult]): Process = {
 
-    coordinatedShutdown.addTask(
+    CoordinatedShutdown(actorSystem).addTask(
       CoordinatedShutdown.PhaseBeforeServiceUnbind,
       "unregistering"
     )(() => unregisterServices(results))
@@ -70,11 +71,11 @@ class TrackLocation(names: List[String], command: Command, actorSystem: ActorSys
    */
   private def unregisterServices(results: Seq[RegistrationResult]): Future[Done] = {
     log.info("Shutdown hook reached, un-registering connections", Map("services" → results.map(_.location.connection.name)))
-    Future.traverse(results)(_.unregister()).map { _ =>
+    locationService.unregisterAll(results.map(_.location.connection)).map { _ =>
       log.info(s"Services are unregistered")
       Done
     }
   }
 
-  private def shutdown() = Await.result(cswCluster.shutdown(), 10.seconds)
+  private def shutdown() = Await.result(locationService.shutdown(), 10.seconds)
 }
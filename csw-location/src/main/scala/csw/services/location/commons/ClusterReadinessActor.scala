@@ -0,0 +1,55 @@
+package csw.services.location.commons
+
+import akka.Done
+import akka.actor.{Actor, Props, Timers}
+import akka.cluster.ClusterEvent._
+import akka.cluster.ddata.DistributedData
+import akka.cluster.ddata.Replicator.{GetReplicaCount, ReplicaCount}
+import akka.cluster.{Cluster, MemberStatus}
+import csw.services.location.commons.ClusterReadinessActor.CheckReplicaCount
+
+import scala.concurrent.Promise
+import scala.concurrent.duration.DurationInt
+
+/**
+ * Completes `joined` as soon as this node is weakly up or up in the cluster, and then `replicated` as soon as the
+ * replicator replicates to as many nodes as there are up members. The replicator does not publish the changes of its
+ * replica count, hence it is asked for it on every member event and on a short interval once this node joined.
+ */
+private[location] class ClusterReadinessActor(joined: Promise[Done], replicated: Promise[Done]) extends Actor with Timers {
+
+  private val cluster    = Cluster(context.system)
+  private val replicator = DistributedData(context.system).replicator
+
+  override def preStart(): Unit = cluster.subscribe(self, InitialStateAsEvents, classOf[MemberEvent])
+  override def postStop(): Unit = cluster.unsubscribe(self)
+
+  override def receive: Receive = {
+    case event: MemberEvent ⇒
+      if (!joined.isCompleted && isSelf(event)) {
+        joined.trySuccess(Done)
+        timers.startPeriodicTimer(CheckReplicaCount, CheckReplicaCount, 50.millis)
+      }
+      if (joined.isCompleted) replicator ! GetReplicaCount
+
+    case CheckReplicaCount ⇒ replicator ! GetReplicaCount
+
+    case ReplicaCount(n) if n >= cluster.state.members.count(_.status == MemberStatus.Up) ⇒
+      replicated.trySuccess(Done)
+      context.stop(self)
+
+    case _: ReplicaCount ⇒
+  }
+
+  private def isSelf(event: MemberEvent): Boolean = event match {
+    case MemberUp(member)       ⇒ member.address == cluster.selfAddress
+    case MemberWeaklyUp(member) ⇒ member.address == cluster.selfAddress
+    case _                      ⇒ false
+  }
+}
+
+private[location] object ClusterReadinessActor {
+  def props(joined: Promise[Done], replicated: Promise[Done]): Props = Props(new ClusterReadinessActor(joined, replicated))
+
+  private case object CheckReplicaCount
+}
@@ -1,18 +1,18 @@
 package csw.services.location.commons
 
 import akka.Done
-import akka.actor.{ActorRef, ActorSystem, CoordinatedShutdown, PoisonPill}
+import akka.actor.{ActorRef, ActorSystem, CoordinatedShutdown}
+import akka.cluster.Cluster
 import akka.cluster.ddata.DistributedData
-import akka.cluster.ddata.Replicator.{GetReplicaCount, ReplicaCount}
 import akka.cluster.http.management.ClusterHttpManagement
-import akka.cluster.{Cluster, MemberStatus}
+import akka.pattern.after
 import akka.stream.{ActorMaterializer, Materializer}
-import akka.util.Timeout
-import csw.services.location.commons.ClusterConfirmationActor.HasJoinedCluster
+import csw.services.location.internal.RegistryShardsCheck
 import csw.services.logging.scaladsl.Logger
 
-import scala.concurrent.duration.DurationInt
-import scala.concurrent.{Await, ExecutionContext, Future}
+import scala.concurrent.duration.{DurationInt, DurationLong, FiniteDuration}
+import scala.concurrent.{Await, ExecutionContext, Future, Promise}
+import scala.util.Failure
 import scala.util.control.NonFatal
 
 /**
@@ -49,60 +49,78 @@ class CswCluster private (_actorSystem: ActorSystem) {
    */
   def makeMat(): Materializer = ActorMaterializer()
 
+  private val startup = Promise[StartupTimings]()
+
+  /**
+   * Completes with the time taken by each phase of the start once this node joined the cluster and replicates data
+   */
+  def startupTimings: Future[StartupTimings] = startup.future
+
+  /**
+   * Starts cluster HTTP management service, joins the cluster and ensures that data replication is started, completing
+   * as soon as the cluster and replicator events tell that this node is ready without blocking any thread.
+   * Management is started concurrently with the join, and the join fails if the node is not ready within 20 seconds.
+   * Once data is replicated, the start fails if the location registry of the cluster has another number of shards.
+   */
+  private def start(): Future[StartupTimings] = {
+    val startTime  = System.nanoTime()
+    val joined     = Promise[Done]()
+    val replicated = Promise[Done]()
+
+    val managementF = timed(startTime)(startClusterManagement())
+    joinCluster()
+    actorSystem.actorOf(ClusterReadinessActor.props(joined, replicated))
+
+    val joinedF = timed(startTime)(within(joined.future, 20.seconds, "could not join cluster"))
+    val replicatedF = joinedF.flatMap { joinTime ⇒
+      val message = "could not ensure that the data is replicated in location service cluster"
+      timed(startTime + joinTime.toNanos)(within(replicated.future, 10.seconds, message))
+    }
+    val registryShardsF = replicatedF.flatMap(_ ⇒ RegistryShardsCheck.verify(this))
+
+    val timingsF = for {
+      management  ← managementF
+      join        ← joinedF
+      replication ← replicatedF
+      _           ← registryShardsF
+    } yield StartupTimings(management, join, replication)
+
+    startup.completeWith(timingsF)
+    timingsF
+  }
+
   /**
    * Starts cluster HTTP management service.
    */
   // $COVERAGE-OFF$
-  private def startClusterManagement(): Unit = {
+  private def startClusterManagement(): Future[Done] = {
     val startManagement = actorSystem.settings.config.getBoolean("startManagement")
     if (startManagement) {
       val clusterHttpManagement = ClusterHttpManagement(cluster)
-      Await.result(clusterHttpManagement.start(), 10.seconds)
-    }
+      within(clusterHttpManagement.start(), 10.seconds, "could not start cluster management")
+    } else Future.successful(Done)
   }
   // $COVERAGE-ON$
 
-  private def joinCluster(): Done = {
+  private def joinCluster(): Unit = {
     // Check if seed nodes are provided to join csw-cluster
     val emptySeeds = actorSystem.settings.config.getStringList("akka.cluster.seed-nodes").isEmpty
     if (emptySeeds) {
       // If no seeds are provided (which happens only during testing), then create a single node cluster by joining to self
       cluster.join(cluster.selfAddress)
     }
-
-    val confirmationActor = actorSystem.actorOf(ClusterConfirmationActor.props())
-    implicit val timeout  = Timeout(5.seconds)
-    import akka.pattern.ask
-    def statusF = (confirmationActor ? HasJoinedCluster).mapTo[Option[Done]]
-    def status  = Await.result(statusF, 5.seconds)
-    val success = BlockingUtils.poll(status.isDefined, 20.seconds)
-    if (!success) {
-      val runtimeException = new RuntimeException("could not join cluster")
-      log.error(runtimeException.getMessage, ex = runtimeException)
-      throw runtimeException
-    }
-    confirmationActor ! PoisonPill
-    Done
   }
 
-  /**
-   * Ensures that data replication is started in Location service cluster by matching replica count with Up members.
-   */
-  private def ensureReplication(): Unit = {
-    implicit val timeout = Timeout(5.seconds)
-    import akka.pattern.ask
-    def replicaCountF = (replicator ? GetReplicaCount).mapTo[ReplicaCount]
-    def replicaCount  = Await.result(replicaCountF, 5.seconds).n
-    def upMembers     = cluster.state.members.count(_.status == MemberStatus.Up)
-    val success       = BlockingUtils.poll(replicaCount >= upMembers, 10.seconds)
-    if (!success) {
-      val runtimeException =
-        new RuntimeException("could not ensure that the data is replicated in location service cluster")
-      log.error(runtimeException.getMessage, ex = runtimeException)
-      throw runtimeException
-    }
+  // fails with the given message if the future does not complete within the given time
+  private def within[T](future: Future[T], max: FiniteDuration, message: String): Future[T] = {
+    val timeout = after(max, actorSystem.scheduler)(Future.failed(new RuntimeException(message)))
+    Future.firstCompletedOf(List(future, timeout))
   }
 
+  // time elapsed since the given start when the future completes
+  private def timed(startTime: Long)(future: Future[_]): Future[FiniteDuration] =
+    future.map(_ ⇒ (System.nanoTime() - startTime).nanos)
+
   /**
    * Terminates the ActorSystem and gracefully leaves the cluster
    */
@@ -112,13 +130,15 @@ class CswCluster private (_actorSystem: ActorSystem) {
 /**
  * Manages initialization and termination of ActorSystem and the Cluster.
  *
- * ''Note: '' The creation of CswCluster will be blocked till the ActorSystem joins csw-cluster successfully
+ * ''Note: '' The creation of CswCluster will be blocked till the ActorSystem joins csw-cluster successfully, use `start`
+ * to create it without blocking
  */
 object CswCluster {
 
   val log: Logger = LocationServiceLogger.getLogger
 
   //do not use the dying actorSystem's dispatcher for scheduling actions after its death.
+  private val ec: ExecutionContext = ExecutionContext.global
 
   /**
    * Creates CswCluster with the default cluster settings
@@ -135,18 +155,31 @@ object CswCluster {
   /**
    * Creates CswCluster with the given ActorSystem
    */
-  def withSystem(actorSystem: ActorSystem): CswCluster = {
+  def withSystem(actorSystem: ActorSystem): CswCluster = Await.result(start(actorSystem), 1.minute)
+
+  /**
+   * Starts CswCluster with the given ActorSystem without blocking. The returned future completes as soon as the
+   * ActorSystem joined csw-cluster and replicates data, or fails after the ActorSystem is shutdown if it could not.
+   */
+  def start(actorSystem: ActorSystem): Future[CswCluster] = {
     val cswCluster = new CswCluster(actorSystem)
-    try {
-      cswCluster.startClusterManagement()
-      cswCluster.joinCluster()
-      cswCluster.ensureReplication()
-      cswCluster
-    } catch {
-      case NonFatal(ex) ⇒
-        Await.result(cswCluster.shutdown(), 10.seconds)
-        log.error(ex.getMessage, ex = ex)
-        throw ex
-    }
+    cswCluster
+      .start()
+      .map { timings ⇒
+        log.info(
+          "Joined csw-cluster",
+          Map(
+            "managementMillis"  → timings.management.toMillis,
+            "joinMillis"        → timings.join.toMillis,
+            "replicationMillis" → timings.replication.toMillis
+          )
+        )
+        cswCluster
+      }(cswCluster.ec)
+      .recoverWith {
+        case NonFatal(ex) ⇒
+          log.error(ex.getMessage, ex = ex)
+          cswCluster.shutdown().transform(_ ⇒ Failure(ex))(ec)
+      }(ec)
   }
 }
@@ -1,29 +1,23 @@
 package csw.services.location.commons
 
 import akka.Done
-import akka.actor.{ActorSystem, CoordinatedShutdown, PoisonPill}
+import akka.actor.{ActorSystem, CoordinatedShutdown}
 import akka.cluster.Cluster
-import akka.util.Timeout
-import csw.services.location.commons.ClusterConfirmationActor.IsMemberUp
 import csw.services.logging.scaladsl.Logger
 
-import scala.concurrent.duration.DurationDouble
-import scala.concurrent.{Await, Future}
+import scala.concurrent.duration.DurationInt
+import scala.concurrent.{Await, Future, Promise}
+import scala.util.Try
 
 object CswCoordinatedShutdown {
 
   val log: Logger = LocationServiceLogger.getLogger
 
+  // whether this member is or has been up in the cluster, waiting for it up to 10 seconds
   private def isMemberUp(actorSystem: ActorSystem): Boolean = {
-    import akka.pattern.ask
-
-    implicit val timeout: Timeout = Timeout(5.seconds)
-    val confirmationActor         = actorSystem.actorOf(ClusterConfirmationActor.props())
-    def statusF                   = (confirmationActor ? IsMemberUp).mapTo[Option[Done]]
-    def status                    = Await.result(statusF, 5.seconds)
-    val success                   = BlockingUtils.poll(status.isDefined, 10.seconds)
-    confirmationActor ! PoisonPill
-    success
+    val up = Promise[Done]
+    Cluster(actorSystem).registerOnMemberUp(up.trySuccess(Done))
+    Try(Await.result(up.future, 10.seconds)).isSuccess
   }
 
   def run(actorSystem: ActorSystem): Future[Done] = {
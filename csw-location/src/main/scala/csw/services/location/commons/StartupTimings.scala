@@ -0,0 +1,12 @@
+package csw.services.location.commons
+
+import scala.concurrent.duration.FiniteDuration
+
+/**
+ * Time taken by each phase of the start of a CswCluster
+ *
+ * @param management time taken to start cluster HTTP management, zero when it is not started
+ * @param join time taken by this node to join the cluster
+ * @param replication time taken after the join till the replicator replicates to all up members
+ */
+case class StartupTimings(management: FiniteDuration, join: FiniteDuration, replication: FiniteDuration)
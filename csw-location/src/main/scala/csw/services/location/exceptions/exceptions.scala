@@ -23,6 +23,16 @@ case class UnregistrationFailed(connection: Connection)
       s"unable to unregister $connection"
     )
 
+/**
+ * An Exception representing failure in reading the location of a connection from the replicas of a consistency
+ *
+ * @param connection A connection for which resolving failed
+ */
+case class ResolveFailed(connection: Connection)
+    extends RuntimeException(
+      s"unable to resolve $connection"
+    )
+
 /**
  * An Exception representing failure in registration as other location is already registered in place of the given location
  *
@@ -49,3 +59,18 @@ case object RegistrationListingFailed
     extends RuntimeException(
       s"unable to get the list of registered locations"
     )
+
+/**
+ * An Exception representing failure in joining a cluster whose location registry is partitioned into another number of
+ * shards than the one of this node
+ *
+ * @param registryShards        The number of shards configured on this node
+ * @param clusterRegistryShards The number of shards used by the cluster, None for nodes keeping all the locations
+ *                              under a single key
+ */
+case class RegistryShardsMismatch(registryShards: Int, clusterRegistryShards: Option[Int])
+    extends RuntimeException(
+      s"csw-location.registry-shards is $registryShards on this node but " +
+      clusterRegistryShards.fold("the cluster has nodes keeping all locations under a single key")(n ⇒ s"$n in the cluster") +
+      ", the whole cluster must be restarted with the same number of shards"
+    )
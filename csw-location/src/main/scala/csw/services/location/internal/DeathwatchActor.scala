@@ -1,48 +1,94 @@
 package csw.services.location.internal
 
+import akka.cluster.ddata.Key
 import akka.cluster.ddata.Replicator.{Changed, Subscribe}
 import akka.typed.scaladsl.Actor
 import akka.typed.{ActorRef, Behavior, Terminated}
-import csw.messages.location.{AkkaLocation, HttpLocation, Location, TcpLocation}
+import csw.messages.location._
 import csw.services.location.commons.{CswCluster, LocationServiceLogger}
 import csw.services.location.internal.Registry.AllServices
 import csw.services.location.scaladsl.LocationService
 import csw.services.logging.scaladsl.Logger
 
+import scala.concurrent.duration.FiniteDuration
+
 /**
  * DeathWatchActor tracks the health of all Actors registered with LocationService.
  *
  * @param locationService is used to unregister Actors that are no more alive
+ * @param batchInterval time during which the locations of terminated actors are collected before being unregistered
+ *                      together
  */
-class DeathwatchActor(locationService: LocationService) {
-  import DeathwatchActor.Msg
+class DeathwatchActor(locationService: LocationService, batchInterval: FiniteDuration) {
+  import DeathwatchActor._
 
   /**
-   * Deathwatch behavior processes `DeathwatchActor.Msg` type events sent by replicator for newly registered Locations.
-   * Terminated signal will be received upon termination of an actor that was being watched.
+   * Deathwatch behavior processes the changes of the shards of AllServices sent by replicator and only watches or
+   * unwatches the actors of locations added to or removed from a shard since its previous change. Terminated signal will
+   * be received upon termination of an actor that was being watched.
    *
    * @see [[akka.actor.Terminated]]
+   * @param locations all locations of the previous change of each shard of AllServices
+   * @param watched watched actors with their locations
+   * @param deadLocations locations of terminated actors waiting to be unregistered
    */
-  def behavior(watchedLocations: Set[Location]): Behavior[Msg] =
-    Actor.immutable[Msg] { (context, changeMsg) ⇒
+  def behavior(
+      locations: Map[Key[AllServices.Value], Map[Connection, Location]],
+      watched: Map[ActorRef[Nothing], Set[Location]],
+      deadLocations: Set[Location]
+  ): Behavior[Msg] =
+    Actor.immutable[Msg] { (context, msg) ⇒
       val log: Logger = LocationServiceLogger.getLogger(context)
 
-      val allLocations = changeMsg.get(AllServices.Key).entries.values.toSet
+      msg match {
+        case AllServicesChanged(changeMsg) ⇒
+          val shardLocations    = changeMsg.get(changeMsg.key).entries
+          val previousLocations = locations.getOrElse(changeMsg.key, Map.empty)
 
-      //find out the ones that are not being watched and watch them
-      val unwatchedLocations = allLocations diff watchedLocations
+          //find out the locations that were removed or replaced and the ones that were added since previous change
+          val removedLocations =
+            previousLocations.valuesIterator.filterNot(loc ⇒ shardLocations.get(loc.connection).contains(loc))
+          val addedLocations =
+            shardLocations.valuesIterator.filterNot(loc ⇒ previousLocations.get(loc.connection).contains(loc))
 
-      //Multiple AkkaLocation can have same logAdminActorRef, hence watch actorRef instead of logAdminActorRef for akka
-      unwatchedLocations.foreach(loc ⇒ {
-        val actorRefToWatch = loc match {
-          case AkkaLocation(_, _, _, actorRef, _)       ⇒ actorRef
-          case loc @ (_: HttpLocation | _: TcpLocation) ⇒ loc.logAdminActorRef
-        }
-        log.debug(s"Started watching actor: ${actorRefToWatch.toString}")
-        context.watch(actorRefToWatch)
-      })
-      //all locations are now watched
-      behavior(allLocations)
+          //stop watching the actors which no longer have any location
+          val unwatched = removedLocations.foldLeft(watched) { (watched, loc) ⇒
+            val actorRef = actorRefToWatch(loc)
+            watched.get(actorRef).map(_ - loc) match {
+              case Some(remaining) if remaining.nonEmpty ⇒ watched + (actorRef → remaining)
+              case Some(_) ⇒
+                log.debug(s"Stopped watching actor: ${actorRef.toString}")
+                context.unwatch(actorRef)
+                watched - actorRef
+              case None ⇒ watched
+            }
+          }
+
+          //watch the actors of the added locations which are not being watched
+          val nowWatched = addedLocations.foldLeft(unwatched) { (watched, loc) ⇒
+            val actorRef = actorRefToWatch(loc)
+            if (!watched.contains(actorRef)) {
+              log.debug(s"Started watching actor: ${actorRef.toString}")
+              context.watch(actorRef)
+            }
+            watched + (actorRef → (watched.getOrElse(actorRef, Set.empty) + loc))
+          }
+          behavior(locations + (changeMsg.key → shardLocations), nowWatched, deadLocations)
+
+        case UnregisterDeadLocations ⇒
+          //locations replaced since their actor terminated are left registered
+          val connections = deadLocations.toList
+            .filter(loc ⇒ locations.valuesIterator.exists(_.get(loc.connection).contains(loc)))
+            .map(_.connection)
+          log.warn(s"Un-registering locations of terminated actors: [${connections.map(_.name).mkString(", ")}]")
+          locationService
+            .unregisterAll(connections)
+            .failed
+            .foreach(ex ⇒ log.error(ex.getMessage, ex = ex))(
+              context.executionContext
+            )
+          behavior(locations, watched, Set.empty)
+      }
     } onSignal {
       case (ctx, Terminated(deadActorRef)) ⇒
         val log: Logger = LocationServiceLogger.getLogger(ctx)
@@ -50,16 +96,12 @@ class DeathwatchActor(locationService: LocationService) {
         log.warn(s"Un-watching terminated actor: ${deadActorRef.toString}")
         //stop watching the terminated actor
         ctx.unwatch(deadActorRef)
-        //Unregister the dead location and remove it from the list of watched locations
-        val maybeLocation = watchedLocations.find {
-          case AkkaLocation(_, _, _, actorRef, _)       ⇒ deadActorRef == actorRef
-          case loc @ (_: HttpLocation | _: TcpLocation) ⇒ deadActorRef == loc.logAdminActorRef
-        }
-        maybeLocation match {
-          case Some(location) =>
-            //if deadActorRef is mapped to a location, unregister it and remove it from watched locations
-            locationService.unregister(location.connection)
-            behavior(watchedLocations - location)
+        watched.get(deadActorRef) match {
+          case Some(deadActorLocations) =>
+            //if deadActorRef is mapped to locations, remove it from watched actors and unregister its locations along
+            //with the ones of other actors terminated within the batch interval, e.g. when a whole node drops
+            if (deadLocations.isEmpty) ctx.schedule(batchInterval, ctx.self, UnregisterDeadLocations)
+            behavior(locations, watched - deadActorRef, deadLocations ++ deadActorLocations)
           case None ⇒
             //if deadActorRef does not match any location, don't change a thing!
             Actor.same
@@ -72,8 +114,17 @@ object DeathwatchActor {
   val log: Logger = LocationServiceLogger.getLogger
 
   import akka.typed.scaladsl.adapter._
+
   //message type handled by the for the typed deathwatch actor
-  type Msg = Changed[AllServices.Value]
+  sealed trait Msg
+  private[location] case class AllServicesChanged(changeMsg: Changed[AllServices.Value]) extends Msg
+  private[location] case object UnregisterDeadLocations                                  extends Msg
+
+  //Multiple AkkaLocation can have same logAdminActorRef, hence watch actorRef instead of logAdminActorRef for akka
+  private def actorRefToWatch(location: Location): ActorRef[Nothing] = location match {
+    case AkkaLocation(_, _, _, actorRef, _)       ⇒ actorRef
+    case loc @ (_: HttpLocation | _: TcpLocation) ⇒ loc.logAdminActorRef
+  }
 
   /**
    * Start the DeathwatchActor using the given locationService
@@ -82,14 +133,16 @@ object DeathwatchActor {
    */
   def start(cswCluster: CswCluster, locationService: LocationService): ActorRef[Msg] = {
     log.debug("Starting Deathwatch actor")
-    val actorRef = cswCluster.actorSystem.spawn(
-      //span the actor with empty set of watched locations
-      new DeathwatchActor(locationService).behavior(Set.empty),
+    val settings = LocationSettings(cswCluster.actorSystem.settings.config)
+    cswCluster.actorSystem.spawn(
+      Actor.deferred[Msg] { ctx ⇒
+        //Subscribed to replicator to get events for locations registered with LocationService in every shard
+        val adapter = ctx.spawnAdapter(AllServicesChanged).toUntyped
+        new AllServices(settings.registryShards).shards.foreach(shard ⇒ cswCluster.replicator ! Subscribe(shard.Key, adapter))
+        //start with empty set of watched locations
+        new DeathwatchActor(locationService, settings.deathwatchBatchInterval).behavior(Map.empty, Map.empty, Set.empty)
+      },
       name = "location-service-death-watch-actor"
     )
-
-    //Subscribed to replicator to get events for locations registered with LocationService
-    cswCluster.replicator ! Subscribe(AllServices.Key, actorRef.toUntyped)
-    actorRef
   }
 }
@@ -0,0 +1,94 @@
+package csw.services.location.internal
+
+import akka.Done
+import akka.actor.ActorSystem
+import akka.stream.scaladsl.{Keep, Sink, Source}
+import akka.stream.{ActorMaterializer, KillSwitch, KillSwitches, Materializer}
+import csw.messages.location._
+import csw.services.location.javadsl.ILocationService
+import csw.services.location.models._
+import csw.services.location.scaladsl.LocationService
+
+import scala.concurrent.duration.FiniteDuration
+import scala.concurrent.{ExecutionContext, Future}
+import scala.util.{Failure, Success}
+
+/**
+ * LocationService available before its cluster is started. Every operation is carried out by the location service
+ * once the cluster is started, and fails with the failure of the start if the cluster could not be started.
+ *
+ * @param locationServiceF completes with the location service once its cluster is started
+ * @param actorSystem the ActorSystem joining the cluster, used to run the tracking streams
+ */
+private[location] class DeferredLocationService(locationServiceF: Future[LocationService], actorSystem: ActorSystem)
+    extends LocationService {
+
+  private implicit val ec: ExecutionContext = actorSystem.dispatcher
+  private implicit val mat: Materializer    = ActorMaterializer()(actorSystem)
+
+  override def register(registration: Registration): Future[RegistrationResult] =
+    locationServiceF.flatMap(_.register(registration))
+
+  override def register(
+      registration: Registration,
+      readConsistency: Consistency,
+      writeConsistency: Consistency
+  ): Future[RegistrationResult] =
+    locationServiceF.flatMap(_.register(registration, readConsistency, writeConsistency))
+
+  override def registerAll(registrations: Seq[Registration]): Future[Seq[RegistrationResult]] =
+    locationServiceF.flatMap(_.registerAll(registrations))
+
+  override def unregister(connection: Connection): Future[Done] = locationServiceF.flatMap(_.unregister(connection))
+
+  override def unregister(connection: Connection, writeConsistency: Consistency): Future[Done] =
+    locationServiceF.flatMap(_.unregister(connection, writeConsistency))
+
+  override def unregisterAll(connections: Seq[Connection]): Future[Done] =
+    locationServiceF.flatMap(_.unregisterAll(connections))
+
+  override def unregisterAll(): Future[Done] = locationServiceF.flatMap(_.unregisterAll())
+
+  override def find[L <: Location](connection: TypedConnection[L]): Future[Option[L]] =
+    locationServiceF.flatMap(_.find(connection))
+
+  override def resolve[L <: Location](connection: TypedConnection[L], within: FiniteDuration): Future[Option[L]] =
+    locationServiceF.flatMap(_.resolve(connection, within))
+
+  override def resolve[L <: Location](connection: TypedConnection[L], consistency: Consistency): Future[Option[L]] =
+    locationServiceF.flatMap(_.resolve(connection, consistency))
+
+  override def list: Future[List[Location]] = locationServiceF.flatMap(_.list)
+
+  override def list(componentType: ComponentType): Future[List[Location]] =
+    locationServiceF.flatMap(_.list(componentType))
+
+  override def list(hostname: String): Future[List[Location]] = locationServiceF.flatMap(_.list(hostname))
+
+  override def list(connectionType: ConnectionType): Future[List[Location]] =
+    locationServiceF.flatMap(_.list(connectionType))
+
+  override def listByPrefix(prefix: String): Future[List[AkkaLocation]] =
+    locationServiceF.flatMap(_.listByPrefix(prefix))
+
+  override def track(connection: Connection): Source[TrackingEvent, KillSwitch] = deferred(_.track(connection))
+
+  override def trackAll(connections: Set[Connection]): Source[TrackingEvent, KillSwitch] =
+    deferred(_.trackAll(connections))
+
+  override def subscribe(connection: Connection, callback: TrackingEvent ⇒ Unit): KillSwitch =
+    track(connection).to(Sink.foreach(callback)).run()
+
+  // the ActorSystem is already shutdown when its cluster could not be started
+  override def shutdown(): Future[Done] =
+    locationServiceF.transformWith {
+      case Success(locationService) ⇒ locationService.shutdown()
+      case Failure(_)               ⇒ Future.successful(Done)
+    }(ExecutionContext.global)
+
+  override def asJava: ILocationService = new JLocationServiceImpl(this)
+
+  // killing the stream before the cluster is started cancels the tracking stream as soon as it starts
+  private def deferred(track: LocationService ⇒ Source[TrackingEvent, KillSwitch]): Source[TrackingEvent, KillSwitch] =
+    Source.fromFutureSource(locationServiceF.map(track)).viaMat(KillSwitches.single)(Keep.right)
+}
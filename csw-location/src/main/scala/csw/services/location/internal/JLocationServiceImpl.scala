@@ -9,7 +9,6 @@ import akka.Done
 import akka.stream.KillSwitch
 import akka.stream.javadsl.Source
 import csw.messages.location._
-import csw.services.location.commons.CswCluster
 import csw.services.location.javadsl.{ILocationService, IRegistrationResult}
 import csw.services.location.models._
 import csw.services.location.scaladsl.LocationService
@@ -17,18 +16,38 @@ import csw.services.location.scaladsl.LocationService
 import scala.collection.JavaConverters._
 import scala.compat.java8.FutureConverters._
 import scala.compat.java8.OptionConverters._
+import scala.concurrent.ExecutionContext
 import scala.concurrent.duration.FiniteDuration
 
-private[location] class JLocationServiceImpl(locationService: LocationService, cswCluster: CswCluster) extends ILocationService {
-
-  import cswCluster._
+private[location] class JLocationServiceImpl(locationService: LocationService)(implicit ec: ExecutionContext)
+    extends ILocationService {
 
   override def register(registration: Registration): CompletableFuture[IRegistrationResult] =
     locationService.register(registration).map(registrationResult).toJava.toCompletableFuture
 
+  override def register(
+      registration: Registration,
+      readConsistency: Consistency,
+      writeConsistency: Consistency
+  ): CompletableFuture[IRegistrationResult] =
+    locationService
+      .register(registration, readConsistency, writeConsistency)
+      .map(registrationResult)
+      .toJava
+      .toCompletableFuture
+
+  override def registerAll(registrations: util.List[Registration]): CompletableFuture[util.List[IRegistrationResult]] =
+    locationService.registerAll(registrations.asScala).map(_.map(registrationResult).asJava).toJava.toCompletableFuture
+
   override def unregister(connection: Connection): CompletableFuture[Done] =
     locationService.unregister(connection).toJava.toCompletableFuture
 
+  override def unregister(connection: Connection, writeConsistency: Consistency): CompletableFuture[Done] =
+    locationService.unregister(connection, writeConsistency).toJava.toCompletableFuture
+
+  override def unregisterAll(connections: util.List[Connection]): CompletableFuture[Done] =
+    locationService.unregisterAll(connections.asScala).toJava.toCompletableFuture
+
   override def unregisterAll(): CompletableFuture[Done] =
     locationService.unregisterAll().toJava.toCompletableFuture
 
@@ -38,6 +57,9 @@ private[location] class JLocationServiceImpl(locationService: LocationService, c
   override def resolve[L <: Location](connection: TypedConnection[L], within: FiniteDuration): CompletableFuture[Optional[L]] =
     locationService.resolve(connection, within).map(_.asJava).toJava.toCompletableFuture
 
+  override def resolve[L <: Location](connection: TypedConnection[L], consistency: Consistency): CompletableFuture[Optional[L]] =
+    locationService.resolve(connection, consistency).map(_.asJava).toJava.toCompletableFuture
+
   override def list: CompletableFuture[util.List[Location]] =
     locationService.list.map(_.asJava).toJava.toCompletableFuture
 
@@ -56,6 +78,9 @@ private[location] class JLocationServiceImpl(locationService: LocationService, c
   override def track(connection: Connection): Source[TrackingEvent, KillSwitch] =
     locationService.track(connection).asJava
 
+  override def trackAll(connections: util.List[Connection]): Source[TrackingEvent, KillSwitch] =
+    locationService.trackAll(connections.asScala.toSet).asJava
+
   override def subscribe(connection: Connection, consumer: Consumer[TrackingEvent]): KillSwitch =
     locationService.subscribe(connection, consumer.accept)
 
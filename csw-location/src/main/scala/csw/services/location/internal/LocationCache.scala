@@ -0,0 +1,90 @@
+package csw.services.location.internal
+
+import akka.Done
+import akka.actor.{Actor, ActorRef, Props}
+import akka.cluster.ddata.Key
+import akka.cluster.ddata.Replicator._
+import akka.pattern.ask
+import akka.util.Timeout
+import csw.messages.location.{Connection, Location}
+import csw.services.location.commons.CswCluster
+import csw.services.location.internal.LocationCache.Refresh
+import csw.services.location.internal.Registry.AllServices
+
+import scala.concurrent.Future
+import scala.concurrent.duration.FiniteDuration
+
+/**
+ * Node local cache of the registered locations, kept in a [[LocationIndex]] which is maintained incrementally from the
+ * changes of the shards of `AllServices` published by the replicator. Queries read the index directly instead of asking
+ * the replicator for every shard and scanning them.
+ *
+ * The replicator notifies changes periodically, hence registrations made on this node refresh the cache before they
+ * complete, so that they are visible to queries made right after them.
+ *
+ * @param cswCluster provides the replicator and the actor system running the actor which maintains the index
+ * @param allServices the shards of AllServices
+ * @param timeout time within which the local replica must reply to a refresh
+ */
+private[location] class LocationCache(cswCluster: CswCluster, allServices: AllServices, timeout: FiniteDuration) {
+  import cswCluster._
+
+  // written only by the actor maintaining the index, read by any thread
+  @volatile private var index: LocationIndex = LocationIndex.empty
+
+  private val indexActor: ActorRef = actorSystem.actorOf(Props(new LocationIndexActor))
+
+  // the index is complete once it has read the current value of every shard of AllServices
+  private val initialized: Future[Done] = refresh(allServices.shards)
+
+  /**
+   * Answers the query from the index, waiting for the index to be initialized only when the cache was just created
+   */
+  def query[T](f: LocationIndex ⇒ T): Future[T] =
+    if (initialized.isCompleted) Future.successful(f(index))
+    else initialized.map(_ ⇒ f(index))
+
+  /**
+   * Updates the index with the current value of the given shards of AllServices in the local replica
+   */
+  def refresh(shards: Iterable[AllServices.Shard]): Future[Done] =
+    Future.traverse(shards)(shard ⇒ (indexActor ? Refresh(shard))(Timeout(timeout))).map(_ ⇒ Done)
+
+  /**
+   * Subscribes to changes of every shard of AllServices. The changes and the replies to the local reads of refreshes
+   * come from the replicator in order, hence each of them holds a more recent value of its shard than the previous one.
+   */
+  private class LocationIndexActor extends Actor {
+
+    private val shardsByKey: Map[Key[_], AllServices.Shard] = allServices.shards.map(shard ⇒ shard.Key → shard).toMap
+
+    // latest value of each shard, the index is updated with the changes between two values of a shard
+    private var shardLocations: Map[AllServices.Shard, Map[Connection, Location]] = Map.empty
+
+    override def preStart(): Unit = allServices.shards.foreach(shard ⇒ replicator ! Subscribe(shard.Key, self))
+    override def postStop(): Unit = allServices.shards.foreach(shard ⇒ replicator ! Unsubscribe(shard.Key, self))
+
+    override def receive: Receive = {
+      case c @ Changed(key) if shardsByKey.contains(key) ⇒
+        val shard = shardsByKey(key)
+        update(shard, c.get(shard.Key).entries)
+      case Refresh(shard) ⇒ replicator ! Get(shard.Key, ReadLocal, Some(sender()))
+      case g @ GetSuccess(key, Some(replyTo: ActorRef)) if shardsByKey.contains(key) ⇒
+        val shard = shardsByKey(key)
+        update(shard, g.get(shard.Key).entries)
+        replyTo ! Done
+      case NotFound(key, Some(replyTo: ActorRef)) if shardsByKey.contains(key) ⇒
+        update(shardsByKey(key), Map.empty)
+        replyTo ! Done
+    }
+
+    private def update(shard: AllServices.Shard, locations: Map[Connection, Location]): Unit = {
+      index = index.update(shardLocations.getOrElse(shard, Map.empty), locations)
+      shardLocations += shard → locations
+    }
+  }
+}
+
+private[location] object LocationCache {
+  case class Refresh(shard: AllServices.Shard)
+}
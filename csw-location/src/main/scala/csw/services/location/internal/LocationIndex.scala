@@ -0,0 +1,149 @@
+package csw.services.location.internal
+
+import csw.messages.location._
+
+/**
+ * Immutable index of the registered locations. Each location is indexed by its connection, component type, hostname
+ * and connection type, and akka locations are also indexed by prefix, so that `find` and `list` queries answer in O(1)
+ * or O(k) for k matching locations, without scanning all the registered locations.
+ *
+ * @param locations registered locations by connection
+ * @param byComponentType registered locations grouped by component type
+ * @param byHostname registered locations grouped by hostname
+ * @param byConnectionType registered locations grouped by connection type
+ * @param byPrefix akka locations having a prefix, in a trie of prefixes
+ */
+private[location] case class LocationIndex(
+    locations: Map[Connection, Location],
+    byComponentType: Map[ComponentType, Map[Connection, Location]],
+    byHostname: Map[String, Map[Connection, Location]],
+    byConnectionType: Map[ConnectionType, Map[Connection, Location]],
+    byPrefix: PrefixTrie
+) {
+  import LocationIndex._
+
+  def find(connection: Connection): Option[Location] = locations.get(connection)
+
+  def list: List[Location] = locations.values.toList
+
+  def list(componentType: ComponentType): List[Location] = valuesOf(byComponentType, componentType)
+
+  def list(hostname: String): List[Location] = valuesOf(byHostname, hostname)
+
+  def list(connectionType: ConnectionType): List[Location] = valuesOf(byConnectionType, connectionType)
+
+  def listByPrefix(prefix: String): List[AkkaLocation] = byPrefix.startingWith(prefix)
+
+  /**
+   * Adds the location, replacing the one registered for the same connection if any
+   */
+  def +(location: Location): LocationIndex = {
+    val index = this - location.connection
+    LocationIndex(
+      index.locations + (location.connection → location),
+      add(index.byComponentType, location.connection.componentId.componentType, location),
+      add(index.byHostname, hostnameOf(location), location),
+      add(index.byConnectionType, location.connection.connectionType, location),
+      location match {
+        case akkaLocation @ AkkaLocation(_, Some(prefix), _, _, _) ⇒ index.byPrefix + (prefix, akkaLocation)
+        case _                                                     ⇒ index.byPrefix
+      }
+    )
+  }
+
+  def -(connection: Connection): LocationIndex = locations.get(connection) match {
+    case None ⇒ this
+    case Some(location) ⇒
+      LocationIndex(
+        locations - connection,
+        remove(byComponentType, connection.componentId.componentType, connection),
+        remove(byHostname, hostnameOf(location), connection),
+        remove(byConnectionType, connection.connectionType, connection),
+        location match {
+          case AkkaLocation(_, Some(prefix), _, _, _) ⇒ byPrefix - (prefix, connection)
+          case _                                      ⇒ byPrefix
+        }
+      )
+  }
+
+  /**
+   * Applies the changes between the indexed locations and the given ones, locations which did not change are left
+   * untouched in every index
+   */
+  def update(newLocations: Map[Connection, Location]): LocationIndex = update(locations, newLocations)
+
+  /**
+   * Applies the changes between two values of a part of the indexed locations, e.g. a shard of AllServices, locations
+   * which did not change are left untouched in every index
+   */
+  def update(oldLocations: Map[Connection, Location], newLocations: Map[Connection, Location]): LocationIndex = {
+    val removed = oldLocations.keysIterator.filterNot(newLocations.contains)
+    val changed = newLocations.valuesIterator.filterNot(location ⇒ oldLocations.get(location.connection).contains(location))
+    changed.foldLeft(removed.foldLeft(this)(_ - _))(_ + _)
+  }
+}
+
+private[location] object LocationIndex {
+
+  val empty = LocationIndex(Map.empty, Map.empty, Map.empty, Map.empty, PrefixTrie.empty)
+
+  private def hostnameOf(location: Location): String = Option(location.uri.getHost).getOrElse("")
+
+  private def valuesOf[K](index: Map[K, Map[Connection, Location]], key: K): List[Location] =
+    index.get(key).map(_.values.toList).getOrElse(List.empty)
+
+  private def add[K](index: Map[K, Map[Connection, Location]], key: K, location: Location) =
+    index + (key → (index.getOrElse(key, Map.empty) + (location.connection → location)))
+
+  private def remove[K](index: Map[K, Map[Connection, Location]], key: K, connection: Connection) = {
+    val remaining = index.getOrElse(key, Map.empty) - connection
+    if (remaining.isEmpty) index - key else index + (key → remaining)
+  }
+}
+
+/**
+ * Immutable trie of akka locations keyed by prefix, one level per character. Listing the locations whose prefix starts
+ * with a given string walks down that string and collects the subtree below it.
+ *
+ * @param locations akka locations whose prefix ends at this node
+ * @param children sub tries by next character of the prefix
+ */
+private[location] case class PrefixTrie(locations: Map[Connection, AkkaLocation], children: Map[Char, PrefixTrie]) {
+
+  def isEmpty: Boolean = locations.isEmpty && children.isEmpty
+
+  def +(prefix: String, location: AkkaLocation): PrefixTrie = add(prefix, 0, location)
+
+  def -(prefix: String, connection: Connection): PrefixTrie = remove(prefix, 0, connection)
+
+  def startingWith(prefix: String): List[AkkaLocation] = nodeAt(prefix, 0).map(_.all).getOrElse(List.empty)
+
+  private def add(prefix: String, depth: Int, location: AkkaLocation): PrefixTrie =
+    if (depth == prefix.length) copy(locations = locations + (location.connection → location))
+    else {
+      val child = children.getOrElse(prefix.charAt(depth), PrefixTrie.empty)
+      copy(children = children + (prefix.charAt(depth) → child.add(prefix, depth + 1, location)))
+    }
+
+  // sub tries left empty are pruned
+  private def remove(prefix: String, depth: Int, connection: Connection): PrefixTrie =
+    if (depth == prefix.length) copy(locations = locations - connection)
+    else
+      children.get(prefix.charAt(depth)) match {
+        case None ⇒ this
+        case Some(child) ⇒
+          val remaining = child.remove(prefix, depth + 1, connection)
+          if (remaining.isEmpty) copy(children = children - prefix.charAt(depth))
+          else copy(children = children + (prefix.charAt(depth) → remaining))
+      }
+
+  private def nodeAt(prefix: String, depth: Int): Option[PrefixTrie] =
+    if (depth == prefix.length) Some(this)
+    else children.get(prefix.charAt(depth)).flatMap(_.nodeAt(prefix, depth + 1))
+
+  private def all: List[AkkaLocation] = locations.values.toList ++ children.values.flatMap(_.all)
+}
+
+private[location] object PrefixTrie {
+  val empty = PrefixTrie(Map.empty, Map.empty)
+}
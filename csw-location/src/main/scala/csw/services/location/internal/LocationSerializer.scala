@@ -0,0 +1,103 @@
+package csw.services.location.internal
+
+import java.io._
+import java.net.URI
+
+import akka.actor.ExtendedActorSystem
+import akka.serialization.{Serialization, SerializerWithStringManifest}
+import akka.typed.ActorRef
+import akka.typed.scaladsl.adapter._
+import csw.messages.location.Connection.{AkkaConnection, HttpConnection, TcpConnection}
+import csw.messages.location._
+
+/**
+ * Compact binary serializer of the locations, connections and component ids held by the location registry, replacing
+ * Kryo for them so that the replicator gossips less bytes. Connections are written as their names, component types by
+ * their names and actor refs as their serialized paths, without any class name or object graph.
+ *
+ * @note It is bound to these types in the `akka.actor.serialization-bindings` of the reference configuration
+ */
+class LocationSerializer(system: ExtendedActorSystem) extends SerializerWithStringManifest {
+  import LocationSerializer._
+
+  override def identifier: Int = 4620
+
+  override def manifest(o: AnyRef): String = o match {
+    case _: AkkaLocation ⇒ AkkaLocationManifest
+    case _: HttpLocation ⇒ HttpLocationManifest
+    case _: TcpLocation  ⇒ TcpLocationManifest
+    case _: Connection   ⇒ ConnectionManifest
+    case _: ComponentId  ⇒ ComponentIdManifest
+    case _ ⇒
+      throw new IllegalArgumentException(s"Can't serialize object of type ${o.getClass} in [${getClass.getName}]")
+  }
+
+  override def toBinary(o: AnyRef): Array[Byte] = {
+    val bytes = new ByteArrayOutputStream()
+    val out   = new DataOutputStream(bytes)
+    o match {
+      case location: AkkaLocation ⇒
+        out.writeUTF(location.connection.name)
+        out.writeUTF(location.prefix.getOrElse(NoValue))
+        out.writeUTF(location.uri.toString)
+        writeActorRef(out, location.actorRef)
+        writeActorRef(out, location.logAdminActorRef)
+      case location: Location ⇒
+        out.writeUTF(location.connection.name)
+        out.writeUTF(location.uri.toString)
+        writeActorRef(out, location.logAdminActorRef)
+      case connection: Connection ⇒ out.writeUTF(connection.name)
+      case componentId: ComponentId ⇒
+        out.writeUTF(componentId.name)
+        out.writeUTF(componentId.componentType.name)
+      case _ ⇒
+        throw new IllegalArgumentException(s"Can't serialize object of type ${o.getClass} in [${getClass.getName}]")
+    }
+    out.flush()
+    bytes.toByteArray
+  }
+
+  override def fromBinary(bytes: Array[Byte], manifest: String): AnyRef = {
+    val in = new DataInputStream(new ByteArrayInputStream(bytes))
+    manifest match {
+      case AkkaLocationManifest ⇒
+        AkkaLocation(
+          Connection.from(in.readUTF()).asInstanceOf[AkkaConnection],
+          Some(in.readUTF()).filterNot(_ == NoValue),
+          new URI(in.readUTF()),
+          readActorRef(in),
+          readActorRef(in)
+        )
+      case HttpLocationManifest ⇒
+        HttpLocation(Connection.from(in.readUTF()).asInstanceOf[HttpConnection], new URI(in.readUTF()), readActorRef(in))
+      case TcpLocationManifest ⇒
+        TcpLocation(Connection.from(in.readUTF()).asInstanceOf[TcpConnection], new URI(in.readUTF()), readActorRef(in))
+      case ConnectionManifest  ⇒ Connection.from(in.readUTF())
+      case ComponentIdManifest ⇒ ComponentId(in.readUTF(), ComponentType.withName(in.readUTF()))
+      case _ ⇒
+        throw new NotSerializableException(
+          s"Unimplemented deserialization of message with manifest [$manifest] in [${getClass.getName}]"
+        )
+    }
+  }
+
+  // actor refs are left null by registrations made without a log admin actor
+  private def writeActorRef(out: DataOutputStream, actorRef: ActorRef[Nothing]): Unit =
+    out.writeUTF(if (actorRef == null) NoValue else Serialization.serializedActorPath(actorRef.toUntyped))
+
+  private def readActorRef(in: DataInputStream): ActorRef[Nothing] = in.readUTF() match {
+    case NoValue ⇒ null
+    case path    ⇒ system.provider.resolveActorRef(path)
+  }
+}
+
+object LocationSerializer {
+  private val AkkaLocationManifest = "A"
+  private val HttpLocationManifest = "H"
+  private val TcpLocationManifest  = "T"
+  private val ConnectionManifest   = "C"
+  private val ComponentIdManifest  = "I"
+
+  // prefixes and actor paths are never empty, hence an empty string stands for a missing one
+  private val NoValue = ""
+}
@@ -5,18 +5,12 @@ import akka.cluster.ddata.Replicator._
 import akka.cluster.ddata._
 import akka.pattern.ask
 import akka.stream.scaladsl.{Sink, Source}
-import akka.stream.{KillSwitch, OverflowStrategy}
+import akka.stream.KillSwitch
 import akka.util.Timeout
 import csw.messages.location._
 import csw.services.location.commons.{CswCluster, LocationServiceLogger}
-import csw.services.location.exceptions.{
-  OtherLocationIsRegistered,
-  RegistrationFailed,
-  RegistrationListingFailed,
-  UnregistrationFailed
-}
+import csw.services.location.exceptions.{OtherLocationIsRegistered, RegistrationFailed, ResolveFailed, UnregistrationFailed}
 import csw.services.location.internal.Registry.AllServices
-import csw.services.location.internal.StreamExt.RichSource
 import csw.services.location.javadsl.ILocationService
 import csw.services.location.models._
 import csw.services.location.scaladsl.LocationService
@@ -25,6 +19,8 @@ import csw.services.logging.scaladsl.Logger
 import scala.async.Async._
 import scala.concurrent.Future
 import scala.concurrent.duration.{DurationDouble, FiniteDuration}
+import scala.util.control.NonFatal
+import scala.util.{Failure, Success}
 
 private[location] class LocationServiceImpl(cswCluster: CswCluster) extends LocationService {
   outer ⇒
@@ -32,94 +28,102 @@ private[location] class LocationServiceImpl(cswCluster: CswCluster) extends Loca
   val log: Logger = LocationServiceLogger.getLogger
 
   import cswCluster._
-  implicit val timeout: Timeout = Timeout(5.seconds)
+  private val settings          = LocationSettings(actorSystem.settings.config)
+  implicit val timeout: Timeout = Timeout(settings.timeout)
+
+  // connection -> location map in CRDT, partitioned into shards
+  private val allServices = new AllServices(settings.registryShards)
+
+  // find and list queries are answered from a node local index of AllServices
+  private val locationCache = new LocationCache(cswCluster, allServices, settings.timeout)
+
+  // streams tracking the same connection share one subscription to the replicator
+  private val trackingHub = new TrackingHub(cswCluster)
 
   /**
    * Register a 'connection -> location' entry in CRDT
     **/
-  def register(registration: Registration): Future[RegistrationResult] = async {
+  def register(registration: Registration): Future[RegistrationResult] =
+    register(registration, settings.readConsistency, settings.writeConsistency)
+
+  /**
+   * Register a 'connection -> location' entry in CRDT with the given consistencies
+   */
+  def register(
+      registration: Registration,
+      readConsistency: Consistency,
+      writeConsistency: Consistency
+  ): Future[RegistrationResult] = async {
 
     //Get the location from this registration
     val location = registration.location(cswCluster.hostname)
     log.info(s"Registering connection: [${registration.connection.name}] with location: [${location.uri.toString}]")
 
-    //Create a message handler for this connection
-    val service = new Registry.Service(registration.connection)
-
-    // Registering a location needs to read from other replicas to avoid duplicate location registration before performing the update
-    // This approach is inspired from Migration Guide section of https://github.com/patriknw/akka-data-replication
-    val initialValue = (replicator ? service.getByMajority).map {
-      case x @ GetSuccess(_, _) ⇒ x.get(service.Key)
-      case _                    ⇒ service.EmptyValue
-    }
+    //Update the value of connection key and then add the connection -> location entry to its shard of the map in
+    //CRDT. If both are successful then return a registrationResult for this Location. In case of any failure throw an
+    //exception.
+    await(registerService(location, readConsistency, writeConsistency))
+    await(addToAllServices(List(location), writeConsistency))
+    log.info(s"Successfully registered connection: [${registration.connection.name}] with location [${location.uri}]")
+    registrationResult(location)
+  }
 
-    //Create an update message to update the value of connection key. if the current value is None or same as
-    //this location then update it with this location. if it is some other location then an exception will be thrown and
-    //it will be handled below by ModifyFailure.
-    val updateValue = service.update(
-      {
-        case r @ LWWRegister(Some(`location`) | None) ⇒ r.withValue(Some(location))
-        case LWWRegister(Some(otherLocation)) ⇒
-          val locationIsRegistered = OtherLocationIsRegistered(location, otherLocation)
-          throw locationIsRegistered
-      },
-      await(initialValue)
-    )
+  /**
+   * Register 'connection -> location' entries in CRDT, with a single update of each shard of the connection -> location
+   * map
+   */
+  def registerAll(registrations: Seq[Registration]): Future[Seq[RegistrationResult]] =
+    if (registrations.isEmpty) Future.successful(Seq.empty)
+    else {
+      val locations = registrations.map(_.location(cswCluster.hostname))
+      log.info(s"Registering connections: [${locations.map(_.connection.name).mkString(", ")}]")
+
+      //Updates of the connection keys are all sent before any of their replies is awaited
+      val registeredF = Future.traverse(locations) { location ⇒
+        registerService(location, settings.readConsistency, settings.writeConsistency).map(_ ⇒ Success(location)).recover {
+          case NonFatal(ex) ⇒ Failure(ex)
+        }
+      }
 
-    //Create a message to update connection -> location map in CRDT
-    val updateRegistry = AllServices.update(_ + (registration.connection → location))
-
-    //Send the update message for connection key to replicator. On success, send another message to update connection -> location
-    //map. If that is successful then return a registrationResult for this Location. In case of any failure throw an exception.
-    val registrationResultF = (replicator ? updateValue).flatMap {
-      case _: UpdateSuccess[_] ⇒
-        (replicator ? updateRegistry).map {
-          case _: UpdateSuccess[_] ⇒
-            log.info(
-              s"Successfully registered connection: [${registration.connection.name}] with location [${location.uri}]"
-            )
-            registrationResult(location)
-          case _ ⇒
-            val registrationFailed = RegistrationFailed(registration.connection)
-            log.error(registrationFailed.getMessage, ex = registrationFailed)
-            throw registrationFailed
+      //Add the registered locations to connection -> location map in CRDT with one update per shard. Like registering
+      //each of them, the locations registered before a failure stay registered and the first failure is thrown.
+      registeredF.flatMap { registered ⇒
+        val registeredLocations = registered.collect { case Success(location) ⇒ location }
+        addToAllServices(registeredLocations, settings.writeConsistency).map { _ ⇒
+          registered.foreach(_.get)
+          log.info(s"Successfully registered connections: [${locations.map(_.connection.name).mkString(", ")}]")
+          locations.map(registrationResult)
         }
-      case ModifyFailure(service.Key, _, cause, _) ⇒
-        log.error(cause.getMessage, ex = cause)
-        throw cause
-      case _ ⇒
-        val registrationFailed = RegistrationFailed(registration.connection)
-        log.error(registrationFailed.getMessage, ex = registrationFailed)
-        throw registrationFailed
+      }
     }
-    await(registrationResultF)
-  }
 
   /**
    * Unregister the connection from CRDT
    */
-  def unregister(connection: Connection): Future[Done] = {
+  def unregister(connection: Connection): Future[Done] = unregister(connection, settings.writeConsistency)
+
+  /**
+   * Unregister the connection from CRDT with the given consistency
+   */
+  def unregister(connection: Connection, writeConsistency: Consistency): Future[Done] = {
     log.info(s"Un-registering connection: [${connection.name}]")
-    //Create a message handler for this connection
-    val service = new Registry.Service(connection)
+    //Update the connection key with None and then remove the corresponding connection -> location entry from map. In
+    //case of any failure throw an exception otherwise return Done.
+    unregisterService(connection, writeConsistency).flatMap(_ ⇒ removeFromAllServices(List(connection), writeConsistency))
+  }
 
-    //Send an update message to replicator to update the connection key with None. On success send another message to remove the
-    //corresponding connection -> location entry from map. In case of any failure throw an exception otherwise return Done.
-    (replicator ? service.update(_.withValue(None))).flatMap {
-      case x: UpdateSuccess[_] ⇒
-        (replicator ? AllServices.update(_ - connection)).map {
-          case _: UpdateSuccess[_] ⇒ Done
-          case _ ⇒
-            val unregistrationFailed = UnregistrationFailed(connection)
-            log.error(unregistrationFailed.getMessage, ex = unregistrationFailed)
-            throw unregistrationFailed
-        }
-      case _ ⇒
-        val unregistrationFailed = UnregistrationFailed(connection)
-        log.error(unregistrationFailed.getMessage, ex = unregistrationFailed)
-        throw unregistrationFailed
+  /**
+   * Unregister the connections from CRDT, with a single update of each shard of the connection -> location map
+   */
+  def unregisterAll(connections: Seq[Connection]): Future[Done] =
+    if (connections.isEmpty) Future.successful(Done)
+    else {
+      log.info(s"Un-registering connections: [${connections.map(_.name).mkString(", ")}]")
+      //Updates of the connection keys are all sent before any of their replies is awaited
+      Future.traverse(connections)(unregisterService(_, settings.writeConsistency)).flatMap { _ ⇒
+        removeFromAllServices(connections, settings.writeConsistency)
+      }
     }
-  }
 
   /**
    * Unregister all connections from CRDT
@@ -130,17 +134,16 @@ private[location] class LocationServiceImpl(cswCluster: CswCluster) extends Loca
     //Get all locations registered with CRDT
     val locations = await(list)
 
-    //for each location unregister it's corresponding connection
-    await(Future.traverse(locations)(loc ⇒ unregister(loc.connection)))
-    Done
+    //unregister their connections
+    await(unregisterAll(locations.map(_.connection)))
   }
 
   /**
    * Resolves the location for a connection from the local cache
    */
-  def find[L <: Location](connection: TypedConnection[L]): Future[Option[L]] = async {
+  def find[L <: Location](connection: TypedConnection[L]): Future[Option[L]] = {
     log.info(s"Finding location for connection: [${connection.name}]")
-    await(list).find(_.connection == connection).asInstanceOf[Option[L]]
+    locationCache.query(_.find(connection).asInstanceOf[Option[L]])
   }
 
   /**
@@ -153,69 +156,59 @@ private[location] class LocationServiceImpl(cswCluster: CswCluster) extends Loca
   }
 
   /**
-   * List all locations registered with CRDT
+   * Resolve a location for the given connection by reading its value from the replicas of the given consistency
    */
-  def list: Future[List[Location]] = (replicator ? AllServices.get).map {
-    case x @ GetSuccess(AllServices.Key, _) ⇒ x.get(AllServices.Key).entries.values.toList
-    case NotFound(AllServices.Key, _)       ⇒ List.empty
-    case _ ⇒
-      val listingFailed = RegistrationListingFailed
-      log.error(listingFailed.getMessage, ex = listingFailed)
-      throw listingFailed
+  def resolve[L <: Location](connection: TypedConnection[L], consistency: Consistency): Future[Option[L]] = {
+    log.info(s"Resolving location for connection: [${connection.name}] with consistency $consistency")
+    //Create a message handler for this connection
+    val service = new Registry.Service(connection)
+
+    ask(replicator, service.get(consistency))(askTimeout(consistency)).map {
+      case x @ GetSuccess(_, _) ⇒ x.get(service.Key).value.asInstanceOf[Option[L]]
+      case NotFound(_, _)       ⇒ None
+      case _ ⇒
+        val resolveFailed = ResolveFailed(connection)
+        log.error(resolveFailed.getMessage, ex = resolveFailed)
+        throw resolveFailed
+    }
   }
 
+  /**
+   * List all locations registered with CRDT
+   */
+  def list: Future[List[Location]] = locationCache.query(_.list)
+
   /**
    * List all locations registered for the given componentType
    */
-  def list(componentType: ComponentType): Future[List[Location]] = async {
-    await(list).filter(_.connection.componentId.componentType == componentType)
-  }
+  def list(componentType: ComponentType): Future[List[Location]] = locationCache.query(_.list(componentType))
 
   /**
    * List all locations registered with the given hostname
    */
-  def list(hostname: String): Future[List[Location]] = async {
-    await(list).filter(_.uri.getHost == hostname)
-  }
+  def list(hostname: String): Future[List[Location]] = locationCache.query(_.list(hostname))
 
   /**
    * List all locations registered with the given connection type
    */
-  def list(connectionType: ConnectionType): Future[List[Location]] = async {
-    await(list).filter(_.connection.connectionType == connectionType)
-  }
+  def list(connectionType: ConnectionType): Future[List[Location]] = locationCache.query(_.list(connectionType))
 
-  override def listByPrefix(_prefix: String): Future[List[AkkaLocation]] = async {
-    await(list).collect {
-      case akkaLocation @ AkkaLocation(_, prefix, _, _, _) if prefix.exists(_.startsWith(_prefix)) ⇒ akkaLocation
-    }
-  }
+  override def listByPrefix(_prefix: String): Future[List[AkkaLocation]] = locationCache.query(_.listByPrefix(_prefix))
 
   /**
    * Track the status of given connection
    */
   def track(connection: Connection): Source[TrackingEvent, KillSwitch] = {
     log.debug(s"Tracking connection: [${connection.name}]")
-    //Create a message handler for this connection
-    val service = new Registry.Service(connection)
-    //Get a stream that emits messages sent to the actor generated after materialization
-    val source = Source.actorRef[Any](256, OverflowStrategy.dropHead).mapMaterializedValue {
-      //Subscribe materialized actorRef to the changes in connection so that above stream starts emitting messages
-      actorRef ⇒
-        replicator ! Subscribe(service.Key, actorRef)
-    }
+    trackingHub.track(Set(connection))
+  }
 
-    //Collect only the Changed events for this connection and transform it to location events.
-    // If the changed event contains a Location, send LocationUpdated event.
-    // If not, location must have been removed, send LocationRemoved event.
-    val trackingEvents = source.collect {
-      case c @ Changed(service.Key) if c.get(service.Key).value.isDefined ⇒
-        LocationUpdated(c.get(service.Key).value.get)
-      case c @ Changed(service.Key) ⇒ LocationRemoved(connection)
-    }
-    //Allow stream to be cancellable by giving it a KillSwitch in mat value.
-    // Also, deduplicate identical messages in case multiple DeathWatch actors unregisters the same location.
-    trackingEvents.cancellable.distinctUntilChanged
+  /**
+   * Track the status of given connections in one stream
+   */
+  def trackAll(connections: Set[Connection]): Source[TrackingEvent, KillSwitch] = {
+    log.debug(s"Tracking connections: [${connections.map(_.name).mkString(", ")}]")
+    trackingHub.track(connections)
   }
 
   /**
@@ -226,7 +219,7 @@ private[location] class LocationServiceImpl(cswCluster: CswCluster) extends Loca
     track(connection).to(Sink.foreach(callback)).run()
   }
 
-  override def asJava: ILocationService = new JLocationServiceImpl(this, cswCluster)
+  override def asJava: ILocationService = new JLocationServiceImpl(this)(cswCluster.ec)
 
   /**
    * Terminate the ActorSystem and gracefully leave the akka cluster
@@ -234,6 +227,98 @@ private[location] class LocationServiceImpl(cswCluster: CswCluster) extends Loca
    */
   def shutdown(): Future[Done] = cswCluster.shutdown()
 
+  /**
+   * Updates the value of connection key with this location
+   */
+  private def registerService(
+      location: Location,
+      readConsistency: Consistency,
+      writeConsistency: Consistency
+  ): Future[Done] = async {
+    //Create a message handler for this connection
+    val service = new Registry.Service(location.connection)
+
+    // Registering a location needs to read from other replicas to avoid duplicate location registration before performing the update
+    // This approach is inspired from Migration Guide section of https://github.com/patriknw/akka-data-replication
+    val initialValue = ask(replicator, service.get(readConsistency))(askTimeout(readConsistency)).map {
+      case x @ GetSuccess(_, _) ⇒ x.get(service.Key)
+      case _                    ⇒ service.EmptyValue
+    }
+
+    //Create an update message to update the value of connection key. if the current value is None or same as
+    //this location then update it with this location. if it is some other location then an exception will be thrown and
+    //it will be handled below by ModifyFailure.
+    val updateValue = service.update(
+      {
+        case r @ LWWRegister(Some(`location`) | None) ⇒ r.withValue(Some(location))
+        case LWWRegister(Some(otherLocation)) ⇒
+          val locationIsRegistered = OtherLocationIsRegistered(location, otherLocation)
+          throw locationIsRegistered
+      },
+      writeConsistency,
+      await(initialValue)
+    )
+
+    await(ask(replicator, updateValue)(askTimeout(writeConsistency))) match {
+      case _: UpdateSuccess[_] ⇒ Done
+      case ModifyFailure(service.Key, _, cause, _) ⇒
+        log.error(cause.getMessage, ex = cause)
+        throw cause
+      case _ ⇒
+        val registrationFailed = RegistrationFailed(location.connection)
+        log.error(registrationFailed.getMessage, ex = registrationFailed)
+        throw registrationFailed
+    }
+  }
+
+  /**
+   * Updates the value of connection key with None
+   */
+  private def unregisterService(connection: Connection, writeConsistency: Consistency): Future[Done] = {
+    //Create a message handler for this connection
+    val service = new Registry.Service(connection)
+
+    ask(replicator, service.update(_.withValue(None), writeConsistency))(askTimeout(writeConsistency)).map {
+      case _: UpdateSuccess[_] ⇒ Done
+      case _ ⇒
+        val unregistrationFailed = UnregistrationFailed(connection)
+        log.error(unregistrationFailed.getMessage, ex = unregistrationFailed)
+        throw unregistrationFailed
+    }
+  }
+
+  private def addToAllServices(locations: Seq[Location], writeConsistency: Consistency): Future[Done] =
+    updateAllServices(locations, writeConsistency)(_.connection)(
+      (map, location) ⇒ map + (location.connection → location)
+    )(RegistrationFailed)
+
+  private def removeFromAllServices(connections: Seq[Connection], writeConsistency: Consistency): Future[Done] =
+    updateAllServices(connections, writeConsistency)(identity)(_ - _)(UnregistrationFailed)
+
+  /**
+   * Updates the shards of the connection -> location map in CRDT holding the connections of the given entries, with one
+   * update per shard, and then the local cache, so that the updates are visible to find and list once they complete
+   */
+  private def updateAllServices[T](entries: Seq[T], writeConsistency: Consistency)(connection: T ⇒ Connection)(
+      f: (AllServices.Value, T) ⇒ AllServices.Value
+  )(failure: Connection ⇒ Exception): Future[Done] = {
+    val entriesByShard = allServices.groupByShard(entries)(connection)
+    val updatedF = Future.traverse(entriesByShard.toList) {
+      case (shard, shardEntries) ⇒
+        ask(replicator, shard.update(shardEntries.foldLeft(_)(f), writeConsistency))(askTimeout(writeConsistency)).map {
+          case _: UpdateSuccess[_] ⇒ Done
+          case _ ⇒
+            val updateFailed = failure(connection(shardEntries.head))
+            log.error(updateFailed.getMessage, ex = updateFailed)
+            throw updateFailed
+        }
+    }
+    updatedF.flatMap(_ ⇒ locationCache.refresh(entriesByShard.keys))
+  }
+
+  // the replicator replies with a failure once the timeout of the consistency has elapsed, hence it is awaited a bit longer
+  private def askTimeout(consistency: Consistency): Timeout = Timeout(consistency.timeout + 1.second)
+
   private def registrationResult(loc: Location): RegistrationResult = new RegistrationResult {
     override def location: Location = loc
 
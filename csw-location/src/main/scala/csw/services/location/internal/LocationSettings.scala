@@ -0,0 +1,48 @@
+package csw.services.location.internal
+
+import com.typesafe.config.Config
+import csw.services.location.models._
+
+import scala.concurrent.duration.{DurationLong, FiniteDuration}
+
+/**
+ * Settings of the location service, read from `csw-location` in the config of the actor system of the cluster
+ *
+ * @param readConsistency consistency of the reads of registrations made by register
+ * @param writeConsistency consistency of the writes of registrations made by register and unregister
+ * @param timeout time within which the replicas must reply to reads and writes
+ * @param registryShards number of shards of the map of all registered locations
+ * @param deathwatchBatchInterval time during which the locations of terminated actors are collected before being
+ *                                unregistered together
+ */
+private[location] case class LocationSettings(
+    readConsistency: Consistency,
+    writeConsistency: Consistency,
+    timeout: FiniteDuration,
+    registryShards: Int,
+    deathwatchBatchInterval: FiniteDuration
+)
+
+private[location] object LocationSettings {
+
+  def apply(config: Config): LocationSettings = {
+    val locationConfig = config.getConfig("csw-location")
+    val timeout        = locationConfig.getDuration("timeout").toMillis.millis
+    LocationSettings(
+      consistency(locationConfig.getString("read-consistency"), timeout),
+      consistency(locationConfig.getString("write-consistency"), timeout),
+      timeout,
+      locationConfig.getInt("registry-shards"),
+      locationConfig.getDuration("deathwatch-batch-interval").toMillis.millis
+    )
+  }
+
+  private def consistency(value: String, timeout: FiniteDuration): Consistency = value match {
+    case "local"                                ⇒ LocalConsistency(timeout)
+    case "majority"                             ⇒ MajorityConsistency(timeout)
+    case "all"                                  ⇒ AllConsistency(timeout)
+    case n if n.nonEmpty && n.forall(_.isDigit) ⇒ QuorumConsistency(n.toInt, timeout)
+    case _ ⇒
+      throw new IllegalArgumentException(s"consistency must be local, majority, all or a number of replicas, was [$value]")
+  }
+}
@@ -5,8 +5,7 @@ import akka.cluster.ddata.Replicator._
 import akka.cluster.ddata._
 import csw.messages.location.{Connection, Location}
 import csw.services.location.commons.Constants
-
-import scala.concurrent.duration.DurationDouble
+import csw.services.location.models._
 
 /**
  * Registry is used to create distributed data and manage its update and get messages for replicator
@@ -17,17 +16,19 @@ import scala.concurrent.duration.DurationDouble
  * @tparam V The type of ReplicatedData
  */
 class Registry[K <: Key[V], V <: ReplicatedData](val Key: K, val EmptyValue: V) {
+  import Registry._
 
   type Value = V
 
   /**
-   * Creates an update message for replicator and it ensures that the response goes out only after majority nodes are written to
+   * Creates an update message for replicator and it ensures that the response goes out only after the replicas of the
+   * given consistency are written to
    *
    * @see [[akka.cluster.ddata.Replicator.Update]]
    * @param f A callback function which is passed to Replicator.Update
    */
-  def update(f: V ⇒ V, initialValue: V = EmptyValue): Update[V] =
-    Update(Key, initialValue, WriteMajority(5.seconds))(f)
+  def update(f: V ⇒ V, consistency: Consistency, initialValue: V = EmptyValue): Update[V] =
+    Update(Key, initialValue, writeConsistency(consistency))(f)
 
   /**
    * Creates a get message for replicator. Unlike for update, it will read from the local cache of the node
@@ -37,21 +38,89 @@ class Registry[K <: Key[V], V <: ReplicatedData](val Key: K, val EmptyValue: V)
   def get: Get[V] = Get(Key, ReadLocal)
 
   /**
-   * Creates a get message for replicator and it ensures that data is read and merged from a majority of replicas,
-   * i.e. at least N/2 + 1 replicas, where N is the number of nodes in the cluster
+   * Creates a get message for replicator and it ensures that data is read and merged from the replicas of the given
+   * consistency, e.g. at least N/2 + 1 replicas for majority, where N is the number of nodes in the cluster
    *
    * @see [[akka.cluster.ddata.Replicator.Get]]
    */
-  def getByMajority: Get[V] = Get(Key, ReadMajority(5.seconds))
+  def get(consistency: Consistency): Get[V] = Get(Key, readConsistency(consistency))
 }
 
 object Registry {
 
+  private def readConsistency(consistency: Consistency): ReadConsistency = consistency match {
+    case LocalConsistency(_)           ⇒ ReadLocal
+    case MajorityConsistency(timeout)  ⇒ ReadMajority(timeout)
+    case AllConsistency(timeout)       ⇒ ReadAll(timeout)
+    case QuorumConsistency(n, timeout) ⇒ ReadFrom(n, timeout)
+  }
+
+  private def writeConsistency(consistency: Consistency): WriteConsistency = consistency match {
+    case LocalConsistency(_)           ⇒ WriteLocal
+    case MajorityConsistency(timeout)  ⇒ WriteMajority(timeout)
+    case AllConsistency(timeout)       ⇒ WriteAll(timeout)
+    case QuorumConsistency(n, timeout) ⇒ WriteTo(n, timeout)
+  }
+
+  /**
+   * AllServices is a distributed map from connection to location, partitioned by connection into shards. Each shard is
+   * a map under a key of its own, hence registering a connection only rewrites and gossips the shard of the connection.
+   * The shards together are used to get list of all registered locations at any point in time
+   *
+   * @note The number of shards must be the same on all the nodes of the cluster, see [[RegistryShardsCheck]]
+   * @param shardCount The number of shards
+   */
+  class AllServices(shardCount: Int) {
+    require(shardCount > 0, "AllServices must have at least one shard")
+
+    val shards: Vector[AllServices.Shard] = Vector.tabulate(shardCount)(new AllServices.Shard(_))
+
+    /**
+     * The shard holding the location of the connection
+     */
+    def shardOf(connection: Connection): AllServices.Shard = shards(Math.floorMod(connection.name.hashCode, shardCount))
+
+    /**
+     * Groups the values by the shard of their connection
+     */
+    def groupByShard[T](values: Seq[T])(connection: T ⇒ Connection): Map[AllServices.Shard, Seq[T]] =
+      values.groupBy(value ⇒ shardOf(connection(value)))
+  }
+
+  object AllServices {
+
+    type Value = LWWMap[Connection, Location]
+
+    /**
+     * Shard of AllServices holding the locations of the connections hashed to it
+     *
+     * @param index The index of the shard
+     */
+    class Shard(val index: Int)
+        extends Registry[LWWMapKey[Connection, Location], LWWMap[Connection, Location]](
+          Key = LWWMapKey(s"${Constants.RegistryKey}-$index"),
+          EmptyValue = LWWMap.empty
+        )
+  }
+
+  /**
+   * RegistryShards holds the number of shards of AllServices, written by the first node of the cluster to start. Nodes
+   * configured with another number of shards would register and look up locations under other keys, hence they read it
+   * to refuse to join instead.
+   *
+   * @param shardCount The number of shards of this node, written if the cluster has none yet
+   */
+  class RegistryShards(shardCount: Int)(implicit cluster: Cluster)
+      extends Registry[LWWRegisterKey[Int], LWWRegister[Int]](
+        Key = LWWRegisterKey(s"${Constants.RegistryKey}-shards"),
+        EmptyValue = LWWRegister(shardCount)
+      )
+
   /**
-   * AllServices is a distributed map from connection to location.
-   * It is used to get list of all registered locations at any point in time
+   * The single map of all registered locations kept by the nodes which predate the shards of AllServices. It is only
+   * read to refuse to join a cluster which still has such nodes.
    */
-  object AllServices
+  object UnshardedAllServices
       extends Registry[LWWMapKey[Connection, Location], LWWMap[Connection, Location]](
         Key = LWWMapKey(Constants.RegistryKey),
         EmptyValue = LWWMap.empty
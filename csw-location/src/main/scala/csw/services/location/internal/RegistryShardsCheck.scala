@@ -0,0 +1,64 @@
+package csw.services.location.internal
+
+import akka.Done
+import akka.cluster.ddata.Replicator._
+import akka.pattern.ask
+import akka.util.Timeout
+import csw.services.location.commons.CswCluster
+import csw.services.location.exceptions.RegistryShardsMismatch
+import csw.services.location.internal.Registry.{RegistryShards, UnshardedAllServices}
+import csw.services.location.models.MajorityConsistency
+
+import scala.async.Async._
+import scala.concurrent.Future
+import scala.concurrent.duration.DurationInt
+
+/**
+ * Ensures at startup that a node partitions the location registry into as many shards as the rest of the cluster. The
+ * first node to start publishes its `csw-location.registry-shards`, the next ones fail to start if theirs differs, as
+ * they do if the cluster still has nodes which keep all the locations under a single key. Changing the number of shards
+ * hence requires restarting the whole cluster.
+ *
+ * The number of shards is read and written with majority consistency whatever the consistency of registrations, so
+ * that the first nodes of a cluster can start before a quorum is up.
+ */
+private[location] object RegistryShardsCheck {
+
+  def verify(cswCluster: CswCluster): Future[Done] = {
+    import cswCluster._
+    val settings                  = LocationSettings(actorSystem.settings.config)
+    val consistency               = MajorityConsistency(settings.timeout)
+    val registryShards            = new RegistryShards(settings.registryShards)
+    implicit val timeout: Timeout = Timeout(settings.timeout + 1.second)
+
+    def clusterShards(): Future[Option[Int]] = (replicator ? registryShards.get(consistency)).map {
+      case x @ GetSuccess(_, _) ⇒ Some(x.get(registryShards.Key).value)
+      case NotFound(_, _)       ⇒ None
+      case _                    ⇒ throw new RuntimeException("could not read the number of shards of location service registry")
+    }
+
+    // an existing number of shards is kept, hence concurrent first nodes end up reading the same one
+    def publishShards(): Future[Done] = (replicator ? registryShards.update(identity, consistency)).map {
+      case _: UpdateSuccess[_] ⇒ Done
+      case _                   ⇒ throw new RuntimeException("could not write the number of shards of location service registry")
+    }
+
+    def hasUnshardedNodes: Future[Boolean] = (replicator ? UnshardedAllServices.get(consistency)).map {
+      case GetSuccess(_, _) ⇒ true
+      case _                ⇒ false
+    }
+
+    async {
+      if (await(hasUnshardedNodes)) throw RegistryShardsMismatch(settings.registryShards, None)
+
+      val shards = await(clusterShards()) match {
+        case Some(n) ⇒ n
+        case None ⇒
+          await(publishShards())
+          await(clusterShards()).getOrElse(settings.registryShards)
+      }
+      if (shards != settings.registryShards) throw RegistryShardsMismatch(settings.registryShards, Some(shards))
+      Done
+    }
+  }
+}
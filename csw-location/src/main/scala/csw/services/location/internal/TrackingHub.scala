@@ -0,0 +1,88 @@
+package csw.services.location.internal
+
+import akka.actor.{Actor, ActorRef, Props, Terminated}
+import akka.cluster.ddata.Replicator._
+import akka.stream.scaladsl.Source
+import akka.stream.{KillSwitch, OverflowStrategy}
+import csw.messages.location.{Connection, LocationRemoved, LocationUpdated, TrackingEvent}
+import csw.services.location.commons.CswCluster
+import csw.services.location.internal.StreamExt.RichSource
+import csw.services.location.internal.TrackingHub.Track
+
+/**
+ * Shares the subscriptions to the replicator between all the streams tracking connections from this location service.
+ * A connection key is subscribed to once, when its first stream starts, and unsubscribed from when its last stream
+ * stops. Events of a connection are sent to all of its streams, the latest of them being sent to streams starting while
+ * the connection is already tracked.
+ *
+ * @param cswCluster provides the replicator and the actor system running the actor which fans out the events
+ */
+private[location] class TrackingHub(cswCluster: CswCluster) {
+  import cswCluster._
+
+  private val hubActor: ActorRef = actorSystem.actorOf(Props(new TrackingHubActor))
+
+  /**
+   * Tracks the connections in one stream, which emits the events of all of them
+   */
+  def track(connections: Set[Connection]): Source[TrackingEvent, KillSwitch] =
+    Source
+      .actorRef[TrackingEvent](256, OverflowStrategy.dropHead)
+      .mapMaterializedValue(actorRef ⇒ hubActor ! Track(connections, actorRef))
+      .cancellable
+
+  /**
+   * Subscribers and latest event of a tracked connection
+   */
+  private case class Tracked(connection: Connection, subscribers: Set[ActorRef], latest: Option[TrackingEvent])
+
+  /**
+   * Keeps the tracked connections by name, i.e. by id of their key. Streams are watched and removed when they stop.
+   */
+  private class TrackingHubActor extends Actor {
+
+    private var tracked: Map[String, Tracked] = Map.empty
+
+    override def receive: Receive = {
+      case Track(connections, subscriber) ⇒
+        context.watch(subscriber)
+        connections.foreach(add(_, subscriber))
+
+      case Terminated(subscriber) ⇒ tracked.values.filter(_.subscribers.contains(subscriber)).foreach(remove(_, subscriber))
+
+      case c @ Changed(key) if tracked.contains(key.id) ⇒
+        val t       = tracked(key.id)
+        val service = new Registry.Service(t.connection)
+        val event = c.get(service.Key).value match {
+          case Some(location) ⇒ LocationUpdated(location)
+          case None           ⇒ LocationRemoved(t.connection)
+        }
+        // identical events are sent when multiple DeathWatch actors unregister the same location
+        if (!t.latest.contains(event)) {
+          tracked += key.id → t.copy(latest = Some(event))
+          t.subscribers.foreach(_ ! event)
+        }
+    }
+
+    private def add(connection: Connection, subscriber: ActorRef): Unit = tracked.get(connection.name) match {
+      case None ⇒
+        replicator ! Subscribe(new Registry.Service(connection).Key, self)
+        tracked += connection.name → Tracked(connection, Set(subscriber), None)
+      case Some(t) ⇒
+        t.latest.foreach(subscriber ! _)
+        tracked += connection.name → t.copy(subscribers = t.subscribers + subscriber)
+    }
+
+    private def remove(t: Tracked, subscriber: ActorRef): Unit = {
+      val subscribers = t.subscribers - subscriber
+      if (subscribers.isEmpty) {
+        replicator ! Unsubscribe(new Registry.Service(t.connection).Key, self)
+        tracked -= t.connection.name
+      } else tracked += t.connection.name → t.copy(subscribers = subscribers)
+    }
+  }
+}
+
+private[location] object TrackingHub {
+  case class Track(connections: Set[Connection], subscriber: ActorRef)
+}
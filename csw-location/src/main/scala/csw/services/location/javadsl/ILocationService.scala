@@ -27,6 +27,26 @@ trait ILocationService {
    */
   def register(registration: Registration): CompletableFuture[IRegistrationResult]
 
+  /**
+   * Registers a connection to location, reading the registered location from and writing it to the replicas of the
+   * given consistencies instead of the configured ones
+   *
+   * @return A CompletableFuture which completes with Registration result
+   */
+  def register(
+      registration: Registration,
+      readConsistency: Consistency,
+      writeConsistency: Consistency
+  ): CompletableFuture[IRegistrationResult]
+
+  /**
+   * Registers connections to locations with a single update of the registry shared by all connections
+   *
+   * @return A CompletableFuture which completes with Registration results in the order of the given registrations, or
+   *         fails with the first failure, the registrations which succeeded staying registered
+   */
+  def registerAll(registrations: ju.List[Registration]): CompletableFuture[ju.List[IRegistrationResult]]
+
   /**
    * Unregisters the connection
    *
@@ -35,6 +55,21 @@ trait ILocationService {
    */
   def unregister(connection: Connection): CompletableFuture[Done]
 
+  /**
+   * Unregisters the connection, writing to the replicas of the given consistency instead of the configured one
+   *
+   * @return A CompletableFuture which completes after un-registration happens successfully and fails otherwise
+   */
+  def unregister(connection: Connection, writeConsistency: Consistency): CompletableFuture[Done]
+
+  /**
+   * Unregisters the connections with a single update of the registry shared by all connections
+   *
+   * @param connections Already registered connections
+   * @return A CompletableFuture which completes after un-registration of all connections happens successfully and fails otherwise
+   */
+  def unregisterAll(connections: ju.List[Connection]): CompletableFuture[Done]
+
   /**
    * Unregisters all connections registered
    * ''Note: '' It is highly recommended to use this method for testing purpose only
@@ -58,6 +93,14 @@ trait ILocationService {
    */
   def resolve[L <: Location](connection: TypedConnection[L], within: FiniteDuration): CompletableFuture[Optional[L]]
 
+  /**
+   * Resolves the location by reading it from the replicas of the given consistency, without waiting for it to be
+   * registered. With LocalConsistency it is read from the replica of this node only.
+   *
+   * @return A CompletableFuture which completes with the resolved location if found or Empty otherwise.
+   */
+  def resolve[L <: Location](connection: TypedConnection[L], consistency: Consistency): CompletableFuture[Optional[L]]
+
   /**
    * Lists all locations registered
    *
@@ -102,6 +145,14 @@ trait ILocationService {
    */
   def track(connection: Connection): Source[TrackingEvent, KillSwitch]
 
+  /**
+   * Tracks the connections and send events for modification or removal of their locations in one stream
+   *
+   * @return A stream that emits events related to all the connections. It can be cancelled using KillSwitch. This will
+   *         stop giving events for all the connections
+   */
+  def trackAll(connections: ju.List[Connection]): Source[TrackingEvent, KillSwitch]
+
   /**
    * Subscribe to tracking events for a connection by providing a consumer
    * For each event accept method of consumer interface is invoked.
@@ -0,0 +1,36 @@
+package csw.services.location.models
+
+import scala.concurrent.duration.FiniteDuration
+
+/**
+ * Consistency of a read or a write of registrations, i.e. the replicas of the location service that are read from or
+ * written to before the read or the write completes. It fails if those replicas do not reply within the timeout.
+ */
+sealed abstract class Consistency {
+  def timeout: FiniteDuration
+}
+
+/**
+ * Reads from or writes to the replica of this node only, it completes without waiting for any other node
+ */
+final case class LocalConsistency(timeout: FiniteDuration) extends Consistency
+
+/**
+ * Reads from or writes to a majority of replicas, i.e. at least N/2 + 1 replicas, where N is the number of nodes in
+ * the cluster
+ */
+final case class MajorityConsistency(timeout: FiniteDuration) extends Consistency
+
+/**
+ * Reads from or writes to all the replicas
+ */
+final case class AllConsistency(timeout: FiniteDuration) extends Consistency
+
+/**
+ * Reads from or writes to a quorum of replicas, including the replica of this node
+ *
+ * @param n The number of replicas in the quorum
+ */
+final case class QuorumConsistency(n: Int, timeout: FiniteDuration) extends Consistency {
+  require(n > 0, "quorum must have at least one replica")
+}
@@ -0,0 +1,124 @@
+package csw.services.location.scaladsl
+
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.atomic.AtomicLong
+
+import akka.stream.KillSwitch
+import csw.messages.location._
+import csw.services.location.commons.LocationServiceLogger
+import csw.services.logging.scaladsl.Logger
+
+import scala.collection.JavaConverters.mapAsScalaConcurrentMapConverter
+import scala.concurrent.duration.{DurationInt, FiniteDuration}
+import scala.concurrent.{ExecutionContext, Future}
+
+/**
+ * Caches the locations found or resolved through the location service, for consumers looking up the same connections
+ * again and again, e.g. clients of an HTTP or a TCP service. The connection of a cached location is tracked, so that the
+ * cached location is replaced when it is updated and dropped when it is unregistered. The location service is queried
+ * only when a location is missing from the cache.
+ *
+ * A connection is tracked only while its location is cached: tracking stops when the location is unregistered, and
+ * expired locations are dropped along with their tracking on the next miss. Owners call `shutdown` to stop tracking
+ * the connections still cached.
+ *
+ * @param locationService used to find, resolve and track the connections
+ * @param ttl time after which a cached location is queried again, bounding its staleness if its tracking fails
+ */
+class CachingLocationResolver(locationService: LocationService, ttl: FiniteDuration = 1.minute)(
+    implicit ec: ExecutionContext
+) {
+  val log: Logger = LocationServiceLogger.getLogger
+
+  private case class CachedLocation(location: Location, expiresAt: Long)
+
+  private val cache                                      = new ConcurrentHashMap[Connection, CachedLocation]()
+  private var subscriptions: Map[Connection, KillSwitch] = Map.empty
+  private val hits                                       = new AtomicLong
+  private val misses                                     = new AtomicLong
+
+  /**
+   * Finds the location of the connection in the cache, or in the location service on a miss
+   */
+  def find[L <: Location](connection: TypedConnection[L]): Future[Option[L]] =
+    lookup(connection)(locationService.find(connection))
+
+  /**
+   * Finds the location of the connection in the cache, or resolves it with the location service on a miss
+   */
+  def resolve[L <: Location](connection: TypedConnection[L], within: FiniteDuration): Future[Option[L]] =
+    lookup(connection)(locationService.resolve(connection, within))
+
+  /**
+   * Number of lookups answered from the cache
+   */
+  def hitCount: Long = hits.get
+
+  /**
+   * Number of lookups which queried the location service
+   */
+  def missCount: Long = misses.get
+
+  /**
+   * Stops tracking the cached connections and empties the cache
+   */
+  def shutdown(): Unit = synchronized {
+    subscriptions.values.foreach(_.shutdown())
+    subscriptions = Map.empty
+    cache.clear()
+  }
+
+  private def lookup[L <: Location](connection: TypedConnection[L])(query: ⇒ Future[Option[L]]): Future[Option[L]] =
+    Option(cache.get(connection)).filter(_.expiresAt - System.nanoTime() > 0) match {
+      case Some(cached) ⇒
+        hits.incrementAndGet()
+        Future.successful(Some(cached.location.asInstanceOf[L]))
+      case None ⇒
+        misses.incrementAndGet()
+        releaseExpired()
+        query.map { result ⇒
+          result.foreach { location ⇒
+            cache.put(connection, cachedLocation(location))
+            track(connection)
+          }
+          result
+        }
+    }
+
+  // one subscription per cached connection
+  private def track(connection: Connection): Unit = synchronized {
+    if (!subscriptions.contains(connection)) {
+      log.debug(s"Tracking cached connection: [${connection.name}]")
+      subscriptions += connection → locationService.subscribe(
+        connection, {
+          case LocationUpdated(location) ⇒ cache.put(connection, cachedLocation(location))
+          case LocationRemoved(_) ⇒
+            cache.remove(connection)
+            untrack(connection)
+        }
+      )
+    }
+  }
+
+  // the subscription is kept if the location was cached again meanwhile, as it is then tracked by the same subscription
+  private def untrack(connection: Connection): Unit = synchronized {
+    if (!cache.containsKey(connection)) {
+      subscriptions.get(connection).foreach { killSwitch ⇒
+        log.debug(s"Stopped tracking connection: [${connection.name}]")
+        killSwitch.shutdown()
+      }
+      subscriptions -= connection
+    }
+  }
+
+  // drops the expired locations, so that connections which are no longer looked up are not tracked forever
+  private def releaseExpired(): Unit = {
+    val now = System.nanoTime()
+    cache.asScala.foreach {
+      case (connection, cached) ⇒
+        if (cached.expiresAt - now <= 0 && cache.remove(connection, cached)) untrack(connection)
+    }
+  }
+
+  private def cachedLocation(location: Location) = CachedLocation(location, System.nanoTime() + ttl.toNanos)
+}
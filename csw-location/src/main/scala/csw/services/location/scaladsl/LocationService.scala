@@ -23,6 +23,29 @@ trait LocationService {
    */
   def register(registration: Registration): Future[RegistrationResult]
 
+  /**
+   * Registers a connection -> location in cluster, reading the registered location from and writing it to the replicas
+   * of the given consistencies instead of the configured ones
+   *
+   * @param readConsistency Consistency of the read checking that no other location is registered for the connection
+   * @param writeConsistency Consistency of the write of the location
+   * @return A Future which completes with Registration result
+   */
+  def register(
+      registration: Registration,
+      readConsistency: Consistency,
+      writeConsistency: Consistency
+  ): Future[RegistrationResult]
+
+  /**
+   * Registers connection -> location entries in cluster. Registering many connections at once takes a single update of
+   * the registry shared by all connections, instead of one per connection.
+   *
+   * @return A Future which completes with Registration results in the order of the given registrations, or fails with
+   *         the first failure, the registrations which succeeded staying registered
+   */
+  def registerAll(registrations: Seq[Registration]): Future[Seq[RegistrationResult]]
+
   /**
    * Unregisters the connection
    *
@@ -31,6 +54,23 @@ trait LocationService {
    */
   def unregister(connection: Connection): Future[Done]
 
+  /**
+   * Unregisters the connection, writing to the replicas of the given consistency instead of the configured one
+   *
+   * @param connection An already registered connection
+   * @param writeConsistency Consistency of the removal of the location
+   * @return A Future which completes after un-registration happens successfully and fails otherwise
+   */
+  def unregister(connection: Connection, writeConsistency: Consistency): Future[Done]
+
+  /**
+   * Unregisters the connections with a single update of the registry shared by all connections
+   *
+   * @param connections Already registered connections
+   * @return A Future which completes after un-registration of all connections happens successfully and fails otherwise
+   */
+  def unregisterAll(connections: Seq[Connection]): Future[Done]
+
   /**
    * Unregisters all connections
    *
@@ -57,6 +97,17 @@ trait LocationService {
    */
   def resolve[L <: Location](connection: TypedConnection[L], within: FiniteDuration): Future[Option[L]]
 
+  /**
+   * Resolves the location for a connection by reading it from the replicas of the given consistency, without waiting
+   * for it to be registered. With [[csw.services.location.models.LocalConsistency]] it is read from the replica of this
+   * node and the Future completes without any round trip to other nodes.
+   *
+   * @param connection A connection to resolve to with its registered location
+   * @param consistency Consistency of the read of the location
+   * @return A Future which completes with the resolved location if found or None otherwise.
+   */
+  def resolve[L <: Location](connection: TypedConnection[L], consistency: Consistency): Future[Option[L]]
+
   /**
    * Lists all locations registered
    *
@@ -101,6 +152,14 @@ trait LocationService {
    */
   def track(connection: Connection): Source[TrackingEvent, KillSwitch]
 
+  /**
+   * Tracks the connections and send events for modification or removal of their locations in one stream
+   *
+   * @return A stream that emits events related to all the connections. It can be cancelled using KillSwitch. This will
+   *         stop giving events for all the connections
+   */
+  def trackAll(connections: Set[Connection]): Source[TrackingEvent, KillSwitch]
+
   /**
    * Subscribe to tracking events for a connection by providing a callback
    * For each event the callback is invoked.
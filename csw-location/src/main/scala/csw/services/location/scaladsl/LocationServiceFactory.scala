@@ -5,6 +5,8 @@ import csw.services.location.commons.{ClusterSettings, CswCluster, LocationServi
 import csw.services.location.internal._
 import csw.services.logging.scaladsl.Logger
 
+import scala.concurrent.Future
+
 /**
  * The factory is used to create LocationService instance. With each creation, a new ActorSystem will be created and will
  * become part of csw-cluster.
@@ -42,4 +44,15 @@ object LocationServiceFactory {
     DeathwatchActor.start(cswCluster, locationService)
     locationService
   }
+
+  /**
+   * Create a LocationService instance right away while its cluster is being started, e.g. by [[CswCluster.start]], so
+   * that an application can create its components concurrently with the join of the cluster
+   *
+   * @note Operations wait for the cluster to be started, and fail if it could not be started
+   * @param cswCluster completes with the cluster once it is started
+   * @param actorSystem the ActorSystem joining the cluster
+   */
+  def withStartingCluster(cswCluster: Future[CswCluster], actorSystem: ActorSystem): LocationService =
+    new DeferredLocationService(cswCluster.map(withCluster)(actorSystem.dispatcher), actorSystem)
 }
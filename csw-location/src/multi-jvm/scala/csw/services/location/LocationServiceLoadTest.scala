@@ -0,0 +1,95 @@
+package csw.services.location
+
+import akka.stream.ThrottleMode
+import akka.stream.scaladsl.{Sink, Source}
+import csw.messages.location.Connection.TcpConnection
+import csw.messages.location.{ComponentId, ComponentType}
+import csw.services.location.commons.RegistrationFactory
+import csw.services.location.commons.TestFutureExtension.RichFuture
+import csw.services.location.helpers._
+import csw.services.location.models.TcpRegistration
+
+import scala.concurrent.Future
+import scala.concurrent.duration.{DurationInt, DurationLong, FiniteDuration}
+
+class LocationServiceLoadTestMultiJvmNode1 extends LocationServiceLoadTest(new FourMembersAndSeed)
+class LocationServiceLoadTestMultiJvmNode2 extends LocationServiceLoadTest(new FourMembersAndSeed)
+class LocationServiceLoadTestMultiJvmNode3 extends LocationServiceLoadTest(new FourMembersAndSeed)
+class LocationServiceLoadTestMultiJvmNode4 extends LocationServiceLoadTest(new FourMembersAndSeed)
+class LocationServiceLoadTestMultiJvmNode5 extends LocationServiceLoadTest(new FourMembersAndSeed)
+
+/**
+ * Load generator for the location service. Every node registers and then unregisters its own connections at
+ * `OperationsPerSecond`, with up to `Parallelism` operations in flight, and reports:
+ *  - the p50, p99 and p999 latencies of its registrations and unregistrations
+ *  - the convergence time, i.e. the time after all nodes completed their operations till this node sees all of them
+ *  - the estimated bandwidth used by the replicator to gossip the registry, see [[ReplicatedDataMeter]]
+ *
+ * The test takes minutes, hence it is ignored unless asked for with the `csw.location.load-test` system property:
+ * {{{
+ *   sbt -Dcsw.location.load-test=true "csw-location/multi-jvm:testOnly csw.services.location.LocationServiceLoadTest"
+ * }}}
+ */
+abstract class LocationServiceLoadTest(config: NMembersAndSeed) extends LSNodeSpec(config) {
+
+  import cswCluster.{ec, mat}
+
+  private val OperationsPerSecond = 1000
+  private val OperationsPerNode   = 5000
+  private val Parallelism         = 100
+
+  private val Enabled = sys.props.get("csw.location.load-test").contains("true")
+
+  private def loadTest(name: String)(body: ⇒ Unit): Unit = if (Enabled) test(name)(body) else ignore(name)(body)
+
+  loadTest("measure latency, convergence time and gossip bandwidth of registrations and unregistrations under load") {
+    val nodeName = myself.name
+    // component names may not contain '-', which the node roles do
+    val namePrefix = nodeName.replace("-", "")
+    val registrations: Seq[TcpRegistration] = (1 to OperationsPerNode).map { i ⇒
+      RegistrationFactory.tcp(TcpConnection(ComponentId(s"${namePrefix}load$i", ComponentType.Service)), 1000 + i)
+    }
+    val meter = new ReplicatedDataMeter(cswCluster)
+    enterBarrier("before-registration")
+
+    val registrationLatencies = load(registrations)(locationService.register)
+    enterBarrier("after-registration")
+    val registrationConvergence = convergence(OperationsPerNode * roles.size)
+    enterBarrier("registrations-converged")
+
+    val unregistrationLatencies = load(registrations.map(_.connection))(locationService.unregister)
+    enterBarrier("after-unregistration")
+    val unregistrationConvergence = convergence(0)
+    val bytesPerSecond            = meter.stop()
+
+    info(s"$nodeName of ${roles.size} nodes at $OperationsPerSecond operations/s:")
+    info(s"registration latency: $registrationLatencies, convergence: ${registrationConvergence.toMillis}ms")
+    info(s"unregistration latency: $unregistrationLatencies, convergence: ${unregistrationConvergence.toMillis}ms")
+    info(s"estimated gossip bandwidth: ${(bytesPerSecond / 1024).toInt}KiB/s")
+
+    registrationLatencies.count shouldBe OperationsPerNode
+    unregistrationLatencies.count shouldBe OperationsPerNode
+    enterBarrier("unregistrations-converged")
+  }
+
+  // runs the operation on all the values at the target rate and records the latency of each of them
+  private def load[T](values: Seq[T])(operation: T ⇒ Future[_]): LatencyHistogram = {
+    val latencies = new LatencyHistogram
+    Source(values.toList)
+      .throttle(OperationsPerSecond, 1.second, OperationsPerSecond / 10, ThrottleMode.shaping)
+      .mapAsyncUnordered(Parallelism) { value ⇒
+        val start = System.nanoTime()
+        operation(value).map(_ ⇒ latencies.record(System.nanoTime() - start))
+      }
+      .runWith(Sink.ignore)
+      .await
+    latencies
+  }
+
+  // time till the locations listed by this node reach the expected number
+  private def convergence(expectedLocations: Int): FiniteDuration = {
+    val start = System.nanoTime()
+    awaitAssert(locationService.list.await.size shouldBe expectedLocations, 30.seconds, 10.millis)
+    (System.nanoTime() - start).nanos
+  }
+}
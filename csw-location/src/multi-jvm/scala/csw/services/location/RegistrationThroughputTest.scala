@@ -0,0 +1,76 @@
+package csw.services.location
+
+import csw.messages.location.Connection.TcpConnection
+import csw.messages.location.{ComponentId, ComponentType}
+import csw.services.location.commons.RegistrationFactory
+import csw.services.location.commons.TestFutureExtension.RichFuture
+import csw.services.location.helpers.{FourMembersAndSeed, LSNodeSpec, NMembersAndSeed, OneMemberAndSeed}
+import csw.services.location.models.TcpRegistration
+
+import scala.concurrent.Future
+import scala.concurrent.duration.DurationInt
+
+class RegistrationThroughputOnTwoNodesTestMultiJvmNode1 extends RegistrationThroughputTest(new OneMemberAndSeed)
+class RegistrationThroughputOnTwoNodesTestMultiJvmNode2 extends RegistrationThroughputTest(new OneMemberAndSeed)
+
+class RegistrationThroughputOnFiveNodesTestMultiJvmNode1 extends RegistrationThroughputTest(new FourMembersAndSeed)
+class RegistrationThroughputOnFiveNodesTestMultiJvmNode2 extends RegistrationThroughputTest(new FourMembersAndSeed)
+class RegistrationThroughputOnFiveNodesTestMultiJvmNode3 extends RegistrationThroughputTest(new FourMembersAndSeed)
+class RegistrationThroughputOnFiveNodesTestMultiJvmNode4 extends RegistrationThroughputTest(new FourMembersAndSeed)
+class RegistrationThroughputOnFiveNodesTestMultiJvmNode5 extends RegistrationThroughputTest(new FourMembersAndSeed)
+
+/**
+ * Every node registers and then unregisters its own connections, a batch of concurrent registrations at a time, and
+ * reports its throughput. Comparing the reports of the two and five nodes runs shows how registration throughput changes
+ * as the cluster grows, and with the number of shards of the registry set by `csw-location.registry-shards`.
+ *
+ * The test is ignored unless asked for with the `csw.location.throughput-test` system property:
+ * {{{
+ *   sbt -Dcsw.location.throughput-test=true "csw-location/multi-jvm:testOnly csw.services.location.RegistrationThroughput*"
+ * }}}
+ */
+abstract class RegistrationThroughputTest(config: NMembersAndSeed) extends LSNodeSpec(config) {
+
+  import cswCluster.ec
+
+  private val RegistrationsPerNode    = 500
+  private val ConcurrentRegistrations = 50
+
+  private val Enabled = sys.props.get("csw.location.throughput-test").contains("true")
+
+  private def throughputTest(name: String)(body: ⇒ Unit): Unit = if (Enabled) test(name)(body) else ignore(name)(body)
+
+  throughputTest("measure registration and unregistration throughput of every node") {
+    val nodeName = myself.name
+    // component names may not contain '-', which the node roles do
+    val namePrefix = nodeName.replace("-", "")
+    val registrations: Seq[TcpRegistration] = (1 to RegistrationsPerNode).map { i ⇒
+      RegistrationFactory.tcp(TcpConnection(ComponentId(s"${namePrefix}service$i", ComponentType.Service)), 1000 + i)
+    }
+    enterBarrier("before-registration")
+
+    val registrationThroughput = throughput(registrations)(locationService.register)
+    enterBarrier("after-registration")
+
+    awaitAssert(locationService.list.await.size shouldBe RegistrationsPerNode * roles.size, 10.seconds)
+    enterBarrier("registrations-converged")
+
+    val unregistrationThroughput = throughput(registrations.map(_.connection))(locationService.unregister)
+    enterBarrier("after-unregistration")
+
+    info(
+      s"$nodeName of ${roles.size} nodes: ${registrationThroughput.toInt} registrations/s, " +
+      s"${unregistrationThroughput.toInt} unregistrations/s"
+    )
+
+    awaitAssert(locationService.list.await shouldBe empty, 10.seconds)
+    enterBarrier("unregistrations-converged")
+  }
+
+  // operations per second on all the values, a batch of concurrent operations at a time
+  private def throughput[T](values: Seq[T])(operation: T ⇒ Future[_]): Double = {
+    val start = System.nanoTime()
+    values.grouped(ConcurrentRegistrations).foreach(batch ⇒ Future.traverse(batch)(operation).await)
+    values.size * 1e9 / (System.nanoTime() - start)
+  }
+}
@@ -0,0 +1,31 @@
+package csw.services.location.helpers
+
+import scala.collection.mutable.ArrayBuffer
+import scala.concurrent.duration.{DurationLong, FiniteDuration}
+
+/**
+ * Records latencies of operations completing concurrently and computes their percentiles
+ */
+class LatencyHistogram {
+
+  private val latencies = ArrayBuffer.empty[Long]
+
+  def record(latencyNanos: Long): Unit = synchronized(latencies += latencyNanos)
+
+  def count: Int = synchronized(latencies.size)
+
+  /**
+   * The latency below which the given percentage of the recorded latencies fall, e.g. percentile(99.9) for p999
+   */
+  def percentile(percentage: Double): FiniteDuration = synchronized {
+    if (latencies.isEmpty) 0.nanos
+    else {
+      val sorted = latencies.sorted
+      val rank   = math.ceil(percentage / 100 * sorted.size).toInt
+      sorted(rank.max(1).min(sorted.size) - 1).nanos
+    }
+  }
+
+  override def toString: String =
+    s"p50=${percentile(50).toMicros}µs, p99=${percentile(99).toMicros}µs, p999=${percentile(99.9).toMicros}µs"
+}
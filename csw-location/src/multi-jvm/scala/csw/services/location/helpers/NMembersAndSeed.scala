@@ -38,3 +38,5 @@ class OneMemberAndSeed extends NMembersAndSeed(1) {
 class TwoMembersAndSeed extends NMembersAndSeed(2) {
   val Vector(member1, member2) = members
 }
+
+class FourMembersAndSeed extends NMembersAndSeed(4)
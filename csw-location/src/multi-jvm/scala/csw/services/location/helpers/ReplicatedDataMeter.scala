@@ -0,0 +1,45 @@
+package csw.services.location.helpers
+
+import java.util.concurrent.atomic.AtomicLong
+
+import akka.actor.{Actor, ActorRef, Props}
+import akka.cluster.ddata.Replicator.{Changed, Subscribe}
+import akka.serialization.SerializationExtension
+import csw.services.location.commons.CswCluster
+import csw.services.location.internal.LocationSettings
+import csw.services.location.internal.Registry.AllServices
+
+/**
+ * Estimates the bandwidth used by the replicator to gossip the registry. Every change of a shard of AllServices seen by
+ * this node is counted as a transfer of the whole serialized shard, which is what gossip sends for a changed key
+ * between two nodes. Changes are notified at most once per `akka.cluster.distributed-data.notify-subscribers-interval`,
+ * hence the estimate is a lower bound when a shard changes more often.
+ */
+class ReplicatedDataMeter(cswCluster: CswCluster) {
+  import cswCluster.actorSystem
+
+  private val bytes     = new AtomicLong
+  private val startTime = System.nanoTime()
+
+  private val meterActor: ActorRef = actorSystem.actorOf(Props(new Actor {
+    private val serialization = SerializationExtension(actorSystem)
+
+    override def preStart(): Unit =
+      new AllServices(LocationSettings(actorSystem.settings.config).registryShards).shards
+        .foreach(shard ⇒ cswCluster.replicator ! Subscribe(shard.Key, self))
+
+    override def receive: Receive = {
+      case c: Changed[_] ⇒
+        val data = c.dataValue
+        bytes.addAndGet(serialization.serializerFor(data.getClass).toBinary(data).length)
+    }
+  }))
+
+  /**
+   * Stops measuring and returns the estimated bytes per second received by this node since the meter was created
+   */
+  def stop(): Double = {
+    actorSystem.stop(meterActor)
+    bytes.get * 1e9 / (System.nanoTime() - startTime)
+  }
+}
@@ -0,0 +1,36 @@
+package csw.services.location.internal
+
+import csw.messages.location.Connection.TcpConnection
+import csw.messages.location.{ComponentId, ComponentType}
+import csw.services.location.internal.Registry.AllServices
+import org.scalatest.{FunSuite, Matchers}
+
+class AllServicesTest extends FunSuite with Matchers {
+
+  private val connections = (1 to 100).map(i ⇒ TcpConnection(ComponentId(s"redis$i", ComponentType.Service)))
+
+  test("should spread connections over shards having distinct keys") {
+    val allServices = new AllServices(8)
+
+    allServices.shards.map(_.Key).distinct.size shouldBe 8
+    connections.map(allServices.shardOf).distinct.size shouldBe 8
+  }
+
+  test("should hash a connection to the same shard on every node") {
+    val shardsOnNode1 = connections.map(new AllServices(8).shardOf(_).Key)
+    val shardsOnNode2 = connections.map(new AllServices(8).shardOf(_).Key)
+
+    shardsOnNode1 shouldBe shardsOnNode2
+  }
+
+  test("should group connections by shard") {
+    val allServices = new AllServices(4)
+
+    val connectionsByShard = allServices.groupByShard(connections)(identity)
+
+    connectionsByShard.values.flatten.toSet shouldBe connections.toSet
+    connectionsByShard.foreach {
+      case (shard, shardConnections) ⇒ shardConnections.foreach(allServices.shardOf(_) shouldBe shard)
+    }
+  }
+}
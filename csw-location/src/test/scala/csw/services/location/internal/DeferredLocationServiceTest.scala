@@ -0,0 +1,57 @@
+package csw.services.location.internal
+
+import java.net.URI
+
+import akka.actor.ActorSystem
+import akka.stream.scaladsl.{Keep, Sink, Source}
+import akka.stream.{ActorMaterializer, KillSwitches}
+import csw.messages.location.Connection.TcpConnection
+import csw.messages.location._
+import csw.services.location.commons.TestFutureExtension.RichFuture
+import csw.services.location.commons.{LocationFactory, RegistrationFactory}
+import csw.services.location.models.TcpRegistration
+import csw.services.location.scaladsl.LocationService
+import org.mockito.Mockito._
+import org.scalatest.mockito.MockitoSugar
+import org.scalatest.{BeforeAndAfterAll, FunSuite, Matchers}
+
+import scala.concurrent.{Future, Promise}
+
+class DeferredLocationServiceTest extends FunSuite with Matchers with MockitoSugar with BeforeAndAfterAll {
+
+  private val actorSystem  = ActorSystem()
+  private implicit val mat = ActorMaterializer()(actorSystem)
+
+  private val connection                    = TcpConnection(ComponentId("redis", ComponentType.Service))
+  private val location                      = LocationFactory.tcp(connection, new URI("tcp://host1:6379"))
+  private val registration: TcpRegistration = RegistrationFactory.tcp(connection, 6379)
+
+  override protected def afterAll(): Unit = actorSystem.terminate().await
+
+  test("should carry out operations once the cluster is started") {
+    val started         = Promise[LocationService]()
+    val locationService = mock[LocationService]
+    when(locationService.list).thenReturn(Future.successful(List(location)))
+    when(locationService.track(connection))
+      .thenReturn(Source.single[TrackingEvent](LocationUpdated(location)).viaMat(KillSwitches.single)(Keep.right))
+
+    val deferredLocationService = new DeferredLocationService(started.future, actorSystem)
+    val listed                  = deferredLocationService.list
+    val tracked                 = deferredLocationService.track(connection).runWith(Sink.head)
+
+    listed.isCompleted shouldBe false
+    tracked.isCompleted shouldBe false
+
+    started.success(locationService)
+    listed.await shouldBe List(location)
+    tracked.await shouldBe LocationUpdated(location)
+  }
+
+  test("should fail operations when the cluster could not be started") {
+    val failure                 = new RuntimeException("could not join cluster")
+    val deferredLocationService = new DeferredLocationService(Future.failed(failure), actorSystem)
+
+    intercept[RuntimeException](deferredLocationService.register(registration).await) shouldBe failure
+    intercept[RuntimeException](deferredLocationService.track(connection).runWith(Sink.head).await) shouldBe failure
+  }
+}
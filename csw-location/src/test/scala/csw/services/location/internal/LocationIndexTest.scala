@@ -0,0 +1,83 @@
+package csw.services.location.internal
+
+import java.net.URI
+
+import csw.messages.location.ComponentType.{Assembly, HCD}
+import csw.messages.location.Connection.{AkkaConnection, HttpConnection, TcpConnection}
+import csw.messages.location._
+import org.scalatest.{FunSuite, Matchers}
+
+class LocationIndexTest extends FunSuite with Matchers {
+
+  private def akkaLocation(name: String, prefix: String, host: String = "host1") =
+    AkkaLocation(AkkaConnection(ComponentId(name, HCD)),
+                 Some(prefix),
+                 new URI(s"akka.tcp://sys@$host:2552/user/$name"),
+                 null,
+                 null)
+
+  private val trombone      = akkaLocation("trombone", "nfiraos.ncc.trombone")
+  private val tromboneMotor = akkaLocation("tromboneMotor", "nfiraos.ncc.trombone.motor", host = "host2")
+  private val filter        = akkaLocation("filter", "wfos.filter")
+  private val http =
+    HttpLocation(HttpConnection(ComponentId("configServer", Assembly)), new URI("http://host1:4000/config"), null)
+  private val tcp = TcpLocation(TcpConnection(ComponentId("redis", Assembly)), new URI("tcp://host2:6379"), null)
+
+  private val index = List(trombone, tromboneMotor, filter, http, tcp).foldLeft(LocationIndex.empty)(_ + _)
+
+  test("should find and list locations by component type, hostname and connection type") {
+    index.find(http.connection) shouldBe Some(http)
+    index.list.toSet shouldBe Set(trombone, tromboneMotor, filter, http, tcp)
+    index.list(HCD).toSet shouldBe Set(trombone, tromboneMotor, filter)
+    index.list("host2").toSet shouldBe Set(tromboneMotor, tcp)
+    index.list(ConnectionType.TcpType) shouldBe List(tcp)
+    index.list("unknownHost") shouldBe empty
+  }
+
+  test("should list akka locations by prefix") {
+    index.listByPrefix("nfiraos.ncc.trombone").toSet shouldBe Set(trombone, tromboneMotor)
+    index.listByPrefix("nfiraos.ncc.trombone.").toSet shouldBe Set(tromboneMotor)
+    index.listByPrefix("wfos").toSet shouldBe Set(filter)
+    index.listByPrefix("").toSet shouldBe Set(trombone, tromboneMotor, filter)
+    index.listByPrefix("tcs") shouldBe empty
+  }
+
+  test("should remove and replace locations in all indexes") {
+    val movedTrombone = akkaLocation("trombone", "tcs.trombone", host = "host3")
+    val updated       = index - tromboneMotor.connection - tcp.connection + movedTrombone
+
+    updated.list.toSet shouldBe Set(movedTrombone, filter, http)
+    updated.list("host2") shouldBe empty
+    updated.list("host3") shouldBe List(movedTrombone)
+    updated.listByPrefix("nfiraos") shouldBe empty
+    updated.listByPrefix("tcs") shouldBe List(movedTrombone)
+    updated.byPrefix.children.keySet shouldBe Set('t', 'w')
+    updated.byHostname.keySet shouldBe Set("host1", "host3")
+  }
+
+  test("should apply only the changes of a new value of all locations") {
+    val movedFilter = akkaLocation("filter", "wfos.filter", host = "host3")
+    val newLocations = Map[Connection, Location](
+      trombone.connection    → trombone,
+      movedFilter.connection → movedFilter,
+      http.connection        → http
+    )
+
+    val updated = index.update(newLocations)
+
+    updated shouldBe List(trombone, movedFilter, http).foldLeft(LocationIndex.empty)(_ + _)
+    updated.byConnectionType(ConnectionType.HttpType) should be theSameInstanceAs index.byConnectionType(
+      ConnectionType.HttpType
+    )
+  }
+
+  test("should apply only the changes between two values of a part of the locations") {
+    val movedFilter = akkaLocation("filter", "wfos.filter", host = "host3")
+    val oldShard    = Map[Connection, Location](filter.connection → filter, tcp.connection → tcp)
+    val newShard    = Map[Connection, Location](movedFilter.connection → movedFilter)
+
+    val updated = index.update(oldShard, newShard)
+
+    updated shouldBe List(trombone, tromboneMotor, movedFilter, http).foldLeft(LocationIndex.empty)(_ + _)
+  }
+}
@@ -0,0 +1,76 @@
+package csw.services.location.internal
+
+import java.net.URI
+
+import akka.actor.{ActorSystem, ExtendedActorSystem}
+import akka.serialization.{SerializationExtension, SerializerWithStringManifest}
+import akka.typed.Behavior
+import akka.typed.scaladsl.adapter.UntypedActorSystemOps
+import com.twitter.chill.akka.AkkaSerializer
+import csw.messages.location.Connection.{AkkaConnection, HttpConnection, TcpConnection}
+import csw.messages.location._
+import csw.services.location.commons.TestFutureExtension.RichFuture
+import csw.services.logging.internal.LogControlMessages
+import org.scalatest.{BeforeAndAfterAll, FunSuite, Matchers}
+
+class LocationSerializerTest extends FunSuite with Matchers with BeforeAndAfterAll {
+
+  private val system        = ActorSystem()
+  private val serialization = SerializationExtension(system)
+
+  private val akkaLocation = AkkaLocation(
+    AkkaConnection(ComponentId("trombone", ComponentType.HCD)),
+    Some("nfiraos.ncc.trombone"),
+    new URI("akka.tcp://csw-cluster@host1:2552/user/trombone"),
+    null,
+    null
+  )
+  private val httpLocation =
+    HttpLocation(HttpConnection(ComponentId("configServer", ComponentType.Service)), new URI("http://host1:4000/"), null)
+  private val tcpLocation =
+    TcpLocation(TcpConnection(ComponentId("redis", ComponentType.Service)), new URI("tcp://host2:6379"), null)
+
+  private val actorRef             = system.spawn(Behavior.empty, "trombone")
+  private val logAdminActorRef     = system.spawn(Behavior.empty[LogControlMessages], "log-admin")
+  private val akkaLocationWithRefs = akkaLocation.copy(actorRef = actorRef, logAdminActorRef = logAdminActorRef)
+  private val httpLocationWithRef  = httpLocation.copy(logAdminActorRef = logAdminActorRef)
+  private val tcpLocationWithRef   = tcpLocation.copy(logAdminActorRef = logAdminActorRef)
+
+  override protected def afterAll(): Unit = system.terminate().await
+
+  private def roundTrip(o: AnyRef): AnyRef = {
+    val serializer = serialization.findSerializerFor(o).asInstanceOf[SerializerWithStringManifest]
+    serializer.fromBinary(serializer.toBinary(o), serializer.manifest(o))
+  }
+
+  test("should serialize locations, connections and component ids with location serializer") {
+    List(akkaLocation, httpLocation, tcpLocation, tcpLocation.connection, tcpLocation.connection.componentId).foreach { o ⇒
+      serialization.findSerializerFor(o) shouldBe a[LocationSerializer]
+    }
+  }
+
+  test("should serialize and deserialize locations, connections and component ids") {
+    roundTrip(akkaLocation) shouldBe akkaLocation
+    roundTrip(akkaLocation.copy(prefix = None)) shouldBe akkaLocation.copy(prefix = None)
+    roundTrip(httpLocation) shouldBe httpLocation
+    roundTrip(tcpLocation) shouldBe tcpLocation
+    roundTrip(akkaLocation.connection) shouldBe akkaLocation.connection
+    roundTrip(httpLocation.connection) shouldBe httpLocation.connection
+    roundTrip(tcpLocation.connection.componentId) shouldBe tcpLocation.connection.componentId
+  }
+
+  test("should serialize and deserialize locations holding actor refs") {
+    roundTrip(akkaLocationWithRefs) shouldBe akkaLocationWithRefs
+    roundTrip(httpLocationWithRef) shouldBe httpLocationWithRef
+    roundTrip(tcpLocationWithRef) shouldBe tcpLocationWithRef
+  }
+
+  test("should serialize locations in fewer bytes than kryo") {
+    val kryo      = new AkkaSerializer(system.asInstanceOf[ExtendedActorSystem])
+    val locations = List(akkaLocation, httpLocation, tcpLocation, akkaLocationWithRefs, httpLocationWithRef, tcpLocationWithRef)
+
+    locations.foreach { location ⇒
+      serialization.serialize(location).get.length should be < kryo.toBinary(location).length
+    }
+  }
+}
@@ -0,0 +1,40 @@
+package csw.services.location.internal
+
+import com.typesafe.config.ConfigFactory
+import csw.services.location.models.{LocalConsistency, MajorityConsistency, QuorumConsistency}
+import org.scalatest.{FunSuite, Matchers}
+
+import scala.concurrent.duration.DurationInt
+
+class LocationSettingsTest extends FunSuite with Matchers {
+
+  test("should read majority consistencies and timeout of 5 seconds by default") {
+    LocationSettings(ConfigFactory.load()) shouldBe LocationSettings(
+      MajorityConsistency(5.seconds),
+      MajorityConsistency(5.seconds),
+      5.seconds,
+      8,
+      100.millis
+    )
+  }
+
+  test("should read local and quorum consistencies") {
+    val config = ConfigFactory.parseString(
+      "csw-location { read-consistency = local, write-consistency = 2, timeout = 3s, registry-shards = 4, deathwatch-batch-interval = 1s }"
+    )
+
+    LocationSettings(config) shouldBe LocationSettings(LocalConsistency(3.seconds),
+                                                       QuorumConsistency(2, 3.seconds),
+                                                       3.seconds,
+                                                       4,
+                                                       1.second)
+  }
+
+  test("should not read an unknown consistency") {
+    val config = ConfigFactory.parseString("csw-location { read-consistency = some, write-consistency = all, timeout = 3s }")
+
+    intercept[IllegalArgumentException] {
+      LocationSettings(config)
+    }
+  }
+}
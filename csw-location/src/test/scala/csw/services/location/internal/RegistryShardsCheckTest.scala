@@ -0,0 +1,34 @@
+package csw.services.location.internal
+
+import akka.actor.ActorSystem
+import com.typesafe.config.ConfigFactory
+import csw.services.location.commons.TestFutureExtension.RichFuture
+import csw.services.location.commons.{ClusterSettings, CswCluster}
+import csw.services.location.exceptions.RegistryShardsMismatch
+import org.scalatest.{BeforeAndAfterAll, FunSuite, Matchers}
+
+class RegistryShardsCheckTest extends FunSuite with Matchers with BeforeAndAfterAll {
+
+  // publishes the default number of shards, 8, as the first node of the cluster
+  private val seed = CswCluster.withSettings(ClusterSettings().onPort(3560))
+
+  private def joiningSystem(registryShards: Int): ActorSystem = {
+    val settings = ClusterSettings().joinLocal(3560)
+    val config   = ConfigFactory.parseString(s"csw-location.registry-shards = $registryShards").withFallback(settings.config)
+    ActorSystem(settings.clusterName, config)
+  }
+
+  override protected def afterAll(): Unit = seed.shutdown().await
+
+  test("should let a node with the number of shards of the cluster join it") {
+    val cswCluster = CswCluster.withSystem(joiningSystem(8))
+    cswCluster.shutdown().await
+  }
+
+  test("should not let a node with another number of shards join the cluster") {
+    val system = joiningSystem(4)
+
+    intercept[RegistryShardsMismatch](CswCluster.withSystem(system)) shouldBe RegistryShardsMismatch(4, Some(8))
+    system.whenTerminated.await
+  }
+}
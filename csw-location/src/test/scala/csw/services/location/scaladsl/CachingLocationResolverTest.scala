@@ -0,0 +1,121 @@
+package csw.services.location.scaladsl
+
+import java.net.URI
+
+import akka.stream.KillSwitch
+import csw.messages.location.Connection.HttpConnection
+import csw.messages.location._
+import csw.services.location.commons.LocationFactory
+import csw.services.location.commons.TestFutureExtension.RichFuture
+import org.mockito.ArgumentCaptor
+import org.mockito.ArgumentMatchers.any
+import org.mockito.Mockito._
+import org.scalatest.mockito.MockitoSugar
+import org.scalatest.{FunSuite, Matchers}
+
+import scala.concurrent.ExecutionContext.Implicits.global
+import scala.concurrent.Future
+import scala.concurrent.duration.DurationInt
+
+class CachingLocationResolverTest extends FunSuite with Matchers with MockitoSugar {
+
+  private val connection = HttpConnection(ComponentId("configServer", ComponentType.Service))
+  private val location   = LocationFactory.http(connection, new URI("http://config-host:4000"))
+  private val moved      = LocationFactory.http(connection, new URI("http://other-host:4000"))
+
+  private val other         = HttpConnection(ComponentId("eventServer", ComponentType.Service))
+  private val otherLocation = LocationFactory.http(other, new URI("http://event-host:4000"))
+
+  private val killSwitch = mock[KillSwitch]
+
+  private def locationServiceResolving(locations: Option[HttpLocation]*): LocationService = {
+    val locationService = mock[LocationService]
+    val results         = locations.map(Future.successful)
+    when(locationService.resolve(connection, 5.seconds)).thenReturn(results.head, results.tail: _*)
+    when(locationService.resolve(other, 5.seconds)).thenReturn(Future.successful(Some(otherLocation)))
+    when(locationService.subscribe(any[Connection], any[TrackingEvent ⇒ Unit]())).thenReturn(killSwitch)
+    reset(killSwitch)
+    locationService
+  }
+
+  private def trackingCallback(locationService: LocationService): TrackingEvent ⇒ Unit = {
+    val callback = ArgumentCaptor.forClass(classOf[TrackingEvent ⇒ Unit])
+    verify(locationService).subscribe(any[Connection], callback.capture())
+    callback.getValue()
+  }
+
+  test("should query location service only on a miss and count hits and misses") {
+    val locationService = locationServiceResolving(Some(location))
+    val resolver        = new CachingLocationResolver(locationService)
+
+    resolver.resolve(connection, 5.seconds).await shouldBe Some(location)
+    resolver.resolve(connection, 5.seconds).await shouldBe Some(location)
+    resolver.resolve(connection, 5.seconds).await shouldBe Some(location)
+
+    verify(locationService, times(1)).resolve(connection, 5.seconds)
+    resolver.hitCount shouldBe 2
+    resolver.missCount shouldBe 1
+  }
+
+  test("should not cache unresolved locations") {
+    val locationService = locationServiceResolving(None, Some(location))
+    val resolver        = new CachingLocationResolver(locationService)
+
+    resolver.resolve(connection, 5.seconds).await shouldBe None
+    verify(locationService, never()).subscribe(any[Connection], any[TrackingEvent ⇒ Unit]())
+
+    resolver.resolve(connection, 5.seconds).await shouldBe Some(location)
+    resolver.missCount shouldBe 2
+  }
+
+  test("should replace updated locations, and drop removed ones from the cache along with their tracking") {
+    val locationService = locationServiceResolving(Some(location), Some(moved))
+    val resolver        = new CachingLocationResolver(locationService)
+    resolver.resolve(connection, 5.seconds).await
+    val callback = trackingCallback(locationService)
+
+    callback(LocationUpdated(moved))
+    resolver.resolve(connection, 5.seconds).await shouldBe Some(moved)
+    resolver.missCount shouldBe 1
+
+    callback(LocationRemoved(connection))
+    verify(killSwitch).shutdown()
+
+    resolver.resolve(connection, 5.seconds).await shouldBe Some(moved)
+    resolver.missCount shouldBe 2
+    verify(locationService, times(2)).subscribe(any[Connection], any[TrackingEvent ⇒ Unit]())
+  }
+
+  test("should query location service again once the cached location expires") {
+    val locationService = locationServiceResolving(Some(location), Some(moved))
+    val resolver        = new CachingLocationResolver(locationService, ttl = 100.millis)
+
+    resolver.resolve(connection, 5.seconds).await shouldBe Some(location)
+    Thread.sleep(200)
+    resolver.resolve(connection, 5.seconds).await shouldBe Some(moved)
+
+    resolver.missCount shouldBe 2
+  }
+
+  test("should stop tracking expired locations on the next miss") {
+    val locationService = locationServiceResolving(Some(location))
+    val resolver        = new CachingLocationResolver(locationService, ttl = 100.millis)
+
+    resolver.resolve(connection, 5.seconds).await shouldBe Some(location)
+    Thread.sleep(200)
+    verify(killSwitch, never()).shutdown()
+
+    resolver.resolve(other, 5.seconds).await shouldBe Some(otherLocation)
+    verify(killSwitch).shutdown()
+  }
+
+  test("should stop tracking cached locations on shutdown") {
+    val locationService = locationServiceResolving(Some(location))
+    val resolver        = new CachingLocationResolver(locationService)
+
+    resolver.resolve(connection, 5.seconds).await shouldBe Some(location)
+    resolver.shutdown()
+
+    verify(killSwitch).shutdown()
+  }
+}
@@ -141,6 +141,28 @@ class LocationServiceCompTest extends FunSuite with Matchers with BeforeAndAfter
     locationService.list.await shouldBe List.empty
   }
 
+  test("akka location death watch actor should unregister services of actors terminated together") {
+    val connection1 = AkkaConnection(ComponentId("hcd2", ComponentType.HCD))
+    val connection2 = AkkaConnection(ComponentId("hcd3", ComponentType.HCD))
+    val actorRef1   = actorSystem.spawn(Behavior.empty[Any], "first-actor-to-die")
+    val actorRef2   = actorSystem.spawn(Behavior.empty[Any], "second-actor-to-die")
+
+    locationService
+      .registerAll(List(RegistrationFactory.akka(connection1, actorRef1), RegistrationFactory.akka(connection2, actorRef2)))
+      .await
+
+    Thread.sleep(10)
+
+    locationService.list.await.map(_.connection).toSet shouldBe Set(connection1, connection2)
+
+    actorRef1 ! PoisonPill
+    actorRef2 ! PoisonPill
+
+    Thread.sleep(2000)
+
+    locationService.list.await shouldBe List.empty
+  }
+
   test(
     "should able to track tcp connection and get location updated(on registration) and remove(on unregistration) messages"
   ) {
@@ -265,6 +287,78 @@ class LocationServiceCompTest extends FunSuite with Matchers with BeforeAndAfter
     httpProbe.expectNoMessage(200.millis)
   }
 
+  test("should able to track many connections in one stream") {
+    val hostname        = new Networks().hostname()
+    val redisConnection = TcpConnection(ComponentId("redis6", ComponentType.Service))
+    val httpConnection  = HttpConnection(ComponentId("trombone2", ComponentType.HCD))
+    val tcpRegistration = RegistrationFactory.tcp(redisConnection, 1234)
+
+    val tcpRegistrationResult = locationService.register(tcpRegistration).await
+
+    val (switch, probe) =
+      locationService.trackAll(Set(redisConnection, httpConnection)).toMat(TestSink.probe[TrackingEvent])(Keep.both).run()
+
+    probe.request(1)
+    probe.expectNext(LocationUpdated(tcpRegistration.location(hostname)))
+
+    val httpRegistration = RegistrationFactory.http(httpConnection, 9595, "/trombone/hcd")
+    locationService.register(httpRegistration).await
+    probe.request(1)
+    probe.expectNext(LocationUpdated(httpRegistration.location(hostname)))
+
+    tcpRegistrationResult.unregister().await
+    probe.request(1)
+    probe.expectNext(LocationRemoved(redisConnection))
+
+    switch.shutdown()
+    probe.request(1)
+    probe.expectComplete()
+  }
+
+  test("streams tracking the same connection should all receive its events") {
+    val hostname         = new Networks().hostname()
+    val httpConnection   = HttpConnection(ComponentId("trombone3", ComponentType.HCD))
+    val httpRegistration = RegistrationFactory.http(httpConnection, 9595, "/trombone/hcd")
+
+    val httpRegistrationResult = locationService.register(httpRegistration).await
+
+    val (switch1, probe1) = locationService.track(httpConnection).toMat(TestSink.probe[TrackingEvent])(Keep.both).run()
+    probe1.request(1)
+    probe1.expectNext(LocationUpdated(httpRegistration.location(hostname)))
+
+    //a stream started after the first one receives the latest event
+    val (switch2, probe2) = locationService.track(httpConnection).toMat(TestSink.probe[TrackingEvent])(Keep.both).run()
+    probe2.request(1)
+    probe2.expectNext(LocationUpdated(httpRegistration.location(hostname)))
+
+    //stopping one stream does not stop the other one
+    switch1.shutdown()
+    probe1.request(1)
+    probe1.expectComplete()
+
+    httpRegistrationResult.unregister().await
+    probe2.request(1)
+    probe2.expectNext(LocationRemoved(httpConnection))
+
+    switch2.shutdown()
+    probe2.request(1)
+    probe2.expectComplete()
+  }
+
+  test("should able to register, resolve and unregister with given consistencies") {
+    val connection      = TcpConnection(ComponentId("redis7", ComponentType.Service))
+    val tcpRegistration = RegistrationFactory.tcp(connection, 1234)
+    val location        = tcpRegistration.location(new Networks().hostname())
+
+    locationService.register(tcpRegistration, LocalConsistency(1.second), LocalConsistency(1.second)).await
+
+    locationService.resolve(connection, LocalConsistency(1.second)).await shouldBe Some(location)
+    locationService.resolve(connection, MajorityConsistency(1.second)).await shouldBe Some(location)
+
+    locationService.unregister(connection, AllConsistency(1.second)).await
+    locationService.resolve(connection, QuorumConsistency(1, 1.second)).await shouldBe None
+  }
+
   test("should not register a different Registration(connection + port/URI/actorRef) against already registered name") {
     val connection = TcpConnection(ComponentId("redis4", ComponentType.Service))
 
@@ -412,6 +506,35 @@ class LocationServiceCompTest extends FunSuite with Matchers with BeforeAndAfter
                                                                                                     akkaConnection3)
   }
 
+  test("should able to register and unregister many connections at once") {
+    val Port        = 1234
+    val connections = (1 to 5).map(i ⇒ TcpConnection(ComponentId(s"redis$i", ComponentType.Service)))
+    val hostname    = new Networks().hostname()
+
+    val results = locationService.registerAll(connections.map(RegistrationFactory.tcp(_, Port))).await
+
+    results.map(_.location.connection) shouldBe connections
+    locationService.list.await.toSet shouldBe results.map(_.location).toSet
+    locationService.find(connections.head).await shouldBe Some(RegistrationFactory.tcp(connections.head, Port).location(hostname))
+
+    locationService.unregisterAll(connections.take(3)).await
+    locationService.list.await.map(_.connection).toSet shouldBe connections.drop(3).toSet
+  }
+
+  test("should register the other connections when registering many connections fails for one of them") {
+    val registeredConnection = TcpConnection(ComponentId("redis1", ComponentType.Service))
+    val otherConnection      = TcpConnection(ComponentId("redis2", ComponentType.Service))
+    locationService.register(RegistrationFactory.tcp(registeredConnection, 1111)).await
+
+    intercept[OtherLocationIsRegistered] {
+      locationService
+        .registerAll(List(RegistrationFactory.tcp(registeredConnection, 1234), RegistrationFactory.tcp(otherConnection, 1234)))
+        .await
+    }
+
+    locationService.list.await.map(_.connection).toSet shouldBe Set(registeredConnection, otherConnection)
+  }
+
   test("should able to unregister all components") {
     val Port               = 1234
     val redis1Connection   = TcpConnection(ComponentId("redis1", ComponentType.Service))
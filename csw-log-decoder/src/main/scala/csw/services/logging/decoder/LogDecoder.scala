@@ -0,0 +1,68 @@
+package csw.services.logging.decoder
+
+import java.io.{BufferedInputStream, File, FileInputStream}
+
+import com.persist.JsonOps._
+import csw.services.logging.binary.{BinaryLogFormat, BinaryLogReader, BinaryLogRecord}
+import csw.services.logging.commons.LoggingKeys
+import csw.services.logging.decoder.cli.Options
+import csw.services.logging.internal.LoggingLevels
+import csw.services.logging.internal.LoggingLevels.Level
+
+/**
+ * Decodes binary log files and emits the messages matching the filters of the options as the JSON written by
+ * `FileAppender`, one message per line.
+ *
+ * @param options files to be decoded and filters to be applied
+ */
+class LogDecoder(options: Options) {
+
+  private[this] val fromMillis = options.from.map(_.toEpochMilli).getOrElse(Long.MinValue)
+  private[this] val toMillis   = options.to.map(_.toEpochMilli).getOrElse(Long.MaxValue)
+
+  /**
+   * Binary log files to be decoded, directories are expanded to the binary log files they hold
+   */
+  def logFiles: List[File] = options.files.flatMap(expand)
+
+  /**
+   * Decodes the files in order and passes each matching message rendered as JSON to `emit`
+   *
+   * @return number of emitted messages
+   */
+  def decode(emit: String => Unit): Long = {
+    var count = 0L
+    logFiles.foreach { file =>
+      val in = new BufferedInputStream(new FileInputStream(file))
+      try new BinaryLogReader(in).filter(matches).foreach { record =>
+        emit(Compact(record.fields, safe = true, sort = true))
+        count += 1
+      } finally in.close()
+    }
+    count
+  }
+
+  /**
+   * Checks the message against severity, component, time range and trace id filters
+   */
+  def matches(record: BinaryLogRecord): Boolean =
+    record.time >= fromMillis && record.time <= toMillis &&
+    options.minSeverity.forall(level => severityOf(record) >= level) &&
+    options.component.forall(record.fields.get(LoggingKeys.COMPONENT_NAME).contains(_)) &&
+    options.traceId.forall(id => traceIdsOf(record).contains(id))
+
+  // Messages of categories other than common do not always carry a severity
+  private def severityOf(record: BinaryLogRecord): Level =
+    record.fields.get(LoggingKeys.SEVERITY).map(severity => Level(severity.toString)).getOrElse(LoggingLevels.INFO)
+
+  private def traceIdsOf(record: BinaryLogRecord): Seq[Any] = record.fields.get(LoggingKeys.TRACE_ID) match {
+    case Some(ids: Seq[_]) => ids
+    case _                 => Nil
+  }
+
+  private def expand(file: File): List[File] =
+    if (file.isDirectory)
+      Option(file.listFiles()).toList.flatten.sortBy(_.getName).flatMap { child =>
+        if (child.isDirectory || child.getName.endsWith(s".${BinaryLogFormat.FileExtension}")) expand(child) else Nil
+      } else List(file)
+}
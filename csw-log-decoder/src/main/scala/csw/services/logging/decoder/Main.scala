@@ -0,0 +1,33 @@
+package csw.services.logging.decoder
+
+import java.io.{BufferedWriter, FileWriter}
+
+import csw.services.logging.decoder.cli.{ArgsParser, Options}
+
+/**
+ * Application object decoding binary log files written by `BinaryFileAppender` back to JSON log messages.
+ */
+class Main {
+
+  def start(args: Array[String]): Option[Long] =
+    ArgsParser.parse(args).map(run)
+
+  private def run(options: Options): Long = {
+    val decoder = new LogDecoder(options)
+    options.output match {
+      case Some(file) =>
+        val writer = new BufferedWriter(new FileWriter(file))
+        try decoder.decode { json =>
+          writer.write(json)
+          writer.newLine()
+        } finally writer.close()
+      case None => decoder.decode(println)
+    }
+  }
+}
+
+// $COVERAGE-OFF$
+object Main extends App {
+  new Main().start(args)
+}
+// $COVERAGE-ON$
@@ -0,0 +1,75 @@
+package csw.services.logging.decoder.cli
+
+import java.io.File
+import java.time.Instant
+
+import csw.services.BuildInfo
+import csw.services.logging.internal.LoggingLevels
+import csw.services.logging.internal.LoggingLevels.Level
+import scopt.OptionParser
+
+/**
+ * Parses the command line options using `scopt` library.
+ */
+object ArgsParser {
+
+  val parser: OptionParser[Options] = new scopt.OptionParser[Options]("csw-log-decoder") {
+    head(BuildInfo.name, BuildInfo.version)
+
+    opt[String]("severity") valueName "<level>" action { (x, c) =>
+      c.copy(minSeverity = Some(Level(x)))
+    } validate { x =>
+      if (Level.hasLevel(x)) success else failure(s"Severity must be one of ${LoggingLevels.stringify()}")
+    } text "optional, emit only messages at or above this severity"
+
+    opt[String]("component") valueName "<name>" action { (x, c) =>
+      c.copy(component = Some(x))
+    } text "optional, emit only messages logged by this component"
+
+    opt[String]("from") valueName "<instant>" action { (x, c) =>
+      c.copy(from = Some(Instant.parse(x)))
+    } validate validInstant text "optional, emit only messages logged at or after this instant, e.g. 2017-06-19T16:10:19Z"
+
+    opt[String]("to") valueName "<instant>" action { (x, c) =>
+      c.copy(to = Some(Instant.parse(x)))
+    } validate validInstant text "optional, emit only messages logged at or before this instant, e.g. 2017-06-19T18:00:00Z"
+
+    opt[String]("trace-id") valueName "<id>" action { (x, c) =>
+      c.copy(traceId = Some(x))
+    } text "optional, emit only messages carrying this tracking or span id"
+
+    opt[File]('o', "out") valueName "<file>" action { (x, c) =>
+      c.copy(output = Some(x))
+    } text "optional, file to write JSON log messages to, one per line (default: stdout)"
+
+    arg[File]("<file>...") unbounded () action { (x, c) =>
+      c.copy(files = c.files :+ x)
+    } text "binary log files written by BinaryFileAppender, or directories holding them"
+
+    help("help")
+    version("version")
+
+    checkConfig { c =>
+      (c.from, c.to) match {
+        case (Some(from), Some(to)) if from.isAfter(to) => failure("--from must not be after --to")
+        case _                                          => success
+      }
+    }
+
+    private def validInstant(x: String): Either[String, Unit] =
+      try {
+        Instant.parse(x)
+        success
+      } catch {
+        case _: Exception => failure(s"$x is not an ISO-8601 instant, e.g. 2017-06-19T16:10:19Z")
+      }
+  }
+
+  /**
+   * Parses the command line arguments and returns a value if they are valid.
+   *
+   * @param args the command line arguments
+   * @return an object containing the parsed values of the command line arguments
+   */
+  def parse(args: Seq[String]): Option[Options] = parser.parse(args, Options())
+}
@@ -0,0 +1,27 @@
+package csw.services.logging.decoder.cli
+
+import java.io.File
+import java.time.Instant
+
+import csw.services.logging.internal.LoggingLevels.Level
+
+/**
+ * Command line options ("csw-log-decoder --help" prints a usage message with descriptions of all the options)
+ *
+ * @param files       binary log files, or directories holding them, to be decoded
+ * @param minSeverity only messages at or above this severity are emitted
+ * @param component   only messages of this component are emitted
+ * @param from        only messages logged at or after this instant are emitted
+ * @param to          only messages logged at or before this instant are emitted
+ * @param traceId     only messages carrying this tracking or span id are emitted
+ * @param output      file to write the JSON messages to, stdout when not provided
+ */
+case class Options(
+    files: List[File] = Nil,
+    minSeverity: Option[Level] = None,
+    component: Option[String] = None,
+    from: Option[Instant] = None,
+    to: Option[Instant] = None,
+    traceId: Option[String] = None,
+    output: Option[File] = None
+)
@@ -0,0 +1,84 @@
+package csw.services.logging.decoder
+
+import java.io.{ByteArrayOutputStream, File}
+import java.time.Instant
+
+import csw.services.logging.binary.BinaryLogRecord
+import csw.services.logging.commons.LoggingKeys
+import csw.services.logging.decoder.cli.{ArgsParser, Options}
+import csw.services.logging.internal.LoggingLevels.{ERROR, WARN}
+import org.scalatest.{FunSuite, Matchers}
+
+class LogDecoderTest extends FunSuite with Matchers {
+
+  private val time = 1497888619397L
+
+  private def record(severity: String, component: String, t: Long, traceIds: List[String] = Nil) =
+    BinaryLogRecord(
+      t,
+      Map(LoggingKeys.SEVERITY → severity, LoggingKeys.COMPONENT_NAME → component) ++
+      (if (traceIds.isEmpty) Map.empty else Map(LoggingKeys.TRACE_ID → traceIds))
+    )
+
+  private def silentParse(args: Array[String]): Option[Options] =
+    Console.withOut(new ByteArrayOutputStream) {
+      Console.withErr(new ByteArrayOutputStream) {
+        ArgsParser.parse(args)
+      }
+    }
+
+  test("should parse filters and files") {
+    val args = Array(
+      "--severity",
+      "warn",
+      "--component",
+      "tromboneHCD",
+      "--from",
+      "2017-06-19T16:00:00Z",
+      "--to",
+      "2017-06-19T17:00:00Z",
+      "--trace-id",
+      "track",
+      "a.bin",
+      "logs"
+    )
+
+    silentParse(args) shouldBe Some(
+      Options(
+        List(new File("a.bin"), new File("logs")),
+        Some(WARN),
+        Some("tromboneHCD"),
+        Some(Instant.parse("2017-06-19T16:00:00Z")),
+        Some(Instant.parse("2017-06-19T17:00:00Z")),
+        Some("track"),
+        None
+      )
+    )
+  }
+
+  test("should reject unknown severity, invalid instants and empty time range") {
+    silentParse(Array("--severity", "loud", "a.bin")) shouldBe None
+    silentParse(Array("--from", "yesterday", "a.bin")) shouldBe None
+    silentParse(Array("--from", "2017-06-19T17:00:00Z", "--to", "2017-06-19T16:00:00Z", "a.bin")) shouldBe None
+  }
+
+  test("should filter by severity, component, time range and trace id") {
+    val decoder = new LogDecoder(
+      Options(
+        minSeverity = Some(ERROR),
+        component = Some("tromboneHCD"),
+        from = Some(Instant.ofEpochMilli(time)),
+        to = Some(Instant.ofEpochMilli(time + 1000)),
+        traceId = Some("span")
+      )
+    )
+
+    decoder.matches(record("ERROR", "tromboneHCD", time, List("track", "span"))) shouldBe true
+    decoder.matches(record("FATAL", "tromboneHCD", time + 1000, List("track", "span"))) shouldBe true
+    decoder.matches(record("WARN", "tromboneHCD", time, List("track", "span"))) shouldBe false
+    decoder.matches(record("ERROR", "tromboneAssembly", time, List("track", "span"))) shouldBe false
+    decoder.matches(record("ERROR", "tromboneHCD", time - 1, List("track", "span"))) shouldBe false
+    decoder.matches(record("ERROR", "tromboneHCD", time + 1001, List("track", "span"))) shouldBe false
+    decoder.matches(record("ERROR", "tromboneHCD", time)) shouldBe false
+  }
+}
@@ -0,0 +1,192 @@
+package csw.services.logging.appenders
+
+import java.io.{File, FileOutputStream}
+import java.nio.ByteBuffer
+import java.nio.channels.FileChannel
+import java.time.{Instant, ZoneOffset, ZonedDateTime}
+
+import akka.actor.{ActorContext, ActorRefFactory, ActorSystem, Cancellable}
+import csw.services.logging.RichMsg
+import csw.services.logging.binary.{BinaryLogEncoder, BinaryLogFormat}
+import csw.services.logging.commons.{Category, LoggingKeys, TMTDateTimeFormatter}
+import csw.services.logging.internal.LogMetrics
+import csw.services.logging.internal.LoggingLevels.{INFO, Level, TRACE}
+
+import scala.concurrent.Future
+
+/**
+ * Responsible for writing log messages of a category to a binary log file. Records are either written one by one or,
+ * when batch settings are provided, accumulated and written in batches.
+ * @param path path where the log file will be created
+ * @param category category of the log messages
+ * @param rotateFlag whether the log file is rotated daily
+ * @param maybeBatchSettings settings of batched mode, None for writing each record immediately
+ */
+private[logging] class BinaryLogFile(
+    path: String,
+    category: String,
+    rotateFlag: Boolean,
+    maybeBatchSettings: Option[FileBatchSettings]
+) {
+
+  private[this] val encoder                           = new BinaryLogEncoder()
+  private[this] var fileSpanEnd: Long                 = Long.MinValue
+  private[this] var maybeChannel: Option[FileChannel] = None
+  // records carry their own length, hence nothing is written between them
+  private[this] val maybeBatch: Option[LogFileBatch] = maybeBatchSettings.map(new LogFileBatch(_, Array.emptyByteArray))
+
+  private def open(time: Long): FileChannel = {
+    val fileName = if (rotateFlag) {
+      val fileTimestamp = FileAppender.decideTimestampForFile(ZonedDateTime.ofInstant(Instant.ofEpochMilli(time), ZoneOffset.UTC))
+      fileSpanEnd = fileTimestamp.plusDays(1L).toInstant.toEpochMilli
+      s"$path/$category.$fileTimestamp.${BinaryLogFormat.FileExtension}"
+    } else {
+      s"$path/$category.${BinaryLogFormat.FileExtension}"
+    }
+
+    new File(path).mkdirs()
+    val file = new File(fileName)
+    // a record cut short, e.g. by a crash, would stop the decoder there, hence it is dropped before appending
+    val end     = if (file.exists()) BinaryLogFormat.completeLength(file) else 0L
+    val channel = new FileOutputStream(file, true).getChannel
+    channel.truncate(end)
+    maybeChannel = Some(channel)
+    // records appended to an existing file start with a fresh dictionary
+    write(channel, encoder.start(append = end > 0), TRACE)
+    channel
+  }
+
+  private def write(channel: FileChannel, buffer: ByteBuffer, level: Level): Unit = maybeBatch match {
+    case Some(batch) => batch.add(channel, buffer, level)
+    case None =>
+      val bytes = buffer.remaining()
+      while (buffer.hasRemaining) channel.write(buffer)
+      LogMetrics.fileWritten(bytes)
+  }
+
+  def append(msg: Map[String, RichMsg], time: Long, level: Level): Unit = synchronized {
+    val channel = maybeChannel match {
+      case Some(c) if rotateFlag && time > fileSpanEnd =>
+        // pending records belong to the file being rotated
+        flush()
+        c.close()
+        open(time)
+      case Some(c) => c
+      case None    => open(time)
+    }
+    write(channel, encoder.encode(msg, time), level)
+  }
+
+  // Writes records pending in the batch, called periodically when batching is enabled
+  def flush(): Unit = synchronized {
+    for (batch <- maybeBatch; channel <- maybeChannel) batch.write(channel)
+  }
+
+  def close(): Unit = synchronized {
+    flush()
+    maybeChannel.foreach(_.close())
+    maybeChannel = None
+  }
+}
+
+/**
+ * Companion object for BinaryFileAppender class.
+ */
+object BinaryFileAppender extends LogAppenderBuilder {
+
+  /**
+   * Constructor for a binary file appender.
+   *
+   * @param factory    an Akka factory.
+   * @param stdHeaders the headers that are fixes for this service.
+   * @return the binary file appender.
+   */
+  def apply(factory: ActorRefFactory, stdHeaders: Map[String, RichMsg]): BinaryFileAppender =
+    new BinaryFileAppender(factory, stdHeaders)
+}
+
+/**
+ * An appender that writes log messages to files in the compact [[BinaryLogFormat]], keeping one file per category
+ * like [[FileAppender]]. Files are decoded back to JSON with the `csw-log-decoder` application.
+ *
+ * @param factory ActorRefFactory
+ * @param stdHeaders the headers that are fixes for this service.
+ */
+class BinaryFileAppender(factory: ActorRefFactory, stdHeaders: Map[String, RichMsg]) extends LogAppender {
+  private[this] val system = factory match {
+    case context: ActorContext => context.system
+    case s: ActorSystem        => s
+  }
+  private[this] val config =
+    system.settings.config.getConfig("csw-logging.appender-config.binary-file")
+  private[this] val fullHeaders   = config.getBoolean("fullHeaders")
+  private[this] val logPath       = config.getString("logPath")
+  private[this] val logLevelLimit = Level(config.getString("logLevelLimit"))
+  private[this] val rotateFlag    = config.getBoolean("rotate")
+  private[this] val batchSettings = FileBatchSettings.from(config)
+  // Accessed by the periodic flush of batched mode as well, hence a concurrent map
+  private[this] val logFiles =
+    scala.collection.concurrent.TrieMap[String, BinaryLogFile]()
+
+  // In batched mode pending records are written at least once per flush interval
+  private[this] val maybeFlushSchedule: Option[Cancellable] = batchSettings.map { settings =>
+    system.scheduler.schedule(settings.flushInterval, settings.flushInterval) {
+      logFiles.values.foreach(_.flush())
+    }(system.dispatcher)
+  }
+  private val loggingSystemName = stdHeaders(LoggingKeys.NAME).toString
+
+  private def checkLevel(baseMsg: Map[String, RichMsg]): Boolean = {
+    val level = baseMsg(LoggingKeys.SEVERITY).toString
+    Level(level) >= logLevelLimit
+  }
+
+  // Messages of categories other than common do not always carry a severity
+  private def levelOf(baseMsg: Map[String, RichMsg]): Level =
+    baseMsg.get(LoggingKeys.SEVERITY).map(severity => Level(severity.toString)).getOrElse(INFO)
+
+  /**
+   * Write the log message to a file. The time of the message is parsed from its timestamp.
+   *
+   * @param baseMsg  the message to be logged.
+   * @param category the kinds of log (for example, "common").
+   */
+  def append(baseMsg: Map[String, RichMsg], category: String): Unit =
+    append(baseMsg, category, TMTDateTimeFormatter.parse(baseMsg(LoggingKeys.TIMESTAMP).toString).toInstant.toEpochMilli)
+
+  /**
+   * Write the log message to a file.
+   *
+   * @param baseMsg  the message to be logged.
+   * @param category the kinds of log (for example, "common").
+   * @param time     the time of the message in milliseconds since epoch.
+   */
+  override def append(baseMsg: Map[String, RichMsg], category: String, time: Long): Unit =
+    if (category != Category.Common.name || checkLevel(baseMsg)) {
+      val msg = if (fullHeaders) stdHeaders ++ baseMsg else baseMsg
+      logFileFor(category).append(msg, time, levelOf(baseMsg))
+    }
+
+  // Maintain a binary log file for each category in a logging system
+  private def logFileFor(category: String): BinaryLogFile =
+    logFiles.getOrElseUpdate(category, new BinaryLogFile(logPath + "/" + loggingSystemName, category, rotateFlag, batchSettings))
+
+  /**
+   * Called just before the logger shuts down.
+   *
+   * @return a future that is completed when finished.
+   */
+  def finish(): Future[Unit] =
+    Future.successful(())
+
+  /**
+   * Closes the binary file appender.
+   *
+   * @return a future that is completed when the close is complete.
+   */
+  def stop(): Future[Unit] = {
+    maybeFlushSchedule.foreach(_.cancel())
+    logFiles.values.foreach(_.close())
+    Future.successful(())
+  }
+}
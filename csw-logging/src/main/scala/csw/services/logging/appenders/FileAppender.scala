@@ -1,102 +1,157 @@
 package csw.services.logging.appenders
 
 import java.io._
+import java.nio.ByteBuffer
+import java.nio.channels.FileChannel
 import java.time.temporal.ChronoUnit
-import java.time.{LocalDateTime, ZoneId, ZoneOffset, ZonedDateTime}
+import java.time.{Instant, ZoneOffset, ZonedDateTime}
 
 import akka.actor._
 import com.persist.JsonOps._
 import csw.services.logging.RichMsg
 import csw.services.logging.commons.{Category, Constants, LoggingKeys, TMTDateTimeFormatter}
-import csw.services.logging.internal.LoggingLevels.Level
+import csw.services.logging.internal.LogMetrics
+import csw.services.logging.internal.LoggingLevels.{INFO, Level}
 import csw.services.logging.scaladsl.{Logger, LoggerImpl}
 
 import scala.concurrent.{ExecutionContextExecutor, Future, Promise}
 
 /**
- * Responsible for writing log messages to a file
+ * Responsible for writing log messages to a file. Lines are either written one by one or, when batch
+ * settings are provided, accumulated and written in batches.
  * @param path path where the log file will be created
  * @param category category of the log messages
+ * @param maybeBatchSettings settings of batched mode, None for writing each line immediately
+ * @param rotationSettings size based rotation and retention settings
+ * @param maybeCompactor compacts rotated log files in background, None when neither compression nor retention is enabled
  */
-private[logging] class FileAppenderHelper(path: String, category: String) {
+private[logging] class FileAppenderHelper(
+    path: String,
+    category: String,
+    maybeBatchSettings: Option[FileBatchSettings],
+    rotationSettings: FileRotationSettings,
+    maybeCompactor: Option[LogSegmentCompactor]
+) {
 
-  private[this] var fileSpanTimestamp: Option[ZonedDateTime] = None
-  private[this] var maybePrintWriter: Option[PrintWriter]    = None
+  // end of the span of current log file in milliseconds since epoch, compared with the time of each message
+  private[this] var fileSpanEnd: Long = Long.MinValue
+  private[this] var activeFile: File  = _
+  // bytes written to the active file, lines are counted in UTF-8 along with the line separator
+  private[this] var fileSize: Long                    = 0L
+  private[this] var maybeChannel: Option[FileChannel] = None
+  private[this] val lineSeparator: ByteBuffer         = ByteBuffer.wrap(LogFileBatch.LineSeparator)
+  private[this] val encodedLine: Array[ByteBuffer]    = Array(null, lineSeparator)
+  private[this] val maybeBatch: Option[LogFileBatch]  = maybeBatchSettings.map(new LogFileBatch(_))
 
   protected val log: Logger = new LoggerImpl(None, None)
 
   // Initialize writer for log file
-  private def open(maybeTimestamp: Option[ZonedDateTime], rotateFlag: Boolean): Unit = {
+  private def open(time: Long, rotateFlag: Boolean): Unit = {
     val dir = s"$path"
 
     val fileName = if (rotateFlag) {
-      val fileTimestamp = FileAppender.decideTimestampForFile(maybeTimestamp.get)
-      fileSpanTimestamp = Some(fileTimestamp.plusDays(1L))
+      val fileTimestamp = FileAppender.decideTimestampForFile(ZonedDateTime.ofInstant(Instant.ofEpochMilli(time), ZoneOffset.UTC))
+      fileSpanEnd = fileTimestamp.plusDays(1L).toInstant.toEpochMilli
       s"$dir/$category.$fileTimestamp.log"
     } else {
       s"$dir/$category.log"
     }
 
     new File(dir).mkdirs()
-    val printWriter = new PrintWriter(new BufferedOutputStream(new FileOutputStream(fileName, true)))
-    maybePrintWriter = Some(printWriter)
+    activeFile = new File(fileName)
+    fileSize = activeFile.length()
+    maybeChannel = Some(new FileOutputStream(activeFile, true).getChannel)
   }
 
-  def appendAdd(maybeTimestamp: Option[ZonedDateTime], line: String, rotateFlag: Boolean): Unit = {
-    maybePrintWriter match {
-      case Some(w) =>
-        if (rotateFlag && maybeTimestamp.get
-              .isAfter(
-                fileSpanTimestamp.getOrElse(
-                  ZonedDateTime
-                    .of(LocalDateTime.MIN, ZoneId.from(ZoneOffset.UTC))
-                )
-              )) {
-          w.close()
-          open(maybeTimestamp, rotateFlag)
+  // Opens the log file or rotates it if the time of the message is past the span of current file or if the line does not
+  // fit in the maximum file size, in which case current file is renamed to the next segment
+  private def rotate(time: Long, rotateFlag: Boolean, bytes: Long): Unit = {
+    maybeChannel match {
+      case Some(channel) =>
+        val expired = rotateFlag && time > fileSpanEnd
+        val full    = rotationSettings.maxFileSize > 0 && fileSize > 0 && fileSize + bytes > rotationSettings.maxFileSize
+        if (expired || full) {
+          // pending lines belong to the file being rotated
+          flush()
+          channel.close()
+          if (full && !expired) activeFile.renameTo(LogSegmentCompactor.nextSegment(activeFile))
+          open(time, rotateFlag)
+          maybeCompactor.foreach(_.compact(new File(path), category, activeFile))
         }
       case None =>
-        open(maybeTimestamp, rotateFlag)
-    }
-    maybePrintWriter match {
-      case Some(w) =>
-        w.println(line)
-        w.flush()
-      case None =>
+        open(time, rotateFlag)
+        maybeCompactor.foreach(_.compact(new File(path), category, activeFile))
     }
+    fileSize += bytes
   }
 
-  def appendClose(p: Promise[Unit]): Unit = {
-    maybePrintWriter match {
-      case Some(w) =>
-        w.close()
-        maybePrintWriter = None
-      case None =>
+  def appendAdd(time: Long, line: String, rotateFlag: Boolean, level: Level): Unit =
+    appendEncoded(time, ByteBuffer.wrap(line.getBytes("UTF-8")), rotateFlag, level)
+
+  // Writes the encoded message and line separator with a single gathering write unless batching is enabled
+  def appendEncoded(time: Long, encoded: ByteBuffer, rotateFlag: Boolean, level: Level): Unit =
+    synchronized {
+      val bytes = encoded.remaining() + lineSeparator.capacity().toLong
+      rotate(time, rotateFlag, bytes)
+      (maybeBatch, maybeChannel) match {
+        case (Some(batch), Some(channel)) =>
+          batch.add(channel, encoded, level)
+        case (None, Some(channel)) =>
+          lineSeparator.rewind()
+          encodedLine(0) = encoded
+          while (encoded.hasRemaining || lineSeparator.hasRemaining) channel.write(encodedLine)
+          encodedLine(0) = null
+          LogMetrics.fileWritten(bytes)
+        case _ =>
+      }
     }
+
+  // Writes lines pending in the batch, called periodically when batching is enabled
+  def flush(): Unit = synchronized {
+    for (batch <- maybeBatch; channel <- maybeChannel) batch.write(channel)
+  }
+
+  def appendClose(p: Promise[Unit]): Unit = synchronized {
+    flush()
+    maybeChannel.foreach(_.close())
+    maybeChannel = None
     p.success(())
     postStop()
   }
 
-  def postStop(): Unit =
-    maybePrintWriter match {
-      case Some(w) =>
-        w.close()
-        maybePrintWriter = None
-      case None =>
-    }
+  def postStop(): Unit = synchronized {
+    flush()
+    maybeChannel.foreach(_.close())
+    maybeChannel = None
+  }
 }
 
 /**
  * Responsible for creating an FileAppenderHelper which manages the file resource
  * @param path log file path
  * @param category log category
+ * @param maybeBatchSettings settings of batched mode, None for writing each line immediately
+ * @param rotationSettings size based rotation and retention settings
+ * @param maybeCompactor compacts rotated log files in background
  */
-private[logging] class FilesAppender(path: String, category: String) {
+private[logging] class FilesAppender(
+    path: String,
+    category: String,
+    maybeBatchSettings: Option[FileBatchSettings] = None,
+    rotationSettings: FileRotationSettings = FileRotationSettings.Disabled,
+    maybeCompactor: Option[LogSegmentCompactor] = None
+) {
+
+  private[this] val fileAppenderHelper =
+    new FileAppenderHelper(path, category, maybeBatchSettings, rotationSettings, maybeCompactor)
 
-  private[this] val fileAppenderHelper = new FileAppenderHelper(path, category)
+  def add(time: Long, line: String, rotateFlag: Boolean, level: Level): Unit =
+    fileAppenderHelper.appendAdd(time, line, rotateFlag, level)
 
-  def add(maybeTimestamp: Option[ZonedDateTime], line: String, rotateFlag: Boolean): Unit =
-    fileAppenderHelper.appendAdd(maybeTimestamp, line, rotateFlag)
+  def addEncoded(time: Long, encoded: ByteBuffer, rotateFlag: Boolean, level: Level): Unit =
+    fileAppenderHelper.appendEncoded(time, encoded, rotateFlag, level)
+
+  def flush(): Unit = fileAppenderHelper.flush()
 
   def close(): Future[Unit] = {
     val p = Promise[Unit]()
@@ -141,7 +196,7 @@ object FileAppender extends LogAppenderBuilder {
  * @param factory ActorRefFactory
  * @param stdHeaders the headers that are fixes for this service.
  */
-class FileAppender(factory: ActorRefFactory, stdHeaders: Map[String, RichMsg]) extends LogAppender {
+class FileAppender(factory: ActorRefFactory, stdHeaders: Map[String, RichMsg]) extends EncodedLogAppender {
   private[this] val system = factory match {
     case context: ActorContext => context.system
     case s: ActorSystem        => s
@@ -149,13 +204,26 @@ class FileAppender(factory: ActorRefFactory, stdHeaders: Map[String, RichMsg]) e
   private[this] implicit val executionContext: ExecutionContextExecutor = factory.dispatcher
   private[this] val config =
     system.settings.config.getConfig("csw-logging.appender-config.file")
-  private[this] val fullHeaders   = config.getBoolean("fullHeaders")
-  private[this] val logPath       = config.getString("logPath")
-  private[this] val sort          = config.getBoolean("sorted")
-  private[this] val logLevelLimit = Level(config.getString("logLevelLimit"))
-  private[this] val rotateFlag    = config.getBoolean("rotate")
+  val fullHeaders: Boolean           = config.getBoolean("fullHeaders")
+  val sorted: Boolean                = config.getBoolean("sorted")
+  private[this] val logPath          = config.getString("logPath")
+  private[this] val logLevelLimit    = Level(config.getString("logLevelLimit"))
+  private[this] val rotateFlag       = config.getBoolean("rotate")
+  private[this] val batchSettings    = FileBatchSettings.from(config)
+  private[this] val rotationSettings = FileRotationSettings.from(config)
+  // Compression and retention of rotated files run on a background thread, never on the thread writing log messages
+  private[this] val maybeCompactor =
+    if (rotationSettings.compaction) Some(new LogSegmentCompactor(rotationSettings)) else None
+  // Accessed by the periodic flush of batched mode as well, hence a concurrent map
   private[this] val fileAppenders =
-    scala.collection.mutable.HashMap[String, FilesAppender]()
+    scala.collection.concurrent.TrieMap[String, FilesAppender]()
+
+  // In batched mode pending lines are written at least once per flush interval
+  private[this] val maybeFlushSchedule: Option[Cancellable] = batchSettings.map { settings =>
+    system.scheduler.schedule(settings.flushInterval, settings.flushInterval) {
+      fileAppenders.values.foreach(_.flush())
+    }
+  }
   private val loggingSystemName = stdHeaders(LoggingKeys.NAME).toString
 
   private def checkLevel(baseMsg: Map[String, RichMsg]): Boolean = {
@@ -163,32 +231,61 @@ class FileAppender(factory: ActorRefFactory, stdHeaders: Map[String, RichMsg]) e
     Level(level) >= logLevelLimit
   }
 
+  // Messages of categories other than common do not always carry a severity
+  private def levelOf(baseMsg: Map[String, RichMsg]): Level =
+    baseMsg.get(LoggingKeys.SEVERITY).map(severity => Level(severity.toString)).getOrElse(INFO)
+
+  /**
+   * Write the log message to a file. The time of the message used for rotation is parsed from its timestamp.
+   *
+   * @param baseMsg  the message to be logged.
+   * @param category the kinds of log (for example, "common").
+   */
+  def append(baseMsg: Map[String, RichMsg], category: String): Unit = {
+    val time =
+      if (rotateFlag) TMTDateTimeFormatter.parse(baseMsg(LoggingKeys.TIMESTAMP).toString).toInstant.toEpochMilli
+      else 0L
+    append(baseMsg, category, time)
+  }
+
   /**
    * Write the log message to a file.
    *
    * @param baseMsg  the message to be logged.
    * @param category the kinds of log (for example, "common").
+   * @param time     the time of the message in milliseconds since epoch.
    */
-  def append(baseMsg: Map[String, RichMsg], category: String): Unit =
+  override def append(baseMsg: Map[String, RichMsg], category: String, time: Long): Unit =
     if (category != Category.Common.name || checkLevel(baseMsg)) {
       val msg = if (fullHeaders) stdHeaders ++ baseMsg else baseMsg
-      // Maintain a file appender for each category in a logging system
-      val fileAppenderKey = loggingSystemName + "-" + category
-      val fileAppender = fileAppenders.get(fileAppenderKey) match {
-        case Some(appender) => appender
-        case None           =>
-          // Create a file appender with logging file directory as logging system name within the log file path
-          val filesAppender = new FilesAppender(logPath + "/" + loggingSystemName, category)
-          fileAppenders += (fileAppenderKey -> filesAppender)
-          filesAppender
-      }
-      val maybeTimestamp = if (rotateFlag) {
-        val timestamp = baseMsg(LoggingKeys.TIMESTAMP).toString
-        Some(TMTDateTimeFormatter.parse(timestamp))
-      } else None
+      filesAppenderFor(category).add(time, Compact(msg, safe = true, sort = sorted), rotateFlag, levelOf(baseMsg))
+    }
+
+  /**
+   * Write the already encoded log message to a file.
+   *
+   * @param encoded  the message encoded as UTF-8 JSON.
+   * @param category the kinds of log (for example, "common").
+   * @param level    the severity of the message.
+   * @param time     the time of the message in milliseconds since epoch.
+   */
+  def appendEncoded(encoded: ByteBuffer, category: String, level: Level, time: Long): Unit =
+    if (category != Category.Common.name || level >= logLevelLimit)
+      filesAppenderFor(category).addEncoded(time, encoded, rotateFlag, level)
 
-      fileAppender.add(maybeTimestamp, Compact(msg, safe = true, sort = sort), rotateFlag)
+  // Maintain a file appender for each category in a logging system
+  private def filesAppenderFor(category: String): FilesAppender = {
+    val fileAppenderKey = loggingSystemName + "-" + category
+    fileAppenders.get(fileAppenderKey) match {
+      case Some(appender) => appender
+      case None           =>
+        // Create a file appender with logging file directory as logging system name within the log file path
+        val filesAppender =
+          new FilesAppender(logPath + "/" + loggingSystemName, category, batchSettings, rotationSettings, maybeCompactor)
+        fileAppenders += (fileAppenderKey -> filesAppender)
+        filesAppender
     }
+  }
 
   /**
    * Called just before the logger shuts down.
@@ -204,9 +301,11 @@ class FileAppender(factory: ActorRefFactory, stdHeaders: Map[String, RichMsg]) e
    * @return a future that is completed when the close is complete.
    */
   def stop(): Future[Unit] = {
+    maybeFlushSchedule.foreach(_.cancel())
     val fs = for ((category, appender) <- fileAppenders) yield {
       appender.close()
     }
+    maybeCompactor.foreach(_.stop())
     Future.sequence(fs).map(_ => ())
   }
 }
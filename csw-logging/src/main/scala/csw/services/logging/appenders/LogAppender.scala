@@ -1,7 +1,10 @@
 package csw.services.logging.appenders
 
+import java.nio.ByteBuffer
+
 import akka.actor.ActorRefFactory
 import csw.services.logging.RichMsg
+import csw.services.logging.internal.LoggingLevels.Level
 
 import scala.concurrent.Future
 
@@ -31,6 +34,16 @@ trait LogAppender {
    */
   def append(baseMsg: Map[String, RichMsg], category: String): Unit
 
+  /**
+   * Appends a new log message along with its time, which the logging system always knows. Appenders which take
+   * decisions based on the time of the message (for example, file rotation) override this instead of parsing the
+   * timestamp of the message back.
+   * @param baseMsg the message to be logged.
+   * @param category the kinds of log (for example, "common").
+   * @param time the time of the message in milliseconds since epoch.
+   */
+  def append(baseMsg: Map[String, RichMsg], category: String, time: Long): Unit = append(baseMsg, category)
+
   /**
    * Called just before the logger shuts down.
    * @return a future that is completed when finished.
@@ -44,3 +57,31 @@ trait LogAppender {
   def stop(): Future[Unit]
 
 }
+
+/**
+ * Trait for log appenders which are able to write log messages already encoded as UTF-8 JSON bytes. For such appenders
+ * the logging system streams common log messages straight into a reusable buffer instead of building a JSON object and
+ * rendering it to a String. Messages which can not be encoded that way are still delivered through `append`.
+ */
+trait EncodedLogAppender extends LogAppender {
+
+  /**
+   * Whether standard headers of the logging system are to be included in the encoded messages.
+   */
+  def fullHeaders: Boolean
+
+  /**
+   * Whether keys of the encoded messages are to be written in sorted order.
+   */
+  def sorted: Boolean
+
+  /**
+   * Appends a new log message encoded as a single UTF-8 JSON object without line separator.
+   * @param encoded the encoded message. The buffer is reused for next messages, hence it must be consumed before
+   *                returning and must not be retained.
+   * @param category the kinds of log (for example, "common").
+   * @param level the severity of the message.
+   * @param time the time of the message in milliseconds since epoch.
+   */
+  def appendEncoded(encoded: ByteBuffer, category: String, level: Level, time: Long): Unit
+}
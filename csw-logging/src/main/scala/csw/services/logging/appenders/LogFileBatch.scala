@@ -0,0 +1,108 @@
+package csw.services.logging.appenders
+
+import java.nio.ByteBuffer
+import java.nio.channels.FileChannel
+import java.util.concurrent.TimeUnit
+
+import com.typesafe.config.Config
+import csw.services.logging.internal.LogMetrics
+import csw.services.logging.internal.LoggingLevels.Level
+
+import scala.concurrent.duration.{DurationLong, FiniteDuration}
+
+/**
+ * Settings of the batched mode of file appender read from `csw-logging.appender-config.file.batch` block
+ * @param bufferSize size in bytes of the in memory batch, batch is written to file when it gets full
+ * @param flushInterval maximum time a line stays in memory before it is written to file
+ * @param flushLevel lines at or above this level are written to file immediately along with the pending batch
+ * @param fsync force written batches to the storage device, trading latency for durability
+ */
+private[logging] case class FileBatchSettings(bufferSize: Int, flushInterval: FiniteDuration, flushLevel: Level, fsync: Boolean)
+
+private[logging] object FileBatchSettings {
+
+  /**
+   * Extracts batch settings from file appender configuration
+   * @return None if batching is not enabled
+   */
+  def from(fileConfig: Config): Option[FileBatchSettings] = {
+    val config = fileConfig.getConfig("batch")
+    if (config.getBoolean("enabled"))
+      Some(
+        FileBatchSettings(
+          config.getBytes("buffer-size").toInt,
+          config.getDuration("flush-interval", TimeUnit.MILLISECONDS).millis,
+          Level(config.getString("flush-level")),
+          config.getBoolean("fsync")
+        )
+      )
+    else None
+  }
+}
+
+/**
+ * Accumulates log lines in a preallocated direct buffer and writes them to the log file in one go (group commit),
+ * which replaces one write and flush per log line with one write per batch. The batch is written when it gets full,
+ * when a line at or above the flush level is added or when `write` is called by the periodic flush of the appender.
+ *
+ * A batch is not thread safe, callers are expected to synchronize.
+ *
+ * @param settings batch settings
+ * @param separator bytes written after each line, empty for records which carry their own length (binary log files)
+ */
+private[logging] class LogFileBatch(settings: FileBatchSettings, separator: Array[Byte] = LogFileBatch.LineSeparator) {
+
+  private[this] val buffer        = ByteBuffer.allocateDirect(settings.bufferSize)
+  private[this] val lineSeparator = ByteBuffer.wrap(separator)
+  // pending batch, a line which does not fit in the batch and line separator are written with one gathering write
+  private[this] val oversizedLine = Array[ByteBuffer](buffer, null, lineSeparator)
+
+  /**
+   * Number of bytes waiting to be written
+   */
+  def pending: Int = buffer.position()
+
+  /**
+   * Adds a line to the batch, writing the batch to the channel if required
+   */
+  def add(channel: FileChannel, line: ByteBuffer, level: Level): Unit = {
+    val required = line.remaining() + lineSeparator.capacity()
+    if (required > buffer.capacity()) writeOversized(channel, line)
+    else {
+      if (required > buffer.remaining()) write(channel)
+      buffer.put(line)
+      lineSeparator.rewind()
+      buffer.put(lineSeparator)
+      if (level >= settings.flushLevel) write(channel)
+    }
+  }
+
+  /**
+   * Writes pending lines to the channel
+   */
+  def write(channel: FileChannel): Unit =
+    if (buffer.position() > 0) {
+      val bytes = buffer.position()
+      buffer.flip()
+      while (buffer.hasRemaining) channel.write(buffer)
+      buffer.clear()
+      if (settings.fsync) channel.force(false)
+      LogMetrics.fileWritten(bytes)
+    }
+
+  private def writeOversized(channel: FileChannel, line: ByteBuffer): Unit = {
+    val bytes = buffer.position() + line.remaining() + lineSeparator.capacity()
+    buffer.flip()
+    lineSeparator.rewind()
+    oversizedLine(1) = line
+    while (buffer.hasRemaining || line.hasRemaining || lineSeparator.hasRemaining) channel.write(oversizedLine)
+    oversizedLine(1) = null
+    buffer.clear()
+    if (settings.fsync) channel.force(false)
+    LogMetrics.fileWritten(bytes)
+  }
+}
+
+private[logging] object LogFileBatch {
+  val LineSeparator: Array[Byte] = System.lineSeparator().getBytes("UTF-8")
+}
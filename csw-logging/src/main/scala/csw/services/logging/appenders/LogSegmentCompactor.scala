@@ -0,0 +1,173 @@
+package csw.services.logging.appenders
+
+import java.io.{BufferedOutputStream, File, FileInputStream, FileOutputStream}
+import java.nio.file.{Files, StandardCopyOption}
+import java.util.concurrent.{ExecutorService, Executors, ThreadFactory, TimeUnit}
+import java.util.zip.GZIPOutputStream
+
+import com.typesafe.config.Config
+import csw.services.logging.internal.LogMetrics
+import csw.services.logging.scaladsl.{Logger, LoggerImpl}
+
+import scala.concurrent.duration.{DurationLong, FiniteDuration}
+import scala.util.control.NonFatal
+
+/**
+ * Settings of rotation and retention of log files read from `csw-logging.appender-config.file.rotation` block
+ * @param maxFileSize log file is rotated once it grows beyond this size in bytes, in addition to daily rotation. 0 disables
+ * @param compress rotated log files are compressed with gzip
+ * @param maxTotalSize oldest rotated log files of a category are deleted once all of them take more bytes. 0 disables
+ * @param maxAge rotated log files last modified before this age are deleted. 0 disables
+ */
+private[logging] case class FileRotationSettings(maxFileSize: Long,
+                                                 compress: Boolean,
+                                                 maxTotalSize: Long,
+                                                 maxAge: FiniteDuration) {
+
+  /**
+   * Whether rotated log files are to be compressed or deleted in background
+   */
+  def compaction: Boolean = compress || maxTotalSize > 0 || maxAge.length > 0
+}
+
+private[logging] object FileRotationSettings {
+
+  val Disabled = FileRotationSettings(0, compress = false, 0, 0.millis)
+
+  /**
+   * Extracts rotation settings from file appender configuration
+   */
+  def from(fileConfig: Config): FileRotationSettings = {
+    val config = fileConfig.getConfig("rotation")
+    FileRotationSettings(
+      config.getBytes("max-file-size"),
+      config.getBoolean("compress"),
+      config.getBytes("max-total-size"),
+      config.getDuration("max-age", TimeUnit.MILLISECONDS).millis
+    )
+  }
+}
+
+/**
+ * Compresses rotated log files and applies retention on a dedicated background thread, so that the thread writing log
+ * messages only pays for closing and opening files. Compaction is idempotent, rotated files left uncompressed by a
+ * previous run are picked up by the next compaction of their category.
+ *
+ * A file is compressed to a temporary file which is renamed once complete, the original file is deleted only then.
+ * Failed compactions are logged and counted in the `fileCompactionFailures` logging metric.
+ *
+ * @param settings compression and retention settings
+ */
+private[logging] class LogSegmentCompactor(settings: FileRotationSettings) {
+  import LogSegmentCompactor._
+
+  private[this] val executor: ExecutorService = Executors.newSingleThreadExecutor(new ThreadFactory {
+    override def newThread(r: Runnable): Thread = {
+      val thread = new Thread(r, "csw-logging-file-compactor")
+      thread.setDaemon(true)
+      thread
+    }
+  })
+
+  private[this] val log: Logger = new LoggerImpl(None, None)
+
+  /**
+   * Schedules compaction of rotated log files of the category
+   *
+   * @param dir directory holding log files of the category
+   * @param category category of the log files
+   * @param activeFile log file currently being written, left untouched
+   */
+  def compact(dir: File, category: String, activeFile: File): Unit =
+    executor.execute(new Runnable {
+      override def run(): Unit = compactNow(dir, category, activeFile)
+    })
+
+  /**
+   * Compacts rotated log files of the category on the calling thread
+   */
+  def compactNow(dir: File, category: String, activeFile: File): Unit =
+    try {
+      if (settings.compress) rotatedFiles(dir, category, activeFile).filterNot(isCompressed).foreach(compress)
+      applyRetention(rotatedFiles(dir, category, activeFile))
+    } catch {
+      case NonFatal(ex) =>
+        LogMetrics.fileCompactionFailed()
+        log.error(s"Failed to compact log files of category $category in $dir", ex = ex)
+    }
+
+  /**
+   * Lets compactions already scheduled complete and stops the background thread
+   */
+  def stop(): Unit = executor.shutdown()
+
+  private def compress(file: File): Unit = {
+    val compressed = new File(file.getPath + CompressedSuffix)
+    val temp       = new File(compressed.getPath + ".tmp")
+    val in         = new FileInputStream(file)
+    try {
+      val out = new GZIPOutputStream(new BufferedOutputStream(new FileOutputStream(temp)), BufferSize)
+      try {
+        val buffer = new Array[Byte](BufferSize)
+        var read   = in.read(buffer)
+        while (read != -1) {
+          out.write(buffer, 0, read)
+          read = in.read(buffer)
+        }
+      } finally out.close()
+    } finally in.close()
+    Files.move(temp.toPath, compressed.toPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE)
+    file.delete()
+  }
+
+  // files older than max age are deleted first, then the oldest ones till the rest fit in max total size
+  private def applyRetention(files: List[File]): Unit = {
+    val now = System.currentTimeMillis()
+    val (expired, retained) =
+      files.partition(file => settings.maxAge.length > 0 && now - file.lastModified() > settings.maxAge.toMillis)
+    expired.foreach(_.delete())
+
+    if (settings.maxTotalSize > 0) {
+      var totalSize = retained.map(_.length()).sum
+      retained.sortBy(_.lastModified()).foreach { file =>
+        if (totalSize > settings.maxTotalSize) {
+          totalSize -= file.length()
+          file.delete()
+        }
+      }
+    }
+  }
+}
+
+private[logging] object LogSegmentCompactor {
+  val LogSuffix        = ".log"
+  val CompressedSuffix = ".gz"
+
+  private val BufferSize = 64 * 1024
+
+  def isCompressed(file: File): Boolean = file.getName.endsWith(CompressedSuffix)
+
+  /**
+   * Log files of the category other than the active one, compressed or not
+   */
+  def rotatedFiles(dir: File, category: String, activeFile: File): List[File] =
+    Option(dir.listFiles()).toList.flatten.filter { file =>
+      val name = file.getName
+      name.startsWith(category + ".") && (name.endsWith(LogSuffix) || name.endsWith(LogSuffix + CompressedSuffix)) &&
+      file != activeFile
+    }
+
+  /**
+   * Name of the next segment of a log file rotated because of its size, e.g. `common.2017-06-19T12:00Z.3.log` for
+   * `common.2017-06-19T12:00Z.log`, numbered after the segments already present, compressed or not
+   */
+  def nextSegment(activeFile: File): File = {
+    val base = activeFile.getName.stripSuffix(LogSuffix) + "."
+    val indices = Option(activeFile.getParentFile.listFiles()).toList.flatten.map(_.getName).collect {
+      case name if name.startsWith(base) =>
+        name.stripPrefix(base).stripSuffix(CompressedSuffix).stripSuffix(LogSuffix)
+    }
+    val next = indices.filter(index => index.nonEmpty && index.forall(_.isDigit)).map(_.toInt).foldLeft(0)(math.max) + 1
+    new File(activeFile.getParentFile, s"$base$next$LogSuffix")
+  }
+}
@@ -0,0 +1,466 @@
+package csw.services.logging.binary
+
+import java.io._
+import java.nio.ByteBuffer
+import java.nio.charset.StandardCharsets.UTF_8
+
+import csw.services.logging.commons.{LoggingKeys, TMTDateTimeFormatter}
+
+import scala.collection.mutable
+
+/**
+ * Compact on-disk format of log messages written by [[csw.services.logging.appenders.BinaryFileAppender]].
+ *
+ * A file starts with `Magic` followed by `Version`, then holds a sequence of length-prefixed records:
+ * {{{
+ *   record     := varint(length of kind and body) kind body
+ *   StringDef  := varint(id) varint(length) utf8-bytes         -- adds a string to the dictionary of the file
+ *   LogEntry   := flags zigzag-varint(time - previous time) varint(fields) (key value)*
+ *   Reset      :=                                              -- clears the dictionary and previous time
+ *   key        := varint(id + 1) | 0 varint(length) utf8-bytes
+ * }}}
+ *
+ * Field names and values of low cardinality fields (severity, component, class, etc.) are interned: the string is
+ * written once as a `StringDef` record and referred to by its id afterwards. Timestamps are stored as the difference
+ * in milliseconds to the previous message and rendered back to the ISO format while decoding.
+ */
+object BinaryLogFormat {
+  val Magic: Array[Byte] = Array('C', 'S', 'W', 'B').map(_.toByte)
+  val Version: Byte      = 1
+  val FileExtension      = "bin"
+
+  // record kinds
+  private[binary] val StringDef: Byte = 1
+  private[binary] val LogEntry: Byte  = 2
+  private[binary] val Reset: Byte     = 3
+
+  // flags of a log entry
+  private[binary] val HasTimestamp = 1
+
+  // value tags
+  private[binary] val NullTag: Byte      = 0
+  private[binary] val StringTag: Byte    = 1
+  private[binary] val InternedTag: Byte  = 2
+  private[binary] val LongTag: Byte      = 3
+  private[binary] val DoubleTag: Byte    = 4
+  private[binary] val TrueTag: Byte      = 5
+  private[binary] val FalseTag: Byte     = 6
+  private[binary] val ArrayTag: Byte     = 7
+  private[binary] val ObjectTag: Byte    = 8
+  private[binary] val BigNumberTag: Byte = 9
+
+  // upper bound of the dictionary of a file, strings seen afterwards are written inline
+  private[binary] val MaxDictionarySize = 16384
+
+  /**
+   * Returns the length of the header and complete records at the start of the file, which excludes a last record cut
+   * short, e.g. by a crash while it was written. 0 if the file is shorter than the header.
+   */
+  def completeLength(file: File): Long = {
+    val fileLength = file.length()
+    val in         = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))
+    var end        = 0L
+    try {
+      in.readFully(new Array[Byte](Magic.length + 1))
+      end = Magic.length + 1L
+      var complete = true
+      while (complete && end < fileLength) {
+        var length = 0L
+        var shift  = 0
+        var b      = in.readByte()
+        while ((b & 0x80) != 0) {
+          length |= (b & 0x7fL) << shift
+          shift += 7
+          b = in.readByte()
+        }
+        length |= b.toLong << shift
+        val recordEnd = end + shift / 7 + 1 + length
+        complete = recordEnd <= fileLength
+        if (complete) {
+          var skipped = 0L
+          while (skipped < length) {
+            val n = in.skip(length - skipped)
+            if (n <= 0) throw new EOFException()
+            skipped += n
+          }
+          end = recordEnd
+        }
+      }
+    } catch {
+      case _: EOFException ⇒ // the records read so far are complete
+    } finally in.close()
+    end
+  }
+
+  // fields whose values repeat across messages
+  private[binary] val InternedValueKeys: Set[String] = Set(
+    LoggingKeys.CATEGORY,
+    LoggingKeys.COMPONENT_NAME,
+    LoggingKeys.HOST,
+    LoggingKeys.NAME,
+    LoggingKeys.VERSION,
+    LoggingKeys.SEVERITY,
+    LoggingKeys.ACTOR,
+    LoggingKeys.CLASS,
+    LoggingKeys.FILE,
+    LoggingKeys.KIND
+  )
+}
+
+/**
+ * Encodes log messages to records of [[BinaryLogFormat]]. The dictionary of interned strings lives as long as the file
+ * being written, hence an encoder is to be used for a single file and restarted with `start` for the next one.
+ *
+ * An encoder is not thread safe and the returned buffers are only valid till the next call.
+ *
+ * @param initialCapacity initial size of the buffers in bytes, the buffers grow if a message does not fit
+ */
+class BinaryLogEncoder(initialCapacity: Int = 4096) {
+  import BinaryLogFormat._
+
+  private[this] val dictionary = mutable.HashMap.empty[String, Int]
+  private[this] var lastTime   = 0L
+  // complete records ready to be written
+  private[this] var out = ByteBuffer.allocate(initialCapacity)
+  // body of the log entry being encoded, its length is known only at the end
+  private[this] var body = ByteBuffer.allocate(initialCapacity)
+
+  /**
+   * Clears the dictionary and returns the bytes to be written first to a file
+   *
+   * @param append true if the file already holds records, in which case the decoder is asked to clear its dictionary
+   *               instead of expecting the file header
+   */
+  def start(append: Boolean): ByteBuffer = {
+    dictionary.clear()
+    lastTime = 0L
+    out.clear()
+    if (append) {
+      writeVarInt(1)
+      out.put(Reset)
+    } else {
+      out.put(Magic)
+      out.put(Version)
+    }
+    out.flip()
+    out
+  }
+
+  /**
+   * Encodes the message along with dictionary entries of the strings seen for the first time
+   *
+   * @param msg  the message to be encoded, its timestamp field is replaced by `time`
+   * @param time the time of the message in milliseconds since epoch
+   * @return the buffer ready to be read
+   */
+  def encode(msg: Map[String, Any], time: Long): ByteBuffer = {
+    out.clear()
+    body.clear()
+    val fields = msg - LoggingKeys.TIMESTAMP
+    putBody(LogEntry)
+    putBody((if (fields.size != msg.size) HasTimestamp else 0).toByte)
+    writeBodyVarLong(zigZag(time - lastTime))
+    lastTime = time
+    writeFields(fields)
+
+    body.flip()
+    writeVarInt(body.remaining())
+    ensureOut(body.remaining())
+    out.put(body)
+    out.flip()
+    out
+  }
+
+  private def writeFields(fields: scala.collection.Map[_, _]): Unit = {
+    writeBodyVarLong(fields.size)
+    fields.foreach {
+      case (k, v) ⇒
+        val key = k.toString
+        writeKey(key)
+        v match {
+          case s: String if InternedValueKeys(key) ⇒
+            intern(s) match {
+              case -1 ⇒ writeInlineString(s)
+              case id ⇒
+                putBody(InternedTag)
+                writeBodyVarLong(id)
+            }
+          case _ ⇒ writeValue(v)
+        }
+    }
+  }
+
+  private def writeKey(key: String): Unit = intern(key) match {
+    case -1 ⇒
+      writeBodyVarLong(0)
+      writeBytes(key.getBytes(UTF_8))
+    case id ⇒ writeBodyVarLong(id + 1L)
+  }
+
+  private def writeValue(value: Any): Unit = value match {
+    case null       ⇒ putBody(NullTag)
+    case s: String  ⇒ writeInlineString(s)
+    case i: Int     ⇒ writeLong(i)
+    case l: Long    ⇒ writeLong(l)
+    case s: Short   ⇒ writeLong(s)
+    case b: Byte    ⇒ writeLong(b)
+    case b: Boolean ⇒ putBody(if (b) TrueTag else FalseTag)
+    case d: Double ⇒
+      putBody(DoubleTag)
+      ensureBody(8)
+      body.putDouble(d)
+    case f: Float ⇒
+      putBody(DoubleTag)
+      ensureBody(8)
+      body.putDouble(f.toDouble)
+    case n: BigDecimal ⇒
+      putBody(BigNumberTag)
+      writeBytes(n.toString.getBytes(UTF_8))
+    case n: BigInt ⇒
+      putBody(BigNumberTag)
+      writeBytes(n.toString.getBytes(UTF_8))
+    case m: scala.collection.Map[_, _] ⇒
+      putBody(ObjectTag)
+      writeFields(m)
+    case xs: Iterable[_] ⇒ writeArray(xs.size, xs.iterator)
+    case xs: Array[_]    ⇒ writeArray(xs.length, xs.iterator)
+    case other           ⇒ writeInlineString(other.toString)
+  }
+
+  private def writeArray(size: Int, it: Iterator[_]): Unit = {
+    putBody(ArrayTag)
+    writeBodyVarLong(size)
+    it.foreach(writeValue)
+  }
+
+  private def writeLong(l: Long): Unit = {
+    putBody(LongTag)
+    writeBodyVarLong(zigZag(l))
+  }
+
+  private def writeInlineString(s: String): Unit = {
+    putBody(StringTag)
+    writeBytes(s.getBytes(UTF_8))
+  }
+
+  private def writeBytes(bytes: Array[Byte]): Unit = {
+    writeBodyVarLong(bytes.length)
+    ensureBody(bytes.length)
+    body.put(bytes)
+  }
+
+  // returns the id of the string, writing its definition record when seen for the first time, -1 if dictionary is full
+  private def intern(s: String): Int = dictionary.get(s) match {
+    case Some(id) ⇒ id
+    case None if dictionary.size < MaxDictionarySize ⇒
+      val id    = dictionary.size
+      val bytes = s.getBytes(UTF_8)
+      dictionary.put(s, id)
+      writeVarInt(1 + varIntSize(id) + varIntSize(bytes.length) + bytes.length)
+      ensureOut(1)
+      out.put(StringDef)
+      writeVarInt(id)
+      writeVarInt(bytes.length)
+      ensureOut(bytes.length)
+      out.put(bytes)
+      id
+    case None ⇒ -1
+  }
+
+  private def zigZag(l: Long): Long = (l << 1) ^ (l >> 63)
+
+  private def varIntSize(value: Int): Int = {
+    var v    = value
+    var size = 1
+    while ((v & ~0x7f) != 0) {
+      v >>>= 7
+      size += 1
+    }
+    size
+  }
+
+  private def writeVarInt(value: Int): Unit = {
+    ensureOut(5)
+    var v = value
+    while ((v & ~0x7f) != 0) {
+      out.put(((v & 0x7f) | 0x80).toByte)
+      v >>>= 7
+    }
+    out.put(v.toByte)
+  }
+
+  private def writeBodyVarLong(value: Long): Unit = {
+    ensureBody(10)
+    var v = value
+    while ((v & ~0x7fL) != 0) {
+      body.put(((v & 0x7f) | 0x80).toByte)
+      v >>>= 7
+    }
+    body.put(v.toByte)
+  }
+
+  private def putBody(b: Byte): Unit = {
+    ensureBody(1)
+    body.put(b)
+  }
+
+  private def ensureBody(bytes: Int): Unit = if (body.remaining() < bytes) body = grow(body, bytes)
+
+  private def ensureOut(bytes: Int): Unit = if (out.remaining() < bytes) out = grow(out, bytes)
+
+  private def grow(buffer: ByteBuffer, bytes: Int): ByteBuffer = {
+    val grown = ByteBuffer.allocate(math.max(buffer.capacity() * 2, buffer.position() + bytes))
+    buffer.flip()
+    grown.put(buffer)
+    grown
+  }
+}
+
+/**
+ * A log message read back from a file of [[BinaryLogFormat]]
+ *
+ * @param time the time of the message in milliseconds since epoch
+ * @param fields the fields of the message, including the timestamp rendered in ISO format
+ */
+case class BinaryLogRecord(time: Long, fields: Map[String, Any])
+
+/**
+ * Reads the log messages of a file of [[BinaryLogFormat]]. A record cut short at the end of the stream (for example,
+ * when the writing process crashed) ends the iteration.
+ *
+ * The reader does not close the stream.
+ *
+ * @param in the stream positioned at the start of a file
+ */
+class BinaryLogReader(in: InputStream) extends Iterator[BinaryLogRecord] {
+  import BinaryLogFormat._
+
+  private[this] val data       = new DataInputStream(in)
+  private[this] val dictionary = mutable.ArrayBuffer.empty[String]
+  private[this] var lastTime   = 0L
+  private[this] var body       = ByteBuffer.allocate(0)
+  private[this] var nextRecord = Option.empty[BinaryLogRecord]
+
+  readHeader()
+
+  def hasNext: Boolean = {
+    if (nextRecord.isEmpty) nextRecord = readRecord()
+    nextRecord.isDefined
+  }
+
+  def next(): BinaryLogRecord =
+    if (hasNext) {
+      val record = nextRecord.get
+      nextRecord = None
+      record
+    } else throw new NoSuchElementException("no more log records")
+
+  private def readHeader(): Unit = {
+    val header = new Array[Byte](Magic.length + 1)
+    data.readFully(header)
+    if (!header.take(Magic.length).sameElements(Magic))
+      throw new IllegalArgumentException("not a binary log file, magic bytes do not match")
+    if (header(Magic.length) != Version)
+      throw new IllegalArgumentException(s"unsupported binary log format version ${header(Magic.length)}")
+  }
+
+  // reads records till the next log entry, dictionary and reset records are applied on the way
+  private def readRecord(): Option[BinaryLogRecord] = {
+    var record = Option.empty[BinaryLogRecord]
+    while (record.isEmpty && readBody()) {
+      body.get() match {
+        case StringDef ⇒
+          val id = readVarLong().toInt
+          if (id != dictionary.size) throw new IllegalStateException(s"unexpected dictionary id $id")
+          dictionary += readString()
+        case Reset ⇒
+          dictionary.clear()
+          lastTime = 0L
+        case LogEntry ⇒
+          val flags = body.get()
+          lastTime += unZigZag(readVarLong())
+          val fields = readFields()
+          record = Some(
+            BinaryLogRecord(
+              lastTime,
+              if ((flags & HasTimestamp) != 0) fields + (LoggingKeys.TIMESTAMP → TMTDateTimeFormatter.format(lastTime))
+              else fields
+            )
+          )
+        case kind ⇒ throw new IllegalStateException(s"unknown record kind $kind")
+      }
+    }
+    record
+  }
+
+  // loads the next record into the body buffer, false at the end of the stream or if the record is incomplete
+  private def readBody(): Boolean =
+    try {
+      var length = 0
+      var shift  = 0
+      var b      = data.readByte()
+      while ((b & 0x80) != 0) {
+        length |= (b & 0x7f) << shift
+        shift += 7
+        b = data.readByte()
+      }
+      length |= b << shift
+      if (body.capacity() < length) body = ByteBuffer.allocate(length)
+      body.clear()
+      data.readFully(body.array(), 0, length)
+      body.limit(length)
+      true
+    } catch {
+      case _: EOFException ⇒ false
+    }
+
+  private def readFields(): Map[String, Any] = {
+    val size    = readVarLong().toInt
+    val builder = Map.newBuilder[String, Any]
+    var i       = 0
+    while (i < size) {
+      val key = readVarLong() match {
+        case 0  ⇒ readString()
+        case id ⇒ dictionary((id - 1).toInt)
+      }
+      builder += key → readValue()
+      i += 1
+    }
+    builder.result()
+  }
+
+  private def readValue(): Any = body.get() match {
+    case NullTag      ⇒ null
+    case StringTag    ⇒ readString()
+    case InternedTag  ⇒ dictionary(readVarLong().toInt)
+    case LongTag      ⇒ unZigZag(readVarLong())
+    case DoubleTag    ⇒ body.getDouble()
+    case TrueTag      ⇒ true
+    case FalseTag     ⇒ false
+    case ArrayTag     ⇒ List.fill(readVarLong().toInt)(readValue())
+    case ObjectTag    ⇒ readFields()
+    case BigNumberTag ⇒ BigDecimal(readString())
+    case tag          ⇒ throw new IllegalStateException(s"unknown value tag $tag")
+  }
+
+  private def readString(): String = {
+    val length = readVarLong().toInt
+    val s      = new String(body.array(), body.position(), length, UTF_8)
+    body.position(body.position() + length)
+    s
+  }
+
+  private def readVarLong(): Long = {
+    var value = 0L
+    var shift = 0
+    var b     = body.get()
+    while ((b & 0x80) != 0) {
+      value |= (b & 0x7fL) << shift
+      shift += 7
+      b = body.get()
+    }
+    value | (b.toLong << shift)
+  }
+
+  private def unZigZag(l: Long): Long = (l >>> 1) ^ -(l & 1)
+}
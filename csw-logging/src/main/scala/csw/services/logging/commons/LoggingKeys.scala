@@ -37,6 +37,8 @@ private[logging] object LoggingKeys {
 
   val KIND = "kind" // in Log message, but never set?
 
+  val SUPPRESSED = "suppressed" // Set by LoggingSystem in summary of messages suppressed by rate limiting of a call site
+
   val METHOD = "method" // this and items below are used and populated
   val TRACE  = "trace"  // iff an ex has been passed to actor.
   val STACK  = "stack"  // these values are determined from ex throwable
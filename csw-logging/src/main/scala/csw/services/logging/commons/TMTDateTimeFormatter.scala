@@ -6,12 +6,67 @@ import java.time.format.DateTimeFormatter
 object TMTDateTimeFormatter {
   val ISOLogFormatter = DateTimeFormatter.ISO_INSTANT.withZone(ZoneOffset.UTC)
 
+  // Formatted date and time up to seconds, e.g. "2017-06-19T16:10:19", of the last formatted second
+  private final class CachedSecond(val epochSecond: Long, val prefix: Array[Char])
+
+  private val PrefixLength = 19
+
+  // Threads logging within the same second share the prefix, a thread may overwrite it with another second but
+  // instances are immutable hence a reader always sees a consistent pair
+  @volatile private var cachedSecond = new CachedSecond(Long.MinValue, Array.emptyCharArray)
+
+  /**
+   * Formats the time as ISO instant, e.g. "2017-06-19T16:10:19.397Z", same as `ISOLogFormatter`. Date and time up to
+   * seconds are formatted once per second and reused, only milliseconds are rendered for each call.
+   *
+   * @param time milliseconds since epoch
+   */
   def format(time: Long): String = {
-    ISOLogFormatter.format(Instant.ofEpochMilli(time))
+    val prefix = secondPrefix(time)
+    if (prefix == null) ISOLogFormatter.format(Instant.ofEpochMilli(time))
+    else {
+      val millis = Math.floorMod(time, 1000L).toInt
+      // ISO instant omits the fraction when it is zero
+      if (millis == 0) {
+        val chars = java.util.Arrays.copyOf(prefix, PrefixLength + 1)
+        chars(PrefixLength) = 'Z'
+        new String(chars)
+      } else {
+        val chars = java.util.Arrays.copyOf(prefix, PrefixLength + 5)
+        chars(PrefixLength) = '.'
+        chars(PrefixLength + 1) = ('0' + millis / 100).toChar
+        chars(PrefixLength + 2) = ('0' + millis / 10 % 10).toChar
+        chars(PrefixLength + 3) = ('0' + millis      % 10).toChar
+        chars(PrefixLength + 4) = 'Z'
+        new String(chars)
+      }
+    }
+  }
+
+  /**
+   * Returns the date and time up to seconds of the time, e.g. "2017-06-19T16:10:19", which `format` completes with the
+   * milliseconds. The array is shared, hence it must not be modified. Null for years beyond four digits, which are
+   * formatted with a sign and not cached.
+   *
+   * @param time milliseconds since epoch
+   */
+  private[logging] def secondPrefix(time: Long): Array[Char] = {
+    val epochSecond = Math.floorDiv(time, 1000L)
+    var cached      = cachedSecond
+    if (cached.epochSecond != epochSecond) {
+      cached = formatSecond(epochSecond)
+      cachedSecond = cached
+    }
+    if (cached.prefix.length == PrefixLength) cached.prefix else null
   }
 
   def parse(dateStr: String): ZonedDateTime = {
     ZonedDateTime.parse(dateStr, ISOLogFormatter)
   }
 
+  private def formatSecond(epochSecond: Long): CachedSecond = {
+    val formatted = ISOLogFormatter.format(Instant.ofEpochSecond(epochSecond))
+    new CachedSecond(epochSecond, formatted.substring(0, formatted.length - 1).toCharArray)
+  }
+
 }
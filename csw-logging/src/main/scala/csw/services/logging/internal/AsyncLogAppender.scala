@@ -0,0 +1,259 @@
+package csw.services.logging.internal
+
+import java.nio.ByteBuffer
+import java.util.concurrent.atomic.AtomicLong
+import java.util.concurrent.{ArrayBlockingQueue, ConcurrentLinkedQueue, TimeUnit}
+
+import com.typesafe.config.Config
+import csw.services.logging.RichMsg
+import csw.services.logging.appenders.{EncodedLogAppender, LogAppender}
+import csw.services.logging.commons.LoggingKeys
+import csw.services.logging.internal.LoggingLevels.Level
+
+import scala.concurrent.{Future, Promise}
+import scala.util.control.NonFatal
+
+/**
+ * Settings of an asynchronous appender read from `csw-logging.async-appenders` block of logging configuration
+ * @param queueSize maximum number of messages waiting to be written by the appender
+ * @param overflowPolicy what to do when the queue is full
+ * @param dropBelowLevel with drop-below-level policy, messages below this level are dropped when the queue is full
+ */
+private[logging] case class AsyncAppenderSettings(queueSize: Int, overflowPolicy: OverflowPolicy, dropBelowLevel: Level)
+
+private[logging] object AsyncAppenderSettings {
+
+  /**
+   * Extracts settings for an appender. Defaults can be overridden per appender in the `overrides` block using the
+   * simple class name of the appender, e.g. `overrides.FileAppender.overflow-policy = block`.
+   *
+   * @return None if asynchronous appenders are not enabled
+   */
+  def from(loggingConfig: Config, appender: LogAppender): Option[AsyncAppenderSettings] = {
+    val asyncConfig = loggingConfig.getConfig("async-appenders")
+    if (asyncConfig.getBoolean("enabled")) {
+      val name = appender.getClass.getSimpleName
+      val config =
+        if (asyncConfig.hasPath(s"overrides.$name")) asyncConfig.getConfig(s"overrides.$name").withFallback(asyncConfig)
+        else asyncConfig
+      Some(
+        AsyncAppenderSettings(
+          config.getInt("queue-size"),
+          OverflowPolicy.withName(config.getString("overflow-policy")),
+          Level(config.getString("drop-below-level"))
+        )
+      )
+    } else None
+  }
+}
+
+/**
+ * Queue depth, drop and failure counts of an asynchronous appender
+ * @param appender simple class name of the wrapped appender
+ * @param queueDepth number of messages waiting to be written
+ * @param dropped number of messages dropped because the queue was full or the appender was stopped
+ * @param failed number of messages the wrapped appender failed to write
+ */
+case class AsyncAppenderMetrics(appender: String, queueDepth: Int, dropped: Long, failed: Long)
+
+/**
+ * Runs a log appender on its own bounded queue and dedicated thread, so that a slow appender (e.g. stdout on a blocked
+ * terminal or file on a slow disk) only backs up its own queue instead of stalling the thread which processes log
+ * messages for all appenders.
+ *
+ * Control requests (finish, stop, retire) are never dropped, they bypass the bounded queue and are handled by the
+ * appender thread after the messages queued before them are written.
+ *
+ * @param appender the wrapped appender
+ * @param settings queue size and overflow policy of this appender
+ */
+private[logging] class AsyncLogAppender(val appender: LogAppender, settings: AsyncAppenderSettings) extends LogAppender {
+  import AsyncLogAppender._
+
+  private[this] val queue    = new ArrayBlockingQueue[AnyRef](settings.queueSize)
+  private[this] val controls = new ConcurrentLinkedQueue[Control]()
+  private[this] val dropped  = new AtomicLong(0L)
+  private[this] val failed   = new AtomicLong(0L)
+  private[this] val name     = appender.getClass.getSimpleName
+  // latency of the wrapped appender is measured on the appender thread
+  private[this] val latency = LogMetrics.appenderLatency(appender)
+
+  @volatile private[this] var running = true
+
+  // failures are reported by the appender thread at most once per interval, along with their number since the last report
+  private[this] var failureReported   = false
+  private[this] var lastFailureReport = 0L
+  private[this] var reportedFailures  = 0L
+
+  private[this] val thread = new Thread(new Runnable {
+    override def run(): Unit = work()
+  }, s"csw-logging-appender-$name")
+  thread.setDaemon(true)
+  thread.start()
+
+  def metrics: AsyncAppenderMetrics = AsyncAppenderMetrics(name, queue.size(), dropped.get(), failed.get())
+
+  def append(baseMsg: Map[String, RichMsg], category: String): Unit =
+    enqueue(Append(baseMsg, category, UnknownTime), levelOf(baseMsg))
+
+  override def append(baseMsg: Map[String, RichMsg], category: String, time: Long): Unit =
+    enqueue(Append(baseMsg, category, time), levelOf(baseMsg))
+
+  /**
+   * Appends a message whose level is already known to the caller, which saves reading it back from the message
+   */
+  def append(baseMsg: Map[String, RichMsg], category: String, level: Level, time: Long): Unit =
+    enqueue(Append(baseMsg, category, time), level)
+
+  def finish(): Future[Unit] = control(Finish(Promise[Unit]))
+
+  def stop(): Future[Unit] = control(Stop(Promise[Unit]))
+
+  /**
+   * Writes the messages already queued and stops the appender thread without stopping the wrapped appender. Used when
+   * the appender is replaced by `SetAppenders`.
+   */
+  def retire(): Future[Unit] = control(Retire(Promise[Unit]))
+
+  protected def enqueue(task: AnyRef, level: Level): Unit =
+    if (!running) dropped.incrementAndGet()
+    else {
+      if (!queue.offer(task)) {
+        settings.overflowPolicy match {
+          case OverflowPolicy.Block ⇒ queue.put(task)
+          case OverflowPolicy.DropOldest ⇒
+            while (!queue.offer(task)) if (queue.poll() != null) dropped.incrementAndGet()
+          case OverflowPolicy.DropBelowLevel ⇒
+            if (level.pos < settings.dropBelowLevel.pos) dropped.incrementAndGet() else queue.put(task)
+        }
+      }
+      // the appender thread stopped while the message was queued, hence it will never be written
+      if (!running && queue.remove(task)) dropped.incrementAndGet()
+    }
+
+  // once the appender thread is gone, requests are served by the caller
+  private def control(request: Control): Future[Unit] = {
+    if (running) controls.offer(request)
+    else
+      request match {
+        case Finish(done) ⇒ done.completeWith(appender.finish())
+        case Stop(done)   ⇒ done.completeWith(appender.stop())
+        case Retire(done) ⇒ done.trySuccess(())
+      }
+    request.done.future
+  }
+
+  private def work(): Unit = {
+    while (running) {
+      val request = controls.poll()
+      if (request != null) handle(request)
+      else {
+        val task = queue.poll(PollTimeoutMillis, TimeUnit.MILLISECONDS)
+        if (task != null) deliver(task)
+      }
+    }
+    // messages queued while the appender thread was stopping are never written
+    while (queue.poll() != null) dropped.incrementAndGet()
+  }
+
+  // messages queued before the control request are written first
+  private def handle(request: Control): Unit = {
+    var task = queue.poll()
+    while (task != null) {
+      deliver(task)
+      task = queue.poll()
+    }
+    request match {
+      case Finish(done) ⇒ done.completeWith(appender.finish())
+      case Stop(done) ⇒
+        running = false
+        done.completeWith(appender.stop())
+      case Retire(done) ⇒
+        running = false
+        done.success(())
+    }
+  }
+
+  // a failing appender must not kill the appender thread
+  private def deliver(task: AnyRef): Unit =
+    try {
+      val start = System.nanoTime()
+      task match {
+        case Append(baseMsg, category, UnknownTime) ⇒ appender.append(baseMsg, category)
+        case Append(baseMsg, category, time)        ⇒ appender.append(baseMsg, category, time)
+        case AppendEncoded(encoded, category, level, time) ⇒
+          appender.asInstanceOf[EncodedLogAppender].appendEncoded(encoded, category, level, time)
+      }
+      latency.record(System.nanoTime() - start)
+    } catch {
+      case NonFatal(ex) ⇒
+        failed.incrementAndGet()
+        reportFailure(ex)
+    }
+
+  private def reportFailure(ex: Throwable): Unit = {
+    val now = System.nanoTime()
+    if (!failureReported || now - lastFailureReport >= FailureReportIntervalNanos) {
+      val failures = failed.get()
+      System.err.println(
+        s"Log appender $name failed to write ${failures - reportedFailures} log message(s) since its last report, last failure: $ex"
+      )
+      failureReported = true
+      lastFailureReport = now
+      reportedFailures = failures
+    }
+  }
+}
+
+/**
+ * Asynchronous variant of an [[EncodedLogAppender]]. The encoded buffer is reused by the logging system for the next
+ * message, hence its content is copied before it is queued.
+ */
+private[logging] class AsyncEncodedLogAppender(encodedAppender: EncodedLogAppender, settings: AsyncAppenderSettings)
+    extends AsyncLogAppender(encodedAppender, settings)
+    with EncodedLogAppender {
+  import AsyncLogAppender._
+
+  def fullHeaders: Boolean = encodedAppender.fullHeaders
+
+  def sorted: Boolean = encodedAppender.sorted
+
+  def appendEncoded(encoded: ByteBuffer, category: String, level: Level, time: Long): Unit = {
+    val copy = ByteBuffer.allocate(encoded.remaining())
+    copy.put(encoded)
+    copy.flip()
+    enqueue(AppendEncoded(copy, category, level, time), level)
+  }
+}
+
+private[logging] object AsyncLogAppender {
+
+  // upper bound on the delay before a control request is noticed by an idle appender thread
+  private val PollTimeoutMillis = 100L
+
+  // time of messages appended without one
+  private val UnknownTime = Long.MinValue
+
+  // minimum interval between two reports of failures of the wrapped appender
+  private val FailureReportIntervalNanos = TimeUnit.SECONDS.toNanos(10)
+
+  private[logging] case class Append(baseMsg: Map[String, RichMsg], category: String, time: Long)
+  private[logging] case class AppendEncoded(encoded: ByteBuffer, category: String, level: Level, time: Long)
+
+  private[logging] sealed trait Control { def done: Promise[Unit] }
+  private[logging] case class Finish(done: Promise[Unit]) extends Control
+  private[logging] case class Stop(done: Promise[Unit])   extends Control
+  private[logging] case class Retire(done: Promise[Unit]) extends Control
+
+  /**
+   * Wraps the appender to run asynchronously, preserving its ability to consume encoded messages
+   */
+  def apply(appender: LogAppender, settings: AsyncAppenderSettings): AsyncLogAppender = appender match {
+    case encodedAppender: EncodedLogAppender ⇒ new AsyncEncodedLogAppender(encodedAppender, settings)
+    case _                                   ⇒ new AsyncLogAppender(appender, settings)
+  }
+
+  // Messages of categories other than common do not always carry a severity
+  private def levelOf(baseMsg: Map[String, RichMsg]): Level =
+    baseMsg.get(LoggingKeys.SEVERITY).map(severity ⇒ Level(severity.toString)).getOrElse(LoggingLevels.INFO)
+}
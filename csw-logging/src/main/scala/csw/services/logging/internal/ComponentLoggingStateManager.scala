@@ -26,7 +26,12 @@ private[logging] object ComponentLoggingStateManager {
         .toMap
     }.getOrElse(Map.empty)
 
-  def add(componentName: String, level: Level): Unit = {
+  /**
+   * Sets the log level of a component, loggers of the component see the new level as soon as this returns
+   * @param componentName name of the component
+   * @param level new log level of the component
+   */
+  def add(componentName: String, level: Level): Unit = LoggingState.synchronized {
     import csw.services.logging.internal.LoggingState._
     componentsLoggingState = componentsLoggingState ++ Map(componentName → ComponentLoggingState(level))
   }
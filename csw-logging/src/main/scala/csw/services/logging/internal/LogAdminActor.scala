@@ -15,6 +15,7 @@ object LogAdminActor {
     msg match {
       case GetComponentLogMetadata(componentName, replyTo) ⇒ replyTo ! getLogMetadata(componentName)
       case SetComponentLogLevel(componentName, logLevel)   ⇒ setComponentLogLevel(componentName, logLevel)
+      case GetLoggingMetrics(replyTo)                      ⇒ replyTo ! LogMetrics.snapshot
     }
     Actor.same
   }
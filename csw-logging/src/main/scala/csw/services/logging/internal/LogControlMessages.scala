@@ -3,7 +3,7 @@ package csw.services.logging.internal
 import akka.typed.ActorRef
 import csw.messages.TMTSerializable
 import csw.services.logging.internal.LoggingLevels.Level
-import csw.services.logging.models.LogMetadata
+import csw.services.logging.models.{LogMetadata, LoggingMetrics}
 
 // Parent trait for Messages which will be send to components for interacting with its logging system
 sealed trait LogControlMessages extends TMTSerializable
@@ -13,3 +13,6 @@ case class GetComponentLogMetadata(componentName: String, replyTo: ActorRef[LogM
 
 // Message to change the log level of any component
 case class SetComponentLogLevel(componentName: String, logLevel: Level) extends LogControlMessages
+
+// Message to get the counters of the logging system of the receiver
+case class GetLoggingMetrics(replyTo: ActorRef[LoggingMetrics]) extends LogControlMessages
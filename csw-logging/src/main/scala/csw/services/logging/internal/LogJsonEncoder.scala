@@ -0,0 +1,352 @@
+package csw.services.logging.internal
+
+import java.nio.ByteBuffer
+
+import com.persist.JsonOps.JsonObject
+import csw.services.logging.commons.{Category, LoggingKeys, TMTDateTimeFormatter}
+import csw.services.logging.noException
+import csw.services.logging.scaladsl.RequestId
+
+/**
+ * Streams the JSON representation of a [[Log]] message straight into a reusable direct ByteBuffer as UTF-8, without
+ * building intermediate JsonObjects or Strings. The produced JSON has the same fields as the one built by
+ * [[LogProcessor]]. When sorted, keys are written in the sorted order of an appender rendering JSON objects with sorted
+ * keys, otherwise standard headers come first, then message fields and finally the user supplied map.
+ *
+ * Standard headers never change for a logging system, hence they are encoded only once.
+ *
+ * An encoder is not thread safe and the returned buffer is only valid till the next call to `encode`.
+ *
+ * @param maybeStandardHeaders headers of the logging system to be included in each message
+ * @param sorted whether keys are written in sorted order
+ * @param initialCapacity initial size of the buffer in bytes, the buffer grows if a message does not fit
+ */
+private[logging] class LogJsonEncoder(maybeStandardHeaders: Option[JsonObject], sorted: Boolean, initialCapacity: Int = 4096) {
+  import LogJsonEncoder._
+
+  private var buffer: ByteBuffer = ByteBuffer.allocateDirect(initialCapacity)
+
+  // keys and encoded fields of the standard headers, sorted by key
+  private[this] val headers: Array[(String, Any)] = maybeStandardHeaders.getOrElse(Map.empty).toArray.sortBy(_._1)
+  private[this] val headerKeys: Array[String]     = headers.map(_._1)
+  private[this] val encodedHeaders: Array[Array[Byte]] = headers.map {
+    case (k, v) ⇒
+      val headerEncoder = new LogJsonEncoder(None, sorted, 256)
+      headerEncoder.writeField(k, v)
+      val bytes = headerEncoder.buffer
+      bytes.flip()
+      val array = new Array[Byte](bytes.remaining())
+      bytes.get(array)
+      array
+  }
+
+  // fields of the message being encoded which are yet to be written in sorted order
+  private[this] var nextHeader                = 0
+  private[this] var userMap: Map[String, Any] = Map.empty
+  private[this] var userKeys                  = new Array[String](16)
+  private[this] var userKeyCount              = 0
+  private[this] var nextUserKey               = 0
+
+  /**
+   * Checks if the message can be streamed by this encoder. Messages carrying an exception or user map keys which
+   * clash with the keys owned by the logging system still go through the JsonObject representation.
+   */
+  def canEncode(log: Log): Boolean = log.ex == noException && (log.map.isEmpty || !log.map.keysIterator.exists(ReservedKeys))
+
+  /**
+   * Encodes the log message.
+   *
+   * @return the buffer ready to be read, holding exactly one JSON object without a line separator
+   */
+  def encode(log: Log): ByteBuffer = {
+    buffer.clear()
+    put('{')
+    nextHeader = 0
+    userKeyCount = 0
+    nextUserKey = 0
+    if (!sorted) writePendingFields(null)
+    else if (log.map.nonEmpty) sortUserKeys(log.map)
+
+    // message fields in sorted order
+    writeLogField(LoggingKeys.CATEGORY, Category.Common.name)
+    if (log.componentName.isDefined) writeLogField(LoggingKeys.COMPONENT_NAME, log.componentName.get)
+    writeLogField(LoggingKeys.SEVERITY, log.level.name)
+    log.id match {
+      case RequestId(trackingId, spanId, _) ⇒
+        writeLogKey(LoggingKeys.TRACE_ID)
+        put('[')
+        writeString(trackingId)
+        put(',')
+        writeString(spanId)
+        put(']')
+      case _ ⇒
+    }
+    if (log.actorName.isDefined) writeLogField(LoggingKeys.ACTOR, log.actorName.get)
+
+    val sourceLocation = log.sourceLocation
+    if (!sourceLocation.className.isEmpty) {
+      writeLogKey(LoggingKeys.CLASS)
+      put('"')
+      if (!sourceLocation.packageName.isEmpty) {
+        writeChars(sourceLocation.packageName)
+        put('.')
+      }
+      writeChars(sourceLocation.className)
+      put('"')
+    }
+    if (!sourceLocation.fileName.isEmpty) writeLogField(LoggingKeys.FILE, sourceLocation.fileName)
+    if (!log.kind.isEmpty) writeLogField(LoggingKeys.KIND, log.kind)
+    if (sourceLocation.line > 0) {
+      writeLogKey(LoggingKeys.LINE)
+      writeLong(sourceLocation.line)
+    }
+    writeLogField(LoggingKeys.MESSAGE, log.msg)
+    writeLogKey(LoggingKeys.TIMESTAMP)
+    writeTimestamp(log.time)
+
+    if (sorted) writePendingFields(null)
+    else if (log.map.nonEmpty) log.map.foreach { case (k, v) ⇒ writeField(k, v) }
+    userMap = Map.empty
+
+    put('}')
+    buffer.flip()
+    buffer
+  }
+
+  private def sortUserKeys(map: Map[String, Any]): Unit = {
+    userMap = map
+    if (userKeys.length < map.size) userKeys = new Array[String](map.size * 2)
+    map.keysIterator.foreach { key ⇒
+      userKeys(userKeyCount) = key
+      userKeyCount += 1
+    }
+    java.util.Arrays.sort(userKeys.asInstanceOf[Array[AnyRef]], 0, userKeyCount)
+  }
+
+  // writes the headers and user fields whose keys come before the given key, all of them if the key is null
+  private def writePendingFields(key: String): Unit = {
+    var pending = true
+    while (pending) {
+      val headerKey = if (nextHeader < headerKeys.length) headerKeys(nextHeader) else null
+      val userKey   = if (nextUserKey < userKeyCount) userKeys(nextUserKey) else null
+      if (headerKey != null && (userKey == null || headerKey.compareTo(userKey) < 0) && (key == null || headerKey.compareTo(key) < 0)) {
+        val encodedHeader = encodedHeaders(nextHeader)
+        separate()
+        ensure(encodedHeader.length)
+        buffer.put(encodedHeader)
+        nextHeader += 1
+      } else if (userKey != null && (key == null || userKey.compareTo(key) < 0)) {
+        writeField(userKey, userMap(userKey))
+        nextUserKey += 1
+      } else pending = false
+    }
+  }
+
+  private def writeLogField(key: String, value: Any): Unit = {
+    writeLogKey(key)
+    writeValue(value)
+  }
+
+  private def writeLogKey(key: String): Unit = {
+    writePendingFields(key)
+    writeKey(key)
+  }
+
+  private def writeField(key: String, value: Any): Unit = {
+    writeKey(key)
+    writeValue(value)
+  }
+
+  // writes the separator if required followed by the quoted key and colon
+  private def writeKey(key: String): Unit = {
+    separate()
+    writeString(key)
+    put(':')
+  }
+
+  private def separate(): Unit = {
+    val last = buffer.position() - 1
+    if (last >= 0 && buffer.get(last) != '{') put(',')
+  }
+
+  private def writeValue(value: Any): Unit = value match {
+    case null          ⇒ writeAscii("null")
+    case s: String     ⇒ writeString(s)
+    case i: Int        ⇒ writeLong(i)
+    case l: Long       ⇒ writeLong(l)
+    case s: Short      ⇒ writeLong(s)
+    case b: Byte       ⇒ writeLong(b)
+    case b: Boolean    ⇒ writeAscii(if (b) "true" else "false")
+    case d: Double     ⇒ writeNumber(d)
+    case f: Float      ⇒ writeNumber(f.toDouble)
+    case n: BigDecimal ⇒ writeAscii(n.toString)
+    case n: BigInt     ⇒ writeAscii(n.toString)
+    case m: scala.collection.Map[_, _] ⇒
+      put('{')
+      if (sorted) m.toSeq.map { case (k, v) ⇒ (k.toString, v) }.sortBy(_._1).foreach { case (k, v) ⇒ writeField(k, v) } else
+        m.foreach { case (k, v) ⇒ writeField(k.toString, v) }
+      put('}')
+    case xs: Iterable[_] ⇒ writeArray(xs.iterator)
+    case xs: Array[_]    ⇒ writeArray(xs.iterator)
+    case other           ⇒ writeString(other.toString)
+  }
+
+  private def writeArray(it: Iterator[_]): Unit = {
+    put('[')
+    var first = true
+    it.foreach { v ⇒
+      if (!first) put(',')
+      writeValue(v)
+      first = false
+    }
+    put(']')
+  }
+
+  // NaN and infinity can not be represented by JSON numbers
+  private def writeNumber(d: Double): Unit =
+    if (d.isNaN || d.isInfinite) writeString(d.toString)
+    else if (d == math.rint(d) && math.abs(d) < 1e15) writeLong(d.toLong)
+    else writeAscii(java.lang.Double.toString(d))
+
+  private def writeString(s: CharSequence): Unit = {
+    put('"')
+    writeChars(s)
+    put('"')
+  }
+
+  // escapes and encodes characters of a JSON string as UTF-8
+  private def writeChars(s: CharSequence): Unit = {
+    val length = s.length()
+    ensure(length)
+    var i = 0
+    while (i < length) {
+      val c = s.charAt(i)
+      if (c < 0x80) {
+        if (c < 0x20 || c == '"' || c == '\\') writeEscaped(c) else put(c.toByte)
+      } else if (c < 0x800) {
+        ensure(2)
+        buffer.put((0xc0 | (c >> 6)).toByte)
+        buffer.put((0x80 | (c & 0x3f)).toByte)
+      } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(s.charAt(i + 1))) {
+        val codePoint = Character.toCodePoint(c, s.charAt(i + 1))
+        ensure(4)
+        buffer.put((0xf0 | (codePoint >> 18)).toByte)
+        buffer.put((0x80 | ((codePoint >> 12) & 0x3f)).toByte)
+        buffer.put((0x80 | ((codePoint >> 6) & 0x3f)).toByte)
+        buffer.put((0x80 | (codePoint & 0x3f)).toByte)
+        i += 1
+      } else if (Character.isSurrogate(c)) {
+        put('?')
+      } else {
+        ensure(3)
+        buffer.put((0xe0 | (c >> 12)).toByte)
+        buffer.put((0x80 | ((c >> 6) & 0x3f)).toByte)
+        buffer.put((0x80 | (c & 0x3f)).toByte)
+      }
+      i += 1
+    }
+  }
+
+  private def writeEscaped(c: Char): Unit = c match {
+    case '"'  ⇒ writeAscii("\\\"")
+    case '\\' ⇒ writeAscii("\\\\")
+    case '\n' ⇒ writeAscii("\\n")
+    case '\r' ⇒ writeAscii("\\r")
+    case '\t' ⇒ writeAscii("\\t")
+    case '\b' ⇒ writeAscii("\\b")
+    case '\f' ⇒ writeAscii("\\f")
+    case _ ⇒
+      writeAscii("\\u00")
+      put(HexDigits(c >> 4))
+      put(HexDigits(c & 0xf))
+  }
+
+  // writes the time as formatted by TMTDateTimeFormatter, from its cached date and time up to seconds
+  private def writeTimestamp(time: Long): Unit = {
+    val prefix = TMTDateTimeFormatter.secondPrefix(time)
+    if (prefix == null) writeString(TMTDateTimeFormatter.format(time))
+    else {
+      ensure(prefix.length + 7)
+      buffer.put('"'.toByte)
+      var i = 0
+      while (i < prefix.length) {
+        buffer.put(prefix(i).toByte)
+        i += 1
+      }
+      // ISO instant omits the fraction when it is zero
+      val millis = Math.floorMod(time, 1000L).toInt
+      if (millis != 0) {
+        buffer.put('.'.toByte)
+        buffer.put(('0' + millis / 100).toByte)
+        buffer.put(('0' + millis / 10 % 10).toByte)
+        buffer.put(('0' + millis      % 10).toByte)
+      }
+      buffer.put('Z'.toByte)
+      buffer.put('"'.toByte)
+    }
+  }
+
+  // writes decimal digits of the number without allocating a String
+  private def writeLong(value: Long): Unit =
+    if (value == Long.MinValue) writeAscii(Long.MinValue.toString)
+    else {
+      ensure(20)
+      if (value < 0) buffer.put('-'.toByte)
+      var v       = math.abs(value)
+      var divisor = 1L
+      while (v / divisor >= 10) divisor *= 10
+      while (divisor > 0) {
+        buffer.put(('0' + (v / divisor)).toByte)
+        v %= divisor
+        divisor /= 10
+      }
+    }
+
+  private def writeAscii(s: String): Unit = {
+    ensure(s.length)
+    var i = 0
+    while (i < s.length) {
+      buffer.put(s.charAt(i).toByte)
+      i += 1
+    }
+  }
+
+  private def put(c: Char): Unit = put(c.toByte)
+
+  private def put(b: Byte): Unit = {
+    ensure(1)
+    buffer.put(b)
+  }
+
+  // grows the buffer when a message does not fit, which is rare once the buffer is warmed up
+  private def ensure(bytes: Int): Unit =
+    if (buffer.remaining() < bytes) {
+      val grown = ByteBuffer.allocateDirect(math.max(buffer.capacity() * 2, buffer.position() + bytes))
+      buffer.flip()
+      grown.put(buffer)
+      buffer = grown
+    }
+}
+
+private[logging] object LogJsonEncoder {
+
+  private val HexDigits: Array[Char] = "0123456789abcdef".toCharArray
+
+  // keys written by the logging system, if user map contains any of these the JsonObject representation is used
+  private val ReservedKeys: Set[String] = Set(
+    LoggingKeys.CATEGORY,
+    LoggingKeys.COMPONENT_NAME,
+    LoggingKeys.HOST,
+    LoggingKeys.NAME,
+    LoggingKeys.VERSION,
+    LoggingKeys.SEVERITY,
+    LoggingKeys.TRACE_ID,
+    LoggingKeys.ACTOR,
+    LoggingKeys.CLASS,
+    LoggingKeys.FILE,
+    LoggingKeys.KIND,
+    LoggingKeys.LINE,
+    LoggingKeys.MESSAGE,
+    LoggingKeys.TIMESTAMP
+  )
+}
@@ -0,0 +1,128 @@
+package csw.services.logging.internal
+
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.atomic.{AtomicLong, AtomicLongArray, LongAdder}
+
+import csw.services.logging.appenders.LogAppender
+import csw.services.logging.commons.Category
+import csw.services.logging.internal.LoggingLevels._
+import csw.services.logging.models.{AppenderLatency, LoggingMetrics}
+
+import scala.collection.JavaConverters.mapAsScalaConcurrentMapConverter
+
+/**
+ * Histogram of latencies with power of two buckets in microseconds. Recording a latency updates preallocated counters
+ * only, hence it never allocates. Percentiles are reported as the upper bound of the bucket they fall in.
+ */
+private[logging] final class LatencyHistogram {
+  import LatencyHistogram._
+
+  // bucket i counts latencies below 2^i microseconds and not below 2^(i-1) microseconds
+  private[this] val buckets    = new AtomicLongArray(BucketCount)
+  private[this] val totalNanos = new AtomicLong()
+  private[this] val maxNanos   = new AtomicLong()
+
+  def record(nanos: Long): Unit = {
+    val micros = nanos / 1000
+    val bucket = math.min(64 - java.lang.Long.numberOfLeadingZeros(micros), BucketCount - 1)
+    buckets.incrementAndGet(bucket)
+    totalNanos.addAndGet(nanos)
+    var max = maxNanos.get()
+    while (nanos > max && !maxNanos.compareAndSet(max, nanos)) max = maxNanos.get()
+  }
+
+  def snapshot(appender: String): AppenderLatency = {
+    val counts = (0 until BucketCount).map(buckets.get)
+    val count  = counts.sum
+
+    def percentile(p: Double): Long =
+      if (count == 0) 0
+      else {
+        val rank   = math.ceil(p * count).toLong
+        val bucket = counts.scanLeft(0L)(_ + _).tail.indexWhere(_ >= rank)
+        1L << bucket
+      }
+
+    val mean = if (count == 0) 0 else totalNanos.get() / count / 1000
+    AppenderLatency(appender, count, mean, percentile(0.5), percentile(0.99), maxNanos.get() / 1000)
+  }
+}
+
+private[logging] object LatencyHistogram {
+  val BucketCount = 32
+}
+
+/**
+ * Counters of the logging system. Counters are updated on the hot path of logging, by the threads calling loggers, by
+ * the thread processing log messages and by appenders, hence updating them never allocates: counters are preallocated
+ * or created once per category and appender, and latencies are recorded in fixed size histograms.
+ */
+private[logging] object LogMetrics {
+
+  private[this] val levels              = List(TRACE, DEBUG, INFO, WARN, ERROR, FATAL)
+  private[this] val messagesPerLevel    = new AtomicLongArray(FATAL.pos + 1)
+  private[this] val messagesPerCategory = new ConcurrentHashMap[String, AtomicLong]()
+  private[this] val commonMessages      = categoryCounter(Category.Common.name)
+
+  // messages sent to the LogActor and received by it, their difference being the depth of its mailbox
+  private[this] val logActorEnqueued = new LongAdder()
+  private[this] val logActorDequeued = new AtomicLong()
+
+  private[this] val appenderLatencies = new ConcurrentHashMap[String, LatencyHistogram]()
+
+  private[this] val fileBytes   = new LongAdder()
+  private[this] val fileFlushes = new LongAdder()
+
+  private[this] val fileCompactionFailures = new LongAdder()
+
+  /**
+   * Counts a message of the common category handed to appenders
+   */
+  def messageReceived(level: Level): Unit = {
+    messagesPerLevel.incrementAndGet(level.pos)
+    commonMessages.incrementAndGet()
+  }
+
+  /**
+   * Counts a message of an alternative category handed to appenders
+   */
+  def altMessageReceived(category: String): Unit = categoryCounter(category).incrementAndGet()
+
+  def logActorMessageSent(): Unit     = logActorEnqueued.increment()
+  def logActorMessageReceived(): Unit = logActorDequeued.incrementAndGet()
+
+  /**
+   * Histogram of the append latency of the appender, looked up when appenders are set rather than for each message
+   */
+  def appenderLatency(appender: LogAppender): LatencyHistogram =
+    appenderLatencies.computeIfAbsent(appender.getClass.getSimpleName, _ => new LatencyHistogram)
+
+  def fileWritten(bytes: Long): Unit = {
+    fileBytes.add(bytes)
+    fileFlushes.increment()
+  }
+
+  def fileCompactionFailed(): Unit = fileCompactionFailures.increment()
+
+  def snapshot: LoggingMetrics = {
+    val queueDepth = LoggingState.maybeLogRingBuffer match {
+      case Some(logRingBuffer) => logRingBuffer.size
+      case None                => math.max(0L, logActorEnqueued.sum() - logActorDequeued.get())
+    }
+    LoggingMetrics(
+      levels.map(level => level -> messagesPerLevel.get(level.pos)).toMap,
+      messagesPerCategory.asScala.map { case (category, counter) => category -> counter.get() }.toMap,
+      queueDepth,
+      appenderLatencies.asScala.map { case (appender, histogram) => histogram.snapshot(appender) }.toList.sortBy(_.appender),
+      fileBytes.sum(),
+      fileFlushes.sum(),
+      fileCompactionFailures.sum()
+    )
+  }
+
+  // the counter is only created for the first message of a category
+  private def categoryCounter(category: String): AtomicLong = {
+    val counter = messagesPerCategory.get(category)
+    if (counter != null) counter else messagesPerCategory.computeIfAbsent(category, _ => new AtomicLong())
+  }
+}
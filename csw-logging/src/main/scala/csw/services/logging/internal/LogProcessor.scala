@@ -0,0 +1,272 @@
+package csw.services.logging.internal
+
+import java.nio.ByteBuffer
+
+import akka.actor.ActorSystem
+import com.persist.Exceptions.SystemException
+import com.persist.JsonOps._
+import csw.services.logging._
+import csw.services.logging.appenders.{EncodedLogAppender, LogAppender}
+import csw.services.logging.commons.{Category, LoggingKeys, TMTDateTimeFormatter}
+import csw.services.logging.internal.LoggingLevels.Level
+import csw.services.logging.macros.DefaultSourceLocation
+import csw.services.logging.scaladsl.{RequestId, RichException}
+
+import scala.concurrent.Promise
+
+/**
+ * Converts log messages to JSON and hands them over to the configured appenders. It is not thread safe and is always
+ * driven by a single thread, either by the [[LogActor]] or by the consumer thread of the [[LogRingBuffer]].
+ */
+private[logging] class LogProcessor(system: ActorSystem,
+                                    done: Promise[Unit],
+                                    standardHeaders: JsonObject,
+                                    initAppenders: Seq[LogAppender],
+                                    initLevel: Level,
+                                    initSlf4jLevel: Level,
+                                    initAkkaLevel: Level) {
+
+  private[this] var level: Level                = initLevel
+  private[this] var akkaLogLevel: Level         = initAkkaLevel
+  private[this] var slf4jLogLevel: Level        = initSlf4jLevel
+  private[this] var appenders: Seq[LogAppender] = initAppenders
+  // appenders are iterated by index on the hot path, so that measuring them allocates nothing
+  private[this] var appenderArray: Array[LogAppender] = initAppenders.toArray
+  // append latency of each appender, measured here for appenders called on this thread and by the appender thread of
+  // asynchronous appenders, aligned with appenders and null for asynchronous ones
+  private[this] var appenderLatencies: Array[LatencyHistogram] = latenciesOf(initAppenders)
+
+  def process(msg: Any): Unit = msg match {
+    case log: Log                     => receiveLog(log)
+    case logAltMessage: LogAltMessage => receiveAltMessage(logAltMessage)
+    case logSlf4J: LogSlf4j           => receiveLogSlf4j(logSlf4J)
+    case logAkka: LogAkka             => receiveLogAkkaMessage(logAkka)
+    case SetLevel(level1)             => level = level1
+    case SetSlf4jLevel(level1)        => slf4jLogLevel = level1
+    case SetAkkaLevel(level1)         => akkaLogLevel = level1
+    case SetAppenders(_appenders)     => setAppenders(_appenders)
+    case LastAkkaMessage =>
+      akka.event.Logging(system, classOf[LogProcessor]).error("DIE")
+    case StopLogging =>
+      done.success(())
+    case msg: Any =>
+      println("Unrecognized LogActor message:" + msg + DefaultSourceLocation)
+  }
+
+  private def exToJson(ex: Throwable): Json = {
+    val name = ex.getClass.toString
+    ex match {
+      case ex: RichException =>
+        JsonObject(LoggingKeys.EX -> name, LoggingKeys.MESSAGE -> ex.richMsg)
+      case ex: SystemException =>
+        JsonObject(LoggingKeys.KIND -> ex.kind, "info" -> ex.info)
+      case ex: Throwable =>
+        JsonObject(LoggingKeys.EX -> name, LoggingKeys.MESSAGE -> ex.getMessage)
+    }
+  }
+
+  // Convert exception stack trace to JSON
+  private def getStack(ex: Throwable): Seq[JsonObject] = {
+    val stack = ex.getStackTrace map { trace =>
+      val j0 = if (trace.getLineNumber > 0) {
+        JsonObject(LoggingKeys.LINE -> trace.getLineNumber)
+      } else {
+        emptyJsonObject
+      }
+      val j1 = JsonObject(
+        LoggingKeys.CLASS  -> trace.getClassName,
+        LoggingKeys.FILE   -> trace.getFileName,
+        LoggingKeys.METHOD -> trace.getMethodName
+      )
+      j0 ++ j1
+    }
+    stack
+  }
+
+  // Convert exception to JSON
+  private def exceptionJson(ex: Throwable): JsonObject = {
+    val stack = getStack(ex)
+    val j1 = ex match {
+      case r: RichException if r.cause != noException =>
+        JsonObject(LoggingKeys.CAUSE -> exceptionJson(r.cause))
+      case ex1: Throwable if ex.getCause != null =>
+        JsonObject(LoggingKeys.CAUSE -> exceptionJson(ex.getCause))
+      case _ => emptyJsonObject
+    }
+    JsonObject(LoggingKeys.TRACE -> JsonObject(LoggingKeys.MESSAGE -> exToJson(ex), LoggingKeys.STACK -> stack)) ++ j1
+  }
+
+  // Appender threads of replaced asynchronous appenders are retired once queued messages are written
+  private def setAppenders(newAppenders: Seq[LogAppender]): Unit = {
+    val oldAppenders = appenders
+    appenders = newAppenders
+    appenderArray = newAppenders.toArray
+    appenderLatencies = latenciesOf(newAppenders)
+    oldAppenders.foreach {
+      case asyncAppender: AsyncLogAppender if !newAppenders.contains(asyncAppender) => asyncAppender.retire()
+      case _                                                                        =>
+    }
+  }
+
+  private def latenciesOf(appenders: Seq[LogAppender]): Array[LatencyHistogram] =
+    appenders.map {
+      case _: AsyncLogAppender => null
+      case appender            => LogMetrics.appenderLatency(appender)
+    }.toArray
+
+  private def recordLatency(index: Int, start: Long): Unit = {
+    val latency = appenderLatencies(index)
+    if (latency != null) latency.record(System.nanoTime() - start)
+  }
+
+  // Send JSON log object for each appender configured for the logging system
+  private def append(baseMsg: JsonObject, category: String, level: Level, time: Long): Unit = {
+    var index = 0
+    while (index < appenderArray.length) {
+      val start = System.nanoTime()
+      appendTo(appenderArray(index), baseMsg, category, level, time)
+      recordLatency(index, start)
+      index += 1
+    }
+  }
+
+  // asynchronous appenders get the level along with the message, to apply their overflow policy
+  private def appendTo(appender: LogAppender, baseMsg: JsonObject, category: String, level: Level, time: Long): Unit =
+    appender match {
+      case asyncAppender: AsyncLogAppender => asyncAppender.append(baseMsg, category, level, time)
+      case _                               => appender.append(baseMsg, category, time)
+    }
+
+  // Encoders are created lazily for the header and key order variants requested by the encoded appenders
+  private[this] val encoders = new Array[LogJsonEncoder](4)
+
+  private def encoderFor(appender: EncodedLogAppender): LogJsonEncoder = {
+    val index = (if (appender.fullHeaders) 2 else 0) + (if (appender.sorted) 1 else 0)
+    if (encoders(index) == null)
+      encoders(index) = new LogJsonEncoder(if (appender.fullHeaders) Some(standardHeaders) else None, appender.sorted)
+    encoders(index)
+  }
+
+  // Encoded appenders get the message streamed to bytes, others get the JSON object which is built only if needed
+  private def receiveLog(log: Log): Unit = {
+    LogMetrics.messageReceived(log.level)
+    var jsonObject: JsonObject      = null
+    var lastEncoder: LogJsonEncoder = null
+    var lastEncoded: ByteBuffer     = null
+    var index                       = 0
+    while (index < appenderArray.length) {
+      appenderArray(index) match {
+        case encodedAppender: EncodedLogAppender if encoderFor(encodedAppender).canEncode(log) =>
+          val logEncoder = encoderFor(encodedAppender)
+          if (logEncoder ne lastEncoder) {
+            lastEncoder = logEncoder
+            lastEncoded = logEncoder.encode(log)
+          }
+          lastEncoded.position(0)
+          val start = System.nanoTime()
+          encodedAppender.appendEncoded(lastEncoded, Category.Common.name, log.level, log.time)
+          recordLatency(index, start)
+        case appender =>
+          if (jsonObject == null) jsonObject = logToJson(log)
+          val start = System.nanoTime()
+          appendTo(appender, jsonObject, Category.Common.name, log.level, log.time)
+          recordLatency(index, start)
+      }
+      index += 1
+    }
+  }
+
+  private def logToJson(log: Log): JsonObject = {
+
+    var jsonObject = JsonObject(
+      LoggingKeys.TIMESTAMP -> TMTDateTimeFormatter.format(log.time),
+      LoggingKeys.MESSAGE   → log.msg,
+      LoggingKeys.SEVERITY  -> log.level.name,
+      LoggingKeys.CATEGORY  -> Category.Common.name
+    )
+
+    // This lime adds the user map objects as additional JsonObjects if the map is not empty
+    jsonObject = jsonObject ++ log.map
+
+    if (!log.sourceLocation.fileName.isEmpty) {
+      jsonObject = jsonObject ++ JsonObject(LoggingKeys.FILE -> log.sourceLocation.fileName)
+    }
+
+    if (log.sourceLocation.line > 0)
+      jsonObject = jsonObject ++ JsonObject(LoggingKeys.LINE -> log.sourceLocation.line)
+
+    jsonObject = (log.sourceLocation.packageName, log.sourceLocation.className) match {
+      case ("", "") ⇒ jsonObject
+      case ("", c)  ⇒ jsonObject ++ JsonObject(LoggingKeys.CLASS -> c)
+      case (p, c)   ⇒ jsonObject ++ JsonObject(LoggingKeys.CLASS -> s"$p.$c")
+    }
+
+    if (log.actorName.isDefined)
+      jsonObject = jsonObject ++ JsonObject(LoggingKeys.ACTOR -> log.actorName.get)
+
+    if (log.componentName.isDefined)
+      jsonObject = jsonObject ++ JsonObject(LoggingKeys.COMPONENT_NAME -> log.componentName.get)
+
+    if (log.ex != noException) jsonObject = jsonObject ++ exceptionJson(log.ex)
+    jsonObject = log.id match {
+      case RequestId(trackingId, spanId, _) ⇒
+        jsonObject ++ JsonObject(LoggingKeys.TRACE_ID -> JsonArray(trackingId, spanId))
+      case _ ⇒ jsonObject
+    }
+    if (!log.kind.isEmpty)
+      jsonObject = jsonObject ++ JsonObject(LoggingKeys.KIND -> log.kind)
+    jsonObject
+  }
+
+  private def receiveAltMessage(logAltMessage: LogAltMessage) = {
+    var jsonObject = logAltMessage.jsonObject
+    if (logAltMessage.ex != noException)
+      jsonObject = jsonObject ++ exceptionJson(logAltMessage.ex)
+    jsonObject = logAltMessage.id match {
+      case RequestId(trackingId, spanId, _) =>
+        jsonObject ++ JsonObject(LoggingKeys.TRACE_ID -> JsonArray(trackingId, spanId))
+      case _ => jsonObject
+    }
+    jsonObject = jsonObject ++ JsonObject(LoggingKeys.TIMESTAMP -> TMTDateTimeFormatter.format(logAltMessage.time))
+    LogMetrics.altMessageReceived(logAltMessage.category)
+    append(jsonObject, logAltMessage.category, LoggingLevels.INFO, logAltMessage.time)
+  }
+
+  private def receiveLogSlf4j(logSlf4j: LogSlf4j) =
+    if (logSlf4j.level.pos >= slf4jLogLevel.pos) {
+      var jsonObject = JsonObject(
+        LoggingKeys.TIMESTAMP -> TMTDateTimeFormatter.format(logSlf4j.time),
+        LoggingKeys.MESSAGE   -> logSlf4j.msg,
+        LoggingKeys.FILE      -> logSlf4j.file,
+        LoggingKeys.SEVERITY  -> logSlf4j.level.name,
+        LoggingKeys.CLASS     -> logSlf4j.className,
+        LoggingKeys.KIND      -> "slf4j",
+        LoggingKeys.CATEGORY  -> Category.Common.name
+      )
+      if (logSlf4j.line > 0)
+        jsonObject = jsonObject ++ JsonObject(LoggingKeys.LINE -> logSlf4j.line)
+      if (logSlf4j.ex != noException)
+        jsonObject = jsonObject ++ exceptionJson(logSlf4j.ex)
+      LogMetrics.messageReceived(logSlf4j.level)
+      append(jsonObject, Category.Common.name, logSlf4j.level, logSlf4j.time)
+    }
+
+  private def receiveLogAkkaMessage(logAkka: LogAkka) =
+    if (logAkka.level.pos >= akkaLogLevel.pos) {
+      val msg1 = if (logAkka.msg.toString.isEmpty) "UNKNOWN" else logAkka.msg
+      var jsonObject = JsonObject(
+        LoggingKeys.TIMESTAMP -> TMTDateTimeFormatter.format(logAkka.time),
+        LoggingKeys.KIND      -> "akka",
+        LoggingKeys.MESSAGE   -> msg1.toString,
+        LoggingKeys.ACTOR     -> logAkka.source,
+        LoggingKeys.SEVERITY  -> logAkka.level.name,
+        LoggingKeys.CLASS     -> logAkka.clazz.getName,
+        LoggingKeys.CATEGORY  -> Category.Common.name
+      )
+
+      if (logAkka.cause.isDefined)
+        jsonObject = jsonObject ++ exceptionJson(logAkka.cause.get)
+      LogMetrics.messageReceived(logAkka.level)
+      append(jsonObject, Category.Common.name, logAkka.level, logAkka.time)
+    }
+}
@@ -0,0 +1,193 @@
+package csw.services.logging.internal
+
+import java.util.concurrent.{ConcurrentHashMap, TimeUnit}
+
+import com.typesafe.config.Config
+import csw.services.logging.internal.LoggingLevels._
+import csw.services.logging.macros.SourceLocation
+
+import scala.collection.JavaConverters.asScalaSetConverter
+import scala.concurrent.duration.{DurationLong, FiniteDuration}
+
+/**
+ * Limit applied to each call site logging at a level
+ * @param messagesPerSecond rate at which a call site may log once its burst is used up. 0 disables the token bucket
+ * @param burst number of messages a call site may log at once before being limited to messagesPerSecond, at least 1
+ *              when a rate is set since a call site can never log otherwise
+ * @param sampleOneIn only one in this many messages of a call site is logged. 1 logs all of them
+ */
+private[logging] case class RateLimit(messagesPerSecond: Double, burst: Int, sampleOneIn: Int) {
+  require(messagesPerSecond >= 0, s"messages-per-second must not be negative, got $messagesPerSecond")
+  require(messagesPerSecond == 0 || burst >= 1, s"burst must be at least 1 when messages-per-second is set, got $burst")
+  require(sampleOneIn >= 1, s"sample-one-in must be at least 1, got $sampleOneIn")
+
+  /**
+   * Whether no message would ever be suppressed by this limit
+   */
+  def unlimited: Boolean = messagesPerSecond <= 0 && sampleOneIn <= 1
+}
+
+/**
+ * Settings of rate limiting and sampling read from `csw-logging.rate-limit` block
+ * @param enabled whether log messages are rate limited and sampled at all
+ * @param summaryInterval interval at which a summary of the messages suppressed by each call site is logged
+ * @param default limit of the call sites of all components and levels which are not configured explicitly
+ * @param components limits configured explicitly per component and level
+ */
+private[logging] case class RateLimitSettings(enabled: Boolean,
+                                              summaryInterval: FiniteDuration,
+                                              default: RateLimit,
+                                              components: Map[String, Map[Level, RateLimit]]) {
+
+  /**
+   * Limits of the component indexed by level position, null for levels which are not limited. Fatal messages are never
+   * limited. Returns null if none of the levels of the component is limited.
+   */
+  def limitsOf(componentName: String): Array[RateLimit] =
+    if (!enabled) null
+    else {
+      val componentLimits = components.getOrElse(componentName, Map.empty)
+      val limits          = RateLimitSettings.LimitedLevels.map(level => level.pos -> componentLimits.getOrElse(level, default))
+      if (limits.forall(_._2.unlimited)) null
+      else {
+        val array = new Array[RateLimit](FATAL.pos + 1)
+        limits.foreach { case (pos, limit) => if (!limit.unlimited) array(pos) = limit }
+        array
+      }
+    }
+}
+
+private[logging] object RateLimitSettings {
+
+  // fatal messages are never limited
+  val LimitedLevels: List[Level] = List(TRACE, DEBUG, INFO, WARN, ERROR)
+
+  val Disabled = RateLimitSettings(enabled = false, 10.seconds, RateLimit(0, 0, 1), Map.empty)
+
+  def from(loggingConfig: Config): RateLimitSettings = {
+    val config  = loggingConfig.getConfig("rate-limit")
+    val default = rateLimit(config)
+
+    // component and level blocks only need to specify the settings which differ from the default limit
+    val componentsConfig = config.getConfig("components")
+    val components = componentsConfig
+      .root()
+      .keySet()
+      .asScala
+      .map { componentName =>
+        val levelsConfig = componentsConfig.getConfig(componentName)
+        val levels = levelsConfig.root().keySet().asScala.collect {
+          case level if Level.hasLevel(level) => Level(level) -> rateLimit(levelsConfig.getConfig(level).withFallback(config))
+        }
+        componentName -> levels.toMap
+      }
+      .toMap
+
+    RateLimitSettings(
+      config.getBoolean("enabled"),
+      config.getDuration("summary-interval", TimeUnit.MILLISECONDS).millis,
+      default,
+      components
+    )
+  }
+
+  private def rateLimit(config: Config): RateLimit =
+    RateLimit(config.getDouble("messages-per-second"), config.getInt("burst"), config.getInt("sample-one-in"))
+}
+
+/**
+ * Number of messages of a call site suppressed since the previous summary
+ */
+private[logging] case class SuppressedMessages(level: Level, sourceLocation: SourceLocation, count: Long)
+
+/**
+ * Samples and rate limits the messages of a single call site with a token bucket, and counts the ones suppressed
+ */
+private[logging] final class CallSiteLimiter(limit: RateLimit) {
+  private[this] val nanosPerToken       = if (limit.messagesPerSecond > 0) 1e9 / limit.messagesPerSecond else 0.0
+  private[this] var tokens: Double      = limit.burst
+  private[this] var lastRefill: Long    = System.nanoTime()
+  private[this] var sampleCounter: Long = 0
+  private[this] var suppressed: Long    = 0
+
+  def allow(): Boolean = synchronized {
+    // the first message of every sample is the one logged
+    val sampled = limit.sampleOneIn <= 1 || { sampleCounter += 1; sampleCounter % limit.sampleOneIn == 1 }
+    val allowed = sampled && (nanosPerToken == 0.0 || takeToken())
+    if (!allowed) suppressed += 1
+    allowed
+  }
+
+  def drainSuppressed(): Long = synchronized {
+    val count = suppressed
+    suppressed = 0
+    count
+  }
+
+  private def takeToken(): Boolean = {
+    val now = System.nanoTime()
+    tokens = math.min(limit.burst.toDouble, tokens + (now - lastRefill) / nanosPerToken)
+    lastRefill = now
+    if (tokens >= 1) {
+      tokens -= 1
+      true
+    } else false
+  }
+}
+
+/**
+ * Rate limiter of the call sites of a component, shared by all the loggers of the component like its
+ * [[csw.services.logging.models.ComponentLogLevelHandle]]. Call sites are identified by the source location captured
+ * by the logging macros, so that a single misbehaving statement is limited without affecting the others. When the
+ * component is not limited the check costs a single volatile read.
+ *
+ * @param componentName name of the component, or the default key for loggers of non-component classes
+ */
+private[logging] final class ComponentRateLimiter(val componentName: String) {
+
+  // limits indexed by level position, null when none of the levels is limited
+  @volatile private[this] var limits: Array[RateLimit] = _
+
+  private[this] val callSites = Array.fill(FATAL.pos + 1)(new ConcurrentHashMap[SourceLocation, CallSiteLimiter]())
+
+  /**
+   * Whether a message of the call site at the level is to be logged
+   */
+  def allow(level: Level, sourceLocation: SourceLocation): Boolean = {
+    val currentLimits = limits
+    if (currentLimits == null) true
+    else {
+      val limit = currentLimits(level.pos)
+      if (limit == null) true
+      else {
+        val levelCallSites = callSites(level.pos)
+        var callSite       = levelCallSites.get(sourceLocation)
+        if (callSite == null) {
+          val created = new CallSiteLimiter(limit)
+          callSite = levelCallSites.putIfAbsent(sourceLocation, created)
+          if (callSite == null) callSite = created
+        }
+        callSite.allow()
+      }
+    }
+  }
+
+  /**
+   * Applies new settings, call sites start afresh with their new limits
+   */
+  def configure(settings: RateLimitSettings): Unit = {
+    limits = settings.limitsOf(componentName)
+    callSites.foreach(_.clear())
+  }
+
+  /**
+   * Messages suppressed by each call site since the previous call
+   */
+  def drainSuppressed(): List[SuppressedMessages] =
+    RateLimitSettings.LimitedLevels.flatMap { level =>
+      callSites(level.pos).entrySet().asScala.toList.flatMap { entry =>
+        val count = entry.getValue.drainSuppressed()
+        if (count > 0) Some(SuppressedMessages(level, entry.getKey, count)) else None
+      }
+    }
+}
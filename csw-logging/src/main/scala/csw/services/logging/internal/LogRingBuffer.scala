@@ -0,0 +1,277 @@
+package csw.services.logging.internal
+
+import java.util.concurrent.ConcurrentLinkedQueue
+import java.util.concurrent.atomic.{AtomicLong, AtomicLongArray}
+import java.util.concurrent.locks.LockSupport
+
+import com.typesafe.config.Config
+import csw.services.logging.internal.LoggingLevels.Level
+import enumeratum.{Enum, EnumEntry}
+
+import scala.collection.immutable
+
+/**
+ * Strategy used by the consumer thread when the ring buffer is empty and by producers when the ring buffer is full
+ * and the overflow policy is `block`.
+ */
+private[logging] sealed abstract class WaitStrategy(override val entryName: String) extends EnumEntry {
+
+  /**
+   * Waits for a while and returns the updated idle counter which is passed back on the next call.
+   * The counter is reset by the caller as soon as progress is made.
+   */
+  def idle(counter: Int): Int
+}
+
+private[logging] object WaitStrategy extends Enum[WaitStrategy] {
+  override def values: immutable.IndexedSeq[WaitStrategy] = findValues
+
+  private val SpinTries  = 100
+  private val YieldTries = 200
+  private val ParkNanos  = 100000L
+
+  // Lowest latency, burns a core while waiting
+  case object BusySpin extends WaitStrategy("busy-spin") {
+    def idle(counter: Int): Int = counter + 1
+  }
+
+  // Spins for a while and then gives up the cpu to other threads
+  case object Yielding extends WaitStrategy("yielding") {
+    def idle(counter: Int): Int = {
+      if (counter >= SpinTries) Thread.`yield`()
+      counter + 1
+    }
+  }
+
+  // Spins, then yields and finally parks the thread, trading latency for cpu usage
+  case object Sleeping extends WaitStrategy("sleeping") {
+    def idle(counter: Int): Int = {
+      if (counter >= YieldTries) LockSupport.parkNanos(ParkNanos)
+      else if (counter >= SpinTries) Thread.`yield`()
+      counter + 1
+    }
+  }
+}
+
+/**
+ * Decides what a producer does when the ring buffer is full.
+ */
+private[logging] sealed abstract class OverflowPolicy(override val entryName: String) extends EnumEntry
+
+private[logging] object OverflowPolicy extends Enum[OverflowPolicy] {
+  override def values: immutable.IndexedSeq[OverflowPolicy] = findValues
+
+  // Producer waits using the configured wait strategy till a slot is free
+  case object Block extends OverflowPolicy("block")
+  // Oldest message in the ring buffer is discarded to make room for the new one
+  case object DropOldest extends OverflowPolicy("drop-oldest")
+  // New message is discarded if its level is below `drop-below-level`, otherwise producer waits like `block`
+  case object DropBelowLevel extends OverflowPolicy("drop-below-level")
+}
+
+/**
+ * Settings of the ring buffer read from `csw-logging.ring-buffer` block of logging configuration
+ */
+private[logging] case class RingBufferSettings(enabled: Boolean,
+                                               size: Int,
+                                               waitStrategy: WaitStrategy,
+                                               overflowPolicy: OverflowPolicy,
+                                               dropBelowLevel: Level)
+
+private[logging] object RingBufferSettings {
+
+  def from(loggingConfig: Config): RingBufferSettings = {
+    val config = loggingConfig.getConfig("ring-buffer")
+    RingBufferSettings(
+      config.getBoolean("enabled"),
+      config.getInt("size"),
+      WaitStrategy.withName(config.getString("wait-strategy")),
+      OverflowPolicy.withName(config.getString("overflow-policy")),
+      Level(config.getString("drop-below-level"))
+    )
+  }
+}
+
+/**
+ * A preallocated, lock-free, multi-producer ring buffer which replaces the LogActor mailbox when
+ * `csw-logging.ring-buffer.enabled` is on. Log messages are claimed and published by producers with a single CAS on
+ * the producer cursor, and every slot carries a sequence number which tells the consumer when the slot is published
+ * (in the style of the LMAX disruptor). A single daemon thread drains the ring buffer in batches and drives the
+ * [[LogProcessor]].
+ *
+ * Control messages (levels, appenders, stop) are rare and must never be dropped, hence they bypass the ring buffer
+ * and are queued separately along with the position of the producer cursor when they are published. The consumer
+ * thread handles a control message only once it has drained the log messages published before it, which keeps the
+ * order of the LogActor mailbox.
+ *
+ * @param settings ring buffer size, wait strategy and overflow policy
+ * @param processor the processor which converts log messages to JSON and writes them to appenders
+ */
+private[logging] class LogRingBuffer(settings: RingBufferSettings, processor: LogProcessor) {
+  import LogRingBuffer._
+
+  private[this] val capacity = roundToPowerOfTwo(settings.size)
+  private[this] val mask     = capacity - 1
+
+  private[this] val buffer    = new Array[AnyRef](capacity)
+  private[this] val sequences = new AtomicLongArray(capacity)
+  private[this] val producer  = new AtomicLong(0L)
+  private[this] val consumer  = new AtomicLong(0L)
+
+  private[this] val controlMessages = new ConcurrentLinkedQueue[ControlMessage]()
+
+  private[this] val droppedOldest     = new AtomicLong(0L)
+  private[this] val droppedBelowLevel = new AtomicLong(0L)
+
+  @volatile private[this] var running = true
+
+  (0 until capacity).foreach(i ⇒ sequences.set(i, i.toLong))
+
+  private[this] val consumerThread = new Thread(new Runnable {
+    override def run(): Unit = consume()
+  }, "csw-logging-ring-buffer")
+  consumerThread.setDaemon(true)
+  consumerThread.start()
+
+  /**
+   * Publishes a message to the consumer thread applying the overflow policy if the ring buffer is full
+   */
+  def publish(msg: LogActorMessages): Unit = msg match {
+    case _: Log | _: LogAltMessage | _: LogSlf4j | _: LogAkka ⇒ publishLog(msg)
+    case control                                              ⇒ controlMessages.offer(ControlMessage(producer.get(), control))
+  }
+
+  /**
+   * Number of messages discarded by `drop-oldest` policy to make room for newer messages
+   */
+  def droppedOldestCount: Long = droppedOldest.get()
+
+  /**
+   * Number of messages discarded by `drop-below-level` policy
+   */
+  def droppedBelowLevelCount: Long = droppedBelowLevel.get()
+
+  /**
+   * Total number of messages discarded because the ring buffer was full
+   */
+  def droppedCount: Long = droppedOldestCount + droppedBelowLevelCount
+
+  /**
+   * Number of messages waiting to be consumed
+   */
+  def size: Long = math.max(0L, producer.get() - consumer.get())
+
+  private def publishLog(msg: LogActorMessages): Unit = {
+    var idleCounter = 0
+    while (!offer(msg)) {
+      settings.overflowPolicy match {
+        case OverflowPolicy.Block ⇒
+          idleCounter = settings.waitStrategy.idle(idleCounter)
+        case OverflowPolicy.DropOldest ⇒
+          if (poll() != null) droppedOldest.incrementAndGet()
+        case OverflowPolicy.DropBelowLevel ⇒
+          if (levelOf(msg).pos < settings.dropBelowLevel.pos) {
+            droppedBelowLevel.incrementAndGet()
+            return
+          }
+          idleCounter = settings.waitStrategy.idle(idleCounter)
+      }
+      // producers must not wait forever on a ring buffer which will never be drained again
+      if (!running) return
+    }
+  }
+
+  private def offer(msg: AnyRef): Boolean = {
+    while (true) {
+      val position = producer.get()
+      val index    = (position & mask).toInt
+      val distance = sequences.get(index) - position
+      if (distance == 0) {
+        if (producer.compareAndSet(position, position + 1)) {
+          buffer(index) = msg
+          sequences.lazySet(index, position + 1)
+          return true
+        }
+      } else if (distance < 0) return false
+    }
+    false
+  }
+
+  // Producers applying drop-oldest policy poll concurrently with the consumer thread, hence the CAS on consumer cursor
+  private def poll(): AnyRef = {
+    while (true) {
+      val position = consumer.get()
+      val index    = (position & mask).toInt
+      val distance = sequences.get(index) - (position + 1)
+      if (distance == 0) {
+        if (consumer.compareAndSet(position, position + 1)) {
+          val msg = buffer(index)
+          buffer(index) = null
+          sequences.lazySet(index, position + capacity)
+          return msg
+        }
+      } else if (distance < 0) return null
+    }
+    null
+  }
+
+  private def consume(): Unit = {
+    var idleCounter = 0
+    while (running) {
+      val control = controlMessages.peek()
+      if (control != null && consumer.get() >= control.position) {
+        controlMessages.poll()
+        handleControl(control.msg)
+        idleCounter = 0
+      } else if (drain(BatchSize) > 0) idleCounter = 0
+      else idleCounter = settings.waitStrategy.idle(idleCounter)
+    }
+  }
+
+  private def drain(maxMessages: Int): Int = {
+    var count = 0
+    var msg   = pollBeforeControl()
+    while (msg != null) {
+      processor.process(msg)
+      count += 1
+      msg = if (count < maxMessages) pollBeforeControl() else null
+    }
+    count
+  }
+
+  // polls a log message only if it was published before the pending control message, if any
+  private def pollBeforeControl(): AnyRef = {
+    val control = controlMessages.peek()
+    if (control == null || consumer.get() < control.position) poll() else null
+  }
+
+  private def handleControl(msg: LogActorMessages): Unit = msg match {
+    case StopLogging ⇒
+      // messages published before the stop request are written before stopping the consumer
+      Iterator.continually(poll()).takeWhile(_ != null).foreach(processor.process)
+      running = false
+      processor.process(StopLogging)
+    case _ ⇒ processor.process(msg)
+  }
+}
+
+private[logging] object LogRingBuffer {
+
+  // Maximum number of log messages processed before looking for pending control messages
+  private val BatchSize = 256
+
+  // a control message and the position of the producer cursor when it was published
+  private case class ControlMessage(position: Long, msg: LogActorMessages)
+
+  private def roundToPowerOfTwo(size: Int): Int = {
+    require(size > 0 && size <= (1 << 30), s"Invalid ring buffer size $size")
+    if (Integer.bitCount(size) == 1) size else Integer.highestOneBit(size) << 1
+  }
+
+  private[logging] def levelOf(msg: LogActorMessages): Level = msg match {
+    case log: Log           ⇒ log.level
+    case logSlf4j: LogSlf4j ⇒ logSlf4j.level
+    case logAkka: LogAkka   ⇒ logAkka.level
+    case _                  ⇒ LoggingLevels.INFO
+  }
+}
@@ -0,0 +1,70 @@
+package csw.services.logging.internal
+
+import java.lang.management.ManagementFactory
+import java.util
+import javax.management.ObjectName
+
+import csw.services.logging.models.AppenderLatency
+
+import scala.collection.JavaConverters.mapAsJavaMapConverter
+
+/**
+ * JMX view of the counters of the logging system, registered as `csw.services.logging:type=LoggingMetrics` when
+ * `csw-logging.metrics.jmx` is on. Maps are keyed by level, category or appender name.
+ */
+trait LoggingMetricsMXBean {
+  def getMessagesPerLevel: util.Map[String, java.lang.Long]
+  def getMessagesPerCategory: util.Map[String, java.lang.Long]
+  def getQueueDepth: Long
+  def getAppendCount: util.Map[String, java.lang.Long]
+  def getAppendMeanLatencyMicros: util.Map[String, java.lang.Long]
+  def getAppendP99LatencyMicros: util.Map[String, java.lang.Long]
+  def getAppendMaxLatencyMicros: util.Map[String, java.lang.Long]
+  def getFileBytesWritten: Long
+  def getFileFlushes: Long
+  def getFileCompactionFailures: Long
+}
+
+/**
+ * Each attribute is read from a fresh snapshot of [[LogMetrics]]
+ */
+private[logging] class LoggingMetricsJmx extends LoggingMetricsMXBean {
+
+  override def getMessagesPerLevel: util.Map[String, java.lang.Long] =
+    toJava(LogMetrics.snapshot.messagesPerLevel.map { case (level, count) => level.name -> count })
+
+  override def getMessagesPerCategory: util.Map[String, java.lang.Long] = toJava(LogMetrics.snapshot.messagesPerCategory)
+
+  override def getQueueDepth: Long = LogMetrics.snapshot.queueDepth
+
+  override def getAppendCount: util.Map[String, java.lang.Long]             = appenderLatencies(_.count)
+  override def getAppendMeanLatencyMicros: util.Map[String, java.lang.Long] = appenderLatencies(_.meanMicros)
+  override def getAppendP99LatencyMicros: util.Map[String, java.lang.Long]  = appenderLatencies(_.p99Micros)
+  override def getAppendMaxLatencyMicros: util.Map[String, java.lang.Long]  = appenderLatencies(_.maxMicros)
+
+  override def getFileBytesWritten: Long       = LogMetrics.snapshot.fileBytesWritten
+  override def getFileFlushes: Long            = LogMetrics.snapshot.fileFlushes
+  override def getFileCompactionFailures: Long = LogMetrics.snapshot.fileCompactionFailures
+
+  private def appenderLatencies(f: AppenderLatency => Long): util.Map[String, java.lang.Long] =
+    toJava(LogMetrics.snapshot.appenderLatencies.map(latency => latency.appender -> f(latency)).toMap)
+
+  private def toJava(counts: Map[String, Long]): util.Map[String, java.lang.Long] =
+    counts.map { case (key, count) => key -> java.lang.Long.valueOf(count) }.asJava
+}
+
+private[logging] object LoggingMetricsJmx {
+  val Name = new ObjectName("csw.services.logging:type=LoggingMetrics")
+
+  // Counters are global to the JVM, the MBean registered by a previous logging system is replaced
+  def register(): Unit = synchronized {
+    val server = ManagementFactory.getPlatformMBeanServer
+    if (server.isRegistered(Name)) server.unregisterMBean(Name)
+    server.registerMBean(new LoggingMetricsJmx, Name)
+  }
+
+  def unregister(): Unit = synchronized {
+    val server = ManagementFactory.getPlatformMBeanServer
+    if (server.isRegistered(Name)) server.unregisterMBean(Name)
+  }
+}
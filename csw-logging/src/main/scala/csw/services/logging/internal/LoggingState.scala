@@ -3,7 +3,7 @@ package csw.services.logging.internal
 import akka.actor._
 import csw.services.logging.commons.Constants
 import csw.services.logging.internal.LoggingLevels.Level
-import csw.services.logging.models.ComponentLoggingState
+import csw.services.logging.models.{ComponentLogLevelHandle, ComponentLoggingState}
 
 import scala.collection.mutable
 import scala.concurrent.Promise
@@ -24,7 +24,9 @@ private[logging] object LoggingState {
   private[logging] val msgs = new mutable.Queue[LogActorMessages]()
 
   private[logging] var maybeLogActor: Option[ActorRef] = None
-  @volatile private[logging] var loggerStopping        = false
+  // When ring buffer is enabled, log messages are published to it instead of the LogActor mailbox
+  @volatile private[logging] var maybeLogRingBuffer: Option[LogRingBuffer] = None
+  @volatile private[logging] var loggerStopping                            = false
 
   private[logging] var doTime: Boolean                   = false
   private[logging] var timeActorOption: Option[ActorRef] = None
@@ -32,6 +34,62 @@ private[logging] object LoggingState {
   // Use to sync akka logging actor shutdown
   private[logging] val akkaStopPromise = Promise[Unit]
 
-  var componentsLoggingState: Map[String, ComponentLoggingState] =
+  // Log levels of components specified explicitly, along with the default one. The map is never mutated, updates
+  // replace it and refresh the level handles cached by loggers.
+  @volatile private[this] var _componentsLoggingState: Map[String, ComponentLoggingState] =
     Map(Constants.DEFAULT_KEY → ComponentLoggingState(defaultLogLevel))
+
+  // Level handle of each component a logger was created for
+  private[this] val componentLogLevelHandles = mutable.HashMap.empty[String, ComponentLogLevelHandle]
+
+  // Rate limiting settings applied by the rate limiter of each component a logger was created for
+  private[this] var rateLimitSettings: RateLimitSettings = RateLimitSettings.Disabled
+  private[this] val componentRateLimiters                = mutable.HashMap.empty[String, ComponentRateLimiter]
+
+  def componentsLoggingState: Map[String, ComponentLoggingState] = _componentsLoggingState
+
+  def componentsLoggingState_=(states: Map[String, ComponentLoggingState]): Unit = synchronized {
+    _componentsLoggingState = states
+    refreshComponentLogLevelHandles()
+  }
+
+  /**
+   * Gets the level handle of the component, creating it if it does not exist yet
+   */
+  private[logging] def componentLogLevelHandle(componentName: String): ComponentLogLevelHandle = synchronized {
+    componentLogLevelHandles.getOrElseUpdate(componentName, new ComponentLogLevelHandle(effectiveLogLevel(componentName)))
+  }
+
+  /**
+   * Updates the level handles of all components with their effective level, called whenever component log levels or
+   * the default log level change
+   */
+  private[logging] def refreshComponentLogLevelHandles(): Unit = synchronized {
+    componentLogLevelHandles.foreach { case (componentName, handle) ⇒ handle.setLevel(effectiveLogLevel(componentName)) }
+  }
+
+  // default log level is applied to components which do not specify their log level
+  private def effectiveLogLevel(componentName: String): Level =
+    _componentsLoggingState.getOrElse(componentName, _componentsLoggingState(Constants.DEFAULT_KEY)).componentLogLevel
+
+  /**
+   * Gets the rate limiter of the component, creating it if it does not exist yet
+   */
+  private[logging] def componentRateLimiter(componentName: String): ComponentRateLimiter = synchronized {
+    componentRateLimiters.getOrElseUpdate(componentName, {
+      val rateLimiter = new ComponentRateLimiter(componentName)
+      rateLimiter.configure(rateLimitSettings)
+      rateLimiter
+    })
+  }
+
+  /**
+   * Applies rate limiting settings to the rate limiters of all components, existing and future ones
+   */
+  private[logging] def configureRateLimits(settings: RateLimitSettings): Unit = synchronized {
+    rateLimitSettings = settings
+    componentRateLimiters.values.foreach(_.configure(settings))
+  }
+
+  private[logging] def rateLimiters: List[ComponentRateLimiter] = synchronized(componentRateLimiters.values.toList)
 }
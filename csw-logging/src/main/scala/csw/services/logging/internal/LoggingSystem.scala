@@ -3,16 +3,16 @@ package csw.services.logging.internal
 import java.util.concurrent.CompletableFuture
 
 import akka.Done
-import akka.actor.{ActorSystem, Props}
+import akka.actor.{ActorRef, ActorSystem, Cancellable, Props}
 import ch.qos.logback.classic.LoggerContext
-import csw.services.logging.RichMsg
-import csw.services.logging.appenders.LogAppenderBuilder
+import csw.services.logging.{noException, RichMsg}
+import csw.services.logging.appenders.{LogAppender, LogAppenderBuilder}
 import csw.services.logging.commons.{Constants, LoggingKeys}
 import csw.services.logging.exceptions.AppenderNotFoundException
 import csw.services.logging.internal.TimeActorMessages.TimeDone
 import csw.services.logging.macros.DefaultSourceLocation
-import csw.services.logging.models.LogMetadata
-import csw.services.logging.scaladsl.{GenericLoggerFactory, Logger}
+import csw.services.logging.models.{LogMetadata, LoggingMetrics}
+import csw.services.logging.scaladsl.{noId, GenericLoggerFactory, Logger}
 import org.slf4j.LoggerFactory
 
 import scala.collection.JavaConverters.collectionAsScalaIterableConverter
@@ -66,8 +66,12 @@ class LoggingSystem(name: String, version: String, host: String, system: ActorSy
     }
   LoggingState.slf4jLogLevel = defaultSlf4jLogLevel
 
+  private[this] val ringBufferSettings = RingBufferSettings.from(loggingConfig)
+  private[this] val rateLimitSettings  = RateLimitSettings.from(loggingConfig)
+
   private[this] val gc   = loggingConfig.getBoolean("gc")
   private[this] val time = loggingConfig.getBoolean("time")
+  private[this] val jmx  = loggingConfig.getBoolean("metrics.jmx")
 
   private[this] implicit val ec: ExecutionContext = system.dispatcher
   private[this] val done                          = Promise[Unit]
@@ -88,15 +92,41 @@ class LoggingSystem(name: String, version: String, host: String, system: ActorSy
   LoggingState.doTime = false
   LoggingState.timeActorOption = None
 
-  @volatile private[this] var appenders = appenderBuilders.map {
-    _.apply(system, standardHeaders)
-  }
-
-  private[this] val logActor = system.actorOf(
-    LogActor.props(done, standardHeaders, appenders, defaultLevel, defaultSlf4jLogLevel, defaultAkkaLogLevel),
-    name = "LoggingActor"
-  )
-  LoggingState.maybeLogActor = Some(logActor)
+  @volatile private[this] var appenders = createAppenders(appenderBuilders)
+
+  // Log messages are either published to a lock-free ring buffer drained by a dedicated thread or sent to the LogActor
+  private[this] val maybeLogRingBuffer: Option[LogRingBuffer] =
+    if (ringBufferSettings.enabled) {
+      val processor =
+        new LogProcessor(system, done, standardHeaders, appenders, defaultLevel, defaultSlf4jLogLevel, defaultAkkaLogLevel)
+      Some(new LogRingBuffer(ringBufferSettings, processor))
+    } else None
+
+  private[this] val maybeLogActor: Option[ActorRef] =
+    if (maybeLogRingBuffer.isEmpty)
+      Some(
+        system.actorOf(
+          LogActor.props(done, standardHeaders, appenders, defaultLevel, defaultSlf4jLogLevel, defaultAkkaLogLevel),
+          name = "LoggingActor"
+        )
+      )
+    else None
+
+  LoggingState.maybeLogRingBuffer = maybeLogRingBuffer
+  LoggingState.maybeLogActor = maybeLogActor
+
+  LoggingState.configureRateLimits(rateLimitSettings)
+
+  if (jmx) LoggingMetricsJmx.register()
+
+  // Periodically log how many messages each rate limited call site suppressed
+  private[this] val maybeSuppressedSummary: Option[Cancellable] =
+    if (rateLimitSettings.enabled)
+      Some(
+        system.scheduler
+          .schedule(rateLimitSettings.summaryInterval, rateLimitSettings.summaryInterval)(logSuppressedMessages())
+      )
+    else None
 
   private[logging] val gcLogger: Option[GcLogger] = if (gc) {
     Some(new GcLogger)
@@ -137,6 +167,7 @@ class LoggingSystem(name: String, version: String, host: String, system: ActorSy
   def setDefaultLogLevel(level: Level): Unit = {
     LoggingState.logLevel = level
     LoggingState.componentsLoggingState(Constants.DEFAULT_KEY).setLevel(level)
+    LoggingState.refreshComponentLogLevelHandles()
   }
 
   /**
@@ -151,7 +182,7 @@ class LoggingSystem(name: String, version: String, host: String, system: ActorSy
    */
   def setAkkaLevel(level: Level): Unit = {
     LoggingState.akkaLogLevel = level
-    logActor ! SetAkkaLevel(level)
+    tell(SetAkkaLevel(level))
   }
 
   /**
@@ -166,7 +197,7 @@ class LoggingSystem(name: String, version: String, host: String, system: ActorSy
    */
   def setSlf4jLevel(level: Level): Unit = {
     LoggingState.slf4jLogLevel = level
-    logActor ! SetSlf4jLevel(level)
+    tell(SetSlf4jLevel(level))
   }
 
   /**
@@ -181,12 +212,31 @@ class LoggingSystem(name: String, version: String, host: String, system: ActorSy
    */
   def setAppenders(_appenderBuilders: List[LogAppenderBuilder]): Unit = {
     appenderBuilders = _appenderBuilders
-    appenders = appenderBuilders.map {
-      _.apply(system, standardHeaders)
-    }
-    logActor ! SetAppenders(appenders)
+    appenders = createAppenders(appenderBuilders)
+    tell(SetAppenders(appenders))
   }
 
+  /**
+   * Get the number of log messages dropped because the log ring buffer was full.
+   * @return dropped message count, always zero when ring buffer is not enabled.
+   */
+  def getDroppedLogMessages: Long = maybeLogRingBuffer.map(_.droppedCount).getOrElse(0L)
+
+  /**
+   * Get queue depth and dropped messages of each appender running asynchronously.
+   * @return metrics of asynchronous appenders, empty when asynchronous appenders are not enabled.
+   */
+  def getAsyncAppenderMetrics: List[AsyncAppenderMetrics] = appenders.collect {
+    case asyncAppender: AsyncLogAppender => asyncAppender.metrics
+  }
+
+  /**
+   * Get the counters of the logging system: messages per level and category, queue depth, append latency of each
+   * appender and bytes written and flushes of file appenders.
+   * @return counters accumulated since the JVM started, except queue depth
+   */
+  def getLoggingMetrics: LoggingMetrics = LogMetrics.snapshot
+
   def setComponentLogLevel(componentName: String, level: Level): Unit =
     ComponentLoggingStateManager.add(componentName, level)
 
@@ -221,8 +271,9 @@ class LoggingSystem(name: String, version: String, host: String, system: ActorSy
 
     def stopLogger(): Future[Unit] = {
       LoggingState.loggerStopping = true
-      logActor ! StopLogging
+      tell(StopLogging)
       LoggingState.maybeLogActor = None
+      LoggingState.maybeLogRingBuffer = None
       done.future
     }
 
@@ -235,6 +286,15 @@ class LoggingSystem(name: String, version: String, host: String, system: ActorSy
     //Stop gc logger
     gcLogger foreach (_.stop())
 
+    // Stop rate limiting, reporting messages suppressed since the last summary
+    maybeSuppressedSummary.foreach { summary =>
+      summary.cancel()
+      logSuppressedMessages()
+    }
+    LoggingState.configureRateLimits(RateLimitSettings.Disabled)
+
+    if (jmx) LoggingMetricsJmx.unregister()
+
     // Stop Slf4j
     val loggerContext =
       LoggerFactory.getILoggerFactory.asInstanceOf[LoggerContext]
@@ -250,6 +310,46 @@ class LoggingSystem(name: String, version: String, host: String, system: ActorSy
 
   def javaStop(): CompletableFuture[Done] = stop.toJava.toCompletableFuture
 
+  // Each appender runs on its own queue and thread when asynchronous appenders are enabled
+  private def createAppenders(builders: List[LogAppenderBuilder]): List[LogAppender] =
+    builders.map { builder =>
+      val appender = builder.apply(system, standardHeaders)
+      AsyncAppenderSettings.from(loggingConfig, appender) match {
+        case Some(settings) => AsyncLogAppender(appender, settings)
+        case None           => appender
+      }
+    }
+
+  // The summary of a call site is logged at the level and source location of its suppressed messages
+  private def logSuppressedMessages(): Unit =
+    LoggingState.rateLimiters.foreach { rateLimiter =>
+      val maybeComponentName = Some(rateLimiter.componentName).filterNot(_ == Constants.DEFAULT_KEY)
+      rateLimiter.drainSuppressed().foreach { suppressed =>
+        MessageHandler.sendMsg(
+          Log(
+            maybeComponentName,
+            suppressed.level,
+            noId,
+            System.currentTimeMillis(),
+            None,
+            s"suppressed ${suppressed.count} messages",
+            Map(LoggingKeys.SUPPRESSED -> suppressed.count),
+            suppressed.sourceLocation,
+            noException
+          )
+        )
+      }
+    }
+
+  // Routes control messages to whichever of ring buffer or LogActor is processing log messages
+  private def tell(msg: LogActorMessages): Unit = {
+    maybeLogRingBuffer.foreach(_.publish(msg))
+    maybeLogActor.foreach { logActor =>
+      LogMetrics.logActorMessageSent()
+      logActor ! msg
+    }
+  }
+
   private def getAppenderInstance(appender: String): LogAppenderBuilder = {
     try {
       if (appender.endsWith("$"))
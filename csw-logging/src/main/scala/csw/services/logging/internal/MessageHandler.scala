@@ -10,18 +10,24 @@ import csw.services.logging.scaladsl.RequestId
 object MessageHandler {
 
   /**
-   * Sends message to LogActor or maintains it in a queue till the log actor is not available
+   * Sends message to the log ring buffer or LogActor or maintains it in a queue till neither of them is available
    * @param msg
    */
   private[logging] def sendMsg(msg: LogActorMessages): Unit =
     if (loggerStopping) {
 //      println(s"*** Log message received after logger shutdown: $msg")
     } else {
-      maybeLogActor match {
-        case Some(logActor) => logActor ! msg
+      maybeLogRingBuffer match {
+        case Some(logRingBuffer) => logRingBuffer.publish(msg)
         case None =>
-          msgs.synchronized {
-            msgs.enqueue(msg)
+          maybeLogActor match {
+            case Some(logActor) =>
+              LogMetrics.logActorMessageSent()
+              logActor ! msg
+            case None =>
+              msgs.synchronized {
+                msgs.enqueue(msg)
+              }
           }
       }
     }
@@ -0,0 +1,27 @@
+package csw.services.logging.models
+
+import csw.services.logging.internal.LoggingLevels._
+
+/**
+ * Effective log level of a component, shared by all the loggers of the component. A handle is created once per
+ * component and updated in place whenever the level of the component or the default level changes, so that checking
+ * whether a level is enabled costs a single volatile read instead of a lookup in the map of component log levels.
+ *
+ * @param initialLevel the effective level of the component when the handle is created
+ */
+private[logging] final class ComponentLogLevelHandle(initialLevel: Level) {
+
+  @volatile private[this] var level: Level = initialLevel
+
+  def componentLogLevel: Level = level
+
+  private[logging] def setLevel(newLevel: Level): Unit = level = newLevel
+
+  def doTrace: Boolean = level.pos <= TRACE.pos
+  def doDebug: Boolean = level.pos <= DEBUG.pos
+  def doInfo: Boolean  = level.pos <= INFO.pos
+  def doWarn: Boolean  = level.pos <= WARN.pos
+  def doError: Boolean = level.pos <= ERROR.pos
+
+  override def toString: String = level.toString
+}
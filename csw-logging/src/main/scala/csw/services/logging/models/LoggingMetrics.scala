@@ -0,0 +1,36 @@
+package csw.services.logging.models
+
+import csw.messages.TMTSerializable
+import csw.services.logging.internal.LoggingLevels.Level
+
+/**
+ * Latency of the appends of an appender, measured on the thread which calls the appender
+ * @param appender simple class name of the appender
+ * @param count number of appends measured
+ * @param meanMicros mean latency in microseconds
+ * @param p50Micros upper bound in microseconds of the median latency
+ * @param p99Micros upper bound in microseconds of the 99th percentile latency
+ * @param maxMicros maximum latency in microseconds
+ */
+case class AppenderLatency(appender: String, count: Long, meanMicros: Long, p50Micros: Long, p99Micros: Long, maxMicros: Long)
+    extends TMTSerializable
+
+/**
+ * Holds the counters of the logging system, accumulated since the JVM started
+ * @param messagesPerLevel number of messages handed to appenders per level, for messages of the common category
+ * @param messagesPerCategory number of messages handed to appenders per category
+ * @param queueDepth number of messages waiting to be processed by the log ring buffer or the LogActor
+ * @param appenderLatencies append latency of each appender
+ * @param fileBytesWritten number of bytes written to log files by file appenders
+ * @param fileFlushes number of writes of lines or batches to log files by file appenders
+ * @param fileCompactionFailures number of failed compressions or retention runs of rotated log files
+ */
+case class LoggingMetrics(
+    messagesPerLevel: Map[Level, Long],
+    messagesPerCategory: Map[String, Long],
+    queueDepth: Long,
+    appenderLatencies: List[AppenderLatency],
+    fileBytesWritten: Long,
+    fileFlushes: Long,
+    fileCompactionFailures: Long
+) extends TMTSerializable
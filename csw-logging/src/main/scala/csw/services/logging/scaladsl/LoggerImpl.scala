@@ -6,9 +6,9 @@ import csw.services.logging.RichMsg
 import csw.services.logging.commons.{Constants, LoggingKeys}
 import csw.services.logging.internal.LoggingLevels._
 import csw.services.logging.internal.LoggingState._
-import csw.services.logging.internal.{Log, LogAltMessage, MessageHandler}
+import csw.services.logging.internal.{ComponentRateLimiter, Log, LogAltMessage, MessageHandler}
 import csw.services.logging.macros.{SourceFactory, SourceLocation}
-import csw.services.logging.models.ComponentLoggingState
+import csw.services.logging.models.ComponentLogLevelHandle
 import org.jboss.netty.logging.{InternalLoggerFactory, Slf4JLoggerFactory}
 
 class LoggerImpl private[logging] (maybeComponentName: Option[String], actorName: Option[String]) extends Logger {
@@ -16,9 +16,12 @@ class LoggerImpl private[logging] (maybeComponentName: Option[String], actorName
   // this is to apply default log level for non-component classes like some common file utility classes
   private[this] val componentName: String = maybeComponentName.getOrElse(Constants.DEFAULT_KEY)
 
-  // default log level will be applied if component specific log level is not provided in logging configuration inside component-log-levels block
-  private[this] def componentLoggingState: ComponentLoggingState =
-    componentsLoggingState.getOrElse(componentName, componentsLoggingState(Constants.DEFAULT_KEY))
+  // default log level will be applied if component specific log level is not provided in logging configuration inside component-log-levels block,
+  // the handle follows changes of component and default log levels hence it is looked up only once
+  private[this] val componentLogLevel: ComponentLogLevelHandle = componentLogLevelHandle(componentName)
+
+  // call sites of the component are sampled and rate limited according to `csw-logging.rate-limit` configuration
+  private[this] val rateLimiter: ComponentRateLimiter = componentRateLimiter(componentName)
 
   // Fix to avoid 'java.util.concurrent.RejectedExecutionException: Worker has already been shutdown'
   InternalLoggerFactory.setDefaultFactory(new Slf4JLoggerFactory)
@@ -28,10 +31,12 @@ class LoggerImpl private[logging] (maybeComponentName: Option[String], actorName
                   msg: => String,
                   map: ⇒ Map[String, Any],
                   ex: Throwable,
-                  sourceLocation: SourceLocation): Unit = {
-    val time = Instant.now().toEpochMilli
-    MessageHandler.sendMsg(Log(maybeComponentName, level, id, time, actorName, msg, map, sourceLocation, ex))
-  }
+                  sourceLocation: SourceLocation): Unit =
+    // suppressed messages are dropped before the message, its map and the Log are ever created
+    if (rateLimiter.allow(level, sourceLocation)) {
+      val time = Instant.now().toEpochMilli
+      MessageHandler.sendMsg(Log(maybeComponentName, level, id, time, actorName, msg, map, sourceLocation, ex))
+    }
 
   private def has(id: AnyId, level: Level): Boolean =
     id match {
@@ -44,26 +49,26 @@ class LoggerImpl private[logging] (maybeComponentName: Option[String], actorName
     }
 
   def trace(msg: ⇒ String, map: ⇒ Map[String, Any], ex: Throwable, id: AnyId)(implicit factory: SourceFactory): Unit = {
-    if (componentLoggingState.doTrace || has(id, TRACE)) all(TRACE, id, msg, map, ex, factory.get())
+    if (componentLogLevel.doTrace || has(id, TRACE)) all(TRACE, id, msg, map, ex, factory.get())
   }
 
   def debug(msg: ⇒ String, map: ⇒ Map[String, Any], ex: Throwable, id: AnyId)(implicit factory: SourceFactory): Unit =
-    if (componentLoggingState.doDebug || has(id, DEBUG)) all(DEBUG, id, msg, map, ex, factory.get())
+    if (componentLogLevel.doDebug || has(id, DEBUG)) all(DEBUG, id, msg, map, ex, factory.get())
 
   override def info(msg: ⇒ String, map: ⇒ Map[String, Any], ex: Throwable, id: AnyId)(
       implicit factory: SourceFactory
   ): Unit =
-    if (componentLoggingState.doInfo || has(id, INFO)) all(INFO, id, msg, map, ex, factory.get())
+    if (componentLogLevel.doInfo || has(id, INFO)) all(INFO, id, msg, map, ex, factory.get())
 
   override def warn(msg: ⇒ String, map: ⇒ Map[String, Any], ex: Throwable, id: AnyId)(
       implicit factory: SourceFactory
   ): Unit =
-    if (componentLoggingState.doWarn || has(id, WARN)) all(WARN, id, msg, map, ex, factory.get())
+    if (componentLogLevel.doWarn || has(id, WARN)) all(WARN, id, msg, map, ex, factory.get())
 
   override def error(msg: ⇒ String, map: ⇒ Map[String, Any], ex: Throwable, id: AnyId)(
       implicit factory: SourceFactory
   ): Unit =
-    if (componentLoggingState.doError || has(id, ERROR)) all(ERROR, id, msg, map, ex, factory.get())
+    if (componentLogLevel.doError || has(id, ERROR)) all(ERROR, id, msg, map, ex, factory.get())
 
   override def fatal(msg: ⇒ String, map: ⇒ Map[String, Any], ex: Throwable, id: AnyId)(
       implicit factory: SourceFactory
@@ -0,0 +1,115 @@
+package csw.services.logging.appenders
+
+import java.io.{File, FileInputStream, RandomAccessFile}
+import java.nio.file.Paths
+
+import akka.actor.ActorSystem
+import com.typesafe.config.ConfigFactory
+import csw.services.logging.RichMsg
+import csw.services.logging.binary.{BinaryLogFormat, BinaryLogReader}
+import csw.services.logging.commons.{LoggingKeys, TMTDateTimeFormatter}
+import csw.services.logging.utils.FileUtils
+import org.scalatest.{BeforeAndAfterAll, BeforeAndAfterEach, FunSuite, Matchers}
+
+import scala.concurrent.Await
+import scala.concurrent.duration.DurationLong
+
+class BinaryFileAppenderTest extends FunSuite with Matchers with BeforeAndAfterEach with BeforeAndAfterAll {
+  private val logFileDir = Paths.get("/tmp/csw-test-binary-logs/").toFile
+  private val config = ConfigFactory
+    .parseString(s"""
+      |csw-logging.appender-config.file.logPath = ${logFileDir.getAbsolutePath}/json
+      |csw-logging.appender-config.file.rotate = false
+      |csw-logging.appender-config.binary-file.logPath = ${logFileDir.getAbsolutePath}/binary
+      |csw-logging.appender-config.binary-file.rotate = false
+      |csw-logging.appender-config.binary-file.batch.flush-interval = 1 hour
+    """.stripMargin)
+    .withFallback(ConfigFactory.load)
+  private val actorSystem = ActorSystem("binary-file-appender-test", config)
+  private val standardHeaders: Map[String, RichMsg] =
+    Map[String, RichMsg](LoggingKeys.HOST -> "localhost", LoggingKeys.NAME -> "test-service")
+
+  private val time       = 1497888619397L
+  private val binaryFile = new File(logFileDir, s"binary/test-service/alternative.${BinaryLogFormat.FileExtension}")
+  private val jsonFile   = new File(logFileDir, "json/test-service/alternative.log")
+
+  private def msg(i: Int, severity: String): Map[String, RichMsg] = Map(
+    LoggingKeys.CATEGORY       -> "alternative",
+    LoggingKeys.COMPONENT_NAME -> "BinaryFileAppenderTest",
+    LoggingKeys.SEVERITY       -> severity,
+    LoggingKeys.TIMESTAMP      -> TMTDateTimeFormatter.format(time + i),
+    LoggingKeys.CLASS          -> "csw.services.logging.appenders.BinaryFileAppenderTest",
+    LoggingKeys.FILE           -> "BinaryFileAppenderTest.scala",
+    LoggingKeys.LINE           -> 42,
+    LoggingKeys.MESSAGE        -> s"message $i"
+  )
+
+  private def stop(appender: LogAppender): Unit = Await.result(appender.stop(), 5.seconds)
+
+  private def readMessages(file: File): List[Any] = {
+    val in = new FileInputStream(file)
+    try new BinaryLogReader(in).map(_.fields(LoggingKeys.MESSAGE)).toList
+    finally in.close()
+  }
+
+  override protected def beforeEach(): Unit = FileUtils.deleteRecursively(logFileDir)
+
+  override protected def afterAll(): Unit = {
+    FileUtils.deleteRecursively(logFileDir)
+    Await.result(actorSystem.terminate(), 5.seconds)
+  }
+
+  test("should write records in batches and along with a record at or above flush level") {
+    val appender = new BinaryFileAppender(actorSystem, standardHeaders)
+
+    (1 to 100).foreach(i ⇒ appender.append(msg(i, "INFO"), "alternative", time + i))
+    binaryFile.length() shouldBe 0
+
+    appender.append(msg(101, "ERROR"), "alternative", time + 101)
+    readMessages(binaryFile) shouldBe (1 to 101).map(i ⇒ s"message $i").toList
+
+    stop(appender)
+  }
+
+  test("should write pending records when stopped") {
+    val appender = new BinaryFileAppender(actorSystem, standardHeaders)
+
+    (1 to 10).foreach(i ⇒ appender.append(msg(i, "INFO"), "alternative", time + i))
+    stop(appender)
+
+    readMessages(binaryFile) shouldBe (1 to 10).map(i ⇒ s"message $i").toList
+  }
+
+  test("should drop a record cut short before appending to an existing file") {
+    val appender = new BinaryFileAppender(actorSystem, standardHeaders)
+    (1 to 10).foreach(i ⇒ appender.append(msg(i, "INFO"), "alternative", time + i))
+    stop(appender)
+
+    // as if the process crashed while writing the last record
+    val file = new RandomAccessFile(binaryFile, "rw")
+    try file.setLength(file.length() - 3)
+    finally file.close()
+
+    val reopenedAppender = new BinaryFileAppender(actorSystem, standardHeaders)
+    (11 to 12).foreach(i ⇒ reopenedAppender.append(msg(i, "INFO"), "alternative", time + i))
+    stop(reopenedAppender)
+
+    readMessages(binaryFile) shouldBe ((1 to 9) ++ (11 to 12)).map(i ⇒ s"message $i").toList
+  }
+
+  test("should write files several times smaller than file appender for the same messages") {
+    val binaryAppender = new BinaryFileAppender(actorSystem, standardHeaders)
+    val fileAppender   = new FileAppender(actorSystem, standardHeaders)
+
+    (1 to 1000).foreach { i ⇒
+      binaryAppender.append(msg(i, "INFO"), "alternative", time + i)
+      fileAppender.append(msg(i, "INFO"), "alternative", time + i)
+    }
+    stop(binaryAppender)
+    stop(fileAppender)
+
+    readMessages(binaryFile).size shouldBe 1000
+    FileUtils.read(jsonFile.getPath).size shouldBe 1000
+    binaryFile.length() * 3 should be < jsonFile.length()
+  }
+}
@@ -0,0 +1,59 @@
+package csw.services.logging.appenders
+
+import java.nio.ByteBuffer
+import java.nio.channels.FileChannel
+import java.nio.file.{Files, StandardOpenOption}
+
+import csw.services.logging.internal.LoggingLevels.{ERROR, INFO}
+import org.scalatest.{BeforeAndAfterEach, FunSuite, Matchers}
+
+import scala.collection.JavaConverters._
+import scala.concurrent.duration.DurationInt
+
+class LogFileBatchTest extends FunSuite with Matchers with BeforeAndAfterEach {
+
+  private val logFile              = Files.createTempFile("log-file-batch", ".log")
+  private var channel: FileChannel = _
+
+  private val settings = FileBatchSettings(bufferSize = 64, flushInterval = 1.second, flushLevel = ERROR, fsync = false)
+
+  private def line(s: String) = ByteBuffer.wrap(s.getBytes("UTF-8"))
+  private def writtenLines    = Files.readAllLines(logFile).asScala.toList
+
+  override protected def beforeEach(): Unit =
+    channel = FileChannel.open(logFile, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)
+
+  override protected def afterEach(): Unit = channel.close()
+
+  test("should keep lines in memory till batch is written") {
+    val batch = new LogFileBatch(settings)
+
+    batch.add(channel, line("first"), INFO)
+    batch.add(channel, line("second"), INFO)
+    writtenLines shouldBe List.empty
+
+    batch.write(channel)
+    writtenLines shouldBe List("first", "second")
+    batch.pending shouldBe 0
+  }
+
+  test("should write batch when a line at or above flush level is added") {
+    val batch = new LogFileBatch(settings)
+
+    batch.add(channel, line("info"), INFO)
+    batch.add(channel, line("error"), ERROR)
+
+    writtenLines shouldBe List("info", "error")
+  }
+
+  test("should write batch when it gets full and lines larger than the batch directly") {
+    val batch = new LogFileBatch(settings)
+    val large = "x" * 100
+
+    (1 to 5).foreach(i ⇒ batch.add(channel, line(s"line-$i-0123456789"), INFO))
+    writtenLines.size should be > 0
+
+    batch.add(channel, line(large), INFO)
+    writtenLines shouldBe (1 to 5).map(i ⇒ s"line-$i-0123456789").toList :+ large
+  }
+}
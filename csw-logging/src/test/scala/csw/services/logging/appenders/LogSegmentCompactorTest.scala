@@ -0,0 +1,119 @@
+package csw.services.logging.appenders
+
+import java.io.{File, FileInputStream}
+import java.nio.file.Files
+import java.util.zip.GZIPInputStream
+
+import csw.services.logging.internal.LogMetrics
+import csw.services.logging.internal.LoggingLevels.INFO
+import csw.services.logging.utils.FileUtils
+import org.scalatest.{BeforeAndAfterEach, FunSuite, Matchers}
+
+import scala.concurrent.duration.DurationInt
+import scala.io.Source
+
+class LogSegmentCompactorTest extends FunSuite with Matchers with BeforeAndAfterEach {
+
+  private val logDir = new File("/tmp/csw-test-compactor")
+
+  private def file(name: String, content: String = "line", modified: Long = System.currentTimeMillis()): File = {
+    val f = new File(logDir, name)
+    Files.write(f.toPath, content.getBytes("UTF-8"))
+    f.setLastModified(modified)
+    f
+  }
+
+  private def fileNames: Set[String] = logDir.listFiles().map(_.getName).toSet
+
+  private def gunzip(f: File): String = {
+    val in = new GZIPInputStream(new FileInputStream(f))
+    try Source.fromInputStream(in, "UTF-8").mkString
+    finally in.close()
+  }
+
+  override protected def beforeEach(): Unit = {
+    FileUtils.deleteRecursively(logDir)
+    logDir.mkdirs()
+  }
+
+  override protected def afterEach(): Unit = FileUtils.deleteRecursively(logDir)
+
+  test("should number size rotated segments after existing ones") {
+    file("common.2017-06-19T12:00Z.1.log.gz")
+    file("common.2017-06-19T12:00Z.2.log")
+    file("common.2017-06-18T12:00Z.7.log")
+
+    LogSegmentCompactor
+      .nextSegment(new File(logDir, "common.2017-06-19T12:00Z.log"))
+      .getName shouldBe "common.2017-06-19T12:00Z.3.log"
+    LogSegmentCompactor.nextSegment(new File(logDir, "alternative.log")).getName shouldBe "alternative.1.log"
+  }
+
+  test("should compress rotated files of the category and leave active file untouched") {
+    val active = file("common.2017-06-19T12:00Z.log", "active")
+    file("common.2017-06-18T12:00Z.log", "rotated by day")
+    file("common.2017-06-19T12:00Z.1.log", "rotated by size")
+    file("alternative.2017-06-18T12:00Z.log", "other category")
+
+    new LogSegmentCompactor(FileRotationSettings(0, compress = true, 0, 0.millis)).compactNow(logDir, "common", active)
+
+    fileNames shouldBe Set(
+      "common.2017-06-19T12:00Z.log",
+      "common.2017-06-18T12:00Z.log.gz",
+      "common.2017-06-19T12:00Z.1.log.gz",
+      "alternative.2017-06-18T12:00Z.log"
+    )
+    gunzip(new File(logDir, "common.2017-06-18T12:00Z.log.gz")) shouldBe "rotated by day"
+    gunzip(new File(logDir, "common.2017-06-19T12:00Z.1.log.gz")) shouldBe "rotated by size"
+  }
+
+  test("should delete rotated files older than max age and oldest ones beyond max total size") {
+    val now    = System.currentTimeMillis()
+    val active = file("common.log", "x" * 100, now)
+    file("common.1.log", "x" * 10, now - 10.days.toMillis)
+    file("common.2.log", "x" * 10, now - 3.hours.toMillis)
+    file("common.3.log", "x" * 10, now - 2.hours.toMillis)
+    file("common.4.log", "x" * 10, now - 1.hour.toMillis)
+
+    new LogSegmentCompactor(FileRotationSettings(0, compress = false, 25, 1.day)).compactNow(logDir, "common", active)
+
+    fileNames shouldBe Set("common.log", "common.3.log", "common.4.log")
+  }
+
+  test("should rotate log file once it grows beyond max file size") {
+    val settings = FileRotationSettings(maxFileSize = 20, compress = false, 0, 0.millis)
+    val helper   = new FileAppenderHelper(logDir.getPath, "common", None, settings, None)
+
+    (1 to 5).foreach(i ⇒ helper.appendAdd(0L, s"line-$i-padding", rotateFlag = false, INFO))
+    helper.postStop()
+
+    fileNames shouldBe Set("common.log", "common.1.log", "common.2.log", "common.3.log", "common.4.log")
+    Source.fromFile(new File(logDir, "common.1.log")).mkString.trim shouldBe "line-1-padding"
+    Source.fromFile(new File(logDir, "common.log")).mkString.trim shouldBe "line-5-padding"
+  }
+
+  test("should count log file size in bytes of the encoded lines") {
+    val settings = FileRotationSettings(maxFileSize = 20, compress = false, 0, 0.millis)
+    val helper   = new FileAppenderHelper(logDir.getPath, "common", None, settings, None)
+
+    // 7 characters but 12 bytes in UTF-8, hence a single line fits in each file
+    (1 to 3).foreach(i ⇒ helper.appendAdd(0L, s"ééééé-$i", rotateFlag = false, INFO))
+    helper.postStop()
+
+    fileNames shouldBe Set("common.log", "common.1.log", "common.2.log")
+    logDir.listFiles().foreach(_.length() should be <= 20L)
+  }
+
+  test("should count failed compactions in logging metrics") {
+    val settings  = FileRotationSettings(0, compress = true, 0, 0.millis)
+    val compactor = new LogSegmentCompactor(settings)
+    val before    = LogMetrics.snapshot.fileCompactionFailures
+    // a directory cannot be read as a rotated file
+    new File(logDir, "common.1.log").mkdirs()
+
+    compactor.compactNow(logDir, "common", new File(logDir, "common.log"))
+
+    LogMetrics.snapshot.fileCompactionFailures shouldBe before + 1
+    compactor.stop()
+  }
+}
@@ -0,0 +1,87 @@
+package csw.services.logging.binary
+
+import java.io.{ByteArrayInputStream, ByteArrayOutputStream}
+import java.nio.ByteBuffer
+
+import csw.services.logging.commons.{LoggingKeys, TMTDateTimeFormatter}
+import org.scalatest.{FunSuite, Matchers}
+
+class BinaryLogFormatTest extends FunSuite with Matchers {
+
+  private val time = 1497888619397L
+
+  private def msg(i: Int, t: Long): Map[String, Any] = Map(
+    LoggingKeys.TIMESTAMP      → TMTDateTimeFormatter.format(t),
+    LoggingKeys.SEVERITY       → "INFO",
+    LoggingKeys.COMPONENT_NAME → "tromboneHCD",
+    LoggingKeys.CLASS          → "csw.services.logging.binary.BinaryLogFormatTest",
+    LoggingKeys.FILE           → "BinaryLogFormatTest.scala",
+    LoggingKeys.LINE           → 12,
+    LoggingKeys.MESSAGE        → s"message $i",
+    LoggingKeys.TRACE_ID       → List("track", "span")
+  )
+
+  private def write(out: ByteArrayOutputStream, buffer: ByteBuffer): Unit = {
+    val bytes = new Array[Byte](buffer.remaining())
+    buffer.get(bytes)
+    out.write(bytes)
+  }
+
+  private def read(bytes: Array[Byte]): List[(Long, Map[String, Any])] =
+    new BinaryLogReader(new ByteArrayInputStream(bytes)).map(record ⇒ (record.time, record.fields)).toList
+
+  test("should decode messages as they were encoded") {
+    val encoder = new BinaryLogEncoder(initialCapacity = 16)
+    val out     = new ByteArrayOutputStream()
+    val userMsg = Map(
+      "negative" → -7L,
+      "ratio"    → 0.5,
+      "flag"     → false,
+      "nothing"  → null,
+      "big"      → BigDecimal("12345678901234567890.5"),
+      "nested"   → Map("k" → "v", "list" → List(1L, "a")),
+      "text"     → "quote \" unicode é € 😀"
+    )
+    val messages = List(msg(1, time), msg(2, time + 5) ++ userMsg, msg(3, time - 1000) - LoggingKeys.TIMESTAMP)
+
+    write(out, encoder.start(append = false))
+    List(time, time + 5, time - 1000).zip(messages).foreach { case (t, m) ⇒ write(out, encoder.encode(m, t)) }
+
+    read(out.toByteArray) shouldBe List(
+      (time, messages(0) + (LoggingKeys.LINE        → 12L)),
+      (time + 5, messages(1) + (LoggingKeys.LINE    → 12L)),
+      (time - 1000, messages(2) + (LoggingKeys.LINE → 12L))
+    )
+  }
+
+  test("should write repeated field names and values once per file") {
+    val encoder = new BinaryLogEncoder()
+    val first   = encoder.encode(msg(1, time), time).remaining()
+    val second  = encoder.encode(msg(2, time + 1), time + 1).remaining()
+
+    second should be < first
+    second should be < 64
+  }
+
+  test("should decode records appended after reopening a file and stop at an incomplete record") {
+    val out = new ByteArrayOutputStream()
+
+    val encoder1 = new BinaryLogEncoder()
+    write(out, encoder1.start(append = false))
+    write(out, encoder1.encode(msg(1, time), time))
+
+    val encoder2 = new BinaryLogEncoder()
+    write(out, encoder2.start(append = true))
+    write(out, encoder2.encode(msg(2, time + 1), time + 1))
+    val complete = out.size()
+    write(out, encoder2.encode(msg(3, time + 2), time + 2))
+
+    val bytes = out.toByteArray
+    read(bytes).map(_._2(LoggingKeys.MESSAGE)) shouldBe List("message 1", "message 2", "message 3")
+    read(bytes.take(complete + 3)).map(_._2(LoggingKeys.MESSAGE)) shouldBe List("message 1", "message 2")
+  }
+
+  test("should reject streams which are not binary log files") {
+    an[IllegalArgumentException] shouldBe thrownBy(read("{\"json\": true}".getBytes("UTF-8")))
+  }
+}
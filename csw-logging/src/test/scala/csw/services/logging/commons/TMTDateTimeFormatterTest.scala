@@ -0,0 +1,27 @@
+package csw.services.logging.commons
+
+import java.time.Instant
+
+import org.scalatest.{FunSuite, Matchers}
+
+class TMTDateTimeFormatterTest extends FunSuite with Matchers {
+
+  private def isoFormat(time: Long) = TMTDateTimeFormatter.ISOLogFormatter.format(Instant.ofEpochMilli(time))
+
+  test("should format time same as ISO instant formatter") {
+    val times = List(0L, 1L, 999L, 1000L, 1497888619397L, 1497888619000L, 1497888619010L, -1L, -1001L)
+    times.foreach(time ⇒ TMTDateTimeFormatter.format(time) shouldBe isoFormat(time))
+    TMTDateTimeFormatter.format(1497888619397L) shouldBe "2017-06-19T16:10:19.397Z"
+    TMTDateTimeFormatter.format(1497888619000L) shouldBe "2017-06-19T16:10:19Z"
+  }
+
+  test("should format consecutive milliseconds across second boundaries") {
+    val start = 1497888618990L
+    (start to start + 2020).foreach(time ⇒ TMTDateTimeFormatter.format(time) shouldBe isoFormat(time))
+  }
+
+  test("should format years beyond four digits") {
+    val farFuture = Instant.parse("+10000-01-01T00:00:00.123Z").toEpochMilli
+    TMTDateTimeFormatter.format(farFuture) shouldBe isoFormat(farFuture)
+  }
+}
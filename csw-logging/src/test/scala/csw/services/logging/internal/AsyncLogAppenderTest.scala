@@ -0,0 +1,120 @@
+package csw.services.logging.internal
+
+import java.io.{ByteArrayOutputStream, PrintStream}
+import java.util.concurrent.{ConcurrentLinkedQueue, CountDownLatch, TimeUnit}
+
+import csw.services.logging.RichMsg
+import csw.services.logging.appenders.LogAppender
+import csw.services.logging.commons.LoggingKeys
+import csw.services.logging.internal.LoggingLevels._
+import org.scalatest.{FunSuite, Matchers}
+
+import scala.collection.JavaConverters._
+import scala.concurrent.duration.DurationInt
+import scala.concurrent.{Await, Future}
+
+class AsyncLogAppenderTest extends FunSuite with Matchers {
+
+  private def msg(level: Level, text: String): Map[String, RichMsg] =
+    Map(LoggingKeys.SEVERITY → level.name, LoggingKeys.MESSAGE → text)
+
+  // records appended messages, first message blocks the appender thread till the latch is released
+  private class RecordingAppender(blockFirst: Boolean) extends LogAppender {
+    val received          = new ConcurrentLinkedQueue[String]()
+    val firstMsgAppended  = new CountDownLatch(1)
+    val release           = new CountDownLatch(if (blockFirst) 1 else 0)
+    @volatile var stopped = false
+
+    def append(baseMsg: Map[String, RichMsg], category: String): Unit = {
+      received.add(baseMsg(LoggingKeys.MESSAGE).toString)
+      firstMsgAppended.countDown()
+      release.await(5, TimeUnit.SECONDS)
+    }
+    def finish(): Future[Unit] = Future.unit
+    def stop(): Future[Unit] = {
+      stopped = true
+      Future.unit
+    }
+  }
+
+  private def settings(size: Int, policy: OverflowPolicy) = AsyncAppenderSettings(size, policy, WARN)
+
+  test("should not hold up the caller or other appenders while an appender is blocked") {
+    val slowAppender  = new RecordingAppender(blockFirst = true)
+    val fastAppender  = new RecordingAppender(blockFirst = false)
+    val slowAsync     = AsyncLogAppender(slowAppender, settings(4, OverflowPolicy.DropOldest))
+    val fastAsync     = AsyncLogAppender(fastAppender, settings(1024, OverflowPolicy.DropOldest))
+    val fanOut        = List(slowAsync, fastAsync)
+    val messagesCount = 100
+
+    fanOut.foreach(_.append(msg(INFO, "0"), "common"))
+    slowAppender.firstMsgAppended.await(5, TimeUnit.SECONDS)
+    (1 to messagesCount).foreach(i ⇒ fanOut.foreach(_.append(msg(INFO, i.toString), "common")))
+    Await.result(fastAsync.finish(), 5.seconds)
+
+    fastAppender.received.size shouldBe messagesCount + 1
+    slowAsync.metrics.queueDepth shouldBe 4
+    slowAsync.metrics.dropped shouldBe messagesCount - 4
+    fastAsync.metrics.dropped shouldBe 0
+
+    slowAppender.release.countDown()
+    fanOut.foreach(appender ⇒ Await.result(appender.stop(), 5.seconds))
+    slowAppender.received.asScala.toList shouldBe List("0", "97", "98", "99", "100")
+  }
+
+  test("should drop messages below configured level when queue is full") {
+    val appender = new RecordingAppender(blockFirst = true)
+    val async    = AsyncLogAppender(appender, settings(2, OverflowPolicy.DropBelowLevel))
+
+    async.append(msg(INFO, "0"), "common")
+    appender.firstMsgAppended.await(5, TimeUnit.SECONDS)
+    async.append(msg(INFO, "1"), "common")
+    async.append(msg(INFO, "2"), "common")
+    async.append(msg(DEBUG, "debug"), "common")
+    async.append(msg(INFO, "info"), "common")
+    async.metrics.dropped shouldBe 2
+
+    appender.release.countDown()
+    Await.result(async.stop(), 5.seconds)
+    appender.received.asScala.toList shouldBe List("0", "1", "2")
+  }
+
+  test("should write queued messages before stopping and retire without stopping wrapped appender") {
+    val stoppedAppender = new RecordingAppender(blockFirst = false)
+    val stoppedAsync    = AsyncLogAppender(stoppedAppender, settings(16, OverflowPolicy.Block))
+    (1 to 10).foreach(i ⇒ stoppedAsync.append(msg(INFO, i.toString), "common"))
+    Await.result(stoppedAsync.stop(), 5.seconds)
+    stoppedAppender.received.size shouldBe 10
+    stoppedAppender.stopped shouldBe true
+
+    val retiredAppender = new RecordingAppender(blockFirst = false)
+    val retiredAsync    = AsyncLogAppender(retiredAppender, settings(16, OverflowPolicy.Block))
+    (1 to 10).foreach(i ⇒ retiredAsync.append(msg(INFO, i.toString), "common"))
+    Await.result(retiredAsync.retire(), 5.seconds)
+    retiredAppender.received.size shouldBe 10
+    retiredAppender.stopped shouldBe false
+  }
+
+  test("should count messages dropped after stop and report failures of the wrapped appender once per interval") {
+    val failingAppender = new LogAppender {
+      def append(baseMsg: Map[String, RichMsg], category: String): Unit = throw new RuntimeException("disk full")
+      def finish(): Future[Unit]                                        = Future.unit
+      def stop(): Future[Unit]                                          = Future.unit
+    }
+    val async  = AsyncLogAppender(failingAppender, settings(16, OverflowPolicy.Block))
+    val err    = new ByteArrayOutputStream()
+    val stdErr = System.err
+
+    System.setErr(new PrintStream(err, true))
+    try {
+      (1 to 10).foreach(i ⇒ async.append(msg(INFO, i.toString), "common", INFO, System.currentTimeMillis()))
+      Await.result(async.stop(), 5.seconds)
+    } finally System.setErr(stdErr)
+    async.append(msg(INFO, "11"), "common", INFO, System.currentTimeMillis())
+
+    async.metrics.failed shouldBe 10
+    async.metrics.dropped shouldBe 1
+    // failures within the report interval are reported once
+    err.toString.lines.toList.size shouldBe 1
+  }
+}
@@ -0,0 +1,109 @@
+package csw.services.logging.internal
+
+import java.nio.charset.StandardCharsets
+
+import com.google.gson.Gson
+import csw.services.logging.commons.{Category, LoggingKeys, TMTDateTimeFormatter}
+import csw.services.logging.internal.LoggingLevels.{ERROR, INFO}
+import csw.services.logging.macros.SourceLocation
+import csw.services.logging.scaladsl.{noId, RequestId}
+import org.scalatest.{FunSuite, Matchers}
+
+import scala.collection.JavaConverters._
+
+class LogJsonEncoderTest extends FunSuite with Matchers {
+
+  private val noEx           = csw.services.logging.noException
+  private val sourceLocation = SourceLocation("hcd.scala", "iris", "tromboneHCD", 12)
+  private val time           = 1497888619397L
+  private val gson           = new Gson()
+
+  private def decodeJava(encoder: LogJsonEncoder, log: Log): java.util.Map[String, AnyRef] = {
+    val buffer = encoder.encode(log)
+    val bytes  = new Array[Byte](buffer.remaining())
+    buffer.get(bytes)
+    gson.fromJson(new String(bytes, StandardCharsets.UTF_8), classOf[java.util.Map[String, AnyRef]])
+  }
+
+  private def decode(encoder: LogJsonEncoder, log: Log): Map[String, AnyRef] = decodeJava(encoder, log).asScala.toMap
+
+  test("should encode log message fields along with standard headers") {
+    val encoder = new LogJsonEncoder(Some(Map(LoggingKeys.HOST → "localhost", LoggingKeys.NAME → "test-service")), sorted = false)
+    val log = Log(Some("tromboneHCD"),
+                  INFO,
+                  RequestId("track", "span"),
+                  time,
+                  Some("testActor"),
+                  "message",
+                  Map.empty,
+                  sourceLocation,
+                  noEx)
+
+    val json = decode(encoder, log)
+
+    json(LoggingKeys.HOST) shouldBe "localhost"
+    json(LoggingKeys.NAME) shouldBe "test-service"
+    json(LoggingKeys.CATEGORY) shouldBe Category.Common.name
+    json(LoggingKeys.COMPONENT_NAME) shouldBe "tromboneHCD"
+    json(LoggingKeys.SEVERITY) shouldBe INFO.name
+    json(LoggingKeys.TRACE_ID).asInstanceOf[java.util.List[String]].asScala shouldBe List("track", "span")
+    json(LoggingKeys.ACTOR) shouldBe "testActor"
+    json(LoggingKeys.CLASS) shouldBe "iris.tromboneHCD"
+    json(LoggingKeys.FILE) shouldBe "hcd.scala"
+    json(LoggingKeys.LINE) shouldBe 12.0
+    json(LoggingKeys.MESSAGE) shouldBe "message"
+    json(LoggingKeys.TIMESTAMP) shouldBe TMTDateTimeFormatter.format(time)
+  }
+
+  test("should escape strings, encode non ascii characters and user map values") {
+    val encoder = new LogJsonEncoder(None, sorted = false, initialCapacity = 16)
+    val message = "quote \" backslash \\ newline \n tab \t unicode é € 😀"
+    val userMap =
+      Map("count" → 42, "negative" → -7L, "ratio" → 0.5, "flag" → true, "list" → List(1, "a"), "nested" → Map("k" → "v"))
+    val log = Log(None, ERROR, noId, time, None, message, userMap, SourceLocation("", "", "", 0), noEx)
+
+    val json = decode(encoder, log)
+
+    json(LoggingKeys.MESSAGE) shouldBe message
+    json("count") shouldBe 42.0
+    json("negative") shouldBe -7.0
+    json("ratio") shouldBe 0.5
+    json("flag") shouldBe true
+    json("list").asInstanceOf[java.util.List[AnyRef]].asScala shouldBe List(1.0, "a")
+    json("nested").asInstanceOf[java.util.Map[String, AnyRef]].asScala shouldBe Map("k" → "v")
+    json.contains(LoggingKeys.FILE) shouldBe false
+    json.contains(LoggingKeys.CLASS) shouldBe false
+  }
+
+  test("should write keys in sorted order along with standard headers and user map") {
+    val headers = Map(LoggingKeys.HOST → "localhost", LoggingKeys.NAME → "test-service", LoggingKeys.VERSION → "1.0")
+    val encoder = new LogJsonEncoder(Some(headers), sorted = true)
+    val userMap = Map("zone" → 1, "@alert" → true, "bytes" → Map("z" → 1, "a" → 2), "mode" → "fast")
+    val log = Log(Some("tromboneHCD"),
+                  INFO,
+                  RequestId("track", "span"),
+                  time - time % 1000,
+                  Some("testActor"),
+                  "message",
+                  userMap,
+                  sourceLocation,
+                  noEx)
+
+    val json = decodeJava(encoder, log)
+    val keys = json.keySet().asScala.toList
+
+    keys shouldBe keys.sorted
+    keys.size shouldBe headers.size + userMap.size + 10
+    json.get("bytes").asInstanceOf[java.util.Map[String, AnyRef]].keySet().asScala.toList shouldBe List("a", "z")
+    json.get(LoggingKeys.TIMESTAMP) shouldBe TMTDateTimeFormatter.format(time - time % 1000)
+  }
+
+  test("should not encode messages with exception or user keys owned by logging system") {
+    val encoder = new LogJsonEncoder(None, sorted = false)
+    val log     = Log(None, INFO, noId, time, None, "message", Map.empty, sourceLocation, noEx)
+
+    encoder.canEncode(log) shouldBe true
+    encoder.canEncode(log.copy(ex = new RuntimeException("failure"))) shouldBe false
+    encoder.canEncode(log.copy(map = Map(LoggingKeys.TIMESTAMP → "now"))) shouldBe false
+  }
+}
@@ -0,0 +1,48 @@
+package csw.services.logging.internal
+
+import java.lang.management.ManagementFactory
+
+import csw.services.logging.internal.LoggingLevels.{ERROR, INFO}
+import org.scalatest.{FunSuite, Matchers}
+
+class LogMetricsTest extends FunSuite with Matchers {
+
+  test("should report latency percentiles as upper bounds of power of two buckets") {
+    val histogram = new LatencyHistogram
+    (1 to 97).foreach(_ => histogram.record(3000))
+    (1 to 2).foreach(_ => histogram.record(100000))
+    histogram.record(500)
+
+    val latency = histogram.snapshot("TestAppender")
+    latency.count shouldBe 100
+    latency.p50Micros shouldBe 4
+    latency.p99Micros shouldBe 128
+    latency.maxMicros shouldBe 100
+    latency.meanMicros shouldBe 4
+  }
+
+  test("should count messages per level and category") {
+    val before = LogMetrics.snapshot
+
+    LogMetrics.messageReceived(INFO)
+    LogMetrics.messageReceived(ERROR)
+    LogMetrics.messageReceived(ERROR)
+    LogMetrics.altMessageReceived("metricsTestCategory")
+
+    val after = LogMetrics.snapshot
+    after.messagesPerLevel(INFO) - before.messagesPerLevel(INFO) shouldBe 1
+    after.messagesPerLevel(ERROR) - before.messagesPerLevel(ERROR) shouldBe 2
+    after.messagesPerCategory("common") - before.messagesPerCategory.getOrElse("common", 0L) shouldBe 3
+    after.messagesPerCategory("metricsTestCategory") shouldBe 1
+  }
+
+  test("should expose metrics through JMX") {
+    LoggingMetricsJmx.register()
+    try {
+      LogMetrics.fileWritten(42)
+      val server = ManagementFactory.getPlatformMBeanServer
+      server.getAttribute(LoggingMetricsJmx.Name, "FileBytesWritten").asInstanceOf[Long] should be >= 42L
+      server.getAttribute(LoggingMetricsJmx.Name, "FileFlushes").asInstanceOf[Long] should be >= 1L
+    } finally LoggingMetricsJmx.unregister()
+  }
+}
@@ -0,0 +1,101 @@
+package csw.services.logging.internal
+
+import com.typesafe.config.ConfigFactory
+import csw.services.logging.internal.LoggingLevels.{DEBUG, ERROR, FATAL, INFO, Level, WARN}
+import csw.services.logging.macros.SourceLocation
+import org.scalatest.{FunSuite, Matchers}
+
+import scala.concurrent.duration.DurationInt
+
+class LogRateLimiterTest extends FunSuite with Matchers {
+
+  private val callSite1 = SourceLocation("TromboneHcd.scala", "csw.trombone", "TromboneHcd", 10)
+  private val callSite2 = SourceLocation("TromboneHcd.scala", "csw.trombone", "TromboneHcd", 20)
+
+  private def settings(default: RateLimit, components: Map[String, Map[Level, RateLimit]] = Map.empty) =
+    RateLimitSettings(enabled = true, 10.seconds, default, components)
+
+  private def limiter(settings: RateLimitSettings): ComponentRateLimiter = {
+    val rateLimiter = new ComponentRateLimiter("TromboneHcd")
+    rateLimiter.configure(settings)
+    rateLimiter
+  }
+
+  test("should read default and per component and level limits from configuration") {
+    val config = ConfigFactory.parseString("""
+        |rate-limit {
+        |  enabled = true
+        |  summary-interval = 5 seconds
+        |  messages-per-second = 0
+        |  burst = 100
+        |  sample-one-in = 1
+        |  components {
+        |    TromboneHcd {
+        |      warn { messages-per-second = 10 }
+        |      debug { sample-one-in = 100 }
+        |    }
+        |  }
+        |}
+      """.stripMargin)
+
+    val rateLimitSettings = RateLimitSettings.from(config)
+
+    rateLimitSettings.summaryInterval shouldBe 5.seconds
+    rateLimitSettings.components shouldBe Map(
+      "TromboneHcd" -> Map(WARN -> RateLimit(10, 100, 1), DEBUG -> RateLimit(0, 100, 100))
+    )
+    rateLimitSettings.limitsOf("TromboneAssembly") shouldBe null
+    val limits = rateLimitSettings.limitsOf("TromboneHcd")
+    limits(DEBUG.pos) shouldBe RateLimit(0, 100, 100)
+    limits(WARN.pos) shouldBe RateLimit(10, 100, 1)
+    limits.count(_ != null) shouldBe 2
+  }
+
+  test("should log one in every sample of a call site and count the suppressed ones") {
+    val rateLimiter = limiter(settings(RateLimit(0, 0, 1), Map("TromboneHcd" -> Map(INFO -> RateLimit(0, 0, 10)))))
+
+    (1 to 25).count(_ => rateLimiter.allow(INFO, callSite1)) shouldBe 3
+    (1 to 5).count(_ => rateLimiter.allow(INFO, callSite2)) shouldBe 1
+    (1 to 25).count(_ => rateLimiter.allow(WARN, callSite1)) shouldBe 25
+
+    rateLimiter.drainSuppressed().toSet shouldBe Set(
+      SuppressedMessages(INFO, callSite1, 22),
+      SuppressedMessages(INFO, callSite2, 4)
+    )
+    rateLimiter.drainSuppressed() shouldBe empty
+  }
+
+  test("should limit a call site to its burst and never limit fatal messages") {
+    val rateLimiter = limiter(settings(RateLimit(0.001, 5, 1)))
+
+    (1 to 20).count(_ => rateLimiter.allow(ERROR, callSite1)) shouldBe 5
+    (1 to 20).count(_ => rateLimiter.allow(FATAL, callSite1)) shouldBe 20
+    rateLimiter.drainSuppressed() shouldBe List(SuppressedMessages(ERROR, callSite1, 15))
+
+    rateLimiter.configure(RateLimitSettings.Disabled)
+    (1 to 20).count(_ => rateLimiter.allow(ERROR, callSite1)) shouldBe 20
+  }
+
+  test("should reject limits which would suppress every message or never sample") {
+    def config(limits: String) =
+      ConfigFactory.parseString(s"""
+        |rate-limit {
+        |  enabled = true
+        |  summary-interval = 5 seconds
+        |  messages-per-second = 0
+        |  burst = 100
+        |  sample-one-in = 1
+        |  components { $limits }
+        |}
+      """.stripMargin)
+
+    an[IllegalArgumentException] shouldBe thrownBy(
+      RateLimitSettings.from(config("TromboneHcd.info { messages-per-second = 10, burst = 0 }"))
+    )
+    an[IllegalArgumentException] shouldBe thrownBy(RateLimitSettings.from(config("TromboneHcd.info { sample-one-in = 0 }")))
+    an[IllegalArgumentException] shouldBe thrownBy(
+      RateLimitSettings.from(config("TromboneHcd.info { messages-per-second = -1 }"))
+    )
+    RateLimitSettings.from(config("TromboneHcd.info { burst = 0 }")).components("TromboneHcd")(INFO) shouldBe RateLimit(0, 0, 1)
+  }
+}
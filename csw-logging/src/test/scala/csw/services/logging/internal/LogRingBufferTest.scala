@@ -0,0 +1,113 @@
+package csw.services.logging.internal
+
+import java.util.concurrent.{ConcurrentLinkedQueue, CountDownLatch, TimeUnit}
+
+import csw.services.logging.internal.LoggingLevels._
+import csw.services.logging.macros.DefaultSourceLocation
+import csw.services.logging.scaladsl.noId
+import org.scalatest.{FunSuite, Matchers}
+
+import scala.collection.JavaConverters._
+import scala.concurrent.duration.DurationInt
+import scala.concurrent.{Await, Promise}
+
+class LogRingBufferTest extends FunSuite with Matchers {
+
+  private val noEx = csw.services.logging.noException
+
+  private def log(level: Level, msg: String) =
+    Log(None, level, noId, System.currentTimeMillis(), None, msg, Map.empty, DefaultSourceLocation, noEx)
+
+  // records processed messages, first message blocks the consumer thread till the latch is released
+  private class RecordingProcessor(done: Promise[Unit], blockFirst: Boolean)
+      extends LogProcessor(null, done, Map.empty, Seq.empty, TRACE, TRACE, TRACE) {
+    val received         = new ConcurrentLinkedQueue[String]()
+    val firstMsgConsumed = new CountDownLatch(1)
+    val release          = new CountDownLatch(if (blockFirst) 1 else 0)
+
+    override def process(msg: Any): Unit = msg match {
+      case l: Log ⇒
+        received.add(l.msg)
+        firstMsgConsumed.countDown()
+        release.await(5, TimeUnit.SECONDS)
+      case SetLevel(level) ⇒ received.add(s"level ${level.name}")
+      case StopLogging     ⇒ done.success(())
+      case _               ⇒
+    }
+  }
+
+  private def settings(size: Int, policy: OverflowPolicy) =
+    RingBufferSettings(enabled = true, size, WaitStrategy.Sleeping, policy, WARN)
+
+  test("should deliver messages published from multiple threads and drain them on stop") {
+    val done       = Promise[Unit]
+    val processor  = new RecordingProcessor(done, blockFirst = false)
+    val ringBuffer = new LogRingBuffer(settings(16, OverflowPolicy.Block), processor)
+
+    val producers = (1 to 4).map { p ⇒
+      new Thread(new Runnable {
+        override def run(): Unit = (1 to 1000).foreach(i ⇒ ringBuffer.publish(log(INFO, s"$p-$i")))
+      })
+    }
+    producers.foreach(_.start())
+    producers.foreach(_.join())
+    ringBuffer.publish(StopLogging)
+
+    Await.result(done.future, 5.seconds)
+    processor.received.size shouldBe 4000
+    ringBuffer.droppedCount shouldBe 0
+    // messages of a single producer keep their order
+    processor.received.asScala.filter(_.startsWith("1-")).toList shouldBe (1 to 1000).map(i ⇒ s"1-$i").toList
+  }
+
+  test("should drop oldest messages when ring buffer is full") {
+    val done       = Promise[Unit]
+    val processor  = new RecordingProcessor(done, blockFirst = true)
+    val ringBuffer = new LogRingBuffer(settings(4, OverflowPolicy.DropOldest), processor)
+
+    ringBuffer.publish(log(INFO, "0"))
+    processor.firstMsgConsumed.await(5, TimeUnit.SECONDS)
+    (1 to 6).foreach(i ⇒ ringBuffer.publish(log(INFO, i.toString)))
+    ringBuffer.droppedOldestCount shouldBe 2
+
+    processor.release.countDown()
+    ringBuffer.publish(StopLogging)
+    Await.result(done.future, 5.seconds)
+    processor.received.asScala.toList shouldBe List("0", "3", "4", "5", "6")
+  }
+
+  test("should drop messages below configured level when ring buffer is full") {
+    val done       = Promise[Unit]
+    val processor  = new RecordingProcessor(done, blockFirst = true)
+    val ringBuffer = new LogRingBuffer(settings(4, OverflowPolicy.DropBelowLevel), processor)
+
+    ringBuffer.publish(log(INFO, "0"))
+    processor.firstMsgConsumed.await(5, TimeUnit.SECONDS)
+    (1 to 4).foreach(i ⇒ ringBuffer.publish(log(INFO, i.toString)))
+    ringBuffer.publish(log(DEBUG, "debug"))
+    ringBuffer.publish(log(INFO, "info"))
+    ringBuffer.droppedBelowLevelCount shouldBe 2
+
+    processor.release.countDown()
+    ringBuffer.publish(StopLogging)
+    Await.result(done.future, 5.seconds)
+    processor.received.asScala.toList shouldBe List("0", "1", "2", "3", "4")
+  }
+
+  test("should handle control messages after the messages published before them") {
+    val done       = Promise[Unit]
+    val processor  = new RecordingProcessor(done, blockFirst = true)
+    val ringBuffer = new LogRingBuffer(settings(16, OverflowPolicy.Block), processor)
+
+    ringBuffer.publish(log(INFO, "0"))
+    processor.firstMsgConsumed.await(5, TimeUnit.SECONDS)
+    ringBuffer.publish(log(INFO, "1"))
+    ringBuffer.publish(SetLevel(ERROR))
+    ringBuffer.publish(log(INFO, "2"))
+
+    processor.release.countDown()
+    ringBuffer.publish(StopLogging)
+    Await.result(done.future, 5.seconds)
+    processor.received.asScala.toList shouldBe List("0", "1", "level ERROR", "2")
+  }
+}
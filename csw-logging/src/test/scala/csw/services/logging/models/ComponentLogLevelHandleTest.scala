@@ -0,0 +1,50 @@
+package csw.services.logging.models
+
+import csw.services.logging.commons.Constants
+import csw.services.logging.internal.LoggingLevels.{DEBUG, ERROR, INFO, TRACE, WARN}
+import csw.services.logging.internal.{ComponentLoggingStateManager, LoggingState}
+import org.scalatest.{BeforeAndAfterEach, FunSuite, Matchers}
+
+class ComponentLogLevelHandleTest extends FunSuite with Matchers with BeforeAndAfterEach {
+
+  private val initialState = LoggingState.componentsLoggingState
+  private val defaultState = initialState(Constants.DEFAULT_KEY)
+  private val defaultLevel = defaultState.componentLogLevel
+
+  override protected def afterEach(): Unit = {
+    defaultState.setLevel(defaultLevel)
+    LoggingState.componentsLoggingState = initialState
+  }
+
+  test("should follow default log level till component log level is set") {
+    val handle = LoggingState.componentLogLevelHandle("handleTestHcd")
+    handle.componentLogLevel shouldBe defaultLevel
+
+    defaultState.setLevel(WARN)
+    LoggingState.refreshComponentLogLevelHandles()
+    handle.componentLogLevel shouldBe WARN
+    handle.doInfo shouldBe false
+    handle.doWarn shouldBe true
+
+    ComponentLoggingStateManager.add("handleTestHcd", DEBUG)
+    handle.componentLogLevel shouldBe DEBUG
+    handle.doTrace shouldBe false
+    handle.doDebug shouldBe true
+  }
+
+  test("should share the handle among loggers of a component and update it in place") {
+    val handle = LoggingState.componentLogLevelHandle("handleTestAssembly")
+    LoggingState.componentLogLevelHandle("handleTestAssembly") should be theSameInstanceAs handle
+
+    ComponentLoggingStateManager.add("handleTestAssembly", ERROR)
+    handle.doWarn shouldBe false
+    handle.doError shouldBe true
+
+    ComponentLoggingStateManager.add("handleTestAssembly", TRACE)
+    handle.doTrace shouldBe true
+
+    LoggingState.componentsLoggingState = LoggingState.componentsLoggingState - "handleTestAssembly"
+    handle.componentLogLevel shouldBe defaultLevel
+    handle.doInfo shouldBe defaultLevel.pos <= INFO.pos
+  }
+}
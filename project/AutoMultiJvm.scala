@@ -13,6 +13,9 @@ object AutoMultiJvm extends AutoPlugin {
       (test in MultiJvm).value
     },
     multiNodeHosts in MultiJvm := multiNodeHostNames,
+    // tests run on demand are enabled by csw.* system properties, e.g. -Dcsw.location.load-test=true, which are passed
+    // on to the JVMs of the nodes
+    jvmOptions in MultiJvm ++= sys.props.collect { case (key, value) if key.startsWith("csw.") => s"-D$key=$value" }.toSeq,
     assemblyMergeStrategy in assembly in MultiJvm := {
       case "application.conf" => MergeStrategy.concat
       case x =>
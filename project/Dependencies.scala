@@ -71,6 +71,11 @@ object Dependencies {
     Libs.`scalatest` % Test
   )
 
+  val CswLogDecoder = Seq(
+    Libs.`scopt`,
+    Libs.`scalatest` % Test
+  )
+
   val CswConfigClientCli = Seq(
     Akka.`akka-actor`,
     Libs.`scopt`,